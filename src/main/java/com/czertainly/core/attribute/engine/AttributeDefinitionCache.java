@@ -0,0 +1,177 @@
+package com.czertainly.core.attribute.engine;
+
+import com.czertainly.api.model.common.attribute.common.AttributeType;
+import com.czertainly.api.model.core.auth.Resource;
+import com.czertainly.core.dao.entity.AttributeDefinition;
+import com.czertainly.core.util.VersionedTtlCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.function.Supplier;
+
+/**
+ * Registry of attribute definitions looked up by connector, type and name, and of custom attribute definitions associated with resources.
+ * <p>
+ * Definitions change rarely, so they are cached instead of being loaded on every issue, renew, discovery and validation request.
+ * Writes invalidate the affected definitions of the connector, or all custom attribute definitions, immediately and once more
+ * when the writing transaction completes, so definitions loaded concurrently with the write are not kept. Transaction that has written
+ * definitions loads them from the database until it completes to see its own changes. Entries expire after the configured time to live,
+ * which bounds how long other instances of the cluster can use definitions changed by this one.
+ * <p>
+ * Cached definitions are detached copies shared by all callers and must not be modified.
+ */
+@Component
+public class AttributeDefinitionCache {
+
+    private final VersionedTtlCache<DefinitionKey, Optional<AttributeDefinition>> connectorDefinitions;
+    private final VersionedTtlCache<Resource, List<AttributeDefinition>> resourceCustomDefinitions;
+
+    public AttributeDefinitionCache(@Value("${attributes.definition-cache.ttl:30s}") Duration ttl) {
+        this.connectorDefinitions = new VersionedTtlCache<>("Attribute definitions", ttl);
+        this.resourceCustomDefinitions = new VersionedTtlCache<>("Custom attribute definitions", ttl);
+    }
+
+    /**
+     * Gets definition of attribute of connector, loading it if not cached
+     *
+     * @param connectorUuid UUID of connector, null for definitions not belonging to connector
+     * @param type          Type of attribute
+     * @param name          Name of attribute
+     * @param loader        Loads detached copy of the definition
+     * @return Cached definition
+     */
+    public Optional<AttributeDefinition> getConnectorDefinition(UUID connectorUuid, AttributeType type, String name, Supplier<Optional<AttributeDefinition>> loader) {
+        DefinitionKey key = new DefinitionKey(connectorUuid, type, name);
+        TransactionWrites writes = TransactionWrites.current();
+        if (writes != null && (writes.keys.contains(key) || writes.connectors.contains(key.scope()))) {
+            return loader.get();
+        }
+        return connectorDefinitions.get(key, loader::get);
+    }
+
+    /**
+     * Gets definitions of custom attributes associated with resource, loading them if not cached
+     *
+     * @param resource Resource the custom attributes are associated with
+     * @param loader   Loads detached copies of enabled and disabled definitions
+     * @return Cached definitions
+     */
+    public List<AttributeDefinition> getResourceCustomDefinitions(Resource resource, Supplier<List<AttributeDefinition>> loader) {
+        TransactionWrites writes = TransactionWrites.current();
+        if (writes != null && writes.customDefinitions) {
+            return loader.get();
+        }
+        return resourceCustomDefinitions.get(resource, () -> List.copyOf(loader.get()));
+    }
+
+    /**
+     * Invalidates definition of attribute of connector after it has been written
+     *
+     * @param connectorUuid UUID of connector, null for definitions not belonging to connector
+     * @param type          Type of attribute
+     * @param name          Name of attribute
+     */
+    public void invalidateConnectorDefinition(UUID connectorUuid, AttributeType type, String name) {
+        DefinitionKey key = new DefinitionKey(connectorUuid, type, name);
+        removeConnectorDefinition(key);
+        TransactionWrites writes = TransactionWrites.register(this);
+        if (writes != null) writes.keys.add(key);
+    }
+
+    /**
+     * Invalidates all definitions of connector after they have been written or deleted
+     *
+     * @param connectorUuid UUID of connector
+     */
+    public void invalidateConnectorDefinitions(UUID connectorUuid) {
+        UUID scope = DefinitionKey.scopeOf(connectorUuid);
+        removeConnectorDefinitions(scope);
+        TransactionWrites writes = TransactionWrites.register(this);
+        if (writes != null) writes.connectors.add(scope);
+    }
+
+    /**
+     * Invalidates definitions of custom attributes of all resources after custom attribute definitions or their associations with resources have been written
+     */
+    public void invalidateCustomDefinitions() {
+        removeCustomDefinitions();
+        TransactionWrites writes = TransactionWrites.register(this);
+        if (writes != null) writes.customDefinitions = true;
+    }
+
+    /**
+     * Invalidates all cached definitions
+     */
+    public void invalidateAll() {
+        connectorDefinitions.invalidateAll();
+        resourceCustomDefinitions.invalidateAll();
+    }
+
+    private void removeConnectorDefinition(DefinitionKey key) {
+        connectorDefinitions.remove(key);
+    }
+
+    private void removeConnectorDefinitions(UUID scope) {
+        connectorDefinitions.removeIf(key -> key.scope().equals(scope));
+    }
+
+    private void removeCustomDefinitions() {
+        resourceCustomDefinitions.clear();
+    }
+
+    private record DefinitionKey(UUID connectorUuid, AttributeType type, String name) {
+        private static final UUID NO_CONNECTOR = new UUID(0, 0);
+
+        private static UUID scopeOf(UUID connectorUuid) {
+            return connectorUuid == null ? NO_CONNECTOR : connectorUuid;
+        }
+
+        private UUID scope() {
+            return scopeOf(connectorUuid);
+        }
+    }
+
+    /**
+     * Definitions written by current transaction, invalidated again when the transaction completes
+     */
+    private static final class TransactionWrites implements TransactionSynchronization {
+
+        private final AttributeDefinitionCache cache;
+        private final Set<DefinitionKey> keys = new HashSet<>();
+        private final Set<UUID> connectors = new HashSet<>();
+        private boolean customDefinitions;
+
+        private TransactionWrites(AttributeDefinitionCache cache) {
+            this.cache = cache;
+        }
+
+        private static TransactionWrites current() {
+            return TransactionSynchronizationManager.isSynchronizationActive() ? (TransactionWrites) TransactionSynchronizationManager.getResource(TransactionWrites.class) : null;
+        }
+
+        private static TransactionWrites register(AttributeDefinitionCache cache) {
+            if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+                return null;
+            }
+            TransactionWrites writes = current();
+            if (writes == null) {
+                writes = new TransactionWrites(cache);
+                TransactionSynchronizationManager.bindResource(TransactionWrites.class, writes);
+                TransactionSynchronizationManager.registerSynchronization(writes);
+            }
+            return writes;
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(TransactionWrites.class);
+            keys.forEach(cache::removeConnectorDefinition);
+            connectors.forEach(cache::removeConnectorDefinitions);
+            if (customDefinitions) cache.removeCustomDefinitions();
+        }
+    }
+}
@@ -60,6 +60,7 @@ public class AttributeEngine {
     public static final String ATTRIBUTE_DEFINITION_FORCE_UPDATE_LABEL = "<UPDATE_NEEDED>";
     private static final Logger logger = LoggerFactory.getLogger(AttributeEngine.class);
     private static final Pattern UUID_REGEX = Pattern.compile("^[0-9a-fA-F]{8}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{12}$");
+    private static final int MAX_PREFETCHED_OBJECTS_PER_QUERY = 1000;
 
     private static final ObjectMapper ATTRIBUTES_OBJECT_MAPPER = JsonMapper.builder()
             .findAndAddModules()
@@ -72,6 +73,7 @@ public class AttributeEngine {
     private AttributeRelationRepository attributeRelationRepository;
     private AttributeContentItemRepository attributeContentItemRepository;
     private AttributeContent2ObjectRepository attributeContent2ObjectRepository;
+    private AttributeDefinitionCache attributeDefinitionCache;
 
     private AuthHelper authHelper;
 
@@ -100,6 +102,11 @@ public class AttributeEngine {
         this.attributeContent2ObjectRepository = attributeContent2ObjectRepository;
     }
 
+    @Autowired
+    public void setAttributeDefinitionCache(AttributeDefinitionCache attributeDefinitionCache) {
+        this.attributeDefinitionCache = attributeDefinitionCache;
+    }
+
     //region Search (Filtering) related methods
 
     public List<SearchFieldDataByGroupDto> getResourceSearchableFields(Resource resource, boolean settable) {
@@ -171,23 +178,23 @@ public class AttributeEngine {
 
 
     public List<CustomAttribute> getCustomAttributesByResource(Resource resource, SecurityResourceFilter securityResourceFilter) {
-        List<AttributeRelation> relations = attributeRelationRepository.findByResourceAndAttributeDefinitionTypeAndAttributeDefinitionEnabled(resource, AttributeType.CUSTOM, true);
+        List<AttributeDefinition> definitions = getResourceCustomAttributeDefinitions(resource).stream().filter(d -> Boolean.TRUE.equals(d.isEnabled())).toList();
 
         // filter definitions that are not allowed for user
         if (securityResourceFilter.areOnlySpecificObjectsAllowed()) {
-            return relations.stream()
-                .filter(r -> securityResourceFilter.getAllowedObjects().contains(r.getAttributeDefinition().getUuid()))
-                .map(AttributeEngine::getCustomAttributeWithDecryptedContentFromRelation)
+            return definitions.stream()
+                .filter(d -> securityResourceFilter.getAllowedObjects().contains(d.getUuid()))
+                .map(AttributeEngine::getCustomAttributeWithDecryptedContent)
                 .toList();
         } else {
-            return relations.stream().filter(r -> !securityResourceFilter.getForbiddenObjects().contains(r.getAttributeDefinition().getUuid())).map(AttributeEngine::getCustomAttributeWithDecryptedContentFromRelation).toList();
+            return definitions.stream().filter(d -> !securityResourceFilter.getForbiddenObjects().contains(d.getUuid())).map(AttributeEngine::getCustomAttributeWithDecryptedContent).toList();
         }
     }
 
-    private static CustomAttribute getCustomAttributeWithDecryptedContentFromRelation(AttributeRelation r) {
-        CustomAttribute attribute = new CustomAttributeV3((CustomAttributeV3) r.getAttributeDefinition().getDefinition());
-        if (attribute.getProperties().getProtectionLevel() == ProtectionLevel.ENCRYPTED && r.getAttributeDefinition().getEncryptedData() != null) {
-            List<String> encryptedDataList = r.getAttributeDefinition().getEncryptedData();
+    private static CustomAttribute getCustomAttributeWithDecryptedContent(AttributeDefinition attributeDefinition) {
+        CustomAttribute attribute = new CustomAttributeV3((CustomAttributeV3) attributeDefinition.getDefinition());
+        if (attribute.getProperties().getProtectionLevel() == ProtectionLevel.ENCRYPTED && attributeDefinition.getEncryptedData() != null) {
+            List<String> encryptedDataList = attributeDefinition.getEncryptedData();
             List<AttributeContent> content = attribute.getContent();
             List<AttributeContent> decryptedData = new ArrayList<>();
             for (int i = 0; i < content.size(); i++) {
@@ -200,22 +207,76 @@ public class AttributeEngine {
         return attribute;
     }
 
+    /**
+     * Gets definition of data attribute of connector. Definitions are cached, so copy of the definition is returned
+     * which can be modified by the caller.
+     */
     public DataAttribute getDataAttributeDefinition(UUID connectorUuid, String name) {
-        AttributeDefinition definition = attributeDefinitionRepository.findByTypeAndConnectorUuidAndName(AttributeType.DATA, connectorUuid, name).orElse(null);
+        AttributeDefinition definition = getConnectorAttributeDefinition(AttributeType.DATA, connectorUuid, name);
         if (definition != null) {
-            return (DataAttribute) definition.getDefinition();
+            return (DataAttribute) copyDefinition(definition.getDefinition());
         }
         return null;
     }
 
+    /**
+     * Gets definition of group attribute of connector. Definitions are cached, so copy of the definition is returned
+     * which can be modified by the caller.
+     */
     public BaseAttribute getGroupAttributeDefinition(UUID connectorUuid, String name) {
-        AttributeDefinition definition = attributeDefinitionRepository.findByTypeAndConnectorUuidAndName(AttributeType.GROUP, connectorUuid, name).orElse(null);
+        AttributeDefinition definition = getConnectorAttributeDefinition(AttributeType.GROUP, connectorUuid, name);
         if (definition != null) {
-            return definition.getDefinition();
+            return copyDefinition(definition.getDefinition());
         }
         return null;
     }
 
+    private static BaseAttribute copyDefinition(BaseAttribute definition) {
+        return AttributeDefinitionUtils.deserialize(AttributeDefinitionUtils.serialize(List.of(definition)), BaseAttribute.class).getFirst();
+    }
+
+    private AttributeDefinition getConnectorAttributeDefinition(AttributeType attributeType, UUID connectorUuid, String name) {
+        return attributeDefinitionCache.getConnectorDefinition(connectorUuid, attributeType, name,
+                () -> attributeDefinitionRepository.findByTypeAndConnectorUuidAndName(attributeType, connectorUuid, name).map(AttributeEngine::getDetachedDefinition)).orElse(null);
+    }
+
+    private List<AttributeDefinition> getResourceCustomAttributeDefinitions(Resource resource) {
+        return attributeDefinitionCache.getResourceCustomDefinitions(resource,
+                () -> attributeRelationRepository.findByResourceAndAttributeDefinitionType(resource, AttributeType.CUSTOM).stream().map(r -> getDetachedDefinition(r.getAttributeDefinition())).toList());
+    }
+
+    /**
+     * Copies attribute definition without its associations to be cached outside of persistence context
+     */
+    private static AttributeDefinition getDetachedDefinition(AttributeDefinition definition) {
+        AttributeDefinition detached = new AttributeDefinition();
+        detached.setUuid(definition.getUuid());
+        detached.setConnectorUuid(definition.getConnectorUuid());
+        detached.setAttributeUuid(definition.getAttributeUuid());
+        detached.setName(definition.getName());
+        detached.setType(definition.getType());
+        detached.setContentType(definition.getContentType());
+        detached.setLabel(definition.getLabel());
+        detached.setRequired(definition.isRequired());
+        detached.setReadOnly(definition.isReadOnly());
+        detached.setVersion(definition.getVersion());
+        detached.setDefinition(definition.getDefinition());
+        detached.setEnabled(definition.isEnabled());
+        detached.setGlobal(definition.getGlobal());
+        detached.setOperation(definition.getOperation());
+        detached.setProtectionLevel(definition.getProtectionLevel());
+        detached.setEncryptedData(definition.getEncryptedData() == null ? null : List.copyOf(definition.getEncryptedData()));
+        return detached;
+    }
+
+    private void invalidateAttributeDefinitionCache(AttributeDefinition definition) {
+        if (definition.getType() == AttributeType.CUSTOM) {
+            attributeDefinitionCache.invalidateCustomDefinitions();
+        } else {
+            attributeDefinitionCache.invalidateConnectorDefinition(definition.getConnectorUuid(), definition.getType(), definition.getName());
+        }
+    }
+
     public List<MetadataAttribute> getMetadataAttributesDefinitionContent(ObjectAttributeContentInfo contentInfo) {
         // TODO: use also operation?
         List<ObjectAttributeDefinitionContent> objectDefinitionContents = attributeContent2ObjectRepository.getObjectAttributeDefinitionContent(AttributeType.META, contentInfo.connectorUuid(), null, contentInfo.objectType(), contentInfo.objectUuid(), contentInfo.sourceObjectType(), contentInfo.sourceObjectUuid());
@@ -250,7 +311,27 @@ public class AttributeEngine {
     // TODO: make it generic to be used also for DATA attributes and update DTOs accordingly
     public List<MetadataResponseDto> getMappedMetadataContent(ObjectAttributeContentInfo contentInfo) {
         List<ObjectAttributeContentDetail> objectMetadataContents = attributeContent2ObjectRepository.getObjectAttributeContentDetail(AttributeType.META, contentInfo.connectorUuid(), null, contentInfo.objectType(), contentInfo.objectUuid(), contentInfo.sourceObjectType(), contentInfo.sourceObjectUuid());
+        return getMappedMetadataContent(objectMetadataContents);
+    }
+
+    /**
+     * Maps metadata of the object from the content loaded by {@link #loadObjectsAttributesContent(Resource, Collection, AttributeType...)}
+     *
+     * @param objectsContent Loaded content of the objects
+     * @param contentInfo    Object and optionally connector and source object to filter the metadata by
+     * @return Metadata of the object grouped by connector and source object type
+     */
+    public List<MetadataResponseDto> getMappedMetadataContent(ObjectsAttributesContent objectsContent, ObjectAttributeContentInfo contentInfo) {
+        List<ObjectAttributeContentDetail> objectMetadataContents = objectsContent.getContents(contentInfo.objectUuid(), AttributeType.META).stream()
+                .filter(content -> contentInfo.connectorUuid() == null || contentInfo.connectorUuid().equals(content.connectorUuid()))
+                .filter(content -> contentInfo.sourceObjectType() == null || contentInfo.sourceObjectType() == content.sourceObjectType())
+                .filter(content -> contentInfo.sourceObjectUuid() == null || contentInfo.sourceObjectUuid().equals(content.sourceObjectUuid()))
+                .map(ObjectUuidAttributeContentDetail::toObjectAttributeContentDetail)
+                .toList();
+        return getMappedMetadataContent(objectMetadataContents);
+    }
 
+    private static List<MetadataResponseDto> getMappedMetadataContent(List<ObjectAttributeContentDetail> objectMetadataContents) {
         Map<UUID, String> connectorMapping = new HashMap<>();
         Map<UUID, Map<Resource, Map<UUID, ResponseMetadata>>> mapping = new HashMap<>();
         for (ObjectAttributeContentDetail objectMetadataContent : objectMetadataContents) {
@@ -318,6 +399,7 @@ public class AttributeEngine {
             attributeRelation.setResource(resource);
             attributeRelationRepository.save(attributeRelation);
         }
+        attributeDefinitionCache.invalidateCustomDefinitions();
     }
 
     public AttributeDefinition updateCustomAttributeDefinition(CustomAttributeV3 customAttribute, List<Resource> resources) throws AttributeException {
@@ -354,6 +436,7 @@ public class AttributeEngine {
         attributeDefinition.setDefinition(customAttribute);
         attributeDefinition.setProtectionLevel(customAttribute.getProperties().getProtectionLevel());
         attributeDefinition = attributeDefinitionRepository.save(attributeDefinition);
+        attributeDefinitionCache.invalidateCustomDefinitions();
 
         // save relations
         if (resources != null) {
@@ -395,11 +478,16 @@ public class AttributeEngine {
             }
             if (newProtectionLevel != ProtectionLevel.ENCRYPTED && attributeDefinition.getProtectionLevel() == ProtectionLevel.ENCRYPTED) {
                 // if changing from ENCRYPTED to NONE, we need to decrypt existing content
+                // decrypted content items are merged with content items of the same content
                 List<AttributeContentItem> contents = attributeContentItemRepository.findByAttributeDefinitionUuid(attributeDefinition.getUuid());
                 for (AttributeContentItem contentItem : contents) {
-                    contentItem.setJson(AttributeVersionHelper.decryptContent(contentItem.getJson(), attributeDefinition.getVersion(), attributeDefinition.getContentType(), contentItem.getEncryptedData()));
-                    contentItem.setEncryptedData(null);
-                    attributeContentItemRepository.save(contentItem);
+                    if (contentItem.getEncryptedData() == null) {
+                        continue;
+                    }
+                    AttributeContent decryptedContent = AttributeVersionHelper.decryptContent(contentItem.getJson(), attributeDefinition.getVersion(), attributeDefinition.getContentType(), contentItem.getEncryptedData());
+                    UUID decryptedContentItemUuid = getOrCreateAttributeContentItems(attributeDefinition.getUuid(), List.of(decryptedContent)).getFirst();
+                    attributeContent2ObjectRepository.updateAttributeContentItemUuid(contentItem.getUuid(), decryptedContentItemUuid);
+                    attributeContentItemRepository.delete(contentItem);
                 }
             }
         }
@@ -447,6 +535,7 @@ public class AttributeEngine {
                     if (!Objects.equals(missingDefinition.getOperation(), operation)) {
                         missingDefinition.setOperation(operation);
                         attributeDefinitionRepository.save(missingDefinition);
+                        invalidateAttributeDefinitionCache(missingDefinition);
                     }
                     definitionsMapping.put(RequestAttribute.getName(), missingDefinition);
                 }
@@ -504,6 +593,7 @@ public class AttributeEngine {
         }
         attributeDefinition.setDefinition(attribute);
         attributeDefinitionRepository.save(attributeDefinition);
+        invalidateAttributeDefinitionCache(attributeDefinition);
     }
 
     private void updateDataAttributeDefinition(UUID connectorUuid, String operation, DataAttribute dataAttribute) throws AttributeException {
@@ -546,6 +636,7 @@ public class AttributeEngine {
             dataAttribute.setContent(encryptDefaultAttributeContent(dataAttribute, attributeDefinition, dataAttribute.getProperties().getProtectionLevel()));
         attributeDefinition.setDefinition(dataAttribute);
         attributeDefinitionRepository.save(attributeDefinition);
+        invalidateAttributeDefinitionCache(attributeDefinition);
     }
 
     public AttributeDefinition updateMetadataAttributeDefinition(MetadataAttribute metadataAttribute, UUID connectorUuid) throws AttributeException {
@@ -652,16 +743,49 @@ public class AttributeEngine {
     }
 
     public void registerAttributeContentItems(UUID attributeDefinitionUuid, Collection<AttributeContent> attributeContentItems) {
-        for (AttributeContent attributeContentItem : attributeContentItems) {
-            AttributeContentItem contentItemEntity = attributeContentItemRepository.findByJsonAndAttributeDefinitionUuid(attributeContentItem, attributeDefinitionUuid);
+        insertAttributeContentItems(attributeDefinitionUuid, serializeAttributeContentItems(attributeContentItems));
+    }
+
+    /**
+     * Gets UUIDs of not encrypted content items of attribute definition, content items are addressed by hash of their JSON and created if they do not exist yet
+     *
+     * @param attributeDefinitionUuid UUID of attribute definition
+     * @param attributeContentItems   Content items
+     * @return UUIDs of content items in the order of the content
+     */
+    private List<UUID> getOrCreateAttributeContentItems(UUID attributeDefinitionUuid, List<? extends AttributeContent> attributeContentItems) {
+        String[] contents = serializeAttributeContentItems(attributeContentItems);
+        insertAttributeContentItems(attributeDefinitionUuid, contents);
 
-            // check if content item for this attribute definition exists to don't create duplicate items
-            if (contentItemEntity == null) {
-                contentItemEntity = new AttributeContentItem();
-                contentItemEntity.setJson(attributeContentItem);
-                contentItemEntity.setAttributeDefinitionUuid(attributeDefinitionUuid);
-                attributeContentItemRepository.save(contentItemEntity);
+        UUID[] contentItemUuids = new UUID[contents.length];
+        for (Object[] row : attributeContentItemRepository.findUuidsByContent(attributeDefinitionUuid, contents)) {
+            contentItemUuids[((Number) row[0]).intValue()] = (UUID) row[1];
+        }
+        return Arrays.asList(contentItemUuids);
+    }
+
+    private void insertAttributeContentItems(UUID attributeDefinitionUuid, String[] contents) {
+        String[] distinctContents = Arrays.stream(contents).distinct().toArray(String[]::new);
+        if (distinctContents.length == 0) {
+            return;
+        }
+        UUID[] uuids = new UUID[distinctContents.length];
+        for (int i = 0; i < uuids.length; i++) {
+            uuids[i] = UUID.randomUUID();
+        }
+        attributeContentItemRepository.insertWithContentConflictResolve(attributeDefinitionUuid, uuids, distinctContents);
+    }
+
+    private static String[] serializeAttributeContentItems(Collection<? extends AttributeContent> attributeContentItems) {
+        try {
+            String[] contents = new String[attributeContentItems.size()];
+            int i = 0;
+            for (AttributeContent attributeContentItem : attributeContentItems) {
+                contents[i++] = ATTRIBUTES_OBJECT_MAPPER.writeValueAsString(attributeContentItem);
             }
+            return contents;
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unable to serialize attribute content: " + e.getMessage(), e);
         }
     }
 
@@ -724,19 +848,110 @@ public class AttributeEngine {
     }
 
     private List<ResponseAttribute> getObjectCustomAttributesContent(Resource objectType, UUID objectUuid, SecurityResourceFilter securityResourceFilter) {
-        List<UUID> allowedAttributes = null;
-        List<UUID> forbiddenAttributes = null;
-        if (securityResourceFilter != null) {
-            if (securityResourceFilter.areOnlySpecificObjectsAllowed()) {
-                allowedAttributes = securityResourceFilter.getAllowedObjects();
-                if (allowedAttributes.isEmpty()) allowedAttributes.add(null);
-            } else if (!securityResourceFilter.getForbiddenObjects().isEmpty()) {
-                forbiddenAttributes = securityResourceFilter.getForbiddenObjects();
+        CustomAttributesDefinitionFilter definitionFilter = CustomAttributesDefinitionFilter.of(securityResourceFilter);
+        List<ObjectAttributeContent> objectContents = attributeContent2ObjectRepository.getObjectCustomAttributesContent(AttributeType.CUSTOM, objectType, objectUuid, definitionFilter.allowed(), definitionFilter.forbidden());
+        return getResponseAttributes(objectContents);
+    }
+
+    /**
+     * Loads content of custom attributes and metadata with given names for a set of objects at once. Objects are queried in chunks,
+     * so the number of queries does not depend on the number of objects and attributes.
+     *
+     * @param objectType             Type of the objects
+     * @param objectUuids            UUIDs of the objects
+     * @param customAttributeNames   Names of custom attributes to load, content of custom attributes not accessible by user is not loaded
+     * @param metadataAttributeNames Names of metadata to load
+     * @return Immutable lookup of the loaded content
+     */
+    public ObjectAttributeContentLookup prefetchObjectAttributesContent(Resource objectType, Collection<UUID> objectUuids, Collection<String> customAttributeNames, Collection<String> metadataAttributeNames) {
+        logger.debug("Prefetching content of {} custom attributes and {} metadata for {} objects of {}", customAttributeNames.size(), metadataAttributeNames.size(), objectUuids.size(), objectType.getLabel());
+        List<UUID> uuids = new ArrayList<>(new LinkedHashSet<>(objectUuids));
+        List<String> customNames = List.copyOf(new HashSet<>(customAttributeNames));
+        List<String> metadataNames = List.copyOf(new HashSet<>(metadataAttributeNames));
+        CustomAttributesDefinitionFilter definitionFilter = customNames.isEmpty() ? null : CustomAttributesDefinitionFilter.of(loadCustomAttributesSecurityResourceFilter());
+
+        Map<UUID, Map<String, ResponseAttribute>> customAttributes = new HashMap<>();
+        Map<UUID, Map<String, List<AttributeContent>>> metadataContents = new HashMap<>();
+        for (int i = 0; i < uuids.size(); i += MAX_PREFETCHED_OBJECTS_PER_QUERY) {
+            List<UUID> chunk = uuids.subList(i, Math.min(i + MAX_PREFETCHED_OBJECTS_PER_QUERY, uuids.size()));
+            if (definitionFilter != null) {
+                Map<UUID, List<ObjectAttributeContent>> objectsContents = new HashMap<>();
+                for (ObjectUuidAttributeContent content : attributeContent2ObjectRepository.getObjectsCustomAttributesContent(AttributeType.CUSTOM, objectType, chunk, customNames, definitionFilter.allowed(), definitionFilter.forbidden())) {
+                    objectsContents.computeIfAbsent(content.objectUuid(), k -> new ArrayList<>()).add(content.toObjectAttributeContent());
+                }
+                objectsContents.forEach((objectUuid, contents) -> {
+                    Map<String, ResponseAttribute> objectAttributes = new HashMap<>();
+                    getResponseAttributes(contents).forEach(responseAttribute -> objectAttributes.putIfAbsent(responseAttribute.getName(), responseAttribute));
+                    customAttributes.put(objectUuid, Map.copyOf(objectAttributes));
+                });
+            }
+            if (!metadataNames.isEmpty()) {
+                Map<UUID, Map<String, List<AttributeContent>>> objectsContents = new HashMap<>();
+                for (ObjectUuidAttributeContent content : attributeContent2ObjectRepository.getObjectsAttributesContentByNames(AttributeType.META, objectType, chunk, metadataNames)) {
+                    if (content.contentItem() == null) continue;
+                    objectsContents.computeIfAbsent(content.objectUuid(), k -> new HashMap<>())
+                            .computeIfAbsent(ObjectAttributeContentLookup.getMetadataIdentifier(content.name(), content.contentType()), k -> new ArrayList<>())
+                            .add(content.contentItem());
+                }
+                objectsContents.forEach((objectUuid, contents) -> {
+                    contents.replaceAll((identifier, items) -> List.copyOf(items));
+                    metadataContents.put(objectUuid, Map.copyOf(contents));
+                });
+            }
+        }
+
+        return new ObjectAttributeContentLookup(new HashSet<>(uuids), customAttributes, metadataContents);
+    }
+
+    /**
+     * Loads content of attributes of given types for a set of objects at once. Objects are queried in chunks and the content is grouped
+     * by objects in memory, so detail and list views can be built with a constant number of queries instead of query per object and attribute type.
+     * Content of custom attributes that are disabled or not accessible by user is not loaded.
+     *
+     * @param objectType     Type of the objects
+     * @param objectUuids    UUIDs of the objects
+     * @param attributeTypes Types of attributes to load, all types if not specified
+     * @return Loaded content to be mapped by {@link #getObjectCustomAttributesContent(ObjectsAttributesContent, UUID)},
+     * {@link #getObjectDataAttributesContent(ObjectsAttributesContent, UUID, String, String, UUID)} and {@link #getMappedMetadataContent(ObjectsAttributesContent, ObjectAttributeContentInfo)}
+     */
+    public ObjectsAttributesContent loadObjectsAttributesContent(Resource objectType, Collection<UUID> objectUuids, AttributeType... attributeTypes) {
+        List<AttributeType> types = attributeTypes.length == 0 ? List.of(AttributeType.values()) : List.of(attributeTypes);
+        logger.debug("Loading content of {} attributes for {} objects of {}", types, objectUuids.size(), objectType.getLabel());
+        List<UUID> uuids = new ArrayList<>(new LinkedHashSet<>(objectUuids));
+        CustomAttributesDefinitionFilter definitionFilter = types.contains(AttributeType.CUSTOM) ? CustomAttributesDefinitionFilter.of(loadCustomAttributesSecurityResourceFilter()) : null;
+
+        Map<UUID, List<ObjectUuidAttributeContentDetail>> contents = new HashMap<>();
+        for (int i = 0; i < uuids.size(); i += MAX_PREFETCHED_OBJECTS_PER_QUERY) {
+            List<UUID> chunk = uuids.subList(i, Math.min(i + MAX_PREFETCHED_OBJECTS_PER_QUERY, uuids.size()));
+            for (ObjectUuidAttributeContentDetail content : attributeContent2ObjectRepository.getObjectsAttributesContentDetail(types, objectType, chunk)) {
+                if (content.type() == AttributeType.CUSTOM && (!content.enabled() || !definitionFilter.isAllowed(content.definitionUuid()))) {
+                    continue;
+                }
+                contents.computeIfAbsent(content.objectUuid(), k -> new ArrayList<>()).add(content);
             }
         }
+        contents.replaceAll((objectUuid, objectContents) -> List.copyOf(objectContents));
 
-        List<ObjectAttributeContent> objectContents = attributeContent2ObjectRepository.getObjectCustomAttributesContent(AttributeType.CUSTOM, objectType, objectUuid, allowedAttributes, forbiddenAttributes);
-        return getResponseAttributes(objectContents);
+        return new ObjectsAttributesContent(objectType, EnumSet.copyOf(types), contents);
+    }
+
+    /**
+     * Maps custom attributes of the object from the content loaded by {@link #loadObjectsAttributesContent(Resource, Collection, AttributeType...)}
+     */
+    public List<ResponseAttribute> getObjectCustomAttributesContent(ObjectsAttributesContent objectsContent, UUID objectUuid) {
+        return getResponseAttributes(objectsContent.getContents(objectUuid, AttributeType.CUSTOM).stream().map(ObjectUuidAttributeContentDetail::toObjectAttributeContent).toList());
+    }
+
+    /**
+     * Maps data attributes of the object from the content loaded by {@link #loadObjectsAttributesContent(Resource, Collection, AttributeType...)}.
+     * Content is filtered the same way as by {@link #getObjectDataAttributesContent(UUID, String, String, Resource, UUID)}.
+     */
+    public List<ResponseAttribute> getObjectDataAttributesContent(ObjectsAttributesContent objectsContent, UUID connectorUuid, String operation, String purpose, UUID objectUuid) {
+        return getResponseAttributes(objectsContent.getContents(objectUuid, AttributeType.DATA).stream()
+                .filter(content -> Objects.equals(connectorUuid, content.connectorUuid()) && Objects.equals(operation, content.operation()))
+                .filter(content -> operation == null || Objects.equals(purpose, content.purpose()))
+                .map(ObjectUuidAttributeContentDetail::toObjectAttributeContent)
+                .toList());
     }
 
     public List<ResponseAttribute> getObjectDataAttributesContent(UUID connectorUuid, String operation, Resource objectType, UUID objectUuid) {
@@ -1094,20 +1309,20 @@ public class AttributeEngine {
             attributes = new ArrayList<>();
         }
 
-        List<AttributeRelation> relations = attributeRelationRepository.findByResourceAndAttributeDefinitionType(resource, AttributeType.CUSTOM);
+        List<AttributeDefinition> definitions = getResourceCustomAttributeDefinitions(resource);
 
         // filter definitions that are not allowed for user
         Map<String, AttributeDefinition> definitionsMapping;
         if (securityResourceFilter != null) {
             if (securityResourceFilter.areOnlySpecificObjectsAllowed()) {
-                definitionsMapping = relations.stream().filter(r -> securityResourceFilter.getAllowedObjects().contains(r.getAttributeDefinition().getUuid())).collect(Collectors.toMap(r -> r.getAttributeDefinition().getName(), AttributeRelation::getAttributeDefinition));
+                definitionsMapping = definitions.stream().filter(d -> securityResourceFilter.getAllowedObjects().contains(d.getUuid())).collect(Collectors.toMap(AttributeDefinition::getName, d -> d));
                 attributes = attributes.stream().filter(a -> securityResourceFilter.getAllowedObjects().contains(a.getUuid())).toList();
             } else {
-                definitionsMapping = relations.stream().filter(r -> !securityResourceFilter.getForbiddenObjects().contains(r.getAttributeDefinition().getUuid())).collect(Collectors.toMap(r -> r.getAttributeDefinition().getName(), AttributeRelation::getAttributeDefinition));
+                definitionsMapping = definitions.stream().filter(d -> !securityResourceFilter.getForbiddenObjects().contains(d.getUuid())).collect(Collectors.toMap(AttributeDefinition::getName, d -> d));
                 attributes = attributes.stream().filter(a -> !securityResourceFilter.getForbiddenObjects().contains(a.getUuid())).toList();
             }
         } else {
-            definitionsMapping = relations.stream().collect(Collectors.toMap(r -> r.getAttributeDefinition().getName(), AttributeRelation::getAttributeDefinition));
+            definitionsMapping = definitions.stream().collect(Collectors.toMap(AttributeDefinition::getName, d -> d));
         }
 
         // no attributes to validate
@@ -1149,18 +1364,21 @@ public class AttributeEngine {
         // WARNING: connector uuid is removed from all content disregarding attribute type since connector data attributes content was already removed in step before and custom attributes are not linked to connector so it is safe
         attributeDefinitionRepository.removeConnectorByTypeAndConnectorUuid(AttributeType.META, connectorUuid);
         attributeContent2ObjectRepository.removeConnectorByConnectorUuid(connectorUuid);
+        attributeDefinitionCache.invalidateConnectorDefinitions(connectorUuid);
     }
 
     public void deleteAttributeDefinition(AttributeType attributeType, UUID definitionUuid) throws NotFoundException {
         AttributeDefinition definition = attributeDefinitionRepository.findByUuidAndType(definitionUuid, attributeType).orElseThrow(() -> new NotFoundException(AttributeDefinition.class, definitionUuid.toString()));
         deleteAllAttributeDefinitionContent(definitionUuid);
         attributeDefinitionRepository.delete(definition);
+        invalidateAttributeDefinitionCache(definition);
     }
 
     public void deleteAttributeDefinition(AttributeType attributeType, UUID connectorUuid, UUID attributeUuid, String name) throws NotFoundException {
         AttributeDefinition definition = attributeDefinitionRepository.findByTypeAndConnectorUuidAndAttributeUuidAndName(attributeType, connectorUuid, attributeUuid, name).orElseThrow(() -> new NotFoundException(AttributeDefinition.class, attributeUuid));
         deleteAllAttributeDefinitionContent(definition.getUuid());
         attributeDefinitionRepository.delete(definition);
+        invalidateAttributeDefinitionCache(definition);
     }
 
     public void deleteAllObjectAttributeContent(Resource objectType, UUID objectUuid) {
@@ -1204,33 +1422,32 @@ public class AttributeEngine {
 
         validateAttributeContent(attributeDefinition, attributeContentItems);
 
-        for (int i = 0; i < attributeContentItems.size(); i++) {
-            AttributeContent attributeContentItem = attributeContentItems.get(i);
-            AttributeContentItem contentItemEntity = null;
-            String encryptedData = null;
-            // If attribute is encrypted, set data to null before searching for existing content item, since json for encrypted attribute content will always be the same
-            if (attributeDefinition.getProtectionLevel() == ProtectionLevel.ENCRYPTED) {
-                encryptedData = encryptAttributeContent(attributeDefinition, attributeContentItem);
-                attributeContentItem = AttributeVersionHelper.createEncryptedContent(attributeContentItem.getReference(), attributeDefinition.getContentType(), attributeDefinition.getVersion());
-            } else {
-                // For non-encrypted attributes, try to find existing content item, since json will be different for different content
-                contentItemEntity = attributeContentItemRepository.findByJsonAndAttributeDefinitionUuid(attributeContentItem, attributeDefinition.getUuid());
+        List<UUID> contentItemUuids;
+        Set<UUID> assignedContentItemUuids;
+        if (attributeDefinition.getProtectionLevel() == ProtectionLevel.ENCRYPTED) {
+            // json of encrypted attribute content does not contain data, so each content item is created separately with its encrypted data
+            contentItemUuids = new ArrayList<>();
+            for (AttributeContent attributeContentItem : attributeContentItems) {
+                AttributeContentItem contentItemEntity = new AttributeContentItem();
+                contentItemEntity.setEncryptedData(encryptAttributeContent(attributeDefinition, attributeContentItem));
+                contentItemEntity.setJson(AttributeVersionHelper.createEncryptedContent(attributeContentItem.getReference(), attributeDefinition.getContentType(), attributeDefinition.getVersion()));
+                contentItemEntity.setAttributeDefinitionUuid(attributeDefinition.getUuid());
+                contentItemUuids.add(attributeContentItemRepository.save(contentItemEntity).getUuid());
             }
+            assignedContentItemUuids = new HashSet<>();
+        } else {
+            // content items of not encrypted attributes are shared by all objects with the same content
+            contentItemUuids = getOrCreateAttributeContentItems(attributeDefinition.getUuid(), attributeContentItems);
+            // check if content items are not already assigned to same object
+            assignedContentItemUuids = attributeContent2ObjectRepository.getByConnectorUuidAndAttributeContentItemUuidInAndObjectTypeAndObjectUuidAndSourceObjectTypeAndSourceObjectUuid(objectAttributeContentInfo.connectorUuid(), contentItemUuids, objectAttributeContentInfo.objectType(), objectAttributeContentInfo.objectUuid(), objectAttributeContentInfo.sourceObjectType(), objectAttributeContentInfo.sourceObjectUuid())
+                    .stream().map(AttributeContent2Object::getAttributeContentItemUuid).collect(Collectors.toCollection(HashSet::new));
+        }
 
-            // check if content item for this attribute definition exists to don't create duplicate items
-            if (contentItemEntity != null) {
-                // check if that content item is not already assigned to same object for meta attribute
-                // TODO: do we need to allow duplicate content items for one attribute definition? Maybe if attribute is list or do this check just for META attributes?
-                var aco = attributeContent2ObjectRepository.getByConnectorUuidAndAttributeContentItemUuidAndObjectTypeAndObjectUuidAndSourceObjectTypeAndSourceObjectUuid(objectAttributeContentInfo.connectorUuid(), contentItemEntity.getUuid(), objectAttributeContentInfo.objectType(), objectAttributeContentInfo.objectUuid(), objectAttributeContentInfo.sourceObjectType(), objectAttributeContentInfo.sourceObjectUuid());
-                if (!aco.isEmpty()) {
-                    continue;
-                }
-            } else {
-                contentItemEntity = new AttributeContentItem();
-                contentItemEntity.setJson(attributeContentItem);
-                contentItemEntity.setAttributeDefinitionUuid(attributeDefinition.getUuid());
-                contentItemEntity.setEncryptedData(encryptedData);
-                contentItemEntity = attributeContentItemRepository.save(contentItemEntity);
+        List<AttributeContent2Object> objectContentItems = new ArrayList<>();
+        for (int i = 0; i < contentItemUuids.size(); i++) {
+            UUID contentItemUuid = contentItemUuids.get(i);
+            if (!assignedContentItemUuids.add(contentItemUuid)) {
+                continue;
             }
 
             final AttributeContent2Object objectContentItem = new AttributeContent2Object();
@@ -1242,22 +1459,23 @@ public class AttributeEngine {
             objectContentItem.setSourceObjectName(objectAttributeContentInfo.sourceObjectName());
             objectContentItem.setPurpose(objectAttributeContentInfo.purpose());
             objectContentItem.setOrder(i);
-            objectContentItem.setAttributeContentItem(contentItemEntity);
-            attributeContent2ObjectRepository.save(objectContentItem);
+            objectContentItem.setAttributeContentItemUuid(contentItemUuid);
+            objectContentItems.add(objectContentItem);
         }
+        attributeContent2ObjectRepository.saveAll(objectContentItems);
     }
 
     public static String encryptAttributeContent(AttributeDefinition attributeDefinition, AttributeContent attributeContentItem) throws AttributeException {
         String encryptedData;
         if ((AttributeContentData.class.isAssignableFrom(attributeDefinition.getContentType().getContentDataClass()))) {
             try {
-                encryptedData = SecretsUtil.encryptAndEncodeSecretString(ATTRIBUTES_OBJECT_MAPPER.writeValueAsString(attributeContentItem.getData()), SecretEncodingVersion.V1);
+                encryptedData = SecretsUtil.encryptAndEncodeSecretString(ATTRIBUTES_OBJECT_MAPPER.writeValueAsString(attributeContentItem.getData()), SecretEncodingVersion.LATEST);
             } catch (JsonProcessingException e) {
                 throw new AttributeException("Error encrypting attribute content data: " + e.getMessage(), Objects.toString(attributeDefinition.getUuid(), null), attributeDefinition.getName(), attributeDefinition.getType(), attributeDefinition.getConnectorUuid() == null ? null : attributeDefinition.getConnectorUuid().toString());
             }
 
         } else {
-            encryptedData = SecretsUtil.encryptAndEncodeSecretString(attributeContentItem.getData().toString(), SecretEncodingVersion.V1);
+            encryptedData = SecretsUtil.encryptAndEncodeSecretString(attributeContentItem.getData().toString(), SecretEncodingVersion.LATEST);
         }
         return encryptedData;
     }
@@ -1281,7 +1499,7 @@ public class AttributeEngine {
 
         // check if there are remaining required attribute definitions that are required but not set
         for (AttributeDefinition definition : definitionsMapping.values()) {
-            if (Boolean.TRUE.equals(definition.isRequired())) {
+            if (Boolean.TRUE.equals(definition.getRequired())) {
                 errors.add(ValidationError.create("Content for required {} attribute {} is not provided.", definition.getType().getLabel(), definition.getName()));
             }
         }
@@ -1430,6 +1648,26 @@ public class AttributeEngine {
         logger.debug("Deleted {} attribute content items for {} with UUID {} for attribute {}", deletedCount, objectType.getLabel(), objectUuid, definitionUuid);
     }
 
+    private record CustomAttributesDefinitionFilter(List<UUID> allowed, List<UUID> forbidden) {
+        private static CustomAttributesDefinitionFilter of(SecurityResourceFilter securityResourceFilter) {
+            List<UUID> allowedAttributes = null;
+            List<UUID> forbiddenAttributes = null;
+            if (securityResourceFilter != null) {
+                if (securityResourceFilter.areOnlySpecificObjectsAllowed()) {
+                    allowedAttributes = securityResourceFilter.getAllowedObjects();
+                    if (allowedAttributes.isEmpty()) allowedAttributes.add(null);
+                } else if (!securityResourceFilter.getForbiddenObjects().isEmpty()) {
+                    forbiddenAttributes = securityResourceFilter.getForbiddenObjects();
+                }
+            }
+            return new CustomAttributesDefinitionFilter(allowedAttributes, forbiddenAttributes);
+        }
+
+        private boolean isAllowed(UUID definitionUuid) {
+            return (allowed == null || allowed.contains(definitionUuid)) && (forbidden == null || !forbidden.contains(definitionUuid));
+        }
+    }
+
     private SecurityResourceFilter loadCustomAttributesSecurityResourceFilter() {
         // if user is anonymous or protocol user, allow all custom attribute content for sake of system processes and protocol operations
         boolean loadAllContent;
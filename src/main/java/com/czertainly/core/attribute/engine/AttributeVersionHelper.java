@@ -15,7 +15,6 @@ import com.czertainly.api.model.common.attribute.v3.DataAttributeV3;
 import com.czertainly.api.model.common.attribute.v3.GroupAttributeV3;
 import com.czertainly.api.model.common.attribute.v3.content.BaseAttributeContentV3;
 import com.czertainly.core.attribute.engine.records.ObjectAttributeContent;
-import com.czertainly.core.util.SecretEncodingVersion;
 import com.czertainly.core.util.SecretsUtil;
 import com.czertainly.core.dao.entity.AttributeDefinition;
 import com.fasterxml.jackson.core.JsonProcessingException;
@@ -95,7 +94,7 @@ public class AttributeVersionHelper {
     public static AttributeContent decryptContent(AttributeContent content, int version, AttributeContentType contentType, String encryptedData) {
         Serializable decryptedDataObject;
         try {
-            decryptedDataObject = (Serializable) getDataFromDecryptedString(SecretsUtil.decodeAndDecryptSecretString(encryptedData, SecretEncodingVersion.V1), contentType);
+            decryptedDataObject = (Serializable) getDataFromDecryptedString(SecretsUtil.decodeAndDecryptSecretString(encryptedData), contentType);
         } catch (JsonProcessingException e) {
             return content;
         }
@@ -0,0 +1,46 @@
+package com.czertainly.core.attribute.engine.records;
+
+import com.czertainly.api.model.client.attribute.ResponseAttribute;
+import com.czertainly.api.model.common.attribute.common.AttributeContent;
+import com.czertainly.api.model.common.attribute.common.content.AttributeContentType;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Attribute content of a set of objects loaded at once, used to evaluate attribute conditions without querying per object.
+ *
+ * @param objectUuids        UUIDs of the objects the content has been loaded for
+ * @param customAttributes   Custom attributes of the objects mapped by object UUID and attribute name
+ * @param metadataContents   Content of metadata of the objects mapped by object UUID and 'name|contentType' identifier
+ */
+public record ObjectAttributeContentLookup(
+    Set<UUID> objectUuids,
+    Map<UUID, Map<String, ResponseAttribute>> customAttributes,
+    Map<UUID, Map<String, List<AttributeContent>>> metadataContents
+)
+{
+    public ObjectAttributeContentLookup {
+        objectUuids = Set.copyOf(objectUuids);
+        customAttributes = Map.copyOf(customAttributes);
+        metadataContents = Map.copyOf(metadataContents);
+    }
+
+    public boolean contains(UUID objectUuid) {
+        return objectUuids.contains(objectUuid);
+    }
+
+    public ResponseAttribute getCustomAttribute(UUID objectUuid, String name) {
+        return customAttributes.getOrDefault(objectUuid, Map.of()).get(name);
+    }
+
+    public List<AttributeContent> getMetadataContent(UUID objectUuid, String name, AttributeContentType contentType) {
+        return metadataContents.getOrDefault(objectUuid, Map.of()).getOrDefault(getMetadataIdentifier(name, contentType), List.of());
+    }
+
+    public static String getMetadataIdentifier(String name, AttributeContentType contentType) {
+        return name + "|" + contentType.name();
+    }
+}
@@ -0,0 +1,24 @@
+package com.czertainly.core.attribute.engine.records;
+
+import com.czertainly.api.model.common.attribute.common.AttributeContent;
+import com.czertainly.api.model.common.attribute.common.AttributeType;
+import com.czertainly.api.model.common.attribute.common.content.AttributeContentType;
+
+import java.util.UUID;
+
+public record ObjectUuidAttributeContent(
+    UUID objectUuid,
+    UUID uuid,
+    String name,
+    String label,
+    AttributeType type,
+    AttributeContentType contentType,
+    AttributeContent contentItem,
+    int version,
+    String encryptedContent
+)
+{
+    public ObjectAttributeContent toObjectAttributeContent() {
+        return new ObjectAttributeContent(uuid, name, label, type, contentType, contentItem, version, encryptedContent);
+    }
+}
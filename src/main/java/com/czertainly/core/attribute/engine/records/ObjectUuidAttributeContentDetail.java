@@ -0,0 +1,38 @@
+package com.czertainly.core.attribute.engine.records;
+
+import com.czertainly.api.model.common.attribute.common.AttributeContent;
+import com.czertainly.api.model.common.attribute.common.AttributeType;
+import com.czertainly.api.model.common.attribute.common.content.AttributeContentType;
+import com.czertainly.api.model.core.auth.Resource;
+
+import java.util.UUID;
+
+public record ObjectUuidAttributeContentDetail(
+    UUID objectUuid,
+    UUID definitionUuid,
+    UUID uuid,
+    String name,
+    String label,
+    AttributeType type,
+    AttributeContentType contentType,
+    AttributeContent contentItem,
+    int version,
+    String encryptedContent,
+    boolean enabled,
+    String operation,
+    String purpose,
+    UUID connectorUuid,
+    String connectorName,
+    Resource sourceObjectType,
+    UUID sourceObjectUuid,
+    String sourceObjectName
+)
+{
+    public ObjectAttributeContent toObjectAttributeContent() {
+        return new ObjectAttributeContent(uuid, name, label, type, contentType, contentItem, version, encryptedContent);
+    }
+
+    public ObjectAttributeContentDetail toObjectAttributeContentDetail() {
+        return new ObjectAttributeContentDetail(uuid, name, label, type, contentType, contentItem, connectorUuid, connectorName, sourceObjectType, sourceObjectUuid, sourceObjectName, version);
+    }
+}
@@ -0,0 +1,36 @@
+package com.czertainly.core.attribute.engine.records;
+
+import com.czertainly.api.model.common.attribute.common.AttributeType;
+import com.czertainly.api.model.core.auth.Resource;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Attribute content of all requested attribute types of a set of objects loaded at once, used to build detail and list views
+ * with a constant number of queries. Content is grouped by object UUID in the order of attribute definitions and content items.
+ *
+ * @param objectType     Type of the objects
+ * @param attributeTypes Attribute types the content has been loaded for
+ * @param contents       Content of the objects mapped by object UUID
+ */
+public record ObjectsAttributesContent(
+    Resource objectType,
+    Set<AttributeType> attributeTypes,
+    Map<UUID, List<ObjectUuidAttributeContentDetail>> contents
+)
+{
+    public ObjectsAttributesContent {
+        attributeTypes = Set.copyOf(attributeTypes);
+        contents = Map.copyOf(contents);
+    }
+
+    public List<ObjectUuidAttributeContentDetail> getContents(UUID objectUuid, AttributeType attributeType) {
+        if (!attributeTypes.contains(attributeType)) {
+            throw new IllegalStateException("Content of %s attributes has not been loaded".formatted(attributeType.getLabel()));
+        }
+        return contents.getOrDefault(objectUuid, List.of()).stream().filter(content -> content.type() == attributeType).toList();
+    }
+}
@@ -4,7 +4,6 @@ import com.czertainly.api.model.core.settings.authentication.AuthenticationSetti
 import com.czertainly.api.model.core.settings.authentication.OAuth2ProviderSettingsDto;
 import com.czertainly.api.model.core.settings.SettingsSection;
 import com.czertainly.core.settings.SettingsCache;
-import com.czertainly.core.util.SecretEncodingVersion;
 import com.czertainly.core.util.SecretsUtil;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.oauth2.client.registration.ClientRegistration;
@@ -45,7 +44,7 @@ public class CzertainlyClientRegistrationRepository implements ClientRegistratio
         String protocol = sslEnabled ? "https" : "http";
         return ClientRegistration.withRegistrationId(registrationId)
                 .clientId(clientSettings.getClientId())
-                .clientSecret(SecretsUtil.decodeAndDecryptSecretString(clientSettings.getClientSecret(), SecretEncodingVersion.V1))
+                .clientSecret(SecretsUtil.decodeAndDecryptSecretString(clientSettings.getClientSecret()))
                 .authorizationGrantType(new AuthorizationGrantType("authorization_code"))
                 .redirectUri("{baseUrl}/login/oauth2/code/{registrationId}")
                 .scope(clientSettings.getScope())
@@ -34,13 +34,16 @@ import org.springframework.data.domain.AuditorAware;
 import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
 import org.springframework.web.reactive.function.client.WebClient;
 
+import com.czertainly.core.service.DiscoveryConcurrencyProperties;
 import com.czertainly.core.service.DiscoveryProperties;
+import com.czertainly.core.service.acme.AcmeChallengeValidationProperties;
+import com.czertainly.core.service.acme.AcmeNonceProperties;
 
 import javax.net.ssl.TrustManager;
 
 @Configuration
 @EnableJpaAuditing(auditorAwareRef = "auditorAware")
-@EnableConfigurationProperties(DiscoveryProperties.class)
+@EnableConfigurationProperties({DiscoveryProperties.class, DiscoveryConcurrencyProperties.class, AcmeNonceProperties.class, AcmeChallengeValidationProperties.class})
 @PropertySource(value = ApplicationConfig.EXTERNAL_PROPERTY_SOURCE, ignoreResourceNotFound = true)
 @ComponentScan(basePackages = "com.czertainly.core")
 public class ApplicationConfig {
@@ -55,10 +55,11 @@ public class AcmeAccount extends UniquelyIdentifiedAndAudited implements Seriali
     @ToString.Exclude
     private Set<AcmeOrder> orders = new HashSet<>();
 
-    @Column(name = "valid_orders")
+    // order counters are incremented atomically by AcmeAccountRepository, so they are not written when the account is updated
+    @Column(name = "valid_orders", updatable = false)
     private int validOrders;
 
-    @Column(name = "failed_orders")
+    @Column(name = "failed_orders", updatable = false)
     private int failedOrders;
 
     @OneToOne(fetch = FetchType.LAZY)
@@ -150,14 +150,14 @@ public class CmpProfile extends UniquelyIdentifiedAndAudited implements Serializ
 
     public String getSharedSecret() {
         if (sharedSecret != null) {
-            return SecretsUtil.decodeAndDecryptSecretString(sharedSecret, SecretEncodingVersion.V1);
+            return SecretsUtil.decodeAndDecryptSecretString(sharedSecret);
         }
         return null;
     }
 
     public void setSharedSecret(String sharedSecret) {
         if (sharedSecret != null) {
-            this.sharedSecret = SecretsUtil.encryptAndEncodeSecretString(sharedSecret, SecretEncodingVersion.V1);
+            this.sharedSecret = SecretsUtil.encryptAndEncodeSecretString(sharedSecret, SecretEncodingVersion.LATEST);
         } else {
             this.sharedSecret = null;
         }
@@ -5,18 +5,21 @@ import com.czertainly.api.model.core.auth.Resource;
 import com.czertainly.core.attribute.engine.records.ObjectAttributeContent;
 import com.czertainly.core.attribute.engine.records.ObjectAttributeContentDetail;
 import com.czertainly.core.attribute.engine.records.ObjectAttributeDefinitionContent;
+import com.czertainly.core.attribute.engine.records.ObjectUuidAttributeContent;
+import com.czertainly.core.attribute.engine.records.ObjectUuidAttributeContentDetail;
 import com.czertainly.core.dao.entity.AttributeContent2Object;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
 @Repository
 public interface AttributeContent2ObjectRepository extends SecurityFilterRepository<AttributeContent2Object, String> {
 
-    List<AttributeContent2Object> getByConnectorUuidAndAttributeContentItemUuidAndObjectTypeAndObjectUuidAndSourceObjectTypeAndSourceObjectUuid(UUID connectorUuid, UUID attributeContentItemUuid, Resource objectType, UUID objectUuid, Resource sourceObjectType, UUID sourceObjectUuid);
+    List<AttributeContent2Object> getByConnectorUuidAndAttributeContentItemUuidInAndObjectTypeAndObjectUuidAndSourceObjectTypeAndSourceObjectUuid(UUID connectorUuid, Collection<UUID> attributeContentItemUuids, Resource objectType, UUID objectUuid, Resource sourceObjectType, UUID sourceObjectUuid);
 
     @Query("""
             SELECT new com.czertainly.core.attribute.engine.records.ObjectAttributeContent(
@@ -31,6 +34,43 @@ public interface AttributeContent2ObjectRepository extends SecurityFilterReposit
             """)
     List<ObjectAttributeContent> getObjectCustomAttributesContent(AttributeType attributeType, Resource objectType, UUID objectUuid, List<UUID> allowedDefinitionUuids, List<UUID> forbiddenDefinitionUuids);
 
+    @Query("""
+            SELECT new com.czertainly.core.attribute.engine.records.ObjectUuidAttributeContent(
+                aco.objectUuid, ad.attributeUuid, ad.name, ad.label, ad.type, ad.contentType, aci.json, ad.version, aci.encryptedData)
+                FROM AttributeContent2Object aco
+                JOIN AttributeContentItem aci ON aci.uuid = aco.attributeContentItemUuid
+                JOIN AttributeDefinition ad ON ad.uuid = aci.attributeDefinitionUuid
+                WHERE ad.type = ?1 AND ad.enabled = true AND aco.objectType = ?2 AND aco.objectUuid IN (?3) AND ad.name IN (?4)
+                    AND (COALESCE(?5) IS NULL OR aci.attributeDefinitionUuid IN (?5))
+                    AND (COALESCE(?6) IS NULL OR aci.attributeDefinitionUuid NOT IN (?6))
+                ORDER BY aco.objectUuid, aci.attributeDefinitionUuid, aco.order
+            """)
+    List<ObjectUuidAttributeContent> getObjectsCustomAttributesContent(AttributeType attributeType, Resource objectType, List<UUID> objectUuids, List<String> attributeNames, List<UUID> allowedDefinitionUuids, List<UUID> forbiddenDefinitionUuids);
+
+    @Query("""
+            SELECT new com.czertainly.core.attribute.engine.records.ObjectUuidAttributeContent(
+                aco.objectUuid, ad.attributeUuid, ad.name, ad.label, ad.type, ad.contentType, aci.json, ad.version, aci.encryptedData)
+                FROM AttributeContent2Object aco
+                JOIN AttributeContentItem aci ON aci.uuid = aco.attributeContentItemUuid
+                JOIN AttributeDefinition ad ON ad.uuid = aci.attributeDefinitionUuid
+                WHERE ad.type = ?1 AND aco.objectType = ?2 AND aco.objectUuid IN (?3) AND ad.name IN (?4)
+                ORDER BY aco.objectUuid, aci.attributeDefinitionUuid, aco.order
+            """)
+    List<ObjectUuidAttributeContent> getObjectsAttributesContentByNames(AttributeType attributeType, Resource objectType, List<UUID> objectUuids, List<String> attributeNames);
+
+    @Query("""
+            SELECT new com.czertainly.core.attribute.engine.records.ObjectUuidAttributeContentDetail(
+                aco.objectUuid, ad.uuid, ad.attributeUuid, ad.name, ad.label, ad.type, ad.contentType, aci.json, ad.version, aci.encryptedData,
+                ad.enabled, ad.operation, aco.purpose, aco.connectorUuid, c.name, aco.sourceObjectType, aco.sourceObjectUuid, aco.sourceObjectName)
+                FROM AttributeContent2Object aco
+                LEFT JOIN Connector c ON c.uuid = aco.connectorUuid
+                JOIN AttributeContentItem aci ON aci.uuid = aco.attributeContentItemUuid
+                JOIN AttributeDefinition ad ON ad.uuid = aci.attributeDefinitionUuid
+                WHERE ad.type IN (?1) AND aco.objectType = ?2 AND aco.objectUuid IN (?3)
+                ORDER BY aco.objectUuid, aci.attributeDefinitionUuid, aco.order
+            """)
+    List<ObjectUuidAttributeContentDetail> getObjectsAttributesContentDetail(List<AttributeType> attributeTypes, Resource objectType, List<UUID> objectUuids);
+
     @Query("""
             SELECT new com.czertainly.core.attribute.engine.records.ObjectAttributeContent(
                 ad.attributeUuid, ad.name, ad.label, ad.type, ad.contentType, aci.json, ad.version, aci.encryptedData)
@@ -121,6 +161,10 @@ public interface AttributeContent2ObjectRepository extends SecurityFilterReposit
     @Query("UPDATE AttributeContent2Object aco SET aco.connectorUuid = NULL WHERE aco.connectorUuid = ?1")
     void removeConnectorByConnectorUuid(UUID connectorUuid);
 
+    @Modifying
+    @Query("UPDATE AttributeContent2Object aco SET aco.attributeContentItemUuid = ?2 WHERE aco.attributeContentItemUuid = ?1")
+    void updateAttributeContentItemUuid(UUID attributeContentItemUuid, UUID newAttributeContentItemUuid);
+
     Long deleteByObjectTypeAndObjectUuid(Resource objectType, UUID objectUuid);
     Long deleteByObjectTypeAndObjectUuidIn(Resource objectType, List<UUID> objectUuids);
 
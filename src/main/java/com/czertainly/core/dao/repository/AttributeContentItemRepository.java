@@ -1,9 +1,11 @@
 package com.czertainly.core.dao.repository;
 
-import com.czertainly.api.model.common.attribute.common.AttributeContent;
 import com.czertainly.api.model.common.attribute.common.AttributeType;
 import com.czertainly.core.dao.entity.AttributeContentItem;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -12,7 +14,39 @@ import java.util.UUID;
 @Repository
 public interface AttributeContentItemRepository extends JpaRepository<AttributeContentItem, String> {
 
-    AttributeContentItem findByJsonAndAttributeDefinitionUuid(AttributeContent attributeContent, UUID definitionUuid);
+    /**
+     * Creates content items of attribute definition with JSON contents that do not exist yet for the definition
+     *
+     * @param definitionUuid UUID of attribute definition
+     * @param uuids          UUIDs of content items to be created
+     * @param contents       Serialized contents of content items
+     */
+    @Modifying
+    @Query(value = """
+            INSERT INTO {h-schema}attribute_content_item (uuid, attribute_definition_uuid, json)
+            SELECT content.uuid, :definitionUuid, CAST(content.json AS jsonb)
+                FROM unnest(CAST(:uuids AS uuid[]), CAST(:contents AS text[])) AS content(uuid, json)
+            ON CONFLICT (attribute_definition_uuid, json_hash) WHERE encrypted_data IS NULL
+            DO NOTHING
+            """, nativeQuery = true)
+    void insertWithContentConflictResolve(@Param("definitionUuid") UUID definitionUuid, @Param("uuids") UUID[] uuids, @Param("contents") String[] contents);
+
+    /**
+     * Finds not encrypted content items of attribute definition by hash of their JSON content
+     *
+     * @param definitionUuid UUID of attribute definition
+     * @param contents       Serialized contents of content items
+     * @return Pairs of zero based index of the content and UUID of its content item
+     */
+    @Query(value = """
+            SELECT CAST(content.ordinality - 1 AS integer), aci.uuid
+                FROM unnest(CAST(:contents AS text[])) WITH ORDINALITY AS content(json, ordinality)
+                JOIN {h-schema}attribute_content_item aci
+                    ON aci.attribute_definition_uuid = :definitionUuid
+                    AND aci.encrypted_data IS NULL
+                    AND aci.json_hash = sha256(CAST(replace(CAST(CAST(content.json AS jsonb) AS text), '\\', '\\\\') AS bytea))
+            """, nativeQuery = true)
+    List<Object[]> findUuidsByContent(@Param("definitionUuid") UUID definitionUuid, @Param("contents") String[] contents);
 
     List<AttributeContentItem> findByAttributeDefinitionUuid(UUID definitionUuid);
 
@@ -5,10 +5,14 @@ import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+
 @Repository
 public interface CertificateContentRepository extends SecurityFilterRepository<CertificateContent, Long> {
 
     CertificateContent findByFingerprint(String thumbprint);
+    List<CertificateContent> findByFingerprintIn(Collection<String> fingerprints);
     CertificateContent findByContent(String content);
 
     @Modifying
@@ -14,6 +14,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.OffsetDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -35,12 +36,18 @@ public interface CertificateRepository extends SecurityFilterRepository<Certific
     @EntityGraph(attributePaths = {"certificateContent", "key", "key.items", "groups", "owner", "altKey", "altKey.items", "raProfile"})
     List<Certificate> findWithAssociationsByUuidInOrderByCreatedDesc(List<UUID> uuids);
 
+    @EntityGraph(attributePaths = {"groups", "owner", "raProfile"})
+    List<Certificate> findWithEventAssociationsByUuidIn(List<UUID> uuids);
+
     Optional<Certificate> findBySerialNumberIgnoreCase(String serialNumber);
 
     Certificate findByCertificateContent(CertificateContent certificateContent);
 
     Optional<Certificate> findByFingerprint(String fingerprint);
 
+    @EntityGraph(attributePaths = {"certificateContent"})
+    List<Certificate> findWithCertificateContentByFingerprintIn(Collection<String> fingerprints);
+
     List<Certificate> findByRaProfile(RaProfile raProfile);
 
     @EntityGraph(attributePaths = {"certificateContent", "certificateRequestEntity"})
@@ -148,6 +155,20 @@ public interface CertificateRepository extends SecurityFilterRepository<Certific
     @Query("UPDATE Certificate c SET c.altKeyUuid = ?1, c.hybridCertificate = true WHERE c.uuid IN ?2")
     void setAltKeyUuidAndHybridCertificate(UUID keyUuid, List<UUID> uuids);
 
+    @Modifying
+    @Query("""
+            UPDATE Certificate c SET c.keyUuid = (SELECT cki.keyUuid FROM CryptographicKeyItem cki WHERE cki.fingerprint = c.publicKeyFingerprint)
+            WHERE c.uuid IN ?1 AND EXISTS (SELECT 1 FROM CryptographicKeyItem cki WHERE cki.fingerprint = c.publicKeyFingerprint)
+            """)
+    int linkKeysByPublicKeyFingerprint(List<UUID> uuids);
+
+    @Modifying
+    @Query("""
+            UPDATE Certificate c SET c.altKeyUuid = (SELECT cki.keyUuid FROM CryptographicKeyItem cki WHERE cki.fingerprint = c.altKeyFingerprint), c.hybridCertificate = true
+            WHERE c.uuid IN ?1 AND EXISTS (SELECT 1 FROM CryptographicKeyItem cki WHERE cki.fingerprint = c.altKeyFingerprint)
+            """)
+    int linkAltKeysByAltKeyFingerprint(List<UUID> uuids);
+
     @Modifying
     @Query(value = """
             INSERT INTO {h-schema}certificate (
@@ -19,6 +19,9 @@ public interface CryptographicKeyItemRepository extends SecurityFilterRepository
 
     Optional<CryptographicKeyItem> findByFingerprint(String fingerprint);
 
+    @Query("SELECT cki.fingerprint FROM CryptographicKeyItem cki WHERE cki.fingerprint IN ?1")
+    List<String> findFingerprintsByFingerprintIn(List<String> fingerprints);
+
     Optional<CryptographicKeyItem> findByUuidAndKey(UUID uuid, CryptographicKey cryptographicKey);
 
     @EntityGraph(attributePaths = {"key", "key.tokenProfile"})
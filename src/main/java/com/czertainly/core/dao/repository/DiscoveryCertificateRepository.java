@@ -21,6 +21,12 @@ public interface DiscoveryCertificateRepository extends SecurityFilterRepository
     @EntityGraph(attributePaths = {"certificateContent"})
     List<DiscoveryCertificate> findByDiscoveryUuidAndNewlyDiscovered(UUID discoveryUuid, boolean newlyDiscovered, Pageable pageable);
 
+    /**
+     * Loads next page of discovery certificates ordered by UUID, following the last UUID of the previous page
+     */
+    @EntityGraph(attributePaths = {"certificateContent"})
+    List<DiscoveryCertificate> findByDiscoveryUuidAndNewlyDiscoveredAndProcessedAndUuidGreaterThanOrderByUuidAsc(UUID discoveryUuid, boolean newlyDiscovered, boolean processed, UUID lastUuid, Pageable pageable);
+
     Long countByDiscovery(DiscoveryHistory history);
 
     Long countByDiscoveryAndNewlyDiscovered(DiscoveryHistory history, boolean newlyDiscovered);
@@ -0,0 +1,23 @@
+package com.czertainly.core.dao.repository;
+
+import com.czertainly.core.dao.entity.OutboxMessage;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface OutboxMessageRepository extends JpaRepository<OutboxMessage, Long> {
+
+    List<OutboxMessage> findAllByOrderByIdAsc(Pageable pageable);
+
+    /**
+     * Acquires transaction-scoped advisory lock, so that only one Core instance relays the outbox at a time
+     * and messages are published in the order they were stored.
+     */
+    @Query(value = "SELECT pg_try_advisory_xact_lock(:key)", nativeQuery = true)
+    boolean tryAdvisoryTransactionLock(@Param("key") long key);
+}
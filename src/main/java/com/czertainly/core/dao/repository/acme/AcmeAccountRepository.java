@@ -20,4 +20,12 @@ public interface AcmeAccountRepository extends SecurityFilterRepository<AcmeAcco
     @Modifying(flushAutomatically = true, clearAutomatically = true)
     @Query("UPDATE AcmeAccount a SET a.raProfileUuid = :newRaProfileUuid WHERE a.acmeProfileUuid = :acmeProfileUuid AND a.isDefaultRaProfile = true")
     void updateRaProfileForDefaultAccounts(@Param("acmeProfileUuid") UUID acmeProfileUuid, @Param("newRaProfileUuid") UUID newRaProfileUuid);
+
+    @Modifying
+    @Query("UPDATE AcmeAccount a SET a.validOrders = a.validOrders + :count WHERE a.uuid = :uuid")
+    void incrementValidOrders(@Param("uuid") UUID uuid, @Param("count") int count);
+
+    @Modifying
+    @Query("UPDATE AcmeAccount a SET a.failedOrders = a.failedOrders + :count WHERE a.uuid = :uuid")
+    void incrementFailedOrders(@Param("uuid") UUID uuid, @Param("count") int count);
 }
@@ -1,10 +1,16 @@
 package com.czertainly.core.dao.repository.acme;
 
+import com.czertainly.api.model.core.acme.ChallengeStatus;
 import com.czertainly.core.dao.entity.acme.AcmeChallenge;
 import com.czertainly.core.dao.repository.SecurityFilterRepository;
 import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.OffsetDateTime;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -15,4 +21,11 @@ public interface AcmeChallengeRepository extends SecurityFilterRepository<AcmeCh
 
     @EntityGraph(attributePaths = {"authorization"})
     Optional<AcmeChallenge> findByChallengeId(String challengeId);
+
+    @Query("SELECT c.uuid FROM AcmeChallenge c WHERE c.status = :status AND c.updated < :updatedBefore")
+    List<UUID> findUuidsByStatusAndUpdatedBefore(@Param("status") ChallengeStatus status, @Param("updatedBefore") OffsetDateTime updatedBefore);
+
+    @Modifying
+    @Query("UPDATE AcmeChallenge c SET c.updated = :now WHERE c.uuid = :uuid AND c.status = :status AND c.updated < :updatedBefore")
+    int touchIfStatusAndUpdatedBefore(@Param("uuid") UUID uuid, @Param("status") ChallengeStatus status, @Param("updatedBefore") OffsetDateTime updatedBefore, @Param("now") OffsetDateTime now);
 }
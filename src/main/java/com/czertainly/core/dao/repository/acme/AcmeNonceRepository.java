@@ -2,6 +2,8 @@ package com.czertainly.core.dao.repository.acme;
 
 import com.czertainly.core.dao.entity.acme.AcmeNonce;
 import com.czertainly.core.dao.repository.SecurityFilterRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.Date;
@@ -12,4 +14,13 @@ public interface AcmeNonceRepository extends SecurityFilterRepository<AcmeNonce,
     Optional<AcmeNonce> findByNonce(String nonce);
 
      Long deleteByExpiresBefore(Date expires);
+
+    @Modifying
+    @Query(value = """
+            INSERT INTO {h-schema}acme_nonce (nonce, created, expires)
+            VALUES (?1, ?2, ?3)
+            ON CONFLICT (nonce)
+            DO NOTHING
+            """, nativeQuery = true)
+    int insertWithNonceConflictResolve(String nonce, Date created, Date expires);
 }
@@ -1,10 +1,12 @@
 package com.czertainly.core.dao.repository.acme;
 
+import com.czertainly.api.model.core.acme.OrderStatus;
 import com.czertainly.core.dao.entity.acme.AcmeAccount;
 import com.czertainly.core.dao.entity.acme.AcmeOrder;
 import com.czertainly.core.dao.repository.SecurityFilterRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.Date;
@@ -27,4 +29,8 @@ public interface AcmeOrderRepository extends SecurityFilterRepository<AcmeOrder,
             AND ac.status != ?#{T(com.czertainly.api.model.core.acme.OrderStatus).VALID}
             """)
     Integer invalidateExpiredOrders(AcmeAccount acmeAccount, Date expires);
+
+    @Modifying
+    @Query("UPDATE AcmeOrder ac SET ac.status = :newStatus WHERE ac.uuid = :uuid AND ac.status = :oldStatus")
+    int updateStatus(@Param("uuid") UUID uuid, @Param("oldStatus") OrderStatus oldStatus, @Param("newStatus") OrderStatus newStatus);
 }
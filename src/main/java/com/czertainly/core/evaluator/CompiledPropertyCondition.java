@@ -0,0 +1,111 @@
+package com.czertainly.core.evaluator;
+
+import com.czertainly.api.exception.RuleException;
+import com.czertainly.api.model.common.enums.IPlatformEnum;
+import com.czertainly.api.model.core.auth.Resource;
+import com.czertainly.api.model.core.search.FilterConditionOperator;
+import com.czertainly.core.dao.entity.workflows.ConditionItem;
+
+import java.lang.invoke.MethodHandle;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Predicate;
+
+/**
+ * Property condition item compiled by {@link ConditionItemCompiler}. The filter field, the getters leading to the property
+ * and the condition value are resolved once, so evaluation on an object only walks the getters and applies the operator.
+ */
+final class CompiledPropertyCondition {
+
+    private final String fieldIdentifier;
+    private final FilterConditionOperator operator;
+    private final Object conditionValue;
+
+    private final List<MethodHandle> objectGetters;
+    private final List<MethodHandle> itemGetters;
+    private final boolean enumField;
+    private final Predicate<Object> valuePredicate;
+    private final Predicate<Collection<?>> collectionPredicate;
+
+    CompiledPropertyCondition(ConditionItem conditionItem, List<MethodHandle> objectGetters, List<MethodHandle> itemGetters, boolean enumField,
+                              Predicate<Object> valuePredicate, Predicate<Collection<?>> collectionPredicate) {
+        this.fieldIdentifier = conditionItem.getFieldIdentifier();
+        this.operator = conditionItem.getOperator();
+        this.conditionValue = conditionItem.getValue();
+        this.objectGetters = objectGetters;
+        this.itemGetters = itemGetters;
+        this.enumField = enumField;
+        this.valuePredicate = valuePredicate;
+        this.collectionPredicate = collectionPredicate;
+    }
+
+    /**
+     * Checks whether the condition item still has the definition this condition has been compiled from
+     */
+    boolean isCompiledFrom(ConditionItem conditionItem) {
+        return operator == conditionItem.getOperator()
+                && fieldIdentifier.equals(conditionItem.getFieldIdentifier())
+                && Objects.equals(conditionValue, conditionItem.getValue());
+    }
+
+    boolean evaluate(Object object, Resource resource) throws RuleException {
+        Object objectValue;
+        try {
+            objectValue = getPropertyValue(object, objectGetters);
+        } catch (Throwable e) {
+            throw new RuleException("Cannot get property " + fieldIdentifier + " from resource " + resource + ".");
+        }
+
+        // Apply comparing function on value in object and value in condition, return whether the condition is satisfied
+        try {
+            if (!(objectValue instanceof Collection<?> objectValues)) {
+                if (valuePredicate == null) {
+                    throw new IllegalArgumentException("Operator " + operator.getLabel() + " can be applied only on collection.");
+                }
+                if (objectValue != null && enumField) {
+                    objectValue = ((IPlatformEnum) objectValue).getCode();
+                }
+                return valuePredicate.test(objectValue);
+            }
+
+            if (collectionPredicate != null) return collectionPredicate.test(objectValues);
+
+            return evaluateItemsInCollection(objectValues);
+        } catch (Throwable e) {
+            throw new RuleException("Condition is not set properly: " + e.getMessage());
+        }
+    }
+
+    private boolean evaluateItemsInCollection(Collection<?> objectValues) throws Throwable {
+        // For EQUALS, if no true evaluation during loop, result stays false, for NOT_EQUALS, if there is no false evaluation during loop, result stays true
+        boolean result = (operator == FilterConditionOperator.NOT_EQUALS);
+        for (Object item : objectValues) {
+            if (itemGetters != null) {
+                item = getPropertyValue(item, itemGetters);
+            }
+
+            boolean eval = valuePredicate.test(item);
+
+            // For EQUALS: succeed if any true
+            // For NOT_EQUALS: fail if any false
+            if ((operator == FilterConditionOperator.EQUALS && eval) ||
+                    (operator == FilterConditionOperator.NOT_EQUALS && !eval)) {
+                result = (operator == FilterConditionOperator.EQUALS);
+                break;
+            }
+        }
+
+        return result;
+    }
+
+    private static Object getPropertyValue(Object object, List<MethodHandle> getters) throws Throwable {
+        Object value = object;
+        for (MethodHandle getter : getters) {
+            // missing association on the path means the property has no value
+            if (value == null) return null;
+            value = (Object) getter.invokeExact(value);
+        }
+        return value;
+    }
+}
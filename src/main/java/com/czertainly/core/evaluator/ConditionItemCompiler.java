@@ -0,0 +1,290 @@
+package com.czertainly.core.evaluator;
+
+import com.czertainly.api.exception.RuleException;
+import com.czertainly.api.model.core.auth.Resource;
+import com.czertainly.api.model.core.search.FilterConditionOperator;
+import com.czertainly.api.model.core.search.FilterFieldType;
+import com.czertainly.core.dao.entity.workflows.ConditionItem;
+import com.czertainly.core.enums.FilterField;
+import com.czertainly.core.util.FilterPredicatesBuilder;
+import jakarta.persistence.metamodel.Attribute;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.beans.IntrospectionException;
+import java.beans.Introspector;
+import java.beans.PropertyDescriptor;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.Period;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiFunction;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
+/**
+ * Compiles property condition items into {@link CompiledPropertyCondition} and caches them by condition item UUID.
+ * <p>
+ * Condition items are not modified in place, updating a condition or compliance internal rule replaces its items,
+ * so the cached entries of the replaced items are evicted. A cached entry is also recompiled whenever the item
+ * no longer has the definition it was compiled from.
+ */
+@Component
+public class ConditionItemCompiler {
+
+    private static final Logger logger = LoggerFactory.getLogger(ConditionItemCompiler.class);
+
+    private static final int MAX_CACHED_CONDITION_ITEMS = 10_000;
+    private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+
+    private final Map<UUID, CompiledPropertyCondition> compiledConditions = new ConcurrentHashMap<>();
+
+    CompiledPropertyCondition getCompiledPropertyCondition(ConditionItem conditionItem, Resource resource) throws RuleException {
+        UUID conditionItemUuid = conditionItem.getUuid();
+        if (conditionItemUuid == null) {
+            return compile(conditionItem, resource);
+        }
+
+        CompiledPropertyCondition compiledCondition = compiledConditions.get(conditionItemUuid);
+        if (compiledCondition == null || !compiledCondition.isCompiledFrom(conditionItem)) {
+            compiledCondition = compile(conditionItem, resource);
+            if (compiledConditions.size() >= MAX_CACHED_CONDITION_ITEMS) {
+                logger.debug("Compiled condition items cache reached its limit of {} items and has been cleared.", MAX_CACHED_CONDITION_ITEMS);
+                compiledConditions.clear();
+            }
+            compiledConditions.put(conditionItemUuid, compiledCondition);
+        }
+        return compiledCondition;
+    }
+
+    /**
+     * Removes compiled conditions of condition items that have been replaced or deleted
+     *
+     * @param conditionItems Condition items to evict
+     */
+    public void evict(Collection<ConditionItem> conditionItems) {
+        if (conditionItems == null) return;
+        for (ConditionItem conditionItem : conditionItems) {
+            if (conditionItem.getUuid() != null) compiledConditions.remove(conditionItem.getUuid());
+        }
+    }
+
+    int size() {
+        return compiledConditions.size();
+    }
+
+    CompiledPropertyCondition compile(ConditionItem conditionItem, Resource resource) throws RuleException {
+        String fieldIdentifier = conditionItem.getFieldIdentifier();
+        FilterField filterField;
+        try {
+            filterField = Enum.valueOf(FilterField.class, fieldIdentifier);
+        } catch (IllegalArgumentException e) {
+            throw new RuleException("Field identifier '" + fieldIdentifier + "' is not supported.");
+        }
+
+        Attribute fieldAttribute = filterField.getFieldAttribute();
+        List<Attribute> objectPath = new ArrayList<>();
+        List<Attribute> itemPath = null;
+        List<Attribute> joinAttributes = filterField.getJoinAttributes();
+        if (joinAttributes != null && !joinAttributes.isEmpty()) {
+            // Find index which separates path to object holding property to check against and path to the property in that object
+            int lastCollectionAttributeIndex = FilterPredicatesBuilder.getLastCollectionIndex(joinAttributes, joinAttributes.size());
+            objectPath.addAll(joinAttributes.subList(0, lastCollectionAttributeIndex));
+            itemPath = new ArrayList<>(joinAttributes.subList(lastCollectionAttributeIndex, joinAttributes.size()));
+            if (fieldAttribute != null) itemPath.add(fieldAttribute);
+
+            // If the path ends with collection, the property is evaluated on each item of the collection
+            boolean anyCollection = !objectPath.isEmpty() && objectPath.getLast().isCollection();
+            if (!anyCollection && fieldAttribute != null) objectPath.add(fieldAttribute);
+        } else if (fieldAttribute != null) {
+            objectPath.add(fieldAttribute);
+        }
+
+        List<MethodHandle> objectGetters;
+        List<MethodHandle> itemGetters;
+        try {
+            objectGetters = resolveGetters(objectPath);
+            itemGetters = itemPath == null ? null : resolveGetters(itemPath);
+        } catch (IntrospectionException | ReflectiveOperationException e) {
+            throw new RuleException("Cannot get property " + fieldIdentifier + " from resource " + resource + ".");
+        }
+
+        FilterFieldType fieldType = filterField.getType().getFieldType();
+        FilterConditionOperator operator = conditionItem.getOperator();
+        Object conditionValue = conditionItem.getValue();
+        try {
+            Predicate<Collection<?>> collectionPredicate = compileCollectionPredicate(operator, conditionValue);
+            // Count operators are defined only for collections, other list specific operators apply to single values as well
+            Predicate<Object> valuePredicate = collectionPredicate != null && TriggerEvaluator.getOperatorFunction(fieldType, operator) == null
+                    ? null : compileValuePredicate(fieldType, operator, conditionValue);
+            return new CompiledPropertyCondition(conditionItem, objectGetters, itemGetters, filterField.getEnumClass() != null,
+                    valuePredicate, collectionPredicate);
+        } catch (RuntimeException e) {
+            throw new RuleException("Condition is not set properly: " + e.getMessage());
+        }
+    }
+
+    private static List<MethodHandle> resolveGetters(List<Attribute> attributes) throws IntrospectionException, ReflectiveOperationException {
+        List<MethodHandle> getters = new ArrayList<>(attributes.size());
+        for (Attribute attribute : attributes) {
+            Class<?> declaringClass = attribute.getDeclaringType().getJavaType();
+            PropertyDescriptor propertyDescriptor = Arrays.stream(Introspector.getBeanInfo(declaringClass).getPropertyDescriptors())
+                    .filter(descriptor -> descriptor.getName().equals(attribute.getName()) && descriptor.getReadMethod() != null)
+                    .findFirst()
+                    .orElseThrow(() -> new NoSuchMethodException("No getter for property " + attribute.getName() + " in " + declaringClass.getSimpleName()));
+            getters.add(MethodHandles.lookup().unreflect(propertyDescriptor.getReadMethod()).asType(GETTER_TYPE));
+        }
+        return getters;
+    }
+
+    private static Predicate<Collection<?>> compileCollectionPredicate(FilterConditionOperator operator, Object conditionValue) {
+        BiFunction<Collection<?>, Object, Boolean> function = TriggerEvaluator.getListSpecificOperatorFunction(operator);
+        return function == null ? null : values -> function.apply(values, conditionValue);
+    }
+
+    private static Predicate<Object> compileValuePredicate(FilterFieldType fieldType, FilterConditionOperator operator, Object conditionValue) {
+        Predicate<Object> predicate = switch (fieldType) {
+            case STRING -> compileStringPredicate(operator, conditionValue);
+            case NUMBER -> compileNumberPredicate(operator, conditionValue);
+            case DATE -> compileDatePredicate(operator, conditionValue);
+            case DATETIME -> compileDateTimePredicate(operator, conditionValue);
+            default -> null;
+        };
+        if (predicate != null) return predicate;
+
+        BiFunction<Object, Object, Boolean> function = TriggerEvaluator.getOperatorFunction(fieldType, operator);
+        if (function == null) {
+            throw new IllegalArgumentException("Operator " + operator.getLabel() + " is not supported for field type " + fieldType + ".");
+        }
+        return o -> function.apply(o, conditionValue);
+    }
+
+    private static Predicate<Object> compileStringPredicate(FilterConditionOperator operator, Object conditionValue) {
+        return switch (operator) {
+            case MATCHES -> {
+                Pattern pattern = Pattern.compile(conditionValue.toString());
+                yield o -> pattern.matcher(o.toString()).matches();
+            }
+            case NOT_MATCHES -> {
+                Pattern pattern = Pattern.compile(conditionValue.toString());
+                yield o -> !pattern.matcher(o.toString()).matches();
+            }
+            default -> null;
+        };
+    }
+
+    private static Predicate<Object> compileNumberPredicate(FilterConditionOperator operator, Object conditionValue) {
+        return switch (operator) {
+            case EQUALS, NOT_EQUALS, GREATER, GREATER_OR_EQUAL, LESSER, LESSER_OR_EQUAL -> {
+                float conditionNumber = TriggerEvaluator.parseConditionNumber(conditionValue);
+                yield switch (operator) {
+                    case EQUALS -> o -> Float.compare(((Number) o).floatValue(), conditionNumber) == 0;
+                    case NOT_EQUALS -> o -> Float.compare(((Number) o).floatValue(), conditionNumber) != 0;
+                    case GREATER -> o -> Float.compare(((Number) o).floatValue(), conditionNumber) > 0;
+                    case GREATER_OR_EQUAL -> o -> Float.compare(((Number) o).floatValue(), conditionNumber) >= 0;
+                    case LESSER -> o -> Float.compare(((Number) o).floatValue(), conditionNumber) < 0;
+                    default -> o -> Float.compare(((Number) o).floatValue(), conditionNumber) <= 0;
+                };
+            }
+            default -> null;
+        };
+    }
+
+    private static Predicate<Object> compileDatePredicate(FilterConditionOperator operator, Object conditionValue) {
+        return switch (operator) {
+            case GREATER -> {
+                LocalDate conditionDate = LocalDate.parse(conditionValue.toString());
+                yield o -> TriggerEvaluator.getLocalDate((Date) o).isAfter(conditionDate);
+            }
+            case GREATER_OR_EQUAL -> {
+                LocalDate conditionDate = LocalDate.parse(conditionValue.toString());
+                yield o -> !TriggerEvaluator.getLocalDate((Date) o).isBefore(conditionDate);
+            }
+            case LESSER -> {
+                LocalDate conditionDate = LocalDate.parse(conditionValue.toString());
+                yield o -> TriggerEvaluator.getLocalDate((Date) o).isBefore(conditionDate);
+            }
+            case LESSER_OR_EQUAL -> {
+                LocalDate conditionDate = LocalDate.parse(conditionValue.toString());
+                yield o -> !TriggerEvaluator.getLocalDate((Date) o).isAfter(conditionDate);
+            }
+            case IN_PAST -> {
+                Period period = parseDuration(conditionValue).period();
+                yield o -> {
+                    LocalDate date = TriggerEvaluator.getLocalDate((Date) o);
+                    LocalDate now = LocalDate.now();
+                    return date.isBefore(now) && date.isAfter(now.minus(period));
+                };
+            }
+            case IN_NEXT -> {
+                Period period = parseDuration(conditionValue).period();
+                yield o -> {
+                    LocalDate date = TriggerEvaluator.getLocalDate((Date) o);
+                    LocalDate now = LocalDate.now();
+                    return date.isAfter(now) && date.isBefore(now.plus(period));
+                };
+            }
+            default -> null;
+        };
+    }
+
+    private static Predicate<Object> compileDateTimePredicate(FilterConditionOperator operator, Object conditionValue) {
+        return switch (operator) {
+            case GREATER -> {
+                LocalDateTime conditionDateTime = LocalDateTime.parse(conditionValue.toString(), TriggerEvaluator.DATETIME_FORMATTER);
+                yield o -> TriggerEvaluator.getLocalDateTime((Date) o).isAfter(conditionDateTime);
+            }
+            case GREATER_OR_EQUAL -> {
+                LocalDateTime conditionDateTime = LocalDateTime.parse(conditionValue.toString(), TriggerEvaluator.DATETIME_FORMATTER);
+                yield o -> !TriggerEvaluator.getLocalDateTime((Date) o).isBefore(conditionDateTime);
+            }
+            case LESSER -> {
+                LocalDateTime conditionDateTime = LocalDateTime.parse(conditionValue.toString(), TriggerEvaluator.DATETIME_FORMATTER);
+                yield o -> TriggerEvaluator.getLocalDateTime((Date) o).isBefore(conditionDateTime);
+            }
+            case LESSER_OR_EQUAL -> {
+                LocalDateTime conditionDateTime = LocalDateTime.parse(conditionValue.toString(), TriggerEvaluator.DATETIME_FORMATTER);
+                yield o -> !TriggerEvaluator.getLocalDateTime((Date) o).isAfter(conditionDateTime);
+            }
+            case IN_PAST -> {
+                ParsedDuration duration = parseDuration(conditionValue);
+                yield o -> {
+                    LocalDateTime dateTime = TriggerEvaluator.getLocalDateTime((Date) o);
+                    LocalDateTime now = LocalDateTime.now();
+                    return dateTime.isBefore(now) && dateTime.isAfter(duration.subtractFrom(now));
+                };
+            }
+            case IN_NEXT -> {
+                ParsedDuration duration = parseDuration(conditionValue);
+                yield o -> {
+                    LocalDateTime dateTime = TriggerEvaluator.getLocalDateTime((Date) o);
+                    LocalDateTime now = LocalDateTime.now();
+                    return dateTime.isAfter(now) && dateTime.isBefore(duration.addTo(now));
+                };
+            }
+            default -> null;
+        };
+    }
+
+    private static ParsedDuration parseDuration(Object conditionValue) {
+        javax.xml.datatype.Duration duration = TriggerEvaluator.getDurationParsed(conditionValue.toString());
+        return new ParsedDuration(Period.of(duration.getYears(), duration.getMonths(), duration.getDays()),
+                duration.getHours(), duration.getMinutes(), duration.getSeconds());
+    }
+
+    private record ParsedDuration(Period period, int hours, int minutes, int seconds) {
+
+        LocalDateTime subtractFrom(LocalDateTime dateTime) {
+            return dateTime.minus(period).minusHours(hours).minusMinutes(minutes).minusSeconds(seconds);
+        }
+
+        LocalDateTime addTo(LocalDateTime dateTime) {
+            return dateTime.plus(period).plusHours(hours).plusMinutes(minutes).plusSeconds(seconds);
+        }
+    }
+}
@@ -0,0 +1,213 @@
+package com.czertainly.core.evaluator;
+
+import com.czertainly.api.model.client.certificate.SearchFilterRequestDto;
+import com.czertainly.api.model.common.enums.BitMaskEnum;
+import com.czertainly.api.model.core.auth.Resource;
+import com.czertainly.api.model.core.search.FilterConditionOperator;
+import com.czertainly.api.model.core.search.FilterFieldSource;
+import com.czertainly.api.model.core.search.FilterFieldType;
+import com.czertainly.core.attribute.engine.AttributeEngine;
+import com.czertainly.core.attribute.engine.records.ObjectAttributeContentLookup;
+import com.czertainly.core.dao.entity.workflows.Condition;
+import com.czertainly.core.dao.entity.workflows.ConditionItem;
+import com.czertainly.core.dao.entity.workflows.Rule;
+import com.czertainly.core.enums.FilterField;
+import com.czertainly.core.enums.ResourceToClass;
+import com.czertainly.core.util.FilterPredicatesBuilder;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.Serializable;
+import java.util.*;
+
+/**
+ * Translates property conditions of rules into Criteria predicates using {@link FilterPredicatesBuilder}, so the objects
+ * satisfying a condition are found by a single query instead of evaluating the condition on each object in memory.
+ * <p>
+ * Only condition items whose search filter semantics match the in-memory evaluation are pushed down, the remaining items
+ * (attributes, regular expressions, dates, JSON and bit mask properties) are still evaluated by {@link TriggerEvaluator}.
+ * Negated operators ({@code NOT_EQUALS}, {@code NOT_CONTAINS}) are never pushed down, because the search filter also matches
+ * objects without the property and collections with any other element, while the in-memory evaluation does not.
+ * For attribute condition items, the content of the referenced attributes is prefetched for all objects at once instead.
+ */
+@Component
+public class ConditionPredicateTranslator {
+
+    private static final Logger logger = LoggerFactory.getLogger(ConditionPredicateTranslator.class);
+
+    private static final int MAX_OBJECT_UUIDS_PER_QUERY = 1000;
+
+    private static final Set<FilterConditionOperator> PUSHED_DOWN_OPERATORS = EnumSet.of(
+            FilterConditionOperator.EQUALS, FilterConditionOperator.CONTAINS, FilterConditionOperator.STARTS_WITH, FilterConditionOperator.ENDS_WITH,
+            FilterConditionOperator.EMPTY, FilterConditionOperator.NOT_EMPTY,
+            FilterConditionOperator.GREATER, FilterConditionOperator.GREATER_OR_EQUAL,
+            FilterConditionOperator.LESSER, FilterConditionOperator.LESSER_OR_EQUAL,
+            FilterConditionOperator.COUNT_EQUAL, FilterConditionOperator.COUNT_NOT_EQUAL,
+            FilterConditionOperator.COUNT_GREATER_THAN, FilterConditionOperator.COUNT_LESS_THAN
+    );
+
+    private static final Set<FilterConditionOperator> LIKE_OPERATORS = EnumSet.of(
+            FilterConditionOperator.CONTAINS, FilterConditionOperator.STARTS_WITH, FilterConditionOperator.ENDS_WITH
+    );
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private AttributeEngine attributeEngine;
+
+    @Autowired
+    public void setAttributeEngine(AttributeEngine attributeEngine) {
+        this.attributeEngine = attributeEngine;
+    }
+
+    /**
+     * Evaluates pushable condition items of the rules on the objects in the database
+     *
+     * @param rules       Rules to evaluate
+     * @param objectClass Class of the objects, rules of other resources are skipped
+     * @param objectUuids UUIDs of the objects
+     * @return Objects satisfying the conditions that were pushed down, the pushed down condition items and prefetched attribute content
+     */
+    public PushedDownConditions pushDown(Set<Rule> rules, Class<?> objectClass, Collection<UUID> objectUuids) {
+        if (rules == null || rules.isEmpty() || objectUuids.isEmpty()) {
+            return PushedDownConditions.NONE;
+        }
+
+        Map<UUID, Set<UUID>> matchingObjectUuids = new HashMap<>();
+        Set<UUID> conditionItemUuids = new HashSet<>();
+        Map<Resource, Set<String>> customAttributeNames = new EnumMap<>(Resource.class);
+        Map<Resource, Set<String>> metadataAttributeNames = new EnumMap<>(Resource.class);
+        for (Rule rule : rules) {
+            Class<?> resourceClass = ResourceToClass.getClassByResource(rule.getResource());
+            if (resourceClass == null || !resourceClass.isAssignableFrom(objectClass) || !isEntity(resourceClass)) {
+                continue;
+            }
+
+            for (Condition condition : rule.getConditions()) {
+                if (matchingObjectUuids.containsKey(condition.getUuid())) {
+                    continue;
+                }
+                List<SearchFilterRequestDto> filters = new ArrayList<>();
+                List<UUID> pushedItemUuids = new ArrayList<>();
+                for (ConditionItem conditionItem : condition.getItems()) {
+                    collectAttributeName(conditionItem, rule.getResource(), customAttributeNames, metadataAttributeNames);
+                    SearchFilterRequestDto filter = toSearchFilter(conditionItem, rule.getResource());
+                    if (filter != null) {
+                        filters.add(filter);
+                        pushedItemUuids.add(conditionItem.getUuid());
+                    }
+                }
+                if (filters.isEmpty()) {
+                    continue;
+                }
+
+                try {
+                    matchingObjectUuids.put(condition.getUuid(), findMatchingObjectUuids(resourceClass, filters, objectUuids));
+                    conditionItemUuids.addAll(pushedItemUuids);
+                } catch (RuntimeException e) {
+                    logger.debug("Condition '{}' of rule '{}' cannot be evaluated in database, it will be evaluated in memory: {}", condition.getName(), rule.getName(), e.getMessage());
+                }
+            }
+        }
+
+        Map<Resource, ObjectAttributeContentLookup> attributeContents = prefetchAttributeContents(objectUuids, customAttributeNames, metadataAttributeNames);
+
+        logger.debug("Pushed down {} condition items of {} conditions and prefetched attributes of {} resources for {} objects", conditionItemUuids.size(), matchingObjectUuids.size(), attributeContents.size(), objectUuids.size());
+        return matchingObjectUuids.isEmpty() && attributeContents.isEmpty() ? PushedDownConditions.NONE : new PushedDownConditions(matchingObjectUuids, conditionItemUuids, attributeContents);
+    }
+
+    private static void collectAttributeName(ConditionItem conditionItem, Resource resource, Map<Resource, Set<String>> customAttributeNames, Map<Resource, Set<String>> metadataAttributeNames) {
+        String fieldIdentifier = conditionItem.getFieldIdentifier();
+        if (fieldIdentifier == null) return;
+
+        if (conditionItem.getFieldSource() == FilterFieldSource.CUSTOM) {
+            customAttributeNames.computeIfAbsent(resource, k -> new HashSet<>()).add(fieldIdentifier);
+        } else if (conditionItem.getFieldSource() == FilterFieldSource.META) {
+            // metadata are identified as 'name|contentType', content type is matched in the lookup
+            metadataAttributeNames.computeIfAbsent(resource, k -> new HashSet<>()).add(fieldIdentifier.split("\\|")[0]);
+        }
+    }
+
+    private Map<Resource, ObjectAttributeContentLookup> prefetchAttributeContents(Collection<UUID> objectUuids, Map<Resource, Set<String>> customAttributeNames, Map<Resource, Set<String>> metadataAttributeNames) {
+        Set<Resource> resources = EnumSet.noneOf(Resource.class);
+        resources.addAll(customAttributeNames.keySet());
+        resources.addAll(metadataAttributeNames.keySet());
+
+        Map<Resource, ObjectAttributeContentLookup> attributeContents = new EnumMap<>(Resource.class);
+        for (Resource resource : resources) {
+            attributeContents.put(resource, attributeEngine.prefetchObjectAttributesContent(resource, objectUuids,
+                    customAttributeNames.getOrDefault(resource, Set.of()), metadataAttributeNames.getOrDefault(resource, Set.of())));
+        }
+        return attributeContents;
+    }
+
+    static SearchFilterRequestDto toSearchFilter(ConditionItem conditionItem, Resource resource) {
+        FilterConditionOperator operator = conditionItem.getOperator();
+        if (conditionItem.getUuid() == null || conditionItem.getFieldSource() != FilterFieldSource.PROPERTY || !PUSHED_DOWN_OPERATORS.contains(operator)) {
+            return null;
+        }
+
+        FilterField filterField;
+        try {
+            filterField = FilterField.valueOf(conditionItem.getFieldIdentifier());
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        if (filterField.getRootResource() != resource || filterField.getJsonPath() != null || filterField.getExpectedValue() != null
+                || (filterField.getEnumClass() != null && BitMaskEnum.class.isAssignableFrom(filterField.getEnumClass()))) {
+            return null;
+        }
+
+        // dates are compared in system time zone in memory, keep them there
+        FilterFieldType fieldType = filterField.getType().getFieldType();
+        if ((fieldType == FilterFieldType.DATE || fieldType == FilterFieldType.DATETIME)
+                && operator != FilterConditionOperator.EMPTY && operator != FilterConditionOperator.NOT_EMPTY) {
+            return null;
+        }
+
+        Object value = conditionItem.getValue();
+        if (value != null && !(value instanceof Serializable)) {
+            return null;
+        }
+        // LIKE wildcards in the value would not be matched literally
+        if (LIKE_OPERATORS.contains(operator) && (value == null || value.toString().contains("%") || value.toString().contains("_"))) {
+            return null;
+        }
+
+        return new SearchFilterRequestDto(FilterFieldSource.PROPERTY, filterField.name(), operator, (Serializable) value);
+    }
+
+    private Set<UUID> findMatchingObjectUuids(Class<?> resourceClass, List<SearchFilterRequestDto> filters, Collection<UUID> objectUuids) {
+        Set<UUID> matchingObjectUuids = new HashSet<>();
+        List<UUID> uuids = new ArrayList<>(objectUuids);
+        for (int i = 0; i < uuids.size(); i += MAX_OBJECT_UUIDS_PER_QUERY) {
+            List<UUID> chunk = uuids.subList(i, Math.min(i + MAX_OBJECT_UUIDS_PER_QUERY, uuids.size()));
+
+            CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+            CriteriaQuery<UUID> query = criteriaBuilder.createQuery(UUID.class);
+            Root<?> root = query.from(resourceClass);
+            Predicate filtersPredicate = FilterPredicatesBuilder.getFiltersPredicate(criteriaBuilder, query, root, filters);
+            query.select(root.<UUID>get("uuid")).distinct(true).where(criteriaBuilder.and(root.get("uuid").in(chunk), filtersPredicate));
+
+            matchingObjectUuids.addAll(entityManager.createQuery(query).getResultList());
+        }
+        return matchingObjectUuids;
+    }
+
+    private boolean isEntity(Class<?> resourceClass) {
+        try {
+            entityManager.getMetamodel().entity(resourceClass);
+            return true;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+}
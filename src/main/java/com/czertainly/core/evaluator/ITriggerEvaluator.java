@@ -5,6 +5,7 @@ import com.czertainly.api.model.core.auth.Resource;
 import com.czertainly.core.dao.entity.ComplianceInternalRule;
 import com.czertainly.core.dao.entity.workflows.*;
 
+import java.util.List;
 import java.util.Set;
 import java.util.UUID;
 
@@ -12,6 +13,22 @@ public interface ITriggerEvaluator<T> {
 
     TriggerHistory evaluateTrigger(Trigger trigger, TriggerAssociation triggerAssociation, T object, UUID referenceObjectUuid, Object data) throws RuleException;
 
+    /**
+     * Method to evaluate a Trigger on an Object using results of conditions already evaluated in database
+     *
+     * @param pushedDownConditions Conditions evaluated in database for a set of objects including this one, null to evaluate all conditions in memory
+     */
+    TriggerHistory evaluateTrigger(Trigger trigger, TriggerAssociation triggerAssociation, T object, UUID referenceObjectUuid, Object data, PushedDownConditions pushedDownConditions) throws RuleException;
+
+    /**
+     * Method to evaluate conditions of Trigger rules that can be translated to database query on a set of Objects at once
+     *
+     * @param trigger Trigger
+     * @param objects Objects stored in database to evaluate conditions on
+     * @return Conditions evaluated in database
+     */
+    PushedDownConditions pushDownConditions(Trigger trigger, List<T> objects);
+
     /**
      * Method to evaluate a list of Rules on an Object
      *
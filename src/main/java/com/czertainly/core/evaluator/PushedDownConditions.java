@@ -0,0 +1,41 @@
+package com.czertainly.core.evaluator;
+
+import com.czertainly.api.model.core.auth.Resource;
+import com.czertainly.core.attribute.engine.records.ObjectAttributeContentLookup;
+import com.czertainly.core.dao.entity.workflows.ConditionItem;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Result of evaluating trigger conditions in the database for a set of objects by {@link ConditionPredicateTranslator}.
+ *
+ * @param matchingObjectUuids UUIDs of the objects satisfying the pushed down items, mapped by condition UUID
+ * @param conditionItemUuids  UUIDs of condition items that were pushed down and do not need to be evaluated in memory
+ * @param attributeContents   Prefetched content of attributes used in attribute conditions, mapped by resource of the rules
+ */
+public record PushedDownConditions(Map<UUID, Set<UUID>> matchingObjectUuids, Set<UUID> conditionItemUuids, Map<Resource, ObjectAttributeContentLookup> attributeContents) {
+
+    public static final PushedDownConditions NONE = new PushedDownConditions(Map.of(), Set.of(), Map.of());
+
+    /**
+     * @return False if the condition was pushed down and the object does not satisfy it, true otherwise
+     */
+    boolean isSatisfied(UUID conditionUuid, UUID objectUuid) {
+        Set<UUID> objectUuids = matchingObjectUuids.get(conditionUuid);
+        return objectUuids == null || objectUuids.contains(objectUuid);
+    }
+
+    boolean isPushedDown(ConditionItem conditionItem) {
+        return conditionItem.getUuid() != null && conditionItemUuids.contains(conditionItem.getUuid());
+    }
+
+    /**
+     * @return Prefetched attribute content containing the object, null if the content of the object has to be loaded
+     */
+    ObjectAttributeContentLookup getAttributeContent(Resource resource, UUID objectUuid) {
+        ObjectAttributeContentLookup attributeContent = attributeContents.get(resource);
+        return attributeContent != null && attributeContent.contains(objectUuid) ? attributeContent : null;
+    }
+}
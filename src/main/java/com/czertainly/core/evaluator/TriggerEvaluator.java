@@ -8,7 +8,6 @@ import com.czertainly.api.model.client.metadata.ResponseMetadata;
 import com.czertainly.api.model.common.attribute.common.AttributeContent;
 import com.czertainly.api.model.common.attribute.common.content.AttributeContentType;
 import com.czertainly.api.model.common.attribute.v3.content.BaseAttributeContentV3;
-import com.czertainly.api.model.common.enums.IPlatformEnum;
 import com.czertainly.api.model.core.auth.Resource;
 import com.czertainly.api.model.core.other.ResourceEvent;
 import com.czertainly.api.model.core.search.FilterConditionOperator;
@@ -17,6 +16,7 @@ import com.czertainly.api.model.core.search.FilterFieldType;
 import com.czertainly.api.model.core.workflows.ExecutionType;
 import com.czertainly.core.attribute.engine.AttributeEngine;
 import com.czertainly.core.attribute.engine.records.ObjectAttributeContentInfo;
+import com.czertainly.core.attribute.engine.records.ObjectAttributeContentLookup;
 import com.czertainly.core.dao.entity.ComplianceInternalRule;
 import com.czertainly.core.dao.entity.UniquelyIdentifiedObject;
 import com.czertainly.core.dao.entity.workflows.*;
@@ -26,8 +26,6 @@ import com.czertainly.core.messaging.jms.producers.NotificationProducer;
 import com.czertainly.core.messaging.model.NotificationMessage;
 import com.czertainly.core.service.TriggerService;
 import com.czertainly.core.util.AttributeDefinitionUtils;
-import com.czertainly.core.util.FilterPredicatesBuilder;
-import jakarta.persistence.metamodel.Attribute;
 import org.apache.commons.beanutils.PropertyUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -51,12 +49,14 @@ import java.util.function.BiFunction;
 public class TriggerEvaluator<T extends UniquelyIdentifiedObject> implements ITriggerEvaluator<T> {
 
     protected static final Logger logger = LoggerFactory.getLogger(TriggerEvaluator.class);
-    private static final String DATETIME_FORMAT = "yyyy-MM-dd'T'HH:mm:ss.SSSXXX";
+    static final DateTimeFormatter DATETIME_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSSXXX");
 
     private AttributeEngine attributeEngine;
 
     private TriggerService triggerService;
     private NotificationProducer notificationProducer;
+    private ConditionItemCompiler conditionItemCompiler;
+    private ConditionPredicateTranslator conditionPredicateTranslator;
 
     @Autowired
     public void setTriggerService(TriggerService triggerService) {
@@ -73,10 +73,25 @@ public class TriggerEvaluator<T extends UniquelyIdentifiedObject> implements ITr
         this.notificationProducer = notificationProducer;
     }
 
+    @Autowired
+    public void setConditionItemCompiler(ConditionItemCompiler conditionItemCompiler) {
+        this.conditionItemCompiler = conditionItemCompiler;
+    }
+
+    @Autowired
+    public void setConditionPredicateTranslator(ConditionPredicateTranslator conditionPredicateTranslator) {
+        this.conditionPredicateTranslator = conditionPredicateTranslator;
+    }
+
     @Override
     public TriggerHistory evaluateTrigger(Trigger trigger, TriggerAssociation triggerAssociation, T object, UUID referenceObjectUuid, Object data) throws RuleException {
+        return evaluateTrigger(trigger, triggerAssociation, object, referenceObjectUuid, data, null);
+    }
+
+    @Override
+    public TriggerHistory evaluateTrigger(Trigger trigger, TriggerAssociation triggerAssociation, T object, UUID referenceObjectUuid, Object data, PushedDownConditions pushedDownConditions) throws RuleException {
         TriggerHistory triggerHistory = triggerService.createTriggerHistory(trigger.getUuid(), triggerAssociation, object.getUuid(), referenceObjectUuid);
-        if (evaluateRules(triggerHistory, trigger.getRules(), object)) {
+        if (evaluateRules(triggerHistory, trigger.getRules(), object, pushedDownConditions)) {
             triggerHistory.setConditionsMatched(true);
             if (trigger.isIgnoreTrigger()) {
                 triggerHistory.setActionsPerformed(true);
@@ -92,8 +107,20 @@ public class TriggerEvaluator<T extends UniquelyIdentifiedObject> implements ITr
         return triggerHistory;
     }
 
+    @Override
+    public PushedDownConditions pushDownConditions(Trigger trigger, List<T> objects) {
+        if (objects.isEmpty()) {
+            return PushedDownConditions.NONE;
+        }
+        return conditionPredicateTranslator.pushDown(trigger.getRules(), objects.getFirst().getClass(), objects.stream().map(UniquelyIdentifiedObject::getUuid).filter(Objects::nonNull).toList());
+    }
+
     @Override
     public boolean evaluateRules(TriggerHistory triggerHistory, Set<Rule> rules, T object) throws RuleException {
+        return evaluateRules(triggerHistory, rules, object, null);
+    }
+
+    private boolean evaluateRules(TriggerHistory triggerHistory, Set<Rule> rules, T object, PushedDownConditions pushedDownConditions) throws RuleException {
         // if trigger has no rules, return true as it is trigger that should perform actions on all objects
         if (rules.isEmpty()) {
             return true;
@@ -116,8 +143,17 @@ public class TriggerEvaluator<T extends UniquelyIdentifiedObject> implements ITr
             }
             ruleEvaluated = true;
             for (Condition condition : rule.getConditions()) {
+                // Condition items already evaluated in database do not need to be evaluated again
+                if (pushedDownConditions != null && !pushedDownConditions.isSatisfied(condition.getUuid(), object.getUuid())) {
+                    String message = String.format("Condition '%s' is false.", condition.getName());
+                    logger.debug("Rule {} is not satisfied. Reason: {}", rule.getName(), message);
+                    TriggerHistoryRecord triggerHistoryRecord = triggerService.createTriggerHistoryRecord(triggerHistory, condition.getUuid(), null, message);
+                    triggerHistory.getRecords().add(triggerHistoryRecord);
+                    return false;
+                }
                 for (ConditionItem conditionItem : condition.getItems()) {
-                    if (!getConditionEvaluationResult(conditionItem, object, triggerHistory, rule)) return false;
+                    if (pushedDownConditions != null && pushedDownConditions.isPushedDown(conditionItem)) continue;
+                    if (!getConditionEvaluationResult(conditionItem, object, triggerHistory, rule, pushedDownConditions)) return false;
                 }
             }
         }
@@ -148,121 +184,46 @@ public class TriggerEvaluator<T extends UniquelyIdentifiedObject> implements ITr
 
     @Override
     public boolean evaluateConditionItem(ConditionItem conditionItem, T object, Resource resource) throws RuleException {
+        return evaluateConditionItem(conditionItem, object, resource, null);
+    }
+
+    private boolean evaluateConditionItem(ConditionItem conditionItem, T object, Resource resource, ObjectAttributeContentLookup attributeContent) throws RuleException {
         FilterFieldSource fieldSource = conditionItem.getFieldSource();
         String fieldIdentifier = conditionItem.getFieldIdentifier();
         FilterConditionOperator operator = conditionItem.getOperator();
         Object conditionValue = conditionItem.getValue();
 
-        // First, check where from to get object value based on Field Source
+        // First, check where from to get object value based on Field Source, property conditions are compiled once and reused
         if (fieldSource == FilterFieldSource.PROPERTY) {
-            return evaluatePropertyConditionItem(object, resource, fieldIdentifier, operator, conditionValue);
+            return conditionItemCompiler.getCompiledPropertyCondition(conditionItem, resource).evaluate(object, resource);
         }
 
         // Check for UUID in the object, if there is no UUID, it means that the object is not yet in database and therefore won't have any attributes linked to it
-        UUID objectUuid;
-        try {
-            objectUuid = (UUID) PropertyUtils.getProperty(object, "uuid");
-        } catch (IllegalAccessException | InvocationTargetException | NoSuchMethodException e) {
-            throw new RuleException("Cannot get UUID from resource " + resource + ".");
-        }
+        UUID objectUuid = object.getUuid();
 
         if (objectUuid != null) {
             if (fieldSource == FilterFieldSource.CUSTOM) {
-                return evaluateCustomAttributeConditionItem(resource, objectUuid, fieldIdentifier, conditionValue, operator);
+                return evaluateCustomAttributeConditionItem(resource, objectUuid, fieldIdentifier, conditionValue, operator, attributeContent);
             }
 
             if (fieldSource == FilterFieldSource.META) {
-                return evaluateMetaAttributeConditionItem(resource, fieldIdentifier, objectUuid, conditionValue, operator);
+                return evaluateMetaAttributeConditionItem(resource, fieldIdentifier, objectUuid, conditionValue, operator, attributeContent);
             }
         }
         // Field source is not Property and object is not database, therefore attributes can not be evaluated and condition is not satisfied
         return false;
     }
 
-    private boolean evaluatePropertyConditionItem(T object, Resource resource, String fieldIdentifier, FilterConditionOperator operator, Object conditionValue) throws RuleException {
-        Object objectValue;
-        FilterField filterField;
-        try {
-            filterField = Enum.valueOf(FilterField.class, fieldIdentifier);
-        } catch (IllegalArgumentException e) {
-            throw new RuleException("Field identifier '" + fieldIdentifier + "' is not supported.");
-        }
-
-        List<Attribute> nestedJoinAttributes = null;
-        List<Attribute> nonNestedJoinAttributes = null;
-
-        boolean isNested = filterField.getJoinAttributes() != null && !filterField.getJoinAttributes().isEmpty();
-        if (isNested) {
-            List<Attribute> joinAttributes = new ArrayList<>(filterField.getJoinAttributes());
-            // Find index which separates path to object holding property to check against and path to the property in that object
-            int lastCollectionAttributeIndex = FilterPredicatesBuilder.getLastCollectionIndex(
-                    joinAttributes, joinAttributes.size()
-            );
-            // If the object is already nested, the path to the property in that object is needed
-            nestedJoinAttributes = new ArrayList<>(joinAttributes.subList(lastCollectionAttributeIndex, joinAttributes.size()));
-            // Otherwise the path to the nested object is needed
-            nonNestedJoinAttributes = new ArrayList<>(joinAttributes.subList(0, lastCollectionAttributeIndex));
-        }
-
-        try {
-            boolean anyCollection = nonNestedJoinAttributes != null && !nonNestedJoinAttributes.isEmpty() && nonNestedJoinAttributes.getLast().isCollection();
-            Attribute fieldAttribute = isNested && anyCollection ? null : filterField.getFieldAttribute();
-            objectValue = getPropertyValue(object, nonNestedJoinAttributes, fieldAttribute);
-        } catch (IllegalAccessException | InvocationTargetException | NoSuchMethodException e) {
-            throw new RuleException("Cannot get property " + fieldIdentifier + " from resource " + resource + ".");
-        }
-
-        FilterFieldType fieldType = filterField.getType().getFieldType();
-
-
-        // Apply comparing function on value in object and value in condition, based on operator and field type, return whether the condition is satisfied
-        try {
-            if (!(objectValue instanceof Collection<?> objectValues)) {
-                if (objectValue != null && filterField.getEnumClass() != null) {
-                    objectValue = ((IPlatformEnum) objectValue).getCode();
-                }
-                return fieldTypeToOperatorActionMap.get(fieldType).get(operator).apply(objectValue, conditionValue);
-            }
-
-            if (listSpecificOperatorsFunctionMap.get(operator) != null)
-                return listSpecificOperatorsFunctionMap.get(operator).apply(objectValues, conditionValue);
-
-            return evaluateItemsInCollection(operator, conditionValue, objectValues, nestedJoinAttributes, filterField, fieldType);
-        } catch (Exception e) {
-            throw new RuleException("Condition is not set properly: " + e.getMessage());
-        }
-    }
-
-    private boolean evaluateItemsInCollection(FilterConditionOperator operator, Object conditionValue, Collection<?> objectValues, List<Attribute> nestedJoinAttributes, FilterField filterField, FilterFieldType fieldType) throws InvocationTargetException, IllegalAccessException, NoSuchMethodException {
-        // For EQUALS, if no true evaluation during loop, result stays false, for NOT_EQUALS, if there is no false evaluation during loop, result stays true
-        boolean result = (operator == FilterConditionOperator.NOT_EQUALS);
-        for (Object item : objectValues) {
-            if (nestedJoinAttributes != null) {
-                item = getPropertyValue(item, nestedJoinAttributes, filterField.getFieldAttribute());
-            }
-
-            boolean eval = Boolean.TRUE.equals(
-                    fieldTypeToOperatorActionMap.get(fieldType).get(operator).apply(item, conditionValue)
-            );
-
-            // For EQUALS: succeed if any true
-            // For NOT_EQUALS: fail if any false
-            if ((operator == FilterConditionOperator.EQUALS && eval) ||
-                    (operator == FilterConditionOperator.NOT_EQUALS && !eval)) {
-                result = (operator == FilterConditionOperator.EQUALS);
-                break;
-            }
-        }
-
-        return result;
-    }
-
-    private boolean evaluateMetaAttributeConditionItem(Resource resource, String fieldIdentifier, UUID objectUuid, Object conditionValue, FilterConditionOperator operator) throws RuleException {
+    private boolean evaluateMetaAttributeConditionItem(Resource resource, String fieldIdentifier, UUID objectUuid, Object conditionValue, FilterConditionOperator operator, ObjectAttributeContentLookup attributeContent) throws RuleException {
         // If the Field Source is Meta Attribute, we expect Field Identifier to be formatted as follows 'name|contentType', since there can be multiple Meta Attributes with the same name, the Content Type must be specified
         String[] split = fieldIdentifier.split("\\|");
         if (split.length < 2) throw new RuleException("Field identifier is not in correct format.");
         AttributeContentType fieldAttributeContentType = AttributeContentType.valueOf(split[1]);
         String fieldIdentifierName = split[0];
+        // Content prefetched for the whole object set already contains only metadata with matching Name and Content Type
+        if (attributeContent != null) {
+            return evaluateConditionOnAttribute(attributeContent.getMetadataContent(objectUuid, fieldIdentifierName, fieldAttributeContentType), fieldAttributeContentType, conditionValue, operator);
+        }
         // From all Metadata of the object, find those with matching Name and Content Type and evaluate condition on these, return true for the first satisfying attribute, otherwise continue wit next
         List<MetadataResponseDto> metadata = attributeEngine.getMappedMetadataContent(new ObjectAttributeContentInfo(resource, objectUuid));
         for (List<ResponseMetadata> responseMetadata : metadata.stream().map(MetadataResponseDto::getItems).toList()) {
@@ -277,10 +238,15 @@ public class TriggerEvaluator<T extends UniquelyIdentifiedObject> implements ITr
         return false;
     }
 
-    private boolean evaluateCustomAttributeConditionItem(Resource resource, UUID objectUuid, String fieldIdentifier, Object conditionValue, FilterConditionOperator operator) throws RuleException {
-        // If source is Custom Attribute, retrieve custom attributes of this object and find the attribute which has Name equal to Field Identifier
-        List<ResponseAttribute> responseAttributes = attributeEngine.getObjectCustomAttributesContent(resource, objectUuid);
-        ResponseAttributeV3 attributeToCompare = (ResponseAttributeV3) responseAttributes.stream().filter(rad -> Objects.equals(rad.getName(), fieldIdentifier)).findFirst().orElse(null);
+    private boolean evaluateCustomAttributeConditionItem(Resource resource, UUID objectUuid, String fieldIdentifier, Object conditionValue, FilterConditionOperator operator, ObjectAttributeContentLookup attributeContent) throws RuleException {
+        // If source is Custom Attribute, retrieve custom attributes of this object (or take them from content prefetched for the whole object set) and find the attribute which has Name equal to Field Identifier
+        ResponseAttributeV3 attributeToCompare;
+        if (attributeContent != null) {
+            attributeToCompare = (ResponseAttributeV3) attributeContent.getCustomAttribute(objectUuid, fieldIdentifier);
+        } else {
+            List<ResponseAttribute> responseAttributes = attributeEngine.getObjectCustomAttributesContent(resource, objectUuid);
+            attributeToCompare = (ResponseAttributeV3) responseAttributes.stream().filter(rad -> Objects.equals(rad.getName(), fieldIdentifier)).findFirst().orElse(null);
+        }
         if (attributeToCompare == null) return false;
         // Evaluate condition on each attribute content of the attribute, if at least one condition is evaluated as satisfied at least once, the condition is satisfied for the object
         return evaluateConditionOnAttribute(attributeToCompare.getContent(), attributeToCompare.getContentType(), conditionValue, operator);
@@ -376,14 +342,10 @@ public class TriggerEvaluator<T extends UniquelyIdentifiedObject> implements ITr
         notificationProducer.produceMessage(message);
     }
 
-    private Object getPropertyValue(Object object, List<Attribute> joinAttributes, Attribute fieldAttribute) throws InvocationTargetException, IllegalAccessException, NoSuchMethodException {
-        String pathToProperty = FilterPredicatesBuilder.buildPathToProperty(joinAttributes, fieldAttribute);
-        return PropertyUtils.getProperty(object, pathToProperty);
-    }
-
-    private boolean getConditionEvaluationResult(ConditionItem conditionItem, T object, TriggerHistory triggerHistory, Rule rule) {
+    private boolean getConditionEvaluationResult(ConditionItem conditionItem, T object, TriggerHistory triggerHistory, Rule rule, PushedDownConditions pushedDownConditions) {
         try {
-            if (!evaluateConditionItem(conditionItem, object, rule.getResource())) {
+            ObjectAttributeContentLookup attributeContent = pushedDownConditions != null && object.getUuid() != null ? pushedDownConditions.getAttributeContent(rule.getResource(), object.getUuid()) : null;
+            if (!evaluateConditionItem(conditionItem, object, rule.getResource(), attributeContent)) {
                 String message = String.format("Condition item '%s %s %s %s' is false.", conditionItem.getFieldSource().getLabel(), conditionItem.getFieldIdentifier(), conditionItem.getOperator().getLabel(), conditionItem.getValue() != null ? conditionItem.getValue().toString() : "");
                 logger.debug("Rule {} is not satisfied. Reason: {}", rule.getName(), message);
                 TriggerHistoryRecord triggerHistoryRecord = triggerService.createTriggerHistoryRecord(triggerHistory, conditionItem.getCondition().getUuid(), null, message);
@@ -460,10 +422,10 @@ public class TriggerEvaluator<T extends UniquelyIdentifiedObject> implements ITr
 
         datetimeOperatorFunctionMap = new EnumMap<>(FilterConditionOperator.class);
         datetimeOperatorFunctionMap.putAll(commonOperatorFunctionMap);
-        datetimeOperatorFunctionMap.put(FilterConditionOperator.GREATER, (o, c) -> getLocalDateTime((Date) o).isAfter(LocalDateTime.parse(c.toString(), DateTimeFormatter.ofPattern(DATETIME_FORMAT))));
-        datetimeOperatorFunctionMap.put(FilterConditionOperator.GREATER_OR_EQUAL, (o, c) -> !(getLocalDateTime((Date) o).isBefore(LocalDateTime.parse(c.toString(), DateTimeFormatter.ofPattern(DATETIME_FORMAT)))));
-        datetimeOperatorFunctionMap.put(FilterConditionOperator.LESSER, (o, c) -> getLocalDateTime((Date) o).isBefore(LocalDateTime.parse(c.toString(), DateTimeFormatter.ofPattern(DATETIME_FORMAT))));
-        datetimeOperatorFunctionMap.put(FilterConditionOperator.LESSER_OR_EQUAL, (o, c) -> !(getLocalDateTime((Date) o).isAfter(LocalDateTime.parse(c.toString(), DateTimeFormatter.ofPattern(DATETIME_FORMAT)))));
+        datetimeOperatorFunctionMap.put(FilterConditionOperator.GREATER, (o, c) -> getLocalDateTime((Date) o).isAfter(LocalDateTime.parse(c.toString(), DATETIME_FORMATTER)));
+        datetimeOperatorFunctionMap.put(FilterConditionOperator.GREATER_OR_EQUAL, (o, c) -> !(getLocalDateTime((Date) o).isBefore(LocalDateTime.parse(c.toString(), DATETIME_FORMATTER))));
+        datetimeOperatorFunctionMap.put(FilterConditionOperator.LESSER, (o, c) -> getLocalDateTime((Date) o).isBefore(LocalDateTime.parse(c.toString(), DATETIME_FORMATTER)));
+        datetimeOperatorFunctionMap.put(FilterConditionOperator.LESSER_OR_EQUAL, (o, c) -> !(getLocalDateTime((Date) o).isAfter(LocalDateTime.parse(c.toString(), DATETIME_FORMATTER))));
         datetimeOperatorFunctionMap.put(FilterConditionOperator.IN_PAST, (o, c) -> (getLocalDateTime((Date) o)).isBefore(LocalDateTime.now()) && (getLocalDateTime((Date) o)).isAfter(getLocalDateTimeNowMinusDuration(c.toString())));
         datetimeOperatorFunctionMap.put(FilterConditionOperator.IN_NEXT, (o, c) -> (getLocalDateTime((Date) o)).isAfter(LocalDateTime.now()) && (getLocalDateTime((Date) o)).isBefore(getLocalDateTimeNowPlusDuration(c.toString())));
 
@@ -479,11 +441,20 @@ public class TriggerEvaluator<T extends UniquelyIdentifiedObject> implements ITr
 
     }
 
-    private static LocalDate getLocalDate(Date o) {
+    static BiFunction<Object, Object, Boolean> getOperatorFunction(FilterFieldType fieldType, FilterConditionOperator operator) {
+        Map<FilterConditionOperator, BiFunction<Object, Object, Boolean>> operatorFunctionMap = fieldTypeToOperatorActionMap.get(fieldType);
+        return operatorFunctionMap == null ? null : operatorFunctionMap.get(operator);
+    }
+
+    static BiFunction<Collection<?>, Object, Boolean> getListSpecificOperatorFunction(FilterConditionOperator operator) {
+        return listSpecificOperatorsFunctionMap.get(operator);
+    }
+
+    static LocalDate getLocalDate(Date o) {
         return o.toInstant().atZone(ZoneId.systemDefault()).toLocalDate();
     }
 
-    private static LocalDateTime getLocalDateTime(Date o) {
+    static LocalDateTime getLocalDateTime(Date o) {
         return o.toInstant().atZone(ZoneId.systemDefault()).toLocalDateTime();
     }
 
@@ -509,7 +480,7 @@ public class TriggerEvaluator<T extends UniquelyIdentifiedObject> implements ITr
         return LocalDate.now().plus(Period.of(durationParsed.getYears(), durationParsed.getMonths(), durationParsed.getDays()));
     }
 
-    private static Duration getDurationParsed(String duration) {
+    static Duration getDurationParsed(String duration) {
         Duration durationParsed;
         try {
             durationParsed = DatatypeFactory.newInstance().newDuration(duration);
@@ -520,13 +491,17 @@ public class TriggerEvaluator<T extends UniquelyIdentifiedObject> implements ITr
     }
 
     private static int compareNumbers(Number objectNumber, Object conditionNumber) {
+        return Float.compare(objectNumber.floatValue(), parseConditionNumber(conditionNumber));
+    }
+
+    static float parseConditionNumber(Object conditionNumber) {
         if (conditionNumber instanceof String) {
-            conditionNumber = Float.parseFloat(conditionNumber.toString());
+            return Float.parseFloat(conditionNumber.toString());
         } else if (!(conditionNumber instanceof Number)) {
             throw new ValidationException("Invalid type for conditionNumber. Expected String or Number, but got: "
                     + (conditionNumber == null ? "null" : conditionNumber.getClass().getSimpleName()));
         }
-        return Float.compare(objectNumber.floatValue(), ((Number) conditionNumber).floatValue());
+        return ((Number) conditionNumber).floatValue();
     }
 
     private boolean evaluateConditionOnAttribute(List<? extends AttributeContent> content, AttributeContentType contentType, Object conditionValue, FilterConditionOperator operator) throws RuleException {
@@ -3,6 +3,7 @@ package com.czertainly.core.events;
 import com.czertainly.api.model.core.auth.Resource;
 import com.czertainly.api.model.core.other.ResourceEvent;
 import com.czertainly.core.dao.entity.UniquelyIdentifiedObject;
+import com.czertainly.core.evaluator.PushedDownConditions;
 import com.czertainly.core.evaluator.TriggerEvaluator;
 import com.czertainly.core.messaging.model.EventMessage;
 import com.czertainly.core.tasks.ScheduledJobInfo;
@@ -25,13 +26,23 @@ public class EventContext<T extends UniquelyIdentifiedObject> {
     private final List<Object> resourceObjectsEventData = new ArrayList<>();
     private final EventContextTriggers platformTriggers;
     private final Map<String, EventContextTriggers> overridingResourceTriggers = new HashMap<>();
+    private final Map<String, PushedDownConditions> pushedDownTriggerConditions = new HashMap<>();
 
     private UUID currentUserUuid;
+    private boolean conditionsPushDownEnabled;
 
     public void setCurrentUserUuid(UUID currentUserUuid) {
         this.currentUserUuid = currentUserUuid;
     }
 
+    public void setConditionsPushDownEnabled(boolean conditionsPushDownEnabled) {
+        this.conditionsPushDownEnabled = conditionsPushDownEnabled;
+    }
+
+    public EventContext(EventMessage eventMessage, TriggerEvaluator<T> triggerEvaluator) {
+        this(eventMessage, triggerEvaluator, null, null);
+    }
+
     public EventContext(EventMessage eventMessage, TriggerEvaluator<T> triggerEvaluator, T resourceObject, Object resourceObjectEventData) {
         this.resource = eventMessage.getResource();
         this.event = eventMessage.getEvent();
@@ -44,8 +55,12 @@ public class EventContext<T extends UniquelyIdentifiedObject> {
 
         this.triggerEvaluator = triggerEvaluator;
         if (resourceObject != null) {
-            this.resourceObjects.add(resourceObject);
-            this.resourceObjectsEventData.add(resourceObjectEventData);
+            addResourceObject(resourceObject, resourceObjectEventData);
         }
     }
+
+    public void addResourceObject(T resourceObject, Object resourceObjectEventData) {
+        this.resourceObjects.add(resourceObject);
+        this.resourceObjectsEventData.add(resourceObjectEventData);
+    }
 }
@@ -3,12 +3,14 @@ package com.czertainly.core.events;
 import com.czertainly.api.exception.EventException;
 import com.czertainly.api.exception.ValidationException;
 import com.czertainly.api.model.core.auth.Resource;
+import com.czertainly.api.model.core.workflows.ExecutionType;
 import com.czertainly.core.dao.entity.UniquelyIdentifiedObject;
 import com.czertainly.core.dao.entity.workflows.Trigger;
 import com.czertainly.core.dao.entity.workflows.TriggerAssociation;
 import com.czertainly.core.dao.entity.workflows.TriggerHistory;
 import com.czertainly.core.dao.repository.SecurityFilterRepository;
 import com.czertainly.core.dao.repository.workflows.TriggerAssociationRepository;
+import com.czertainly.core.evaluator.PushedDownConditions;
 import com.czertainly.core.evaluator.TriggerEvaluator;
 import com.czertainly.core.messaging.jms.producers.EventProducer;
 import com.czertainly.core.messaging.jms.producers.NotificationProducer;
@@ -24,6 +26,7 @@ import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
 import java.util.UUID;
@@ -81,14 +84,34 @@ public abstract class EventHandler<T extends UniquelyIdentifiedObject> implement
     }
 
     protected EventContext<T> prepareContext(EventMessage eventMessage) throws EventException {
-        T resourceObject = repository.findByUuid(SecuredUUID.fromUUID(eventMessage.getObjectUuid())).orElseThrow(() -> new EventException(eventMessage.getEvent(), "%s with UUID %s not found".formatted(eventMessage.getResource().getLabel(), eventMessage.getObjectUuid())));
-
-        EventContext<T> context = new EventContext<>(eventMessage, triggerEvaluator, resourceObject, getEventData(resourceObject, eventMessage.getData()));
+        EventContext<T> context;
+        if (eventMessage.getObjectUuids() != null && !eventMessage.getObjectUuids().isEmpty()) {
+            // set-based event, load all objects at once and evaluate triggers across the whole set
+            List<T> resourceObjects = findResourceObjects(eventMessage.getObjectUuids());
+            if (resourceObjects.size() < eventMessage.getObjectUuids().size()) {
+                logger.debug("{} of {} {} objects of event '{}' not found, skipping them", eventMessage.getObjectUuids().size() - resourceObjects.size(), eventMessage.getObjectUuids().size(), eventMessage.getResource().getLabel(), eventMessage.getEvent().getLabel());
+            }
+            context = new EventContext<>(eventMessage, triggerEvaluator);
+            for (T resourceObject : resourceObjects) {
+                context.addResourceObject(resourceObject, getEventData(resourceObject, eventMessage.getData()));
+            }
+        } else {
+            T resourceObject = repository.findByUuid(SecuredUUID.fromUUID(eventMessage.getObjectUuid())).orElseThrow(() -> new EventException(eventMessage.getEvent(), "%s with UUID %s not found".formatted(eventMessage.getResource().getLabel(), eventMessage.getObjectUuid())));
+            context = new EventContext<>(eventMessage, triggerEvaluator, resourceObject, getEventData(resourceObject, eventMessage.getData()));
+        }
         fetchEventTriggers(context, null, null); // triggers without resource and its UUID are platform ones
 
         return context;
     }
 
+    /**
+     * Loads objects of set-based event message. Handlers can override it to fetch associations needed
+     * by overriding triggers and event data in the same query.
+     */
+    protected List<T> findResourceObjects(List<UUID> objectUuids) {
+        return repository.findAllById(objectUuids);
+    }
+
     protected abstract Object getEventData(T object, Object eventMessageData);
 
     protected List<EventContextTriggers> getOverridingTriggers(EventContext<T> eventContext, T object) throws EventException {
@@ -110,8 +133,6 @@ public abstract class EventHandler<T extends UniquelyIdentifiedObject> implement
     }
 
     protected EventContextTriggers fetchEventTriggers(EventContext<T> context, Resource resource, UUID objectUuid) throws EventException {
-        List<TriggerAssociation> triggerAssociations = triggerAssociationRepository.findAllByEventAndResourceAndObjectUuidOrderByTriggerOrderAsc(context.getEvent(), resource, objectUuid);
-
         EventContextTriggers eventContextTriggers;
         if (resource == null && objectUuid == null) {
             eventContextTriggers = context.getPlatformTriggers();
@@ -120,9 +141,17 @@ public abstract class EventHandler<T extends UniquelyIdentifiedObject> implement
                 throw new EventException(context.getEvent(), "Error in fetching triggers for event '%s'. %s is null".formatted(context.getEvent().getLabel(), resource == null ? "Resource" : "Object UUID"));
             }
             String triggersKey = "%s.%s".formatted(resource.toString(), objectUuid.toString());
-            eventContextTriggers = context.getOverridingResourceTriggers().computeIfAbsent(triggersKey, key -> new EventContextTriggers(resource, objectUuid));
+            EventContextTriggers fetchedTriggers = context.getOverridingResourceTriggers().get(triggersKey);
+            if (fetchedTriggers != null) {
+                // triggers of the resource were already fetched for another object of the event
+                return fetchedTriggers;
+            }
+            eventContextTriggers = new EventContextTriggers(resource, objectUuid);
+            context.getOverridingResourceTriggers().put(triggersKey, eventContextTriggers);
         }
 
+        List<TriggerAssociation> triggerAssociations = triggerAssociationRepository.findAllByEventAndResourceAndObjectUuidOrderByTriggerOrderAsc(context.getEvent(), resource, objectUuid);
+
         for (TriggerAssociation triggerAssociation : triggerAssociations) {
             if (triggerAssociation.getTrigger().isIgnoreTrigger()) {
                 eventContextTriggers.getIgnoreTriggers().add(triggerAssociation);
@@ -135,12 +164,13 @@ public abstract class EventHandler<T extends UniquelyIdentifiedObject> implement
     }
 
     protected void processAllTriggers(EventContext<T> context) throws EventException {
+        List<List<EventContextTriggers>> prefetchedOverridingTriggers = prefetchOverridingTriggers(context);
         for (int i = 0; i < context.getResourceObjects().size(); i++) {
             T resourceObject = context.getResourceObjects().get(i);
             Object eventData = context.getResourceObjectsEventData().get(i);
 
             // load overriding triggers
-            List<EventContextTriggers> overridingTriggers = getOverridingTriggers(context, resourceObject);
+            List<EventContextTriggers> overridingTriggers = prefetchedOverridingTriggers != null ? prefetchedOverridingTriggers.get(i) : getOverridingTriggers(context, resourceObject);
             for (EventContextTriggers triggers : overridingTriggers) {
                 processTriggers(context, triggers, resourceObject, eventData);
             }
@@ -160,7 +190,7 @@ public abstract class EventHandler<T extends UniquelyIdentifiedObject> implement
             handleUser(context, triggerAssociation.getTriggeredBy());
             Trigger trigger = triggerAssociation.getTrigger();
             try {
-                TriggerHistory triggerHistory = context.getTriggerEvaluator().evaluateTrigger(trigger, triggerAssociation, resourceObject, null, eventData);
+                TriggerHistory triggerHistory = context.getTriggerEvaluator().evaluateTrigger(trigger, triggerAssociation, resourceObject, null, eventData, getPushedDownConditions(context, trigger));
                 if (triggerHistory.isActionsPerformed()) {
                     isIgnored = true;
                 }
@@ -180,7 +210,7 @@ public abstract class EventHandler<T extends UniquelyIdentifiedObject> implement
             handleUser(context, triggerAssociation.getTriggeredBy());
             Trigger trigger = triggerAssociation.getTrigger();
             try {
-                context.getTriggerEvaluator().evaluateTrigger(trigger, triggerAssociation, resourceObject, null, eventData);
+                context.getTriggerEvaluator().evaluateTrigger(trigger, triggerAssociation, resourceObject, null, eventData, getPushedDownConditions(context, trigger));
                 logger.debug("Trigger '{}' on {} object {} processed successfully", trigger.getName(), context.getResource().getLabel(), resourceObject.getUuid());
             } catch (Exception e) {
                 logger.error("Unable to process trigger '{}' on {} object {}. Message: {}", trigger.getName(), context.getResource().getLabel(), resourceObject.getUuid(), e.getMessage());
@@ -188,6 +218,51 @@ public abstract class EventHandler<T extends UniquelyIdentifiedObject> implement
         }
     }
 
+    /**
+     * Loads overriding triggers of all objects of multi-object event upfront to find out whether trigger conditions can be evaluated
+     * in database for all objects at once. That is not possible when some trigger sets fields of objects, since it could change
+     * the result of conditions evaluated later and the overriding triggers of the objects.
+     *
+     * @return Overriding triggers of the objects or null if conditions are evaluated object by object
+     */
+    private List<List<EventContextTriggers>> prefetchOverridingTriggers(EventContext<T> context) throws EventException {
+        if (context.getResourceObjects().size() < 2 || hasSetFieldActions(context.getPlatformTriggers())) {
+            return null;
+        }
+
+        List<List<EventContextTriggers>> overridingTriggers = new ArrayList<>();
+        for (T resourceObject : context.getResourceObjects()) {
+            List<EventContextTriggers> objectOverridingTriggers = getOverridingTriggers(context, resourceObject);
+            if (objectOverridingTriggers.stream().anyMatch(this::hasSetFieldActions)) {
+                return null;
+            }
+            overridingTriggers.add(objectOverridingTriggers);
+        }
+        context.setConditionsPushDownEnabled(true);
+        return overridingTriggers;
+    }
+
+    private boolean hasSetFieldActions(EventContextTriggers eventTriggers) {
+        return eventTriggers.getTriggers().stream()
+                .map(TriggerAssociation::getTrigger)
+                .filter(trigger -> trigger.getActions() != null)
+                .flatMap(trigger -> trigger.getActions().stream())
+                .flatMap(action -> action.getExecutions().stream())
+                .anyMatch(execution -> execution.getType() == ExecutionType.SET_FIELD);
+    }
+
+    /**
+     * For events of multiple objects, conditions of the trigger that can be translated to database query are evaluated
+     * for all objects of the event at once. Result is kept per trigger and user, since content of custom attributes used
+     * in conditions is loaded with permissions of the user the trigger is evaluated for.
+     */
+    protected PushedDownConditions getPushedDownConditions(EventContext<T> context, Trigger trigger) {
+        if (!context.isConditionsPushDownEnabled()) {
+            return null;
+        }
+        return context.getPushedDownTriggerConditions().computeIfAbsent(trigger.getUuid() + "|" + context.getCurrentUserUuid(), key -> context.getTriggerEvaluator().pushDownConditions(trigger, context.getResourceObjects()));
+    }
+
     protected void handleUser(EventContext<T> context, UUID triggeredBy) {
         if (!Objects.equals(context.getCurrentUserUuid(), triggeredBy)) {
             try {
@@ -23,15 +23,19 @@ import com.czertainly.core.events.transaction.TransactionHandler;
 import com.czertainly.core.messaging.jms.producers.ValidationProducer;
 import com.czertainly.core.messaging.model.EventMessage;
 import com.czertainly.core.messaging.model.ValidationMessage;
+import com.czertainly.core.model.discovery.DiscoveredPublicKeys;
 import com.czertainly.core.service.CertificateService;
 import com.czertainly.core.service.handler.CertificateHandler;
+import com.czertainly.core.service.handler.DiscoveryConcurrencyController;
 import com.czertainly.core.tasks.ScheduledJobInfo;
 import com.czertainly.core.util.CertificateUtil;
+import com.czertainly.core.util.KeySizeUtil;
 import com.pivovarit.collectors.ParallelCollectors;
 import org.bouncycastle.asn1.x509.Extension;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.security.concurrent.DelegatingSecurityContextExecutor;
 import org.springframework.security.core.context.SecurityContext;
@@ -48,22 +52,22 @@ import java.security.spec.InvalidKeySpecException;
 import java.time.ZoneId;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.*;
-import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Stream;
 
 @Transactional
 @Component(ResourceEvent.Codes.CERTIFICATE_DISCOVERED)
 public class CertificateDiscoveredEventHandler extends EventHandler<Certificate> {
 
-    private static final Integer MAXIMUM_PARALLELISM = 5;
+    private static final int TRANSACTION_CHUNK_SIZE = 100;
+    private static final UUID FIRST_UUID = new UUID(0, 0);
+    private static final String KEY_NAME_PREFIX = "certKey_";
+    private static final String ALT_KEY_NAME_PREFIX = "altCertKey_";
     private static final Logger logger = LoggerFactory.getLogger(CertificateDiscoveredEventHandler.class);
 
-    private static final Semaphore processCertSemaphore = new Semaphore(10);
-
     private CertificateHandler certificateHandler;
+    private DiscoveryConcurrencyController discoveryConcurrencyController;
     private TransactionHandler transactionHandler;
     private ValidationProducer validationProducer;
 
@@ -81,6 +85,11 @@ public class CertificateDiscoveredEventHandler extends EventHandler<Certificate>
         this.certificateHandler = certificateHandler;
     }
 
+    @Autowired
+    public void setDiscoveryConcurrencyController(DiscoveryConcurrencyController discoveryConcurrencyController) {
+        this.discoveryConcurrencyController = discoveryConcurrencyController;
+    }
+
     @Autowired
     public void setTransactionHandler(TransactionHandler transactionHandler) {
         this.transactionHandler = transactionHandler;
@@ -146,73 +155,128 @@ public class CertificateDiscoveredEventHandler extends EventHandler<Certificate>
         // Get newly discovered certificates
         DiscoveryHistory discovery = discoveryRepository.findByUuid(eventMessage.getOverrideObjectUuid()).orElseThrow(() -> new EventException(eventMessage.getEvent(), "Discovery with UUID %s not found".formatted(eventMessage.getOverrideObjectUuid())));
         String originalMessage = discovery.getStatus() != DiscoveryStatus.IN_PROGRESS ? discovery.getMessage() : null;
-        List<DiscoveryCertificate> discoveredCertificates = discoveryCertificateRepository.findByDiscoveryUuidAndNewlyDiscovered(eventMessage.getOverrideObjectUuid(), true, Pageable.unpaged());
-        logger.debug("Going to process {} triggers on {} discovered certificates", mergedIgnoreTriggers.size() + mergedTriggers.size(), context.getResourceObjects().size());
+        long totalCount = discoveryCertificateRepository.countByDiscoveryAndNewlyDiscovered(discovery, true);
+        logger.debug("Going to process {} triggers on {} discovered certificates", mergedIgnoreTriggers.size() + mergedTriggers.size(), totalCount);
 
-        if (discoveredCertificates.isEmpty()) {
+        if (totalCount == 0) {
             eventProducer.produceMessage(DiscoveryFinishedEventHandler.constructEventMessage(discovery.getUuid(), context.getUserUuid(), context.getScheduledJobInfo(), new DiscoveryResult(DiscoveryStatus.PROCESSING, originalMessage)));
             return;
         }
 
-        // For each discovered certificate and for each found trigger, check if it satisfies rules defined by the trigger and perform actions accordingly
-        AtomicInteger index = new AtomicInteger(0);
-        ConcurrentMap<PublicKey, List<UUID>> keyToCertificates = new ConcurrentHashMap<>();
-        ConcurrentMap<PublicKey, List<UUID>> altKeyToCertificates = new ConcurrentHashMap<>();
-        try (ExecutorService virtualThreadExecutor = Executors.newVirtualThreadPerTaskExecutor()) {
+        // Certificates are processed page by page in chunks committed in one transaction. Processed flag of discovery certificate
+        // is committed with its chunk, so processing of interrupted discovery continues with certificates not processed yet.
+        try (DiscoveryConcurrencyController.DiscoveryRun run = discoveryConcurrencyController.startProcessing(discovery.getUuid());
+             ExecutorService virtualThreadExecutor = Executors.newVirtualThreadPerTaskExecutor()) {
             SecurityContext securityContext = SecurityContextHolder.getContext();
             DelegatingSecurityContextExecutor executor = new DelegatingSecurityContextExecutor(virtualThreadExecutor, securityContext);
-            CompletableFuture<Stream<Object>> future = discoveredCertificates.stream().collect(
-                    ParallelCollectors.parallel(
-                            discoveryCertificate -> {
-                                int certIndex;
-                                try {
-                                    certIndex = index.incrementAndGet();
-                                    processCertSemaphore.acquire();
-                                    transactionHandler.runInNewTransaction(() -> processDiscoveredCertificate(context, mergedIgnoreTriggers, mergedTriggers, certIndex, discoveredCertificates.size(), discovery, discoveryCertificate, keyToCertificates, altKeyToCertificates));
-                                } catch (InterruptedException e) {
-                                    Thread.currentThread().interrupt();
-                                    logger.error("Thread {} processing cert {} of discovered certificates interrupted.", Thread.currentThread().getName(), index.get());
-                                } catch (Exception e) {
-                                    logger.error("Unable to process certificate {}: {}", discoveryCertificate.getCommonName(), e.getMessage(), e);
-                                } finally {
-                                    logger.trace("Thread {} processing cert {} of discovered certificates finalized. Released semaphore.", Thread.currentThread().getName(), index.get());
-                                    processCertSemaphore.release();
+            Pageable page = PageRequest.of(0, TRANSACTION_CHUNK_SIZE * run.getMaxConcurrency());
+            UUID lastUuid = FIRST_UUID;
+            List<DiscoveryCertificate> discoveredCertificates;
+            while (!(discoveredCertificates = discoveryCertificateRepository.findByDiscoveryUuidAndNewlyDiscoveredAndProcessedAndUuidGreaterThanOrderByUuidAsc(discovery.getUuid(), true, false, lastUuid, page)).isEmpty()) {
+                lastUuid = discoveredCertificates.getLast().getUuid();
+                processDiscoveredCertificatesPage(context, mergedIgnoreTriggers, mergedTriggers, discovery, discoveredCertificates, run, executor);
+
+                // report progress
+                Long currentCount = discoveryCertificateRepository.countByDiscoveryAndNewlyDiscoveredAndProcessed(discovery, true, true);
+                discovery.setMessage(String.format("Processed %d %% of newly discovered certificates (%d / %d)", (int) ((currentCount / (double) totalCount) * 100), currentCount, totalCount));
+                discoveryRepository.save(discovery);
+            }
+        }
+
+        // trigger other events
+        eventProducer.produceMessage(DiscoveryFinishedEventHandler.constructEventMessage(discovery.getUuid(), context.getUserUuid(), context.getScheduledJobInfo(), new DiscoveryResult(DiscoveryStatus.PROCESSING, originalMessage)));
+        validationProducer.produceMessage(new ValidationMessage(Resource.CERTIFICATE, null, discovery.getUuid(), discovery.getName(), null, null));
+    }
+
+    private void processDiscoveredCertificatesPage(EventContext<Certificate> context, List<TriggerAssociation> mergedIgnoreTriggers, List<TriggerAssociation> mergedTriggers, DiscoveryHistory discovery, List<DiscoveryCertificate> discoveredCertificates,
+                                                   DiscoveryConcurrencyController.DiscoveryRun run, Executor executor) {
+        List<List<DiscoveryCertificate>> chunks = new ArrayList<>();
+        for (int i = 0; i < discoveredCertificates.size(); i += TRANSACTION_CHUNK_SIZE) {
+            chunks.add(discoveredCertificates.subList(i, Math.min(i + TRANSACTION_CHUNK_SIZE, discoveredCertificates.size())));
+        }
+
+        // For each discovered certificate and for each found trigger, check if it satisfies rules defined by the trigger and perform actions accordingly
+        DiscoveredPublicKeys publicKeys = new DiscoveredPublicKeys(KEY_NAME_PREFIX);
+        DiscoveredPublicKeys altPublicKeys = new DiscoveredPublicKeys(ALT_KEY_NAME_PREFIX);
+        CompletableFuture<Stream<Object>> future = chunks.stream().collect(
+                ParallelCollectors.parallel(
+                        chunk -> {
+                            DiscoveryConcurrencyController.Permit permit = null;
+                            boolean success = false;
+                            try {
+                                permit = run.acquireStorage();
+                                success = processDiscoveredCertificatesChunk(context, mergedIgnoreTriggers, mergedTriggers, discovery, chunk, publicKeys, altPublicKeys);
+                            } catch (InterruptedException e) {
+                                Thread.currentThread().interrupt();
+                                logger.error("Thread {} processing chunk of {} discovered certificates interrupted.", Thread.currentThread().getName(), chunk.size());
+                            } finally {
+                                if (permit != null) {
+                                    logger.trace("Thread {} processing chunk of {} discovered certificates finalized. Released storage permit.", Thread.currentThread().getName(), chunk.size());
+                                    permit.release(success);
                                 }
-                                return null; // Return null to satisfy the return type
-                            },
-                            executor,
-                            MAXIMUM_PARALLELISM
-                    )
-            );
-
-            // Wait for all tasks to complete
-            future.join();
+                            }
+                            return null; // Return null to satisfy the return type
+                        },
+                        executor,
+                        run.getMaxConcurrency()
+                )
+        );
+
+        // Wait for all tasks to complete
+        future.join();
+
+        // Upload certificate keys of the page out of parallel processing to avoid collisions
+        if (publicKeys.isEmpty() && altPublicKeys.isEmpty()) {
+            return;
+        }
+        try {
+            certificateHandler.uploadDiscoveredCertificateKeys(publicKeys, altPublicKeys);
+        } catch (Exception e) {
+            logger.error("Could not upload public keys of {} discovered certificates of discovery {}: {}", publicKeys.getCertificateUuids().size(), discovery.getName(), e.getMessage(), e);
         }
+    }
 
-        // Upload certificate keys out of parallel processing to avoid collisions
-        for (Map.Entry<PublicKey, List<UUID>> entry : keyToCertificates.entrySet()) {
-            try {
-                certificateHandler.uploadDiscoveredCertificateKey(entry.getKey(), entry.getValue());
-            } catch (NoSuchAlgorithmException e) {
-                logger.error("Could not create public key for certificates with UUIDs {}: {}", e.getMessage(), entry.getValue());
-            }
+    /**
+     * Processes chunk of discovered certificates in one transaction. When the transaction fails, certificates of the chunk
+     * are processed again each in its own transaction, so one failing certificate does not discard the whole chunk.
+     *
+     * @return True if the chunk was committed in one transaction
+     */
+    private boolean processDiscoveredCertificatesChunk(EventContext<Certificate> context, List<TriggerAssociation> mergedIgnoreTriggers, List<TriggerAssociation> mergedTriggers, DiscoveryHistory discovery, List<DiscoveryCertificate> chunk,
+                                                       DiscoveredPublicKeys publicKeys, DiscoveredPublicKeys altPublicKeys) {
+        try {
+            processInNewTransaction(context, mergedIgnoreTriggers, mergedTriggers, discovery, chunk, publicKeys, altPublicKeys);
+            return true;
+        } catch (Exception e) {
+            logger.warn("Unable to process chunk of {} discovered certificates of discovery {} in one transaction, processing them one by one: {}", chunk.size(), discovery.getName(), e.getMessage());
         }
 
-        for (Map.Entry<PublicKey, List<UUID>> entry : altKeyToCertificates.entrySet()) {
+        for (DiscoveryCertificate discoveryCertificate : chunk) {
             try {
-                certificateHandler.uploadDiscoveredCertificateAltKey(entry.getKey(), entry.getValue());
-            } catch (NoSuchAlgorithmException e) {
-                logger.error("Could not create alternative public key for certificates with UUIDs {}: {}", e.getMessage(), entry.getValue());
+                processInNewTransaction(context, mergedIgnoreTriggers, mergedTriggers, discovery, List.of(discoveryCertificate), publicKeys, altPublicKeys);
+            } catch (Exception e) {
+                logger.error("Unable to process certificate {}: {}", discoveryCertificate.getCommonName(), e.getMessage(), e);
             }
         }
+        return false;
+    }
 
-        // trigger other events
-        eventProducer.produceMessage(DiscoveryFinishedEventHandler.constructEventMessage(discovery.getUuid(), context.getUserUuid(), context.getScheduledJobInfo(), new DiscoveryResult(DiscoveryStatus.PROCESSING, originalMessage)));
-        validationProducer.produceMessage(new ValidationMessage(Resource.CERTIFICATE, null, discovery.getUuid(), discovery.getName(), null, null));
+    private void processInNewTransaction(EventContext<Certificate> context, List<TriggerAssociation> mergedIgnoreTriggers, List<TriggerAssociation> mergedTriggers, DiscoveryHistory discovery, List<DiscoveryCertificate> discoveryCertificates,
+                                         DiscoveredPublicKeys publicKeys, DiscoveredPublicKeys altPublicKeys) {
+        DiscoveredPublicKeys committedPublicKeys = new DiscoveredPublicKeys(KEY_NAME_PREFIX);
+        DiscoveredPublicKeys committedAltPublicKeys = new DiscoveredPublicKeys(ALT_KEY_NAME_PREFIX);
+        transactionHandler.runInNewTransaction(() -> {
+            for (DiscoveryCertificate discoveryCertificate : discoveryCertificates) {
+                processDiscoveredCertificate(context, mergedIgnoreTriggers, mergedTriggers, discovery, discoveryCertificate, committedPublicKeys, committedAltPublicKeys);
+            }
+        });
+        // keys are uploaded only for certificates of committed transactions
+        publicKeys.addAll(committedPublicKeys);
+        altPublicKeys.addAll(committedAltPublicKeys);
     }
 
-    private void processDiscoveredCertificate(EventContext<Certificate> eventContext, List<TriggerAssociation> mergedIgnoreTriggers, List<TriggerAssociation> mergedTriggers, int certIndex, int totalCount, DiscoveryHistory discovery, DiscoveryCertificate discoveryCertificate, ConcurrentMap<PublicKey, List<UUID>> keysToCertificatesMap,
-                                              ConcurrentMap<PublicKey, List<UUID>> altKeysToCertificatesMap) {
+    private void processDiscoveredCertificate(EventContext<Certificate> eventContext, List<TriggerAssociation> mergedIgnoreTriggers, List<TriggerAssociation> mergedTriggers, DiscoveryHistory discovery, DiscoveryCertificate discoveryCertificate,
+                                              DiscoveredPublicKeys publicKeys, DiscoveredPublicKeys altPublicKeys) {
         // Get X509 from discovered certificate and create certificate entity, do not save in database yet
         Certificate certificate;
         X509Certificate x509Cert;
@@ -265,10 +329,10 @@ public class CertificateDiscoveredEventHandler extends EventHandler<Certificate>
                 }
 
                 certificateHandler.updateDiscoveredCertificate(discovery, certificate, discoveryCertificate.getMeta());
-                keysToCertificatesMap.computeIfAbsent(x509Cert.getPublicKey(), k -> new ArrayList<>()).add(certificate.getUuid());
+                publicKeys.add(x509Cert.getPublicKey(), certificate.getUuid(), certificate.getCommonName());
                 byte[] altPublicKey = x509Cert.getExtensionValue(Extension.subjectAltPublicKeyInfo.getId());
                 if (altPublicKey != null) {
-                    addEntryToAltPublicKeyMap(altKeysToCertificatesMap, altPublicKey, certificate);
+                    addAltPublicKey(altPublicKeys, altPublicKey, certificate);
                 }
             }
         } catch (Exception e) {
@@ -278,21 +342,18 @@ public class CertificateDiscoveredEventHandler extends EventHandler<Certificate>
         discoveryCertificate.setProcessed(true);
         discoveryCertificateRepository.save(discoveryCertificate);
 
-        // report progress
-        if (certIndex % MAXIMUM_PARALLELISM == 0) {
-            Long currentCount = discoveryCertificateRepository.countByDiscoveryAndNewlyDiscoveredAndProcessed(discovery, true, true);
-            discovery.setMessage(String.format("Processed %d %% of newly discovered certificates (%d / %d)", (int) ((currentCount / (double) totalCount) * 100), currentCount, totalCount));
-            discoveryRepository.save(discovery);
-        }
-
         if (logger.isDebugEnabled()) {
             logger.debug("Finalize processing discovered certificate: {}", certificate.toStringShort());
         }
     }
 
-    private static void addEntryToAltPublicKeyMap(ConcurrentMap<PublicKey, List<UUID>> altKeysToCertificatesMap, byte[] altPublicKey, Certificate certificate) {
+    private static void addAltPublicKey(DiscoveredPublicKeys altPublicKeys, byte[] altPublicKeyEncoded, Certificate certificate) {
         try {
-            altKeysToCertificatesMap.computeIfAbsent(CertificateUtil.getAltPublicKey(altPublicKey), k -> new ArrayList<>()).add(certificate.getUuid());
+            // certificate is linked to the alternative key by its fingerprint when the keys are uploaded
+            PublicKey altPublicKey = CertificateUtil.getAltPublicKey(altPublicKeyEncoded);
+            certificate.setAltKeyFingerprint(altPublicKeys.add(altPublicKey, certificate.getUuid(), certificate.getCommonName()));
+            certificate.setAltPublicKeyAlgorithm(CertificateUtil.getKeyAlgorithmStringFromProviderName(altPublicKey.getAlgorithm()));
+            certificate.setAltKeySize(KeySizeUtil.getKeyLength(altPublicKey));
         } catch (IOException | NoSuchAlgorithmException | InvalidKeySpecException e) {
             logger.error("Could not parse alternative public key of certificate with UUID {}: {}", certificate.getUuid(), e.getMessage());
         }
@@ -14,13 +14,23 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.UUID;
 
 @Component
 @Transactional
 public abstract class CertificateEventsHandler extends EventHandler<Certificate> {
 
+    private final CertificateRepository certificateRepository;
+
     protected CertificateEventsHandler(CertificateRepository repository, CertificateTriggerEvaluator ruleEvaluator) {
         super(repository, ruleEvaluator);
+        this.certificateRepository = repository;
+    }
+
+    @Override
+    protected List<Certificate> findResourceObjects(List<UUID> objectUuids) {
+        // groups and RA profile are needed for overriding triggers of each certificate
+        return certificateRepository.findWithEventAssociationsByUuidIn(objectUuids);
     }
 
     @Override
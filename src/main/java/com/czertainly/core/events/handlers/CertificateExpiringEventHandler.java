@@ -9,12 +9,16 @@ import com.czertainly.core.events.data.EventDataBuilder;
 import com.czertainly.core.messaging.model.EventMessage;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.UUID;
 
 @SuppressWarnings("java:S6830")
 @Component(ResourceEvent.Codes.CERTIFICATE_EXPIRING)
 public class CertificateExpiringEventHandler extends CertificateEventsHandler {
 
+    public static final int MAX_CERTIFICATES_PER_MESSAGE = 1000;
+
     protected CertificateExpiringEventHandler(CertificateRepository repository, CertificateTriggerEvaluator ruleEvaluator) {
         super(repository, ruleEvaluator);
     }
@@ -27,4 +31,16 @@ public class CertificateExpiringEventHandler extends CertificateEventsHandler {
     public static EventMessage constructEventMessages(UUID expiringCertificateUuid) {
         return new EventMessage(ResourceEvent.CERTIFICATE_EXPIRING, Resource.CERTIFICATE, expiringCertificateUuid, null);
     }
+
+    /**
+     * Construct set-based event messages, each carrying at most {@link #MAX_CERTIFICATES_PER_MESSAGE} certificates
+     */
+    public static List<EventMessage> constructEventMessages(List<UUID> expiringCertificateUuids) {
+        List<EventMessage> eventMessages = new ArrayList<>();
+        for (int i = 0; i < expiringCertificateUuids.size(); i += MAX_CERTIFICATES_PER_MESSAGE) {
+            List<UUID> chunk = List.copyOf(expiringCertificateUuids.subList(i, Math.min(i + MAX_CERTIFICATES_PER_MESSAGE, expiringCertificateUuids.size())));
+            eventMessages.add(new EventMessage(ResourceEvent.CERTIFICATE_EXPIRING, Resource.CERTIFICATE, chunk, null));
+        }
+        return eventMessages;
+    }
 }
@@ -0,0 +1,67 @@
+package com.czertainly.core.messaging.jms.configuration;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Decision rules of {@link ListenerConcurrencyController}.
+ *
+ * <p>Consumers are added one at a time while the existing ones are busy (which means messages are waiting
+ * in the queue), and removed by a quarter when the database is saturated or processing latency exceeds
+ * the threshold, i.e. additive increase, multiplicative decrease.</p>
+ */
+public final class AdaptiveConcurrencyPolicy {
+
+    private final MessagingConcurrencyProperties.Adaptive settings;
+
+    public AdaptiveConcurrencyPolicy(MessagingConcurrencyProperties.Adaptive settings) {
+        this.settings = settings;
+    }
+
+    /**
+     * @param currentMax      current maximum number of consumers of the listener
+     * @param minConsumers    configured lower bound of the listener concurrency
+     * @param configuredMax   configured upper bound of the listener concurrency
+     * @param utilization     ratio of time the consumers spent processing messages during the last interval
+     * @param averageLatencyMs average processing time of a message during the last interval
+     * @param dbPoolSaturated whether the DB connection pool is above its high watermark
+     * @return new maximum number of consumers of the listener
+     */
+    public int nextMaxConsumers(int currentMax, int minConsumers, int configuredMax, double utilization,
+                                double averageLatencyMs, boolean dbPoolSaturated) {
+        boolean latencyExceeded = settings.latencyThresholdMs() > 0 && averageLatencyMs > settings.latencyThresholdMs();
+        if (dbPoolSaturated || latencyExceeded) {
+            return Math.max(minConsumers, currentMax - Math.max(1, currentMax / 4));
+        }
+        if (utilization >= settings.utilizationThreshold()) {
+            return Math.min(configuredMax, currentMax + 1);
+        }
+        return currentMax;
+    }
+
+    /**
+     * Scales the requested maximums down proportionally so that the sum of all consumers of the instance does not
+     * exceed the per-instance cap. Consumers of listeners with fixed concurrency cannot be adjusted, so they are
+     * counted against the cap first and the adaptive listeners share the rest. Listener minimums are always preserved.
+     *
+     * @param requestedMax   requested maximum consumers by listener id
+     * @param minConsumers   minimum consumers by listener id
+     * @param fixedConsumers number of consumers of listeners with fixed concurrency
+     * @return maximum consumers by listener id respecting the cap
+     */
+    public Map<String, Integer> applyInstanceCap(Map<String, Integer> requestedMax, Map<String, Integer> minConsumers, int fixedConsumers) {
+        Integer cap = settings.instanceMaxConsumers();
+        int total = requestedMax.values().stream().mapToInt(Integer::intValue).sum();
+        if (cap == null || total == 0 || fixedConsumers + total <= cap) {
+            return requestedMax;
+        }
+
+        double ratio = (double) Math.max(0, cap - fixedConsumers) / total;
+        Map<String, Integer> capped = new LinkedHashMap<>();
+        for (Map.Entry<String, Integer> entry : requestedMax.entrySet()) {
+            int min = minConsumers.getOrDefault(entry.getKey(), 1);
+            capped.put(entry.getKey(), Math.max(min, (int) Math.floor(entry.getValue() * ratio)));
+        }
+        return capped;
+    }
+}
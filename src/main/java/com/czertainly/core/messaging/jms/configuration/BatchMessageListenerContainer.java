@@ -0,0 +1,109 @@
+package com.czertainly.core.messaging.jms.configuration;
+
+import jakarta.jms.JMSException;
+import jakarta.jms.Message;
+import jakarta.jms.MessageConsumer;
+import jakarta.jms.Session;
+import org.springframework.jms.listener.DefaultMessageListenerContainer;
+import org.springframework.lang.Nullable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * {@link DefaultMessageListenerContainer} that can drain several messages per receive cycle.
+ *
+ * <p>With the default batch size of 1 the container behaves exactly like its parent. With a larger batch size,
+ * after the first message arrives the container keeps receiving from the same consumer until the batch is full
+ * or the linger time elapses, and passes the messages to the listener as one {@link JmsMessageBatch}.
+ * Batching containers should use {@code CLIENT_ACKNOWLEDGE} so that the container acknowledges the whole batch
+ * after the listener succeeds and recovers the session (redelivering the whole batch) when it fails.</p>
+ *
+ * <p>The container also accumulates listener processing statistics, which are consumed by
+ * {@link ListenerConcurrencyController} to adjust the number of consumers.</p>
+ */
+public class BatchMessageListenerContainer extends DefaultMessageListenerContainer {
+
+    private int batchSize = 1;
+
+    private long lingerMs = 0;
+
+    private final LongAdder processedMessages = new LongAdder();
+
+    private final LongAdder processingNanos = new LongAdder();
+
+    public void setBatchSize(int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("Batch size must be at least 1");
+        }
+        this.batchSize = batchSize;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void setLingerMs(long lingerMs) {
+        if (lingerMs < 0) {
+            throw new IllegalArgumentException("Batch linger time must not be negative");
+        }
+        this.lingerMs = lingerMs;
+    }
+
+    public long getLingerMs() {
+        return lingerMs;
+    }
+
+    @Override
+    @Nullable
+    protected Message receiveMessage(MessageConsumer consumer) throws JMSException {
+        Message first = super.receiveMessage(consumer);
+        if (first == null || batchSize <= 1) {
+            return first;
+        }
+
+        List<Message> messages = new ArrayList<>(batchSize);
+        messages.add(first);
+        long deadline = System.currentTimeMillis() + lingerMs;
+        while (messages.size() < batchSize) {
+            long remaining = deadline - System.currentTimeMillis();
+            // negative timeout results in receiveNoWait, so messages already prefetched are still drained
+            Message next = receiveFromConsumer(consumer, remaining > 0 ? remaining : -1);
+            if (next == null) {
+                break;
+            }
+            messages.add(next);
+        }
+        return JmsMessageBatch.of(messages);
+    }
+
+    @Override
+    protected void invokeListener(Session session, Message message) throws JMSException {
+        long start = System.nanoTime();
+        try {
+            super.invokeListener(session, message);
+        } finally {
+            processingNanos.add(System.nanoTime() - start);
+            processedMessages.add(message instanceof JmsMessageBatch batch ? batch.getMessages().size() : 1);
+        }
+    }
+
+    /**
+     * Returns processing statistics accumulated since the previous call and resets them.
+     */
+    public ProcessingStatistics drainProcessingStatistics() {
+        return new ProcessingStatistics(processedMessages.sumThenReset(), processingNanos.sumThenReset());
+    }
+
+    /**
+     * @param messages       number of messages processed by the listener
+     * @param processingNanos total time consumers spent in the listener
+     */
+    public record ProcessingStatistics(long messages, long processingNanos) {
+
+        public double averageLatencyMs() {
+            return messages == 0 ? 0 : processingNanos / 1_000_000.0 / messages;
+        }
+    }
+}
@@ -14,6 +14,7 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.jms.annotation.EnableJms;
 import org.springframework.jms.config.DefaultJmsListenerContainerFactory;
+import org.springframework.jms.listener.DefaultMessageListenerContainer;
 import org.messaginghub.pooled.jms.JmsPoolConnectionFactory;
 import org.springframework.jms.core.JmsTemplate;
 import org.springframework.jms.support.converter.MappingJackson2MessageConverter;
@@ -127,7 +128,13 @@ public class JmsConfig {
             ConnectionFactory connectionFactory,
             MessageConverter messageConverter,
             MessagingProperties messagingProperties) {
-        DefaultJmsListenerContainerFactory factory = new DefaultJmsListenerContainerFactory();
+        // Containers support batch consumption; endpoints without batch settings keep single-message behavior
+        DefaultJmsListenerContainerFactory factory = new DefaultJmsListenerContainerFactory() {
+            @Override
+            protected DefaultMessageListenerContainer createContainerInstance() {
+                return new BatchMessageListenerContainer();
+            }
+        };
         factory.setConnectionFactory(connectionFactory);
         factory.setMessageConverter(messageConverter);
         if (messagingProperties.brokerType() == MessagingProperties.BrokerType.SERVICEBUS) {
@@ -171,13 +178,21 @@ public class JmsConfig {
         converter.setObjectMapper(jacksonObjectMapper);
         converter.setTargetType(MessageType.TEXT);
 
+        converter.setObjectMapper(createMessageObjectMapper());
+
+        return converter;
+    }
+
+    /**
+     * ObjectMapper used for message payloads, shared with the transactional outbox so that
+     * messages published by the outbox relay are serialized the same way as directly sent ones.
+     */
+    public static ObjectMapper createMessageObjectMapper() {
         // Configure ObjectMapper with Java 8 date/time support
         ObjectMapper objectMapper = new ObjectMapper();
         objectMapper.registerModule(new JavaTimeModule());
         objectMapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
-        converter.setObjectMapper(objectMapper);
-
-        return converter;
+        return objectMapper;
     }
 
     @Bean(destroyMethod = "stop")
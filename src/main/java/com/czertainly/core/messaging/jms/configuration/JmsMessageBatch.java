@@ -0,0 +1,71 @@
+package com.czertainly.core.messaging.jms.configuration;
+
+import jakarta.jms.Message;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.List;
+
+/**
+ * A group of JMS messages received by {@link BatchMessageListenerContainer} in one receive cycle and passed
+ * to the listener as a single {@link Message}.
+ *
+ * <p>Header and property accessors delegate to the first message of the batch. {@link Message#acknowledge()}
+ * delegates to the last message, which in {@code CLIENT_ACKNOWLEDGE} mode acknowledges all messages consumed
+ * by the session, i.e. the whole batch.</p>
+ */
+public interface JmsMessageBatch extends Message {
+
+    List<Message> getMessages();
+
+    static JmsMessageBatch of(List<Message> messages) {
+        if (messages.isEmpty()) {
+            throw new IllegalArgumentException("JMS message batch must contain at least one message");
+        }
+        List<Message> batch = List.copyOf(messages);
+        return (JmsMessageBatch) Proxy.newProxyInstance(
+                JmsMessageBatch.class.getClassLoader(),
+                new Class<?>[]{JmsMessageBatch.class},
+                new BatchInvocationHandler(batch));
+    }
+
+    final class BatchInvocationHandler implements InvocationHandler {
+
+        private final List<Message> messages;
+
+        private BatchInvocationHandler(List<Message> messages) {
+            this.messages = messages;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "getMessages" -> {
+                    return messages;
+                }
+                case "acknowledge" -> {
+                    messages.getLast().acknowledge();
+                    return null;
+                }
+                case "toString" -> {
+                    return "JmsMessageBatch[size=" + messages.size() + "]";
+                }
+                case "hashCode" -> {
+                    return System.identityHashCode(proxy);
+                }
+                case "equals" -> {
+                    return proxy == args[0];
+                }
+                default -> {
+                    try {
+                        return method.invoke(messages.getFirst(), args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getTargetException();
+                    }
+                }
+            }
+        }
+    }
+}
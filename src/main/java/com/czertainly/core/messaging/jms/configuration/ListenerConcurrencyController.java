@@ -0,0 +1,180 @@
+package com.czertainly.core.messaging.jms.configuration;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jms.config.JmsListenerEndpointRegistry;
+import org.springframework.jms.listener.MessageListenerContainer;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+import org.springframework.scheduling.config.FixedDelayTask;
+import org.springframework.scheduling.config.ScheduledTaskRegistrar;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Periodically adjusts the maximum number of consumers of the JMS listener containers registered by
+ * {@link JmsListenersConfigurerImpl}, within the concurrency range configured in {@link MessagingConcurrencyProperties}.
+ *
+ * <p>Consumers are added while the existing ones are busy (messages are waiting in the queue) and removed when
+ * processing latency grows or the DB connection pool is saturated. The total number of consumers of this instance,
+ * including listeners with fixed concurrency, is capped by its share of the cluster-wide limit, so several Core replicas
+ * do not overload the database together. Only listeners configured with a range are scaled down to respect the cap.
+ * The state of each listener is exposed as metrics tagged by endpoint id.</p>
+ */
+@Component
+@Profile("!test")
+@ConditionalOnProperty(name = "messaging.concurrency.adaptive.enabled", havingValue = "true")
+public class ListenerConcurrencyController implements SchedulingConfigurer {
+
+    private static final Logger logger = LoggerFactory.getLogger(ListenerConcurrencyController.class);
+
+    private static final String METRIC_PREFIX = "czertainly.messaging.listener.";
+    private static final String ENDPOINT_TAG = "endpoint";
+
+    private final JmsListenerEndpointRegistry endpointRegistry;
+    private final MessagingConcurrencyProperties.Adaptive settings;
+    private final AdaptiveConcurrencyPolicy policy;
+    private final DataSource dataSource;
+    private final MeterRegistry meterRegistry;
+
+    private final Map<String, ListenerState> listenerStates = new ConcurrentHashMap<>();
+    private HikariDataSource hikariDataSource;
+    private boolean hikariResolved;
+    private long lastEvaluationNanos = System.nanoTime();
+
+    public ListenerConcurrencyController(JmsListenerEndpointRegistry endpointRegistry,
+                                         MessagingConcurrencyProperties messagingConcurrencyProperties,
+                                         DataSource dataSource,
+                                         MeterRegistry meterRegistry) {
+        this.endpointRegistry = endpointRegistry;
+        this.settings = messagingConcurrencyProperties.adaptive();
+        this.policy = new AdaptiveConcurrencyPolicy(settings);
+        this.dataSource = dataSource;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public void configureTasks(ScheduledTaskRegistrar taskRegistrar) {
+        Duration interval = Duration.ofMillis(settings.intervalMs());
+        taskRegistrar.addFixedDelayTask(new FixedDelayTask(this::adjustConcurrency, interval, interval));
+    }
+
+    public void adjustConcurrency() {
+        long now = System.nanoTime();
+        long intervalNanos = Math.max(1, now - lastEvaluationNanos);
+        lastEvaluationNanos = now;
+
+        boolean dbPoolSaturated = isDbPoolSaturated();
+        Map<String, Integer> requestedMax = new LinkedHashMap<>();
+        Map<String, Integer> minConsumers = new LinkedHashMap<>();
+        int fixedConsumers = 0;
+
+        for (String id : endpointRegistry.getListenerContainerIds()) {
+            MessageListenerContainer container = endpointRegistry.getListenerContainer(id);
+            if (!(container instanceof BatchMessageListenerContainer listenerContainer) || !listenerContainer.isRunning()) {
+                continue;
+            }
+            ListenerState state = listenerStates.computeIfAbsent(id, key -> registerListener(key, listenerContainer));
+            if (state.minConsumers >= state.configuredMax) {
+                // fixed concurrency, nothing to adapt but its consumers count against the instance cap
+                listenerContainer.drainProcessingStatistics();
+                fixedConsumers += state.configuredMax;
+                continue;
+            }
+
+            BatchMessageListenerContainer.ProcessingStatistics statistics = listenerContainer.drainProcessingStatistics();
+            int consumers = Math.max(1, listenerContainer.getScheduledConsumerCount());
+            state.utilization = Math.min(1.0, (double) statistics.processingNanos() / (intervalNanos * consumers));
+            state.averageLatencyMs = statistics.averageLatencyMs();
+
+            requestedMax.put(id, policy.nextMaxConsumers(listenerContainer.getMaxConcurrentConsumers(), state.minConsumers,
+                    state.configuredMax, state.utilization, state.averageLatencyMs, dbPoolSaturated));
+            minConsumers.put(id, state.minConsumers);
+        }
+
+        for (Map.Entry<String, Integer> entry : policy.applyInstanceCap(requestedMax, minConsumers, fixedConsumers).entrySet()) {
+            BatchMessageListenerContainer container = listenerStates.get(entry.getKey()).container;
+            int currentMax = container.getMaxConcurrentConsumers();
+            if (currentMax != entry.getValue()) {
+                logger.debug("Adjusting max consumers of listener '{}' from {} to {} (utilization={}, avgLatency={}ms, dbPoolSaturated={})",
+                        entry.getKey(), currentMax, entry.getValue(), listenerStates.get(entry.getKey()).utilization,
+                        listenerStates.get(entry.getKey()).averageLatencyMs, dbPoolSaturated);
+                container.setMaxConcurrentConsumers(entry.getValue());
+            }
+        }
+    }
+
+    private ListenerState registerListener(String id, BatchMessageListenerContainer container) {
+        ListenerState state = new ListenerState(container, container.getConcurrentConsumers(), container.getMaxConcurrentConsumers());
+        Gauge.builder(METRIC_PREFIX + "consumers.max", container, BatchMessageListenerContainer::getMaxConcurrentConsumers)
+                .description("Current maximum number of consumers of the listener")
+                .tag(ENDPOINT_TAG, id)
+                .register(meterRegistry);
+        Gauge.builder(METRIC_PREFIX + "consumers.scheduled", container, BatchMessageListenerContainer::getScheduledConsumerCount)
+                .description("Number of consumers currently scheduled by the listener")
+                .tag(ENDPOINT_TAG, id)
+                .register(meterRegistry);
+        Gauge.builder(METRIC_PREFIX + "utilization", state, s -> s.utilization)
+                .description("Ratio of time the consumers spent processing messages during the last interval")
+                .tag(ENDPOINT_TAG, id)
+                .register(meterRegistry);
+        Gauge.builder(METRIC_PREFIX + "latency", state, s -> s.averageLatencyMs)
+                .description("Average message processing time during the last interval")
+                .baseUnit("milliseconds")
+                .tag(ENDPOINT_TAG, id)
+                .register(meterRegistry);
+        logger.info("Adaptive concurrency enabled for listener '{}' with range {}-{}", id, state.minConsumers, state.configuredMax);
+        return state;
+    }
+
+    private boolean isDbPoolSaturated() {
+        HikariDataSource hikari = resolveHikariDataSource();
+        HikariPoolMXBean pool = hikari != null ? hikari.getHikariPoolMXBean() : null;
+        if (pool == null) {
+            return false;
+        }
+        if (pool.getThreadsAwaitingConnection() > 0) {
+            return true;
+        }
+        return (double) pool.getActiveConnections() / hikari.getMaximumPoolSize() >= settings.dbPoolHighWatermark();
+    }
+
+    private HikariDataSource resolveHikariDataSource() {
+        if (!hikariResolved) {
+            hikariResolved = true;
+            try {
+                if (dataSource.isWrapperFor(HikariDataSource.class)) {
+                    hikariDataSource = dataSource.unwrap(HikariDataSource.class);
+                }
+            } catch (SQLException e) {
+                logger.warn("Unable to resolve DB connection pool, DB saturation will not be considered: {}", e.getMessage());
+            }
+        }
+        return hikariDataSource;
+    }
+
+    private static final class ListenerState {
+        private final BatchMessageListenerContainer container;
+        private final int minConsumers;
+        private final int configuredMax;
+        private volatile double utilization;
+        private volatile double averageLatencyMs;
+
+        private ListenerState(BatchMessageListenerContainer container, int minConsumers, int configuredMax) {
+            this.container = container;
+            this.minConsumers = minConsumers;
+            this.configuredMax = configuredMax;
+        }
+    }
+}
@@ -1,7 +1,12 @@
 package com.czertainly.core.messaging.jms.configuration;
 
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.PositiveOrZero;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.validation.annotation.Validated;
 
@@ -13,8 +18,50 @@ public record MessagingConcurrencyProperties(
         @NotBlank @Pattern(regexp = "\\d+(-\\d+)?", message = "must be a number or range (e.g. '5' or '3-10')") String events,
         @NotBlank @Pattern(regexp = "\\d+(-\\d+)?", message = "must be a number or range (e.g. '5' or '3-10')") String notifications,
         @NotBlank @Pattern(regexp = "\\d+(-\\d+)?", message = "must be a number or range (e.g. '5' or '3-10')") String scheduler,
-        @NotBlank @Pattern(regexp = "\\d+(-\\d+)?", message = "must be a number or range (e.g. '5' or '3-10')") String validation
+        @NotBlank @Pattern(regexp = "\\d+(-\\d+)?", message = "must be a number or range (e.g. '5' or '3-10')") String validation,
+        @Valid Adaptive adaptive
 ) {
 
-}
+    public MessagingConcurrencyProperties {
+        if (adaptive == null) {
+            adaptive = new Adaptive(null, null, null, null, null, null, null);
+        }
+    }
+
+    /**
+     * Adaptive concurrency settings. When enabled, the maximum number of consumers of every listener
+     * configured with a range (e.g. '3-10') is periodically adjusted within that range, based on consumer
+     * utilization, processing latency and DB connection pool saturation.
+     */
+    public record Adaptive(
+            Boolean enabled,
+            @Positive Long intervalMs,                  // Evaluation interval in ms (default: 10000)
+            @PositiveOrZero Long latencyThresholdMs,    // Avg processing latency above which consumers are reduced, 0 = ignore latency (default: 5000)
+            @DecimalMin("0.0") @DecimalMax("1.0") Double utilizationThreshold, // Busy time ratio of consumers above which consumers are added (default: 0.8)
+            @DecimalMin("0.0") @DecimalMax("1.0") Double dbPoolHighWatermark,  // Ratio of active DB connections above which consumers are reduced (default: 0.8)
+            @Positive Integer clusterMaxConsumers,      // Max listener consumers of all Core replicas together (null = no cap)
+            @Positive Integer clusterReplicas           // Number of Core replicas sharing the cluster cap, must follow scaling of replicas (default: 1)
+    ) {
+        public Adaptive {
+            if (enabled == null) enabled = false;
+            if (intervalMs == null) intervalMs = 10000L;
+            if (latencyThresholdMs == null) latencyThresholdMs = 5000L;
+            if (utilizationThreshold == null) utilizationThreshold = 0.8;
+            if (dbPoolHighWatermark == null) dbPoolHighWatermark = 0.8;
+            if (clusterReplicas == null) clusterReplicas = 1;
+        }
 
+        /**
+         * The cluster cap is divided statically by the configured number of replicas, it is not adjusted when
+         * replicas are added or removed at runtime.
+         *
+         * @return maximum number of listener consumers this replica may run, or {@code null} when not capped
+         */
+        public Integer instanceMaxConsumers() {
+            if (clusterMaxConsumers == null) {
+                return null;
+            }
+            return Math.max(1, clusterMaxConsumers / clusterReplicas);
+        }
+    }
+}
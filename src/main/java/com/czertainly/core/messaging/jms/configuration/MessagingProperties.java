@@ -4,6 +4,7 @@ import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.PositiveOrZero;
 import org.apache.commons.lang3.StringUtils;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.validation.annotation.Validated;
@@ -24,6 +25,8 @@ public record MessagingProperties(
         @Valid AadAuth aadAuth,
         Pool pool,
         @Valid Listener listener,
+        @Valid Batch batch,
+        @Valid Outbox outbox,
         @Valid Producer producer,
         @Valid Queue queue,
         @NotNull @Valid RoutingKey routingKey
@@ -61,6 +64,13 @@ public record MessagingProperties(
                 }
             }
         }
+
+        if (batch == null) {
+            batch = new Batch(null, null, null, null, null, null);
+        }
+        if (outbox == null) {
+            outbox = new Outbox(null, null, null);
+        }
     }
 
     /**
@@ -146,6 +156,64 @@ public record MessagingProperties(
         }
     }
 
+    /**
+     * Per-queue batch consumption settings. Queues without explicit settings are consumed one message at a time.
+     */
+    public record Batch(
+            @Valid BatchSettings actions,
+            @Valid BatchSettings auditLogs,
+            @Valid BatchSettings event,
+            @Valid BatchSettings notification,
+            @Valid BatchSettings scheduler,
+            @Valid BatchSettings validation
+    ) {
+        public Batch {
+            if (actions == null) actions = BatchSettings.DISABLED;
+            if (auditLogs == null) auditLogs = BatchSettings.DISABLED;
+            if (event == null) event = BatchSettings.DISABLED;
+            if (notification == null) notification = BatchSettings.DISABLED;
+            if (scheduler == null) scheduler = BatchSettings.DISABLED;
+            if (validation == null) validation = BatchSettings.DISABLED;
+        }
+    }
+
+    /**
+     * Batch consumption settings of a single queue. When {@code size} is greater than 1, the listener drains up to
+     * {@code size} messages, waiting at most {@code lingerMs} for the batch to fill up, and hands them to the
+     * processor at once. The whole batch is acknowledged on success and redelivered on failure.
+     */
+    public record BatchSettings(
+            @Positive Integer size,   // Max messages per batch (default: 1 = batching disabled)
+            @PositiveOrZero Long lingerMs  // Max time to wait for the batch to fill up in ms (default: 200)
+    ) {
+        public static final BatchSettings DISABLED = new BatchSettings(1, 0L);
+
+        public BatchSettings {
+            if (size == null) size = 1;
+            if (lingerMs == null) lingerMs = 200L;
+        }
+
+        public boolean isEnabled() {
+            return size > 1;
+        }
+    }
+
+    /**
+     * Transactional outbox settings. When enabled, event and validation messages are stored in the outbox table
+     * within the business transaction and published to the broker by a relay after commit.
+     */
+    public record Outbox(
+            Boolean enabled,                // Store messages in the outbox instead of sending them directly (default: false)
+            @Positive Integer batchSize,    // Max messages published by the relay at once (default: 500)
+            @Positive Long pollIntervalMs   // Interval of outbox polling when no commit signalled new messages in ms (default: 1000)
+    ) {
+        public Outbox {
+            if (enabled == null) enabled = false;
+            if (batchSize == null) batchSize = 500;
+            if (pollIntervalMs == null) pollIntervalMs = 1000L;
+        }
+    }
+
     public record Producer(
             @NotNull @Valid Retry retry
     ) {}
@@ -1,9 +1,13 @@
 package com.czertainly.core.messaging.jms.listeners;
 
+import com.czertainly.core.messaging.jms.configuration.BatchMessageListenerContainer;
+import com.czertainly.core.messaging.jms.configuration.JmsMessageBatch;
 import com.czertainly.core.messaging.jms.configuration.JmsRetryListener;
 import com.czertainly.core.messaging.jms.configuration.MessagingProperties;
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.jms.JMSException;
+import jakarta.jms.Session;
 import jakarta.jms.TextMessage;
 import org.slf4j.Logger;
 import org.springframework.jms.JmsException;
@@ -15,6 +19,8 @@ import org.springframework.messaging.MessagingException;
 import org.springframework.retry.support.RetryTemplate;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 
 import static org.slf4j.LoggerFactory.getLogger;
 
@@ -37,14 +43,9 @@ public abstract class AbstractJmsEndpointConfig<T> {
     public abstract SimpleJmsListenerEndpoint listenerEndpoint();
 
     /**
+     * Registers a single-message listener endpoint.
      *
-     * @param endpointId   unique id for the endpoint
-     * @param destination  queue path for RabbitMQ (/queues/name), or Topic name for Azure ServiceBus
-     * @param subscription subscription name (Azure ServiceBus only; ignored for RabbitMQ)
-     * @param routingKey   routing key used as JMS message selector (Azure ServiceBus only; for RabbitMQ filtering is done by broker binding)
-     * @param concurrency  number of threads
-     * @param messageClass type of message to be processed
-     * @return endpoint to register in Spring context
+     * @see #listenerEndpointInternal(String, String, String, String, String, Class, MessagingProperties.BatchSettings)
      */
     public SimpleJmsListenerEndpoint listenerEndpointInternal(String endpointId,
                                                               String destination,
@@ -52,29 +53,55 @@ public abstract class AbstractJmsEndpointConfig<T> {
                                                               String routingKey,
                                                               String concurrency,
                                                               Class<T> messageClass) {
-        logger.debug("Configuring JMS listener endpoint: id={}, destination={}, routingKey={}, broker={}, vhost={}",
-            endpointId, destination, routingKey, messagingProperties.brokerType(), messagingProperties.virtualHost());
-
-        SimpleJmsListenerEndpoint endpoint;
-        if (messagingProperties.brokerType() == MessagingProperties.BrokerType.SERVICEBUS) {
-            endpoint = new SimpleJmsListenerEndpoint() {
-                @Override
-                public void setupListenerContainer(@NonNull MessageListenerContainer listenerContainer) {
-                    super.setupListenerContainer(listenerContainer);
-                    if (listenerContainer instanceof DefaultMessageListenerContainer container) {
-                        container.setSubscriptionShared(true);// Shared must be set to allow concurrency
-                        container.setSubscriptionDurable(true);
-                        container.setDurableSubscriptionName(subscription);
-                    }
+        return listenerEndpointInternal(endpointId, destination, subscription, routingKey, concurrency, messageClass, MessagingProperties.BatchSettings.DISABLED);
+    }
+
+    /**
+     *
+     * @param endpointId    unique id for the endpoint
+     * @param destination   queue path for RabbitMQ (/queues/name), or Topic name for Azure ServiceBus
+     * @param subscription  subscription name (Azure ServiceBus only; ignored for RabbitMQ)
+     * @param routingKey    routing key used as JMS message selector (Azure ServiceBus only; for RabbitMQ filtering is done by broker binding)
+     * @param concurrency   number of threads
+     * @param messageClass  type of message to be processed
+     * @param batchSettings batch consumption settings; when enabled, messages are passed to {@link MessageProcessor#processMessages(List)}
+     * @return endpoint to register in Spring context
+     */
+    public SimpleJmsListenerEndpoint listenerEndpointInternal(String endpointId,
+                                                              String destination,
+                                                              String subscription,
+                                                              String routingKey,
+                                                              String concurrency,
+                                                              Class<T> messageClass,
+                                                              MessagingProperties.BatchSettings batchSettings) {
+        logger.debug("Configuring JMS listener endpoint: id={}, destination={}, routingKey={}, broker={}, vhost={}, batchSize={}",
+            endpointId, destination, routingKey, messagingProperties.brokerType(), messagingProperties.virtualHost(), batchSettings.size());
+
+        boolean serviceBus = messagingProperties.brokerType() == MessagingProperties.BrokerType.SERVICEBUS;
+        SimpleJmsListenerEndpoint endpoint = new SimpleJmsListenerEndpoint() {
+            @Override
+            public void setupListenerContainer(@NonNull MessageListenerContainer listenerContainer) {
+                super.setupListenerContainer(listenerContainer);
+                if (serviceBus && listenerContainer instanceof DefaultMessageListenerContainer container) {
+                    container.setSubscriptionShared(true);// Shared must be set to allow concurrency
+                    container.setSubscriptionDurable(true);
+                    container.setDurableSubscriptionName(subscription);
                 }
-            };
+                if (batchSettings.isEnabled() && listenerContainer instanceof BatchMessageListenerContainer container) {
+                    container.setBatchSize(batchSettings.size());
+                    container.setLingerMs(batchSettings.lingerMs());
+                    // Batch is acknowledged as a whole after successful processing, or redelivered on failure
+                    container.setSessionAcknowledgeMode(Session.CLIENT_ACKNOWLEDGE);
+                }
+            }
+        };
+
+        if (serviceBus) {
             endpoint.setSubscription(subscription);
 
             if (routingKey != null && !routingKey.isBlank()) {
                 endpoint.setSelector(ROUTING_KEY + " = '" + routingKey + "'");
             }
-        } else {
-            endpoint = new SimpleJmsListenerEndpoint();
         }
 
         endpoint.setId(endpointId);
@@ -83,33 +110,99 @@ public abstract class AbstractJmsEndpointConfig<T> {
         endpoint.setConcurrency(concurrency);
 
         endpoint.setMessageListener(jmsMessage -> {
-            logger.debug(">>> RECEIVED MESSAGE in endpoint: {}", endpointId);
-            jmsRetryTemplate.execute(context -> {
-                try {
-                    context.setAttribute(JmsRetryListener.ENDPOINT_ID_ATTR, endpointId);
-                    context.setAttribute("messageId", jmsMessage.getJMSMessageID());
-                    context.setAttribute("messageClass", messageClass.getSimpleName());
+            if (jmsMessage instanceof JmsMessageBatch batch) {
+                onMessageBatch(batch, endpointId, messageClass);
+            } else {
+                onMessage(jmsMessage, endpointId, messageClass);
+            }
+        });
 
+        return endpoint;
+    }
+
+    private void onMessage(jakarta.jms.Message jmsMessage, String endpointId, Class<T> messageClass) {
+        logger.debug(">>> RECEIVED MESSAGE in endpoint: {}", endpointId);
+        jmsRetryTemplate.execute(context -> {
+            try {
+                context.setAttribute(JmsRetryListener.ENDPOINT_ID_ATTR, endpointId);
+                context.setAttribute("messageId", jmsMessage.getJMSMessageID());
+                context.setAttribute("messageClass", messageClass.getSimpleName());
+
+                String json = extractMessageText(jmsMessage, endpointId);
+                logger.debug("Message JSON in endpoint {}: {}", endpointId, json);
+                T message = objectMapper.readValue(json, messageClass);
+                listenerMessageProcessor.processMessage(message);
+            } catch (JmsException | JMSException | IOException e) {
+                // Retryable - network, broker issues
+                throw new MessagingException("Message processing failed in endpoint: " + endpointId, e);
+            } catch (IllegalArgumentException e) {
+                // Non-retryable - bad message format, validation
+                logger.error("Invalid message in endpoint '{}', will not retry: {}", endpointId, e.getMessage());
+                throw e; // Don't wrap, don't retry
+            } catch (Exception e) {
+                logger.error("Unexpected error in endpoint '{}'", endpointId, e);
+            }
+
+            return null;
+        });
+    }
+
+    private void onMessageBatch(JmsMessageBatch batch, String endpointId, Class<T> messageClass) {
+        logger.debug(">>> RECEIVED BATCH of {} messages in endpoint: {}", batch.getMessages().size(), endpointId);
+        List<T> messages = new ArrayList<>(batch.getMessages().size());
+        try {
+            for (jakarta.jms.Message jmsMessage : batch.getMessages()) {
+                try {
                     String json = extractMessageText(jmsMessage, endpointId);
                     logger.debug("Message JSON in endpoint {}: {}", endpointId, json);
-                    T message = objectMapper.readValue(json, messageClass);
-                    listenerMessageProcessor.processMessage(message);
-                } catch (JmsException | JMSException | IOException e) {
-                    // Retryable - network, broker issues
-                    throw new MessagingException("Message processing failed in endpoint: " + endpointId, e);
-                } catch (IllegalArgumentException e) {
-                    // Non-retryable - bad message format, validation
-                    logger.error("Invalid message in endpoint '{}', will not retry: {}", endpointId, e.getMessage());
-                    throw e; // Don't wrap, don't retry
-                } catch (Exception e) {
-                    logger.error("Unexpected error in endpoint '{}'", endpointId, e);
+                    messages.add(objectMapper.readValue(json, messageClass));
+                } catch (IllegalArgumentException | JsonProcessingException e) {
+                    // Non-retryable - drop the invalid message only, so it does not cause redelivery of the whole batch
+                    logger.error("Invalid message {} in endpoint '{}', skipping it in batch: {}", jmsMessage.getJMSMessageID(), endpointId, e.getMessage());
                 }
+            }
+        } catch (JMSException e) {
+            // Broker issue, batch is redelivered
+            throw new MessagingException("Message batch processing failed in endpoint: " + endpointId, e);
+        }
+        if (messages.isEmpty()) {
+            return;
+        }
+
+        jmsRetryTemplate.execute(context -> {
+            try {
+                context.setAttribute(JmsRetryListener.ENDPOINT_ID_ATTR, endpointId);
+                context.setAttribute("messageId", batch.getJMSMessageID());
+                context.setAttribute("messageClass", messageClass.getSimpleName());
+
+                listenerMessageProcessor.processMessages(messages);
+            } catch (Exception e) {
+                // Batch is acknowledged as a whole, so it must fail to be retried instead of being acknowledged unprocessed
+                logger.warn("Error in endpoint '{}' while processing batch of {} messages: {}", endpointId, messages.size(), e.getMessage());
+                throw new MessagingException("Message batch processing failed in endpoint: " + endpointId, e);
+            }
 
-                return null;
-            });
+            return null;
+        }, context -> {
+            // Retries of the whole batch are exhausted, process its messages one by one, so a message that always fails
+            // does not cause redelivery of the batch forever. Such message is logged and skipped like in single-message consumption.
+            logger.warn("Processing of batch of {} messages in endpoint '{}' failed after retries, processing messages one by one", messages.size(), endpointId);
+            processOneByOne(messages, endpointId);
+            return null;
         });
+    }
 
-        return endpoint;
+    private void processOneByOne(List<T> messages, String endpointId) {
+        for (T message : messages) {
+            try {
+                listenerMessageProcessor.processMessage(message);
+            } catch (JmsException e) {
+                // Broker issue, batch is redelivered
+                throw new MessagingException("Message batch processing failed in endpoint: " + endpointId, e);
+            } catch (Exception e) {
+                logger.error("Unexpected error in endpoint '{}' while processing message of failed batch, skipping it", endpointId, e);
+            }
+        }
     }
 
     private String extractMessageText(jakarta.jms.Message jmsMessage, String endpointId) throws JMSException {
@@ -9,6 +9,8 @@ import lombok.AllArgsConstructor;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.List;
+
 @Component
 @Transactional
 @AllArgsConstructor
@@ -37,5 +39,15 @@ public class AuditLogsListener implements MessageProcessor<AuditLogMessage> {
         auditLogService.log(builder.build(), auditLogMessage.getAuditLogOutput());
     }
 
+    /**
+     * Stores the whole batch of audit logs in a single transaction.
+     */
+    @Override
+    public void processMessages(final List<AuditLogMessage> auditLogMessages) {
+        for (AuditLogMessage auditLogMessage : auditLogMessages) {
+            processMessage(auditLogMessage);
+        }
+    }
+
 }
 
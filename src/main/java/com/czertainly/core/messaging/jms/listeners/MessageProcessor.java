@@ -2,6 +2,8 @@ package com.czertainly.core.messaging.jms.listeners;
 
 import com.czertainly.api.exception.MessageHandlingException;
 
+import java.util.List;
+
 /**
  * The {@link MessageProcessor} interface represents a contract for processing messages of a specific type.
  * Classes implementing this interface are responsible for handling messages of the given type
@@ -15,4 +17,17 @@ import com.czertainly.api.exception.MessageHandlingException;
 public interface MessageProcessor<T> {
 
     void processMessage(T message) throws MessageHandlingException;
+
+    /**
+     * Processes a batch of messages received by a listener consuming in batch mode.
+     * The default implementation processes the messages one by one; processors that can amortize
+     * transactions or DB round-trips across messages should override it.
+     *
+     * @param messages messages of the batch in the order they were received
+     */
+    default void processMessages(List<T> messages) throws MessageHandlingException {
+        for (T message : messages) {
+            processMessage(message);
+        }
+    }
 }
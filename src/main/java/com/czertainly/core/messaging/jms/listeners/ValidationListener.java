@@ -10,7 +10,11 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.UUID;
 
 @Component
 public class ValidationListener implements MessageProcessor<ValidationMessage> {
@@ -23,38 +27,65 @@ public class ValidationListener implements MessageProcessor<ValidationMessage> {
 
     @Override
     public void processMessage(final ValidationMessage validationMessage) {
-        List<Certificate> certificates;
-        if (validationMessage.getUuids() != null) {
-            certificates = certificateRepository.findAllWithAssociationsByUuidIn(validationMessage.getUuids());
-
-            logger.debug("Validating {} certificate(s)", certificates.size());
-            int certificatesValidated = 0;
-            for (Certificate certificate : certificates) {
-                certificateHandler.validate(certificate);
-                if (certificate.getValidationStatus() != CertificateValidationStatus.FAILED && certificate.getValidationStatus() != CertificateValidationStatus.NOT_CHECKED) certificatesValidated++;
+        processMessages(List.of(validationMessage));
+    }
+
+    /**
+     * Validates certificates requested by a batch of messages. Explicitly listed certificates of all messages
+     * are loaded with a single query, discovery and location validations are processed per message.
+     */
+    @Override
+    public void processMessages(final List<ValidationMessage> validationMessages) {
+        Set<UUID> uuids = new LinkedHashSet<>();
+        for (ValidationMessage validationMessage : validationMessages) {
+            if (validationMessage.getUuids() != null) {
+                uuids.addAll(validationMessage.getUuids());
             }
-            logger.debug("Validated {}/{} certificates", certificatesValidated, certificates.size());
+        }
+        if (!uuids.isEmpty()) {
+            validateCertificates(new ArrayList<>(uuids));
         }
 
-        if (validationMessage.getDiscoveryUuid() != null) {
-            certificates = certificateRepository.findByValidationStatusAndCertificateContentDiscoveryCertificatesDiscoveryUuid(CertificateValidationStatus.NOT_CHECKED, validationMessage.getDiscoveryUuid());
-
-            logger.debug("Validating {} certificates from discovery {}", certificates.size(), validationMessage.getDiscoveryName());
-            for (Certificate certificate : certificates) {
-                certificateHandler.validate(certificate);
+        for (ValidationMessage validationMessage : validationMessages) {
+            if (validationMessage.getDiscoveryUuid() != null) {
+                validateDiscoveryCertificates(validationMessage);
+            }
+            if (validationMessage.getLocationUuid() != null) {
+                validateLocationCertificates(validationMessage);
             }
-            logger.debug("Certificates from discovery {} validated", validationMessage.getDiscoveryName());
         }
+    }
 
-        if (validationMessage.getLocationUuid() != null) {
-            certificates = certificateRepository.findByValidationStatusAndLocationsLocationUuid(CertificateValidationStatus.NOT_CHECKED, validationMessage.getLocationUuid());
+    private void validateCertificates(List<UUID> uuids) {
+        List<Certificate> certificates = certificateRepository.findAllWithAssociationsByUuidIn(uuids);
 
-            logger.debug("Validating {} certificates from location {}", certificates.size(), validationMessage.getLocationName());
-            for (Certificate certificate : certificates) {
-                certificateHandler.validate(certificate);
-            }
-            logger.debug("Certificates from location {} validated", validationMessage.getLocationName());
+        logger.debug("Validating {} certificate(s)", certificates.size());
+        int certificatesValidated = 0;
+        for (Certificate certificate : certificates) {
+            certificateHandler.validate(certificate);
+            if (certificate.getValidationStatus() != CertificateValidationStatus.FAILED && certificate.getValidationStatus() != CertificateValidationStatus.NOT_CHECKED) certificatesValidated++;
+        }
+        logger.debug("Validated {}/{} certificates", certificatesValidated, certificates.size());
+    }
+
+    private void validateDiscoveryCertificates(ValidationMessage validationMessage) {
+        List<Certificate> certificates = certificateRepository.findByValidationStatusAndCertificateContentDiscoveryCertificatesDiscoveryUuid(CertificateValidationStatus.NOT_CHECKED, validationMessage.getDiscoveryUuid());
+
+        logger.debug("Validating {} certificates from discovery {}", certificates.size(), validationMessage.getDiscoveryName());
+        for (Certificate certificate : certificates) {
+            certificateHandler.validate(certificate);
+        }
+        logger.debug("Certificates from discovery {} validated", validationMessage.getDiscoveryName());
+    }
+
+    private void validateLocationCertificates(ValidationMessage validationMessage) {
+        List<Certificate> certificates = certificateRepository.findByValidationStatusAndLocationsLocationUuid(CertificateValidationStatus.NOT_CHECKED, validationMessage.getLocationUuid());
+
+        logger.debug("Validating {} certificates from location {}", certificates.size(), validationMessage.getLocationName());
+        for (Certificate certificate : certificates) {
+            certificateHandler.validate(certificate);
         }
+        logger.debug("Certificates from location {} validated", validationMessage.getLocationName());
     }
 
     @Autowired
@@ -36,7 +36,8 @@ public class ActionsJmsEndpointConfig extends AbstractJmsEndpointConfig<ActionMe
             messagingProperties.queue().actions(),
             messagingProperties.routingKey().actions(),
             messagingConcurrencyProperties.actions(),
-            ActionMessage.class
+            ActionMessage.class,
+            messagingProperties.batch().actions()
         );
     }
 }
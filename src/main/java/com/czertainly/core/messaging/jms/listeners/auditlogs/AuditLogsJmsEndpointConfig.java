@@ -36,7 +36,8 @@ public class AuditLogsJmsEndpointConfig extends AbstractJmsEndpointConfig<AuditL
             messagingProperties.queue().auditLogs(),
             messagingProperties.routingKey().auditLogs(),
             messagingConcurrencyProperties.auditLogs(),
-            AuditLogMessage.class
+            AuditLogMessage.class,
+            messagingProperties.batch().auditLogs()
         );
     }
 }
@@ -35,7 +35,8 @@ public class EventJmsEndpointConfig extends AbstractJmsEndpointConfig<EventMessa
             messagingProperties.queue().event(),
             messagingProperties.routingKey().event(),
             messagingConcurrencyProperties.events(),
-            EventMessage.class
+            EventMessage.class,
+            messagingProperties.batch().event()
         );
     }
 }
@@ -35,7 +35,8 @@ public class NotificationJmsEndpointConfig extends AbstractJmsEndpointConfig<Not
             messagingProperties.queue().notification(),
             messagingProperties.routingKey().notification(),
             messagingConcurrencyProperties.notifications(),
-            NotificationMessage.class
+            NotificationMessage.class,
+            messagingProperties.batch().notification()
         );
     }
 }
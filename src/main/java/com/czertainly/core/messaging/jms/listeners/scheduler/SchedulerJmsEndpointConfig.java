@@ -34,7 +34,8 @@ public class SchedulerJmsEndpointConfig extends AbstractJmsEndpointConfig<Schedu
             messagingProperties.queue().scheduler(),
             messagingProperties.routingKey().scheduler(),
             messagingConcurrencyProperties.scheduler(),
-            SchedulerJobExecutionMessage.class
+            SchedulerJobExecutionMessage.class,
+            messagingProperties.batch().scheduler()
         );
     }
 }
@@ -34,7 +34,8 @@ public class ValidationJmsEndpointConfig extends AbstractJmsEndpointConfig<Valid
             messagingProperties.queue().validation(),
             messagingProperties.routingKey().validation(),
             messagingConcurrencyProperties.validation(),
-            ValidationMessage.class
+            ValidationMessage.class,
+            messagingProperties.batch().validation()
         );
     }
 }
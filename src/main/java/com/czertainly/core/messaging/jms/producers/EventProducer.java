@@ -2,6 +2,7 @@ package com.czertainly.core.messaging.jms.producers;
 
 import com.czertainly.core.messaging.jms.configuration.MessagingProperties;
 import com.czertainly.core.messaging.model.EventMessage;
+import com.czertainly.core.messaging.outbox.MessageOutbox;
 import lombok.AllArgsConstructor;
 import org.springframework.jms.core.JmsTemplate;
 import org.springframework.lang.NonNull;
@@ -16,10 +17,16 @@ public class EventProducer {
     private final JmsTemplate jmsTemplate;
     private final MessagingProperties messagingProperties;
     private final RetryTemplate producerRetryTemplate;
+    private final MessageOutbox messageOutbox;
 
     public void produceMessage(@NonNull final EventMessage eventMessage) {
         Objects.requireNonNull(eventMessage, "Event message cannot be null");
 
+        if (messagingProperties.outbox().enabled()) {
+            messageOutbox.enqueue(messagingProperties.produceDestinationEvent(), messagingProperties.routingKey().event(), eventMessage);
+            return;
+        }
+
         producerRetryTemplate.execute(context -> {
             jmsTemplate.convertAndSend(
                     messagingProperties.produceDestinationEvent(),
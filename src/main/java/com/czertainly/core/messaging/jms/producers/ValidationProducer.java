@@ -2,6 +2,7 @@ package com.czertainly.core.messaging.jms.producers;
 
 import com.czertainly.core.messaging.jms.configuration.MessagingProperties;
 import com.czertainly.core.messaging.model.ValidationMessage;
+import com.czertainly.core.messaging.outbox.MessageOutbox;
 import lombok.AllArgsConstructor;
 import org.springframework.jms.core.JmsTemplate;
 import org.springframework.lang.NonNull;
@@ -16,9 +17,15 @@ public class ValidationProducer {
     private final JmsTemplate jmsTemplate;
     private final MessagingProperties messagingProperties;
     private final RetryTemplate producerRetryTemplate;
+    private final MessageOutbox messageOutbox;
 
     public void produceMessage(@NonNull final ValidationMessage validationMessage) {
         Objects.requireNonNull(validationMessage, "Validation message cannot be null");
+        if (messagingProperties.outbox().enabled()) {
+            messageOutbox.enqueue(messagingProperties.produceDestinationValidation(), messagingProperties.routingKey().validation(), validationMessage);
+            return;
+        }
+
         producerRetryTemplate.execute(context -> {
             jmsTemplate.convertAndSend(
                     messagingProperties.produceDestinationValidation(),
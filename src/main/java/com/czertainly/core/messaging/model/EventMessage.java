@@ -5,6 +5,7 @@ import com.czertainly.api.model.core.other.ResourceEvent;
 import com.czertainly.core.tasks.ScheduledJobInfo;
 import lombok.*;
 
+import java.util.List;
 import java.util.UUID;
 
 @Getter
@@ -21,6 +22,10 @@ public class EventMessage {
     private Object data;
     private UUID userUuid;
     private ScheduledJobInfo scheduledJobInfo;
+    /**
+     * Objects of set-based event message, the event is handled for all of them at once with the same data
+     */
+    private List<UUID> objectUuids;
 
     public EventMessage(ResourceEvent event, Resource resource, UUID objectUuid, Object data) {
         this.event = event;
@@ -28,4 +33,15 @@ public class EventMessage {
         this.objectUuid = objectUuid;
         this.data = data;
     }
+
+    public EventMessage(ResourceEvent event, Resource resource, List<UUID> objectUuids, Object data) {
+        this.event = event;
+        this.resource = resource;
+        this.objectUuids = objectUuids;
+        this.data = data;
+    }
+
+    public EventMessage(ResourceEvent event, Resource resource, UUID objectUuid, Resource overrideResource, UUID overrideObjectUuid, Object data, UUID userUuid, ScheduledJobInfo scheduledJobInfo) {
+        this(event, resource, objectUuid, overrideResource, overrideObjectUuid, data, userUuid, scheduledJobInfo, null);
+    }
 }
@@ -0,0 +1,59 @@
+package com.czertainly.core.messaging.outbox;
+
+import com.czertainly.core.dao.entity.OutboxMessage;
+import com.czertainly.core.dao.repository.OutboxMessageRepository;
+import com.czertainly.core.messaging.jms.configuration.JmsConfig;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Transactional outbox for messages produced within business transactions.
+ *
+ * <p>Messages are stored in the outbox table as part of the current transaction, so they are published
+ * only when the transaction commits and never when it rolls back. Publishing to the broker is done
+ * asynchronously by {@link OutboxRelay}, which is signalled after commit.</p>
+ */
+@Component
+public class MessageOutbox {
+
+    private final ObjectMapper objectMapper = JmsConfig.createMessageObjectMapper();
+    private final OutboxMessageRepository outboxMessageRepository;
+    private final OutboxRelay outboxRelay;
+
+    public MessageOutbox(OutboxMessageRepository outboxMessageRepository, OutboxRelay outboxRelay) {
+        this.outboxMessageRepository = outboxMessageRepository;
+        this.outboxRelay = outboxRelay;
+    }
+
+    /**
+     * Stores the message in the outbox within the current transaction (or a new one if there is none).
+     *
+     * @param destination destination the message is published to
+     * @param routingKey  routing key set as JMS type of the message
+     * @param payload     message payload serialized to JSON
+     */
+    @Transactional
+    public void enqueue(String destination, String routingKey, Object payload) {
+        OutboxMessage outboxMessage = new OutboxMessage();
+        outboxMessage.setDestination(destination);
+        outboxMessage.setRoutingKey(routingKey);
+        try {
+            outboxMessage.setPayload(objectMapper.writeValueAsString(payload));
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Unable to serialize message of type %s to outbox: %s"
+                    .formatted(payload.getClass().getSimpleName(), e.getMessage()), e);
+        }
+        outboxMessageRepository.save(outboxMessage);
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                outboxRelay.signal();
+            }
+        });
+    }
+}
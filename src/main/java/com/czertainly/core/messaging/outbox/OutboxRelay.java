@@ -0,0 +1,177 @@
+package com.czertainly.core.messaging.outbox;
+
+import com.czertainly.core.dao.entity.OutboxMessage;
+import com.czertainly.core.dao.repository.OutboxMessageRepository;
+import com.czertainly.core.messaging.jms.configuration.MessagingProperties;
+import jakarta.jms.Destination;
+import jakarta.jms.MessageProducer;
+import jakarta.jms.TextMessage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jms.JmsException;
+import org.springframework.jms.core.JmsTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Publishes messages stored by {@link MessageOutbox} to the broker.
+ *
+ * <p>The relay runs on a single background thread. It is woken up after each commit that stored messages
+ * and additionally polls the outbox periodically, so messages left over after a broker outage or restart
+ * are published as well. Messages are published in batches over a single JMS session in the order of their IDs
+ * and deleted from the outbox afterwards (at-least-once delivery). A DB advisory lock guarantees that only one Core
+ * instance publishes at a time.</p>
+ *
+ * <p>IDs are assigned when a message is stored, not when its transaction commits. Messages stored by one transaction,
+ * or by a transaction that committed before another one stored its messages, are therefore published in the order
+ * they were stored. Messages of transactions running concurrently can be published out of their commit order,
+ * because a message with a lower ID may become visible only after messages with higher IDs were published. There is
+ * no ordering per object beyond that, consumers must not rely on it.</p>
+ */
+@Component
+public class OutboxRelay implements SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(OutboxRelay.class);
+
+    private static final long RELAY_LOCK_KEY = 0x6f7574626f78L; // "outbox"
+
+    private final OutboxMessageRepository outboxMessageRepository;
+    private final JmsTemplate jmsTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final MessagingProperties.Outbox settings;
+
+    private final Semaphore signal = new Semaphore(0);
+    private volatile Thread worker;
+
+    public OutboxRelay(OutboxMessageRepository outboxMessageRepository,
+                       JmsTemplate jmsTemplate,
+                       PlatformTransactionManager transactionManager,
+                       MessagingProperties messagingProperties) {
+        this.outboxMessageRepository = outboxMessageRepository;
+        this.jmsTemplate = jmsTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.settings = messagingProperties.outbox();
+    }
+
+    /**
+     * Wakes up the relay to publish newly committed messages.
+     */
+    public void signal() {
+        if (signal.availablePermits() == 0) {
+            signal.release();
+        }
+    }
+
+    @Override
+    public void start() {
+        if (!settings.enabled() || worker != null) {
+            return;
+        }
+        worker = Thread.ofPlatform().name("outbox-relay").daemon(true).start(this::run);
+        logger.info("Outbox relay started (batchSize={}, pollInterval={}ms)", settings.batchSize(), settings.pollIntervalMs());
+    }
+
+    @Override
+    public void stop() {
+        Thread thread = worker;
+        worker = null;
+        if (thread != null) {
+            thread.interrupt();
+            try {
+                thread.join(TimeUnit.SECONDS.toMillis(10));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return worker != null;
+    }
+
+    private void run() {
+        while (worker != null) {
+            try {
+                signal.tryAcquire(settings.pollIntervalMs(), TimeUnit.MILLISECONDS);
+                signal.drainPermits();
+                relay();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                logger.warn("Failed to relay messages from outbox, will retry in {}ms: {}", settings.pollIntervalMs(), e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Publishes outbox messages in batches until the outbox is empty or publishing fails.
+     *
+     * @return number of published messages
+     */
+    int relay() {
+        int total = 0;
+        while (true) {
+            Integer published = transactionTemplate.execute(status -> publishBatch());
+            if (published == null || published < 0) {
+                return total;
+            }
+            total += published;
+            if (published < settings.batchSize()) {
+                return total;
+            }
+        }
+    }
+
+    /**
+     * @return number of published messages, or -1 if the outbox is relayed by another instance or publishing failed
+     */
+    private int publishBatch() {
+        if (!outboxMessageRepository.tryAdvisoryTransactionLock(RELAY_LOCK_KEY)) {
+            return -1;
+        }
+        List<OutboxMessage> messages = outboxMessageRepository.findAllByOrderByIdAsc(PageRequest.of(0, settings.batchSize()));
+        if (messages.isEmpty()) {
+            return 0;
+        }
+
+        int[] published = {0};
+        JmsException failure = null;
+        try {
+            jmsTemplate.execute(session -> {
+                try (MessageProducer producer = session.createProducer(null)) {
+                    for (OutboxMessage outboxMessage : messages) {
+                        Destination destination = jmsTemplate.getDestinationResolver()
+                                .resolveDestinationName(session, outboxMessage.getDestination(), jmsTemplate.isPubSubDomain());
+                        TextMessage message = session.createTextMessage(outboxMessage.getPayload());
+                        message.setJMSType(outboxMessage.getRoutingKey());
+                        producer.send(destination, message);
+                        published[0]++;
+                    }
+                }
+                return null;
+            }, false);
+        } catch (JmsException e) {
+            failure = e;
+        }
+
+        // messages published before a failure are removed, the rest is retried in order in the next round
+        if (published[0] > 0) {
+            outboxMessageRepository.deleteAllByIdInBatch(messages.subList(0, published[0]).stream().map(OutboxMessage::getId).toList());
+        }
+        if (failure != null) {
+            logger.warn("Published {} of {} outbox messages, publishing failed: {}", published[0], messages.size(), failure.getMessage());
+            return -1;
+        }
+        logger.debug("Published {} messages from outbox", published[0]);
+        return published[0];
+    }
+}
@@ -1,7 +1,9 @@
 package com.czertainly.core.messaging.proxy;
 
 import com.czertainly.api.clients.mq.model.CoreMessage;
+import com.czertainly.api.clients.mq.model.ProxyMessage;
 import com.czertainly.core.messaging.jms.configuration.MessagingProperties;
+import jakarta.jms.Message;
 import java.util.Objects;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.qpid.jms.JmsQueue;
@@ -19,6 +21,12 @@ import org.springframework.stereotype.Component;
 @ConditionalOnProperty(name = "proxy.enabled", havingValue = "true")
 public class CoreMessageProducer {
 
+    /**
+     * JMS property carrying the ID of the Core instance that forwarded a proxy response.
+     * Forwarded responses are not consumed from the shared queue again, so they are forwarded at most once.
+     */
+    public static final String FORWARDED_BY_PROPERTY = "forwardedBy";
+
     private final JmsTemplate jmsTemplate;
     private final ProxyProperties proxyProperties;
     private final MessagingProperties messagingProperties;
@@ -74,6 +82,53 @@ public class CoreMessageProducer {
         });
     }
 
+    /**
+     * Forward a proxy response that was received by another Core instance to the instance
+     * owning its correlation ID, so that it is delivered once to the node waiting for it.
+     * The forwarded message expires after the request timeout, so it does not stay in the broker
+     * when the owning instance no longer exists.
+     *
+     * @param message    The proxy response to forward
+     * @param instanceId The ID of the owning Core instance
+     */
+    public void forwardResponse(ProxyMessage message, String instanceId) {
+        Objects.requireNonNull(message, "message must not be null");
+        if (instanceId == null || instanceId.isBlank()) {
+            throw new IllegalArgumentException("instanceId must not be null or blank");
+        }
+
+        String destination = getInstanceDestination(instanceId);
+
+        log.debug("Forwarding proxy response correlationId={} to instance={} destination={}",
+                message.getCorrelationId(), instanceId, destination);
+
+        long timeToLive = proxyProperties.requestTimeout().toMillis();
+        producerRetryTemplate.execute(context -> {
+            jmsTemplate.execute(destination, (session, producer) -> {
+                Message msg = jmsTemplate.getMessageConverter().toMessage(message, session);
+                // ServiceBus: per-instance subscription is filtered by Label/Subject equal to instance ID
+                msg.setJMSType(instanceId);
+                msg.setJMSCorrelationID(message.getCorrelationId());
+                msg.setStringProperty(FORWARDED_BY_PROPERTY, proxyProperties.instanceId());
+                producer.send(msg, producer.getDeliveryMode(), producer.getPriority(), timeToLive);
+                return null;
+            });
+            return null;
+        });
+    }
+
+    /**
+     * Get the destination of the per-instance response queue/subscription.
+     * For ServiceBus, the instance subscription is on the proxy topic.
+     * For RabbitMQ, the instance queue is addressed directly.
+     */
+    private String getInstanceDestination(String instanceId) {
+        if (messagingProperties.brokerType() == MessagingProperties.BrokerType.SERVICEBUS) {
+            return proxyProperties.exchange();
+        }
+        return "/queues/" + instanceId;
+    }
+
     /**
      * Get the destination (topic/exchange) based on broker type.
      * For ServiceBus, we use the topic directly.
@@ -0,0 +1,161 @@
+package com.czertainly.core.messaging.proxy;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Coarse-grained timer for large numbers of short-lived timeouts, based on a hashed timing wheel.
+ *
+ * <p>Scheduling and cancellation are O(1) and do not touch the wheel: new timeouts are queued and moved into
+ * their wheel bucket by the single tick thread, cancelled timeouts are only flagged and dropped when their bucket
+ * is processed. Timeouts fire with tick precision (they may fire up to one tick late). Expired tasks are executed
+ * on virtual threads so slow tasks do not delay the wheel.</p>
+ */
+@Slf4j
+final class HashedWheelTimer {
+
+    private static final int MAX_TRANSFERS_PER_TICK = 100_000;
+
+    private final long tickNanos;
+    private final ArrayDeque<Timeout>[] wheel;
+    private final int mask;
+    private final Queue<Timeout> newTimeouts = new ConcurrentLinkedQueue<>();
+    private final ExecutorService taskExecutor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Thread worker;
+    private final long startTime;
+    private volatile boolean running = true;
+    private long tick;
+
+    @SuppressWarnings("unchecked")
+    HashedWheelTimer(String name, Duration tickDuration, int wheelSize) {
+        if (tickDuration.isNegative() || tickDuration.isZero()) {
+            throw new IllegalArgumentException("Tick duration must be positive");
+        }
+        int size = Integer.highestOneBit(Math.max(1, wheelSize - 1)) << 1;
+        this.tickNanos = tickDuration.toNanos();
+        this.wheel = new ArrayDeque[size];
+        for (int i = 0; i < size; i++) {
+            wheel[i] = new ArrayDeque<>();
+        }
+        this.mask = size - 1;
+        this.startTime = System.nanoTime();
+        this.worker = Thread.ofPlatform().name(name).daemon(true).start(this::run);
+    }
+
+    /**
+     * Schedules a task to be executed after the given delay.
+     *
+     * @return handle that can be used to cancel the timeout
+     */
+    Timeout schedule(Runnable task, Duration delay) {
+        if (!running) {
+            throw new IllegalStateException("Timer has been stopped");
+        }
+        Timeout timeout = new Timeout(task, System.nanoTime() + delay.toNanos());
+        newTimeouts.add(timeout);
+        return timeout;
+    }
+
+    /**
+     * Stops the timer. Timeouts that have not expired yet are discarded.
+     */
+    void stop() {
+        running = false;
+        worker.interrupt();
+        try {
+            worker.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        taskExecutor.shutdownNow();
+    }
+
+    private void run() {
+        while (running) {
+            long deadline = startTime + (tick + 1) * tickNanos;
+            long sleepNanos = deadline - System.nanoTime();
+            if (sleepNanos > 0) {
+                LockSupport.parkNanos(this, sleepNanos);
+                if (Thread.interrupted() && !running) {
+                    return;
+                }
+                continue;
+            }
+            transferNewTimeouts();
+            expireTimeouts(wheel[(int) (tick & mask)]);
+            tick++;
+        }
+    }
+
+    private void transferNewTimeouts() {
+        for (int i = 0; i < MAX_TRANSFERS_PER_TICK; i++) {
+            Timeout timeout = newTimeouts.poll();
+            if (timeout == null) {
+                return;
+            }
+            if (timeout.cancelled) {
+                continue;
+            }
+            long calculatedTick = Math.max(0, (timeout.deadline - startTime) / tickNanos);
+            timeout.remainingRounds = Math.max(0, (calculatedTick - tick) / wheel.length);
+            // already expired timeouts are placed into the current bucket and expire in this tick
+            long targetTick = Math.max(calculatedTick, tick);
+            wheel[(int) (targetTick & mask)].add(timeout);
+        }
+    }
+
+    private void expireTimeouts(ArrayDeque<Timeout> bucket) {
+        Iterator<Timeout> iterator = bucket.iterator();
+        while (iterator.hasNext()) {
+            Timeout timeout = iterator.next();
+            if (timeout.cancelled) {
+                iterator.remove();
+            } else if (timeout.remainingRounds <= 0) {
+                iterator.remove();
+                execute(timeout);
+            } else {
+                timeout.remainingRounds--;
+            }
+        }
+    }
+
+    private void execute(Timeout timeout) {
+        try {
+            taskExecutor.execute(timeout.task);
+        } catch (RuntimeException e) {
+            log.warn("Failed to execute expired timeout task: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Handle of a scheduled timeout.
+     */
+    static final class Timeout {
+        private final Runnable task;
+        private final long deadline;
+        private volatile boolean cancelled;
+        private long remainingRounds;
+
+        private Timeout(Runnable task, long deadline) {
+            this.task = task;
+            this.deadline = deadline;
+        }
+
+        void cancel() {
+            cancelled = true;
+        }
+
+        boolean isCancelled() {
+            return cancelled;
+        }
+    }
+}
@@ -22,11 +22,11 @@ import org.springframework.context.annotation.Configuration;
 
 /**
  * Configuration class that enables proxy client functionality.
- * Automatically registers ProxyProperties configuration.
+ * Automatically registers ProxyProperties and ProxyCoalescingProperties configuration.
  */
 @Configuration
 @ConditionalOnProperty(name = "proxy.enabled", havingValue = "true")
-@EnableConfigurationProperties(ProxyProperties.class)
+@EnableConfigurationProperties({ProxyProperties.class, ProxyCoalescingProperties.class})
 public class ProxyClientConfig {
 
     /**
@@ -7,16 +7,21 @@ import com.czertainly.api.clients.mq.model.CoreMessage;
 import com.czertainly.api.clients.mq.model.ProxyMessage;
 import com.czertainly.api.exception.*;
 import com.czertainly.api.clients.ApiClientConnectorInfo;
+import com.czertainly.api.clients.mq.model.ConnectorAuth;
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Component;
 
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.Duration;
 import java.time.Instant;
+import java.util.HexFormat;
 import java.util.Map;
-import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
@@ -39,18 +44,22 @@ public class ProxyClientImpl implements ProxyClient {
     private final ConnectorAuthConverter authConverter;
     private final ObjectMapper objectMapper;
     private final ProxyProperties proxyProperties;
+    private final ProxyRequestCoalescer coalescer;
 
     public ProxyClientImpl(
             CoreMessageProducer producer,
             ProxyMessageCorrelator correlator,
             ConnectorAuthConverter authConverter,
             ObjectMapper objectMapper,
-            ProxyProperties proxyProperties) {
+            ProxyProperties proxyProperties,
+            ProxyCoalescingProperties coalescingProperties,
+            MeterRegistry meterRegistry) {
         this.producer = producer;
         this.correlator = correlator;
         this.authConverter = authConverter;
         this.objectMapper = objectMapper;
         this.proxyProperties = proxyProperties;
+        this.coalescer = new ProxyRequestCoalescer(coalescingProperties, meterRegistry);
         log.info("ProxyClientImpl initialized");
     }
 
@@ -156,7 +165,6 @@ public class ProxyClientImpl implements ProxyClient {
             Class<T> responseType,
             Duration timeout) {
 
-        String correlationId = UUID.randomUUID().toString();
         String proxyCode = connector.getProxy() != null ? connector.getProxy().getCode() : null;
 
         if (proxyCode == null || proxyCode.isBlank()) {
@@ -165,33 +173,83 @@ public class ProxyClientImpl implements ProxyClient {
 
         // Resolve path variables
         String resolvedPath = resolvePath(path, pathVariables);
+        ConnectorAuth connectorAuth = authConverter.convert(connector);
+
+        String contentHash = coalescer.isCoalescable(method, resolvedPath) ? contentHash(connectorAuth, body) : null;
+
+        CompletableFuture<ProxyMessage> messageFuture;
+        if (contentHash != null) {
+            ProxyRequestCoalescer.RequestKey key = new ProxyRequestCoalescer.RequestKey(
+                    proxyCode, connector.getUrl(), method, resolvedPath, contentHash);
+            messageFuture = coalescer.execute(key,
+                    () -> dispatchRequest(connector, proxyCode, method, resolvedPath, connectorAuth, body, timeout));
+        } else {
+            messageFuture = dispatchRequest(connector, proxyCode, method, resolvedPath, connectorAuth, body, timeout);
+        }
+
+        // Transform the response
+        return messageFuture.thenApply(proxyMessage -> handleResponse(proxyMessage, responseType, connector));
+    }
+
+    /**
+     * Send the request to the proxy and register it for correlation of the response.
+     */
+    private CompletableFuture<ProxyMessage> dispatchRequest(
+            ApiClientConnectorInfo connector,
+            String proxyCode,
+            String method,
+            String resolvedPath,
+            ConnectorAuth connectorAuth,
+            Object body,
+            Duration timeout) {
+        String correlationId = proxyProperties.createCorrelationId();
 
         log.debug("Sending async proxy request correlationId={} proxyCode={} method={} path={}",
                 correlationId, proxyCode, method, resolvedPath);
 
+        String messageType = toMessageType(method, resolvedPath);
+
         // Build the core message
         CoreMessage message = CoreMessage.builder()
                 .correlationId(correlationId)
-                .messageType(toMessageType(method, resolvedPath))
+                .messageType(messageType)
                 .timestamp(Instant.now())
                 .connectorRequest(ConnectorRequest.builder()
                         .connectorUrl(connector.getUrl())
                         .method(method)
                         .path(resolvedPath)
-                        .connectorAuth(authConverter.convert(connector))
+                        .connectorAuth(connectorAuth)
                         .body(body)
                         .timeout(formatTimeout(timeout))
                         .build())
                 .build();
 
         // Register for response BEFORE sending to avoid race condition
-        CompletableFuture<ProxyMessage> messageFuture = correlator.registerRequest(correlationId, timeout);
+        CompletableFuture<ProxyMessage> messageFuture = correlator.registerRequest(correlationId, timeout, messageType);
 
         // Send the request
         producer.send(message, proxyCode);
 
-        // Transform the response
-        return messageFuture.thenApply(proxyMessage -> handleResponse(proxyMessage, responseType, connector));
+        return messageFuture;
+    }
+
+    /**
+     * Hash of the parts of the request that are not part of the coalescing key in plain form:
+     * connector authentication (may contain credentials) and request body.
+     *
+     * @return hash of the content, or null if the content cannot be serialized and the request must not be coalesced
+     */
+    private String contentHash(ConnectorAuth connectorAuth, Object body) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(objectMapper.writeValueAsBytes(connectorAuth));
+            digest.update((byte) 0);
+            digest.update(body == null ? new byte[0] : objectMapper.writeValueAsBytes(body));
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            log.debug("Unable to hash proxy request content, request will not be coalesced: {}", e.getMessage());
+            return null;
+        }
     }
 
     /**
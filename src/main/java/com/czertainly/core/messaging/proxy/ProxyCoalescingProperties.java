@@ -0,0 +1,64 @@
+package com.czertainly.core.messaging.proxy;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.validation.annotation.Validated;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Configuration properties for coalescing of idempotent proxy requests.
+ * Identical requests issued concurrently share a single round-trip to the proxy,
+ * and their successful responses can optionally be cached for a short time.
+ */
+@ConfigurationProperties(prefix = "proxy.coalescing", ignoreInvalidFields = true, ignoreUnknownFields = true)
+@Validated
+public record ProxyCoalescingProperties(
+        /**
+         * Whether concurrent identical idempotent requests are coalesced.
+         * Default: true
+         */
+        Boolean enabled,
+
+        /**
+         * How long successful responses of coalesced requests are reused.
+         * Zero disables caching, only in-flight requests are shared.
+         * Default: 0s
+         */
+        Duration cacheTtl,
+
+        /**
+         * Maximum number of cached responses.
+         * Default: 1000
+         */
+        Integer maxCacheEntries,
+
+        /**
+         * Regular expressions of POST request paths that are safe to coalesce (read-only operations).
+         * GET requests are always coalesced.
+         * Default: attribute validation
+         */
+        List<String> safePostPaths
+) {
+    public ProxyCoalescingProperties {
+        if (enabled == null) {
+            enabled = true;
+        }
+        if (cacheTtl == null || cacheTtl.isNegative()) {
+            cacheTtl = Duration.ZERO;
+        }
+        if (maxCacheEntries == null || maxCacheEntries < 0) {
+            maxCacheEntries = 1000;
+        }
+        if (safePostPaths == null) {
+            safePostPaths = List.of(".*/attributes/validate");
+        }
+    }
+
+    /**
+     * Coalescing settings used when none are configured.
+     */
+    public static ProxyCoalescingProperties disabled() {
+        return new ProxyCoalescingProperties(false, null, null, List.of());
+    }
+}
@@ -2,6 +2,10 @@ package com.czertainly.core.messaging.proxy;
 
 import com.czertainly.api.clients.mq.model.ConnectorResponse;
 import com.czertainly.api.clients.mq.model.ProxyMessage;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
@@ -9,7 +13,12 @@ import org.springframework.stereotype.Component;
 
 import java.time.Duration;
 import java.time.Instant;
-import java.util.concurrent.*;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
 
 /**
  * Manages correlation between proxy requests and responses.
@@ -19,17 +28,35 @@ import java.util.concurrent.*;
  * When the response arrives, the correlation ID is used to find and complete
  * the appropriate CompletableFuture.</p>
  *
- * <p>Timeout handling is performed by a scheduled executor that cancels
- * pending requests after their timeout expires.</p>
+ * <p>Timeout handling is performed by a {@link HashedWheelTimer}, so registering and
+ * cancelling a timeout is O(1) regardless of the number of pending requests. The number
+ * of pending requests is strictly limited by {@link ProxyProperties#maxPendingRequests()};
+ * requests over the limit are rejected to apply backpressure on callers.</p>
+ *
+ * <p>Pending requests, request latency by message type, timeouts and rejections are
+ * exposed as metrics.</p>
  */
 @Slf4j
 @Component
 @ConditionalOnProperty(name = "proxy.enabled", havingValue = "true")
 public class ProxyMessageCorrelator {
 
+    private static final Duration TIMEOUT_TICK = Duration.ofMillis(100);
+    private static final int TIMEOUT_WHEEL_SIZE = 512;
+    private static final String METRIC_PREFIX = "czertainly.proxy.requests";
+    private static final String MESSAGE_TYPE_TAG = "messageType";
+    private static final String UNKNOWN_MESSAGE_TYPE = "unknown";
+    private static final Pattern ID_SEGMENT = Pattern.compile(
+            "^([0-9a-fA-F]{8}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{12}|\\d+)$");
+
     private final ConcurrentHashMap<String, PendingRequest> pendingRequests = new ConcurrentHashMap<>();
-    private final ScheduledExecutorService timeoutScheduler;
+    private final HashedWheelTimer timeoutTimer;
     private final ProxyProperties proxyProperties;
+    private final Semaphore capacity;
+    private final MeterRegistry meterRegistry;
+    private final Counter rejectedCounter;
+    private final Map<String, Counter> timeoutCounters = new ConcurrentHashMap<>();
+    private final Map<String, Timer> latencyTimers = new ConcurrentHashMap<>();
     private volatile boolean shuttingDown = false;
 
     /**
@@ -38,16 +65,28 @@ public class ProxyMessageCorrelator {
     private record PendingRequest(
             CompletableFuture<ProxyMessage> future,
             Instant createdAt,
-            ScheduledFuture<?> timeoutTask
+            long startNanos,
+            String messageType,
+            HashedWheelTimer.Timeout timeoutTask
     ) {}
 
-    public ProxyMessageCorrelator(ProxyProperties proxyProperties) {
+    public ProxyMessageCorrelator(ProxyProperties proxyProperties, MeterRegistry meterRegistry) {
         this.proxyProperties = proxyProperties;
-        // Use virtual threads for the timeout scheduler
-        this.timeoutScheduler = Executors.newSingleThreadScheduledExecutor(
-                Thread.ofVirtual().name("proxy-timeout-", 0).factory()
-        );
-        log.info("ProxyMessageCorrelator initialized with timeout scheduler");
+        this.meterRegistry = meterRegistry;
+        this.capacity = new Semaphore(proxyProperties.maxPendingRequests());
+        this.timeoutTimer = new HashedWheelTimer("proxy-timeout", TIMEOUT_TICK, TIMEOUT_WHEEL_SIZE);
+
+        Gauge.builder(METRIC_PREFIX + ".pending", pendingRequests, Map::size)
+                .description("Number of proxy requests waiting for a response")
+                .register(meterRegistry);
+        Gauge.builder(METRIC_PREFIX + ".capacity.available", capacity, Semaphore::availablePermits)
+                .description("Number of proxy requests that can be registered before new requests are rejected")
+                .register(meterRegistry);
+        this.rejectedCounter = Counter.builder(METRIC_PREFIX + ".rejected")
+                .description("Number of proxy requests rejected because the pending requests limit was reached")
+                .register(meterRegistry);
+        log.info("ProxyMessageCorrelator initialized with timeout wheel (tick={}ms, maxPendingRequests={})",
+                TIMEOUT_TICK.toMillis(), proxyProperties.maxPendingRequests());
     }
 
     /**
@@ -60,29 +99,48 @@ public class ProxyMessageCorrelator {
      * @throws IllegalStateException if too many pending requests
      */
     public CompletableFuture<ProxyMessage> registerRequest(String correlationId, Duration timeout) {
+        return registerRequest(correlationId, timeout, null);
+    }
+
+    /**
+     * Register a pending request for correlation.
+     * Must be called BEFORE sending the request to avoid race conditions.
+     *
+     * @param correlationId Unique ID for this request
+     * @param timeout       How long to wait for response
+     * @param messageType   Message type of the request, used to tag latency and timeout metrics
+     * @return CompletableFuture that will complete with the response
+     * @throws IllegalStateException if too many pending requests
+     */
+    public CompletableFuture<ProxyMessage> registerRequest(String correlationId, Duration timeout, String messageType) {
         if (shuttingDown) {
             throw new IllegalStateException("ProxyMessageCorrelator is shutting down");
         }
 
-        // Check capacity (soft limit - may briefly exceed under high concurrency
-        // due to check-then-act race; this is acceptable as the limit is a safeguard
-        // against unbounded growth, not a strict security boundary)
-        if (pendingRequests.size() >= proxyProperties.maxPendingRequests()) {
+        // Strict capacity limit - a permit is held for the whole life of the pending request
+        if (!capacity.tryAcquire()) {
+            rejectedCounter.increment();
             throw new IllegalStateException(
                     "Too many pending proxy requests. Max: " + proxyProperties.maxPendingRequests());
         }
 
         CompletableFuture<ProxyMessage> future = new CompletableFuture<>();
 
-        // Schedule timeout
-        ScheduledFuture<?> timeoutTask = timeoutScheduler.schedule(
-                () -> handleTimeout(correlationId),
-                timeout.toMillis(),
-                TimeUnit.MILLISECONDS
-        );
+        HashedWheelTimer.Timeout timeoutTask;
+        try {
+            timeoutTask = timeoutTimer.schedule(() -> handleTimeout(correlationId), timeout);
+        } catch (IllegalStateException e) {
+            capacity.release();
+            throw new IllegalStateException("ProxyMessageCorrelator is shutting down", e);
+        }
 
-        PendingRequest pending = new PendingRequest(future, Instant.now(), timeoutTask);
-        pendingRequests.put(correlationId, pending);
+        PendingRequest pending = new PendingRequest(future, Instant.now(), System.nanoTime(),
+                normalizeMessageType(messageType), timeoutTask);
+        if (pendingRequests.putIfAbsent(correlationId, pending) != null) {
+            timeoutTask.cancel();
+            capacity.release();
+            throw new IllegalStateException("Proxy request with correlationId " + correlationId + " is already pending");
+        }
 
         log.debug("Registered pending request correlationId={} timeout={}ms pendingCount={}",
                 correlationId, timeout.toMillis(), pendingRequests.size());
@@ -103,7 +161,7 @@ public class ProxyMessageCorrelator {
             return;
         }
 
-        PendingRequest pending = pendingRequests.remove(correlationId);
+        PendingRequest pending = removePending(correlationId);
 
         if (pending == null) {
             log.warn("Received message for unknown correlationId={}, may have timed out", correlationId);
@@ -111,13 +169,13 @@ public class ProxyMessageCorrelator {
         }
 
         // Cancel the timeout task since we got a response
-        pending.timeoutTask().cancel(false);
+        pending.timeoutTask().cancel();
 
         // Complete the future with the response
         pending.future().complete(message);
 
         int statusCode = message.hasConnectorResponse() ? message.getConnectorResponse().getStatusCode() : 0;
-        long latencyMs = Duration.between(pending.createdAt(), Instant.now()).toMillis();
+        long latencyMs = recordLatency(pending, statusCode);
         log.debug("Completed request correlationId={} statusCode={} latency={}ms pendingCount={}",
                 correlationId, statusCode, latencyMs, pendingRequests.size());
     }
@@ -139,20 +197,20 @@ public class ProxyMessageCorrelator {
             return false;
         }
 
-        PendingRequest pending = pendingRequests.remove(correlationId);
+        PendingRequest pending = removePending(correlationId);
         if (pending == null) {
             // No pending request for this correlation ID - this is expected in multi-instance scenarios
             return false;
         }
 
         // Cancel the timeout task since we got a response
-        pending.timeoutTask().cancel(false);
+        pending.timeoutTask().cancel();
 
         // Complete the future with the response
         pending.future().complete(message);
 
         int statusCode = message.hasConnectorResponse() ? message.getConnectorResponse().getStatusCode() : 0;
-        long latencyMs = Duration.between(pending.createdAt(), Instant.now()).toMillis();
+        long latencyMs = recordLatency(pending, statusCode);
         log.debug("Completed request (tryComplete) correlationId={} statusCode={} latency={}ms pendingCount={}",
                 correlationId, statusCode, latencyMs, pendingRequests.size());
         return true;
@@ -162,8 +220,14 @@ public class ProxyMessageCorrelator {
      * Handle timeout for a pending request.
      */
     private void handleTimeout(String correlationId) {
-        PendingRequest pending = pendingRequests.remove(correlationId);
+        PendingRequest pending = removePending(correlationId);
         if (pending != null) {
+            timeoutCounters.computeIfAbsent(pending.messageType(), messageType -> Counter.builder(METRIC_PREFIX + ".timeouts")
+                    .description("Number of proxy requests that timed out waiting for a response")
+                    .tag(MESSAGE_TYPE_TAG, messageType)
+                    .register(meterRegistry))
+                    .increment();
+
             // Create a timeout response
             ProxyMessage timeoutMessage = ProxyMessage.builder()
                     .correlationId(correlationId)
@@ -191,9 +255,9 @@ public class ProxyMessageCorrelator {
      * @return true if the request was found and cancelled
      */
     public boolean cancelRequest(String correlationId) {
-        PendingRequest pending = pendingRequests.remove(correlationId);
+        PendingRequest pending = removePending(correlationId);
         if (pending != null) {
-            pending.timeoutTask().cancel(false);
+            pending.timeoutTask().cancel();
             pending.future().cancel(true);
             log.debug("Cancelled request correlationId={}", correlationId);
             return true;
@@ -214,14 +278,58 @@ public class ProxyMessageCorrelator {
      * Primarily intended for testing to ensure clean state between tests.
      */
     public void clearPendingRequests() {
-        pendingRequests.forEach((id, pending) -> {
-            pending.timeoutTask().cancel(false);
-            pending.future().cancel(true);
+        pendingRequests.keySet().forEach(id -> {
+            PendingRequest pending = removePending(id);
+            if (pending != null) {
+                pending.timeoutTask().cancel();
+                pending.future().cancel(true);
+            }
         });
-        pendingRequests.clear();
         log.debug("Cleared all pending requests");
     }
 
+    /**
+     * Remove a pending request and release its capacity permit.
+     * The permit is released only by the caller that actually removed the request.
+     */
+    private PendingRequest removePending(String correlationId) {
+        PendingRequest pending = pendingRequests.remove(correlationId);
+        if (pending != null) {
+            capacity.release();
+        }
+        return pending;
+    }
+
+    private long recordLatency(PendingRequest pending, int statusCode) {
+        long latencyNanos = System.nanoTime() - pending.startNanos();
+        String status = statusCode >= 400 ? "error" : "success";
+        latencyTimers.computeIfAbsent(pending.messageType() + ":" + status, key -> Timer.builder(METRIC_PREFIX + ".latency")
+                .description("Time from sending a proxy request to receiving its response")
+                .tag(MESSAGE_TYPE_TAG, pending.messageType())
+                .tag("status", status)
+                .publishPercentileHistogram()
+                .register(meterRegistry))
+                .record(latencyNanos, TimeUnit.NANOSECONDS);
+        return TimeUnit.NANOSECONDS.toMillis(latencyNanos);
+    }
+
+    /**
+     * Normalize message type for use as a metric tag. Path segments that are UUIDs or numbers
+     * are replaced by a placeholder, so the number of distinct tag values stays bounded.
+     */
+    static String normalizeMessageType(String messageType) {
+        if (messageType == null || messageType.isBlank()) {
+            return UNKNOWN_MESSAGE_TYPE;
+        }
+        String[] segments = messageType.split("\\.");
+        for (int i = 0; i < segments.length; i++) {
+            if (ID_SEGMENT.matcher(segments[i]).matches()) {
+                segments[i] = "{id}";
+            }
+        }
+        return String.join(".", segments);
+    }
+
     /**
      * Cleanup on shutdown.
      * Cancels all pending requests and shuts down the timeout scheduler.
@@ -231,20 +339,16 @@ public class ProxyMessageCorrelator {
         shuttingDown = true;
         log.info("Shutting down ProxyMessageCorrelator with {} pending requests", pendingRequests.size());
 
-        // Cancel timeout scheduler
-        timeoutScheduler.shutdown();
-        try {
-            if (!timeoutScheduler.awaitTermination(5, TimeUnit.SECONDS)) {
-                timeoutScheduler.shutdownNow();
-            }
-        } catch (InterruptedException e) {
-            timeoutScheduler.shutdownNow();
-            Thread.currentThread().interrupt();
-        }
+        // Stop timeout timer
+        timeoutTimer.stop();
 
         // Complete all pending requests with shutdown error
-        pendingRequests.forEach((id, pending) -> {
-            pending.timeoutTask().cancel(false);
+        pendingRequests.keySet().forEach(id -> {
+            PendingRequest pending = removePending(id);
+            if (pending == null) {
+                return;
+            }
+            pending.timeoutTask().cancel();
             ProxyMessage shutdownMessage = ProxyMessage.builder()
                     .correlationId(id)
                     .timestamp(Instant.now())
@@ -257,6 +361,5 @@ public class ProxyMessageCorrelator {
                     .build();
             pending.future().complete(shutdownMessage);
         });
-        pendingRequests.clear();
     }
 }
@@ -6,6 +6,9 @@ import org.springframework.validation.annotation.Validated;
 import java.net.InetAddress;
 import java.net.UnknownHostException;
 import java.time.Duration;
+import java.util.UUID;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 /**
  * Configuration properties for the proxy client.
@@ -55,6 +58,15 @@ public record ProxyProperties(
          */
         String concurrency
 ) {
+    /**
+     * Separator between the owning instance ID and the unique part of a correlation ID.
+     * Instance IDs cannot contain it, so the owner can always be parsed unambiguously.
+     */
+    public static final String CORRELATION_ID_SEPARATOR = ".";
+
+    private static final Pattern INSTANCE_CORRELATION_ID = Pattern.compile(
+            "^([^./\\s]+)\\.[0-9a-fA-F]{8}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{12}$");
+
     public ProxyProperties {
         if (exchange == null) {
             exchange = "czertainly-proxy";
@@ -98,4 +110,36 @@ public record ProxyProperties(
         }
         return "coremessage." + proxyId;
     }
+
+    /**
+     * Create a new correlation ID owned by this Core instance.
+     * The instance ID is embedded as the first segment so that any replica receiving the response
+     * can route it to the owning instance.
+     * @return Correlation ID in format "{instanceId}.{uuid}"
+     */
+    public String createCorrelationId() {
+        return instanceId + CORRELATION_ID_SEPARATOR + UUID.randomUUID();
+    }
+
+    /**
+     * Check whether the correlation ID is scoped to a Core instance, i.e. contains the separator.
+     * @param correlationId The correlation ID of a request or response
+     * @return true if the correlation ID contains an instance prefix, which may still be malformed
+     */
+    public static boolean isInstanceScoped(String correlationId) {
+        return correlationId != null && correlationId.contains(CORRELATION_ID_SEPARATOR);
+    }
+
+    /**
+     * Get the ID of the Core instance that owns the correlation ID.
+     * @param correlationId The correlation ID of a request or response
+     * @return Owning instance ID, or null if the correlation ID is not in format "{instanceId}.{uuid}"
+     */
+    public static String getOwnerInstanceId(String correlationId) {
+        if (correlationId == null) {
+            return null;
+        }
+        Matcher matcher = INSTANCE_CORRELATION_ID.matcher(correlationId);
+        return matcher.matches() ? matcher.group(1) : null;
+    }
 }
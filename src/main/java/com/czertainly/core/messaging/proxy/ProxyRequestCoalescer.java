@@ -0,0 +1,165 @@
+package com.czertainly.core.messaging.proxy;
+
+import com.czertainly.api.clients.mq.model.ConnectorResponse;
+import com.czertainly.api.clients.mq.model.ProxyMessage;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+
+/**
+ * Shares proxy round-trips between identical idempotent requests.
+ *
+ * <p>The first request for a key is sent to the proxy, requests with the same key issued before its response
+ * arrives receive the same response. Successful responses are optionally cached for a short TTL. Only GET
+ * requests and POST requests to paths configured as safe are eligible.</p>
+ */
+@Slf4j
+final class ProxyRequestCoalescer {
+
+    private static final String METRIC_NAME = "czertainly.proxy.requests.coalesced";
+    private static final String SOURCE_TAG = "source";
+
+    private final boolean enabled;
+    private final long cacheTtlNanos;
+    private final int maxCacheEntries;
+    private final List<Pattern> safePostPaths;
+    private final ConcurrentHashMap<RequestKey, CompletableFuture<ProxyMessage>> inFlight = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<RequestKey, CachedResponse> cache = new ConcurrentHashMap<>();
+    private final Counter inFlightCounter;
+    private final Counter cacheCounter;
+
+    ProxyRequestCoalescer(ProxyCoalescingProperties properties, MeterRegistry meterRegistry) {
+        this.enabled = properties.enabled();
+        this.cacheTtlNanos = properties.cacheTtl().toNanos();
+        this.maxCacheEntries = properties.maxCacheEntries();
+        this.safePostPaths = properties.safePostPaths().stream().map(Pattern::compile).toList();
+        this.inFlightCounter = Counter.builder(METRIC_NAME)
+                .description("Number of proxy requests served by a response of an identical request")
+                .tag(SOURCE_TAG, "in-flight")
+                .register(meterRegistry);
+        this.cacheCounter = Counter.builder(METRIC_NAME)
+                .description("Number of proxy requests served by a response of an identical request")
+                .tag(SOURCE_TAG, "cache")
+                .register(meterRegistry);
+        if (enabled) {
+            log.info("Proxy request coalescing enabled (cacheTtl={}ms, safePostPaths={})",
+                    Duration.ofNanos(cacheTtlNanos).toMillis(), properties.safePostPaths());
+        }
+    }
+
+    /**
+     * Whether requests with the given method and path can share responses.
+     */
+    boolean isCoalescable(String method, String path) {
+        if (!enabled || method == null) {
+            return false;
+        }
+        return switch (method.toUpperCase(Locale.ROOT)) {
+            case "GET" -> true;
+            case "POST" -> path != null && safePostPaths.stream().anyMatch(pattern -> pattern.matcher(path).matches());
+            default -> false;
+        };
+    }
+
+    /**
+     * Get the response for the request identified by the key, sending the request only when no identical
+     * request is in flight and no cached response is available.
+     *
+     * @param key    identity of the request
+     * @param sender sends the request and returns future of its response; exceptions are propagated to the caller
+     * @return future of the response, independent for each caller
+     */
+    CompletableFuture<ProxyMessage> execute(RequestKey key, Supplier<CompletableFuture<ProxyMessage>> sender) {
+        CachedResponse cached = cache.get(key);
+        if (cached != null) {
+            if (!cached.isExpired(System.nanoTime())) {
+                cacheCounter.increment();
+                return CompletableFuture.completedFuture(cached.message());
+            }
+            cache.remove(key, cached);
+        }
+
+        CompletableFuture<ProxyMessage> promise = new CompletableFuture<>();
+        CompletableFuture<ProxyMessage> existing = inFlight.putIfAbsent(key, promise);
+        if (existing != null) {
+            inFlightCounter.increment();
+            log.debug("Coalescing proxy request {} {} with in-flight request", key.method(), key.path());
+            return existing.copy();
+        }
+
+        CompletableFuture<ProxyMessage> response;
+        try {
+            response = sender.get();
+        } catch (RuntimeException e) {
+            inFlight.remove(key, promise);
+            promise.completeExceptionally(e);
+            throw e;
+        }
+
+        response.whenComplete((message, throwable) -> {
+            if (throwable == null) {
+                cacheResponse(key, message);
+            }
+            // remove before completion, so requests arriving afterwards do not join a completed request
+            inFlight.remove(key, promise);
+            if (throwable != null) {
+                promise.completeExceptionally(throwable);
+            } else {
+                promise.complete(message);
+            }
+        });
+        return promise.copy();
+    }
+
+    private void cacheResponse(RequestKey key, ProxyMessage message) {
+        if (cacheTtlNanos <= 0 || !isSuccessful(message)) {
+            return;
+        }
+        long now = System.nanoTime();
+        if (cache.size() >= maxCacheEntries) {
+            cache.entrySet().removeIf(entry -> entry.getValue().isExpired(now));
+            if (cache.size() >= maxCacheEntries) {
+                return;
+            }
+        }
+        cache.put(key, new CachedResponse(message, now + cacheTtlNanos));
+    }
+
+    private static boolean isSuccessful(ProxyMessage message) {
+        if (message == null) {
+            return false;
+        }
+        ConnectorResponse response = message.getConnectorResponse();
+        return response != null && !response.hasError() && response.getStatusCode() < 400;
+    }
+
+    int inFlightCount() {
+        return inFlight.size();
+    }
+
+    /**
+     * Identity of a proxy request.
+     *
+     * @param proxyCode    code of the proxy the request is sent through
+     * @param connectorUrl URL of the target connector
+     * @param method       HTTP method
+     * @param path         resolved request path
+     * @param contentHash  hash of connector authentication and request body
+     */
+    record RequestKey(String proxyCode, String connectorUrl, String method, String path, String contentHash) {
+    }
+
+    record CachedResponse(ProxyMessage message, long expiresAtNanos) {
+        boolean isExpired(long now) {
+            return now - expiresAtNanos >= 0;
+        }
+    }
+}
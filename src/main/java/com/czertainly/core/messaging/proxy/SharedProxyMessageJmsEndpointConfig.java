@@ -15,6 +15,8 @@ import org.springframework.stereotype.Component;
 /**
  * JMS endpoint configuration for receiving fire-and-forget proxy messages on the shared queue.
  * All Core instances share this queue for messages like health checks and connector registration.
+ * On ServiceBus, responses forwarded between instances are published to the same topic and are excluded
+ * from the shared subscription, so they cannot be forwarded again.
  */
 @Component
 @Profile("!test")
@@ -35,7 +37,7 @@ public class SharedProxyMessageJmsEndpointConfig extends AbstractJmsEndpointConf
 
     @Override
     public SimpleJmsListenerEndpoint listenerEndpoint() {
-        return listenerEndpointInternal(
+        SimpleJmsListenerEndpoint endpoint = listenerEndpointInternal(
                 "sharedProxyMessageListener",
                 messagingProperties.brokerType() == MessagingProperties.BrokerType.SERVICEBUS
                         ? proxyProperties.exchange()
@@ -45,5 +47,9 @@ public class SharedProxyMessageJmsEndpointConfig extends AbstractJmsEndpointConf
                 proxyProperties.concurrency(),
                 ProxyMessage.class
         );
+        if (messagingProperties.brokerType() == MessagingProperties.BrokerType.SERVICEBUS) {
+            endpoint.setSelector(CoreMessageProducer.FORWARDED_BY_PROPERTY + " IS NULL");
+        }
+        return endpoint;
     }
 }
@@ -4,24 +4,55 @@ import com.czertainly.api.clients.mq.model.ProxyMessage;
 import com.czertainly.api.exception.MessageHandlingException;
 import com.czertainly.core.messaging.jms.listeners.MessageProcessor;
 import com.czertainly.core.messaging.proxy.handler.MessageTypeHandlerRegistry;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jms.JmsException;
 import org.springframework.stereotype.Component;
 
 /**
  * Listener for the shared proxy queue (fire-and-forget messages).
  * Dispatches messages by type to registered handlers (health checks,
- * connector registration). Does not perform correlation.
+ * connector registration). Responses to requests that ended up on the shared
+ * queue are routed by the instance ID embedded in their correlation ID: completed
+ * locally when owned by this instance, otherwise forwarded to the owning instance queue.
+ * Responses with malformed correlation IDs or that cannot be delivered to their owner are dropped
+ * and counted, so they are not redelivered indefinitely.
  */
 @Slf4j
 @Component("sharedProxyMessageListener")
 @ConditionalOnProperty(name = "proxy.enabled", havingValue = "true")
 public class SharedProxyMessageListener implements MessageProcessor<ProxyMessage> {
 
+    private static final String METRIC_NAME = "czertainly.proxy.responses.routed";
+    private static final String OUTCOME_TAG = "outcome";
+
     private final MessageTypeHandlerRegistry handlerRegistry;
+    private final ProxyMessageCorrelator correlator;
+    private final CoreMessageProducer coreMessageProducer;
+    private final ProxyProperties proxyProperties;
+    private final Counter completedCounter;
+    private final Counter unmatchedCounter;
+    private final Counter forwardedCounter;
+    private final Counter malformedCounter;
+    private final Counter undeliverableCounter;
 
-    public SharedProxyMessageListener(MessageTypeHandlerRegistry handlerRegistry) {
+    public SharedProxyMessageListener(
+            MessageTypeHandlerRegistry handlerRegistry,
+            ProxyMessageCorrelator correlator,
+            CoreMessageProducer coreMessageProducer,
+            ProxyProperties proxyProperties,
+            MeterRegistry meterRegistry) {
         this.handlerRegistry = handlerRegistry;
+        this.correlator = correlator;
+        this.coreMessageProducer = coreMessageProducer;
+        this.proxyProperties = proxyProperties;
+        this.completedCounter = routedCounter(meterRegistry, "completed");
+        this.unmatchedCounter = routedCounter(meterRegistry, "unmatched");
+        this.forwardedCounter = routedCounter(meterRegistry, "forwarded");
+        this.malformedCounter = routedCounter(meterRegistry, "malformed");
+        this.undeliverableCounter = routedCounter(meterRegistry, "undeliverable");
         log.info("SharedProxyMessageListener initialized");
     }
 
@@ -32,6 +63,10 @@ public class SharedProxyMessageListener implements MessageProcessor<ProxyMessage
             return;
         }
 
+        if (routeResponse(message)) {
+            return;
+        }
+
         String messageType = message.getMessageType();
         if (messageType == null || messageType.isBlank()) {
             log.warn("Received message on shared queue without messageType, discarding");
@@ -42,4 +77,53 @@ public class SharedProxyMessageListener implements MessageProcessor<ProxyMessage
             log.warn("No handler for messageType={} on shared queue", messageType);
         }
     }
+
+    /**
+     * Route a response carrying a correlation ID of a Core instance to its owner.
+     *
+     * @return true if the message was a response and has been handled
+     */
+    private boolean routeResponse(ProxyMessage message) {
+        String correlationId = message.getCorrelationId();
+        if (!ProxyProperties.isInstanceScoped(correlationId)) {
+            return false;
+        }
+
+        String ownerInstanceId = ProxyProperties.getOwnerInstanceId(correlationId);
+        if (ownerInstanceId == null) {
+            log.warn("Malformed instance correlationId={} on shared queue, discarding", correlationId);
+            malformedCounter.increment();
+            return true;
+        }
+
+        if (ownerInstanceId.equals(proxyProperties.instanceId())) {
+            if (correlator.tryCompleteRequest(message)) {
+                completedCounter.increment();
+            } else {
+                log.warn("No pending request for correlationId={} on shared queue", correlationId);
+                unmatchedCounter.increment();
+            }
+            return true;
+        }
+
+        log.debug("Response correlationId={} received on shared queue belongs to instance={}, forwarding",
+                correlationId, ownerInstanceId);
+        try {
+            coreMessageProducer.forwardResponse(message, ownerInstanceId);
+            forwardedCounter.increment();
+        } catch (JmsException e) {
+            // owning instance may no longer exist, redelivery would not help
+            log.warn("Cannot forward response correlationId={} to instance={}, discarding: {}",
+                    correlationId, ownerInstanceId, e.getMessage());
+            undeliverableCounter.increment();
+        }
+        return true;
+    }
+
+    private static Counter routedCounter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder(METRIC_NAME)
+                .description("Number of proxy responses received on the shared queue by routing outcome")
+                .tag(OUTCOME_TAG, outcome)
+                .register(meterRegistry);
+    }
 }
@@ -0,0 +1,43 @@
+package com.czertainly.core.messaging.proxy.handler;
+
+import com.czertainly.api.clients.mq.model.ProxyMessage;
+import com.czertainly.core.service.handler.DiscoveryCompletionWaiter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Handler for discovery completion messages from proxy instances.
+ *
+ * <p>Providers signal that a discovery has left the in-progress state by a fire-and-forget message
+ * with messageType "discovery.completed.{providerDiscoveryUuid}". The message only wakes up the waiting
+ * discovery, its result is loaded from the provider as usual.</p>
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "proxy.enabled", havingValue = "true")
+public class DiscoveryCompletedHandler implements MessageTypeResponseHandler {
+
+    private static final String MESSAGE_TYPE_PREFIX = "discovery.completed.";
+    private static final String MESSAGE_TYPE = MESSAGE_TYPE_PREFIX + "*";
+
+    private final DiscoveryCompletionWaiter discoveryCompletionWaiter;
+
+    public DiscoveryCompletedHandler(DiscoveryCompletionWaiter discoveryCompletionWaiter) {
+        this.discoveryCompletionWaiter = discoveryCompletionWaiter;
+    }
+
+    @Override
+    public String getMessageType() {
+        return MESSAGE_TYPE;
+    }
+
+    @Override
+    public void handleResponse(ProxyMessage message) {
+        String providerDiscoveryUuid = message.getMessageType().substring(MESSAGE_TYPE_PREFIX.length());
+        if (!discoveryCompletionWaiter.signalCompletion(providerDiscoveryUuid)) {
+            log.debug("Discovery completion received for discovery not awaited by this instance: providerDiscoveryUuid={} proxyId={}",
+                    providerDiscoveryUuid, message.getProxyId());
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.czertainly.core.model.discovery;
+
+import com.czertainly.api.model.common.enums.cryptography.KeyAlgorithm;
+import com.czertainly.api.model.common.enums.cryptography.KeyFormat;
+import com.czertainly.core.util.CertificateUtil;
+import com.czertainly.core.util.CryptographyUtil;
+import com.czertainly.core.util.KeySizeUtil;
+
+import java.nio.charset.StandardCharsets;
+import java.security.NoSuchAlgorithmException;
+import java.security.PublicKey;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Public keys of discovered certificates collected during their processing to be registered in bulk afterward.
+ * Keys are held only as fingerprints with encoded key data, certificates are linked to the keys by their public key fingerprint.
+ * Keys and certificates can be added concurrently.
+ */
+public class DiscoveredPublicKeys {
+
+    private final String namePrefix;
+    private final Map<String, EncodedPublicKey> keys = new ConcurrentHashMap<>();
+    private final Queue<UUID> certificateUuids = new ConcurrentLinkedQueue<>();
+
+    /**
+     * @param namePrefix Prefix of names of the keys created for the certificates
+     */
+    public DiscoveredPublicKeys(String namePrefix) {
+        this.namePrefix = namePrefix;
+    }
+
+    /**
+     * Adds public key of the certificate
+     *
+     * @param publicKey       Public key of the certificate
+     * @param certificateUuid UUID of the certificate
+     * @param certificateName Name of the certificate used in the name of the key if the key is new
+     * @return Fingerprint of the public key
+     */
+    public String add(PublicKey publicKey, UUID certificateUuid, String certificateName) throws NoSuchAlgorithmException {
+        byte[] encoded = publicKey.getEncoded();
+        String keyData = Base64.getEncoder().encodeToString(encoded);
+        String fingerprint = CertificateUtil.getThumbprint(keyData.getBytes(StandardCharsets.UTF_8));
+        keys.computeIfAbsent(fingerprint, f -> {
+            KeyAlgorithm keyAlgorithm;
+            try {
+                keyAlgorithm = CertificateUtil.getKeyAlgorithmEnumFromProviderName(publicKey.getAlgorithm());
+            } catch (IllegalArgumentException e) {
+                keyAlgorithm = KeyAlgorithm.UNKNOWN;
+            }
+            return new EncodedPublicKey(f, namePrefix + certificateName, keyData, keyAlgorithm, CryptographyUtil.getPublicKeyFormat(encoded), KeySizeUtil.getKeyLength(publicKey));
+        });
+        certificateUuids.add(certificateUuid);
+        return fingerprint;
+    }
+
+    /**
+     * Adds keys and certificates collected by another instance
+     */
+    public void addAll(DiscoveredPublicKeys other) {
+        other.keys.forEach(keys::putIfAbsent);
+        certificateUuids.addAll(other.certificateUuids);
+    }
+
+    public Collection<EncodedPublicKey> getKeys() {
+        return keys.values();
+    }
+
+    public List<UUID> getCertificateUuids() {
+        return List.copyOf(certificateUuids);
+    }
+
+    public boolean isEmpty() {
+        return keys.isEmpty();
+    }
+
+    /**
+     * Public key encoded for storing in the key item
+     *
+     * @param fingerprint  SHA-256 fingerprint of the Base64 encoded key
+     * @param name         Name of the key
+     * @param keyData      Base64 encoded key
+     * @param keyAlgorithm Algorithm of the key
+     * @param format       Format of the encoded key
+     * @param length       Length of the key
+     */
+    public record EncodedPublicKey(String fingerprint, String name, String keyData, KeyAlgorithm keyAlgorithm, KeyFormat format, int length) {
+    }
+}
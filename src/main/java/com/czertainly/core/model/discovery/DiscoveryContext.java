@@ -5,6 +5,7 @@ import com.czertainly.api.model.common.attribute.common.MetadataAttribute;
 import com.czertainly.api.model.core.connector.ConnectorDto;
 import com.czertainly.api.model.core.discovery.DiscoveryStatus;
 import com.czertainly.core.dao.entity.DiscoveryHistory;
+import com.czertainly.core.tasks.ScheduledJobInfo;
 import lombok.Getter;
 import lombok.Setter;
 
@@ -27,6 +28,9 @@ public class DiscoveryContext {
 
     private List<MetadataAttribute> metadata;
 
+    // set when discovery continues asynchronously after completion at provider, result of scheduled job is reported when discovery is finished
+    private ScheduledJobInfo scheduledJobInfo;
+
     public DiscoveryContext(UUID loggedUserUuid, ConnectorDto connectorDto, DiscoveryHistory discoveryHistory, List<DataAttribute> dataAttributes) {
         this.loggedUserUuid = loggedUserUuid;
         this.connectorDto = connectorDto;
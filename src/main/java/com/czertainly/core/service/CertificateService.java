@@ -22,6 +22,7 @@ import java.security.NoSuchAlgorithmException;
 import java.security.cert.CertificateException;
 import java.security.cert.X509Certificate;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
 
@@ -75,6 +76,15 @@ public interface CertificateService extends ResourceExtensionService  {
 
     CertificateContent checkAddCertificateContent(String fingerprint, String content);
 
+    /**
+     * Bulk variant of {@link #checkAddCertificateContent(String, String)}, existing contents are loaded by single query
+     * and missing contents are inserted in batch
+     *
+     * @param contents Certificate contents mapped by fingerprint
+     * @return Certificate contents mapped by fingerprint
+     */
+    Map<String, CertificateContent> checkAddCertificateContents(Map<String, String> contents);
+
     CertificateDetailDto upload(UploadCertificateRequestDto request, boolean ignoreCustomAttributes) throws AlreadyExistException, CertificateException, NoSuchAlgorithmException, NotFoundException, AttributeException;
 
     Certificate createCertificateAtomic(String certificate, boolean assignOwner) throws CertificateException, NoSuchAlgorithmException, NotFoundException;
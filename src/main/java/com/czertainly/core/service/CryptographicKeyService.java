@@ -13,11 +13,13 @@ import com.czertainly.api.model.core.cryptography.key.KeyItemDetailDto;
 import com.czertainly.api.model.core.search.SearchFieldDataByGroupDto;
 import com.czertainly.core.dao.entity.CryptographicKey;
 import com.czertainly.core.dao.entity.CryptographicKeyItem;
+import com.czertainly.core.model.discovery.DiscoveredPublicKeys;
 import com.czertainly.core.security.authz.SecuredParentUUID;
 import com.czertainly.core.security.authz.SecuredUUID;
 import com.czertainly.core.security.authz.SecurityFilter;
 
 import java.security.PublicKey;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -306,6 +308,14 @@ public interface CryptographicKeyService extends ResourceExtensionService {
      */
     UUID uploadCertificatePublicKey(String name, PublicKey publicKey, int keyLength, String fingerprint);
 
+    /**
+     * Upload public keys of existing certificates in bulk. Keys already registered with the same fingerprint, also by a concurrent upload, are not uploaded again.
+     *
+     * @param publicKeys Encoded public keys to be uploaded
+     * @return Number of uploaded Cryptographic Keys
+     */
+    int uploadCertificatePublicKeys(Collection<DiscoveredPublicKeys.EncodedPublicKey> publicKeys);
+
     /**
      * Edit Key Item
      *
@@ -0,0 +1,28 @@
+package com.czertainly.core.service;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Limits of the adaptive concurrency of discoveries, see {@link com.czertainly.core.service.handler.DiscoveryConcurrencyController}.
+ *
+ * @param connectorMaxConcurrency Maximum number of concurrent requests of all discoveries to one discovery provider
+ * @param storageMaxConcurrency   Maximum number of concurrently stored or processed batches of discovered certificates of all discoveries
+ * @param latencyTolerance        Ratio of recent to long-term latency above which the concurrency is decreased
+ * @param dbPoolHighWatermark     Ratio of active DB connections above which the storage concurrency is decreased
+ */
+@ConfigurationProperties(prefix = "discovery.concurrency")
+public record DiscoveryConcurrencyProperties(
+        int connectorMaxConcurrency,
+        int storageMaxConcurrency,
+        double latencyTolerance,
+        double dbPoolHighWatermark
+) {
+
+    public DiscoveryConcurrencyProperties {
+        if (connectorMaxConcurrency <= 0) connectorMaxConcurrency = 10;
+        if (storageMaxConcurrency <= 0) storageMaxConcurrency = 10;
+        if (latencyTolerance <= 1.0) latencyTolerance = 2.0;
+        if (dbPoolHighWatermark <= 0 || dbPoolHighWatermark > 1.0) dbPoolHighWatermark = 0.8;
+    }
+
+}
@@ -7,13 +7,16 @@ public record DiscoveryProperties(
         int maxCertificatesPerPage,
         int maxParallelism,
         int sleepTimeMs,
-        long maxWaitTimeSeconds
+        int maxSleepTimeMs,
+        long maxWaitTimeSeconds,
+        boolean asyncCompletion
 ) {
 
     public DiscoveryProperties {
         if (maxCertificatesPerPage <= 0) maxCertificatesPerPage = 100;
         if (maxParallelism <= 0) maxParallelism = 5;
         if (sleepTimeMs <= 0) sleepTimeMs = 5000;
+        if (maxSleepTimeMs < sleepTimeMs) maxSleepTimeMs = Math.max(sleepTimeMs, 60000);
         if (maxWaitTimeSeconds <= 0) maxWaitTimeSeconds = 21600;
     }
 
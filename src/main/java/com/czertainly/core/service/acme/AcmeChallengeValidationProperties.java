@@ -0,0 +1,40 @@
+package com.czertainly.core.service.acme;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Asynchronous validation of ACME challenges, see {@link com.czertainly.core.service.acme.impl.AcmeChallengeValidator}.
+ *
+ * @param workers                Number of threads validating challenges
+ * @param queueCapacity          Maximum number of challenges waiting for validation, challenges over the limit are returned to pending state
+ * @param maxConcurrentPerDomain Maximum number of concurrently validated challenges of one domain
+ * @param timeout                Timeout of connecting to and reading from the HTTP server or of the DNS query
+ * @param maxAttempts            Maximum number of validation attempts before the challenge is invalid
+ * @param retryDelay             Delay before the second attempt, doubled for each further attempt
+ * @param processingTimeout      Time after which challenge still in processing state is considered abandoned, e.g. by stopped instance,
+ *                               and is submitted for validation again. It should exceed the duration of all validation attempts
+ */
+@ConfigurationProperties(prefix = "acme.challenge-validation")
+public record AcmeChallengeValidationProperties(
+        int workers,
+        int queueCapacity,
+        int maxConcurrentPerDomain,
+        Duration timeout,
+        int maxAttempts,
+        Duration retryDelay,
+        Duration processingTimeout
+) {
+
+    public AcmeChallengeValidationProperties {
+        if (workers <= 0) workers = 16;
+        if (queueCapacity <= 0) queueCapacity = 10_000;
+        if (maxConcurrentPerDomain <= 0) maxConcurrentPerDomain = 2;
+        if (timeout == null || timeout.isNegative() || timeout.isZero()) timeout = Duration.ofSeconds(10);
+        if (maxAttempts <= 0) maxAttempts = 3;
+        if (retryDelay == null || retryDelay.isNegative()) retryDelay = Duration.ofSeconds(5);
+        if (processingTimeout == null || processingTimeout.isNegative() || processingTimeout.isZero()) processingTimeout = Duration.ofMinutes(10);
+    }
+
+}
@@ -0,0 +1,146 @@
+package com.czertainly.core.service.acme;
+
+import com.czertainly.api.model.core.acme.AccountStatus;
+import com.czertainly.api.model.core.acme.DirectoryMeta;
+import com.czertainly.core.util.VersionedTtlCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.security.PublicKey;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Registry of ACME profiles and accounts resolved by ACME requests, so the profile, its RA profile and the account
+ * with its parsed public key are not loaded on every request.
+ * <p>
+ * Contexts are invalidated when profiles or accounts are written and expire after the configured time to live,
+ * see {@link VersionedTtlCache}. Cached contexts are shared by all callers and must not be modified.
+ */
+@Component
+public class AcmeContextCache {
+
+    private static final int MAX_CACHED_ACCOUNT_IDS = 10_000;
+
+    private final VersionedTtlCache<ProfileKey, Optional<ProfileContext>> profiles;
+    private final VersionedTtlCache<String, Optional<AccountContext>> accounts;
+    // UUID of account never changes its ID, so the mapping does not need to be invalidated
+    private final Map<UUID, String> accountIds = new ConcurrentHashMap<>();
+
+    public AcmeContextCache(@Value("${acme.context-cache.ttl:30s}") Duration ttl) {
+        this.profiles = new VersionedTtlCache<>("ACME profile context", ttl);
+        this.accounts = new VersionedTtlCache<>("ACME account context", ttl);
+    }
+
+    /**
+     * Gets context of ACME profile, loading it if not cached
+     *
+     * @param profileName      Name of ACME profile, or name of RA profile if the request is RA profile based
+     * @param isRaProfileBased True if the ACME profile is resolved by RA profile
+     * @param loader           Loads context of the profile, empty if the profile does not exist
+     * @return Cached context
+     */
+    public Optional<ProfileContext> getProfile(String profileName, boolean isRaProfileBased, Supplier<Optional<ProfileContext>> loader) {
+        return profiles.get(new ProfileKey(profileName, isRaProfileBased), loader::get);
+    }
+
+    /**
+     * Gets context of ACME account, loading it if not cached
+     *
+     * @param accountId ID of ACME account
+     * @param loader    Loads context of the account, empty if the account does not exist
+     * @return Cached context
+     */
+    public Optional<AccountContext> getAccount(String accountId, Supplier<Optional<AccountContext>> loader) {
+        return accounts.get(accountId, () -> {
+            Optional<AccountContext> account = loader.get();
+            account.ifPresent(a -> {
+                if (accountIds.size() >= MAX_CACHED_ACCOUNT_IDS) accountIds.clear();
+                accountIds.put(a.uuid(), a.accountId());
+            });
+            return account;
+        });
+    }
+
+    /**
+     * Gets context of ACME account by its UUID, loading it if not cached
+     *
+     * @param accountUuid UUID of ACME account
+     * @param loader      Loads context of the account, empty if the account does not exist
+     * @return Cached context
+     */
+    public Optional<AccountContext> getAccount(UUID accountUuid, Supplier<Optional<AccountContext>> loader) {
+        String accountId = accountIds.get(accountUuid);
+        if (accountId != null) {
+            Optional<AccountContext> cached = accounts.getIfPresent(accountId);
+            if (cached != null && cached.isPresent()) {
+                return cached;
+            }
+        }
+        Optional<AccountContext> account = loader.get();
+        return account.isPresent() ? getAccount(account.get().accountId(), () -> account) : account;
+    }
+
+    /**
+     * Invalidates contexts of all ACME profiles after ACME profiles or RA profiles have been written
+     */
+    public void invalidateProfiles() {
+        profiles.invalidateAll();
+    }
+
+    /**
+     * Invalidates context of ACME account after it has been written
+     *
+     * @param accountId ID of ACME account
+     */
+    public void invalidateAccount(String accountId) {
+        accounts.invalidate(accountId);
+    }
+
+    /**
+     * Invalidates contexts of all ACME accounts after accounts have been written by administration
+     */
+    public void invalidateAccounts() {
+        accounts.invalidateAll();
+        accountIds.clear();
+    }
+
+    /**
+     * Settings of ACME profile and its RA profile needed to validate ACME requests
+     *
+     * @param acmeProfileUuid         UUID of ACME profile, null if no ACME profile is associated with the RA profile
+     * @param acmeProfileEnabled      True if ACME profile is enabled
+     * @param raProfileUuid           UUID of RA profile, null if no RA profile is associated with the ACME profile
+     * @param raProfileEnabled        True if RA profile is enabled
+     * @param disableNewOrders        True if new orders are disabled because terms of service have changed
+     * @param termsOfServiceUrl       URL of terms of service
+     * @param termsOfServiceChangeUrl URL of changes of terms of service
+     * @param retryInterval           Retry interval returned to clients in seconds
+     * @param directoryMeta           Metadata of the directory of the profile
+     */
+    public record ProfileContext(UUID acmeProfileUuid, boolean acmeProfileEnabled, UUID raProfileUuid, boolean raProfileEnabled,
+                                 boolean disableNewOrders, String termsOfServiceUrl, String termsOfServiceChangeUrl,
+                                 Integer retryInterval, DirectoryMeta directoryMeta) {
+    }
+
+    /**
+     * ACME account with parsed public key
+     *
+     * @param uuid            UUID of ACME account
+     * @param accountId       ID of ACME account
+     * @param status          Status of ACME account
+     * @param publicKey       Public key of ACME account, null if it cannot be parsed
+     * @param acmeProfileUuid UUID of ACME profile of the account
+     * @param raProfileUuid   UUID of RA profile of the account
+     */
+    public record AccountContext(UUID uuid, String accountId, AccountStatus status, PublicKey publicKey,
+                                 UUID acmeProfileUuid, UUID raProfileUuid) {
+    }
+
+    private record ProfileKey(String profileName, boolean isRaProfileBased) {
+    }
+}
@@ -0,0 +1,27 @@
+package com.czertainly.core.service.acme;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Replay protection of ACME nonces, see {@link AcmeNonceService}.
+ *
+ * @param replayStore      Store of used nonces, {@code memory} for each instance or {@code database} shared by all instances
+ * @param maxTrackedNonces Maximum number of used nonces held in memory, the oldest of them are dropped when it is reached
+ */
+@ConfigurationProperties(prefix = "acme.nonce")
+public record AcmeNonceProperties(
+        ReplayStore replayStore,
+        int maxTrackedNonces
+) {
+
+    public AcmeNonceProperties {
+        if (replayStore == null) replayStore = ReplayStore.MEMORY;
+        if (maxTrackedNonces <= 0) maxTrackedNonces = 1_000_000;
+    }
+
+    public enum ReplayStore {
+        MEMORY,
+        DATABASE
+    }
+
+}
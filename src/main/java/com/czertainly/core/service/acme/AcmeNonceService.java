@@ -0,0 +1,20 @@
+package com.czertainly.core.service.acme;
+
+public interface AcmeNonceService {
+
+    /**
+     * Issues new nonce. Nonce is self-validating, it carries its issue time and MAC computed with key shared by all instances.
+     *
+     * @return Nonce for Replay-Nonce header
+     */
+    String generateNonce();
+
+    /**
+     * Validates nonce from JWS header and marks it as used
+     *
+     * @param nonce Nonce from request
+     * @return true if nonce was issued by any instance, is not expired and was not used before
+     */
+    boolean consumeNonce(String nonce);
+
+}
@@ -0,0 +1,454 @@
+package com.czertainly.core.service.acme.impl;
+
+import com.czertainly.api.exception.AcmeProblemDocumentException;
+import com.czertainly.api.model.core.acme.*;
+import com.czertainly.core.dao.entity.acme.AcmeAuthorization;
+import com.czertainly.core.dao.entity.acme.AcmeChallenge;
+import com.czertainly.core.dao.entity.acme.AcmeOrder;
+import com.czertainly.core.dao.entity.acme.AcmeProfile;
+import com.czertainly.core.dao.repository.acme.AcmeAuthorizationRepository;
+import com.czertainly.core.dao.repository.acme.AcmeChallengeRepository;
+import com.czertainly.core.dao.repository.acme.AcmeOrderRepository;
+import com.czertainly.core.service.acme.AcmeChallengeValidationProperties;
+import com.czertainly.core.service.acme.AcmeConstants;
+import com.czertainly.core.util.AcmeCommonHelper;
+import com.czertainly.core.util.AcmePublicKeyProcessor;
+import com.czertainly.core.util.SerializationUtil;
+import com.nimbusds.jose.util.Base64URL;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.naming.Context;
+import javax.naming.NamingEnumeration;
+import javax.naming.NamingException;
+import javax.naming.directory.Attribute;
+import javax.naming.directory.Attributes;
+import javax.naming.directory.DirContext;
+import javax.naming.directory.InitialDirContext;
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.PublicKey;
+import java.security.spec.InvalidKeySpecException;
+import java.time.OffsetDateTime;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.stream.Collectors;
+
+/**
+ * Validates ACME challenges asynchronously on a bounded pool of workers, so slow or unreachable client hosts do not hold request threads.
+ * <p>
+ * Challenge submitted for validation is in processing state until the validation is completed. Failed attempts are retried with
+ * exponential backoff as allowed by RFC 8555, section 8.2, and the challenge is invalid when the last attempt fails. Number of
+ * concurrently validated challenges of one domain is limited, attempts over the limit are postponed. Challenges that cannot be
+ * queued are returned to pending state, so the client can request their validation again.
+ * <p>
+ * Validations in progress are held only in memory of the instance, so challenges remaining in processing state longer than the
+ * processing timeout, e.g. because the instance has been stopped, are submitted for validation again when they are polled
+ * and by a periodic sweep started when the application is ready.
+ */
+@Component
+public class AcmeChallengeValidator {
+
+    private static final Logger logger = LoggerFactory.getLogger(AcmeChallengeValidator.class);
+
+    private static final long DOMAIN_BUSY_DELAY_MS = 1000;
+    private static final String DNS_TIMEOUT_PROPERTY = "com.sun.jndi.dns.timeout.initial";
+    private static final String DNS_RETRIES_PROPERTY = "com.sun.jndi.dns.timeout.retries";
+
+    private final AcmeChallengeValidationProperties properties;
+    private final ThreadPoolExecutor workers;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().name("acme-challenge-validation-scheduler").daemon(true).factory());
+
+    // number of challenges being validated by domain
+    private final Map<String, Integer> activeValidations = new ConcurrentHashMap<>();
+
+    private AcmeChallengeRepository acmeChallengeRepository;
+    private AcmeAuthorizationRepository acmeAuthorizationRepository;
+    private AcmeOrderRepository acmeOrderRepository;
+    private TransactionTemplate transactionTemplate;
+
+    public AcmeChallengeValidator(AcmeChallengeValidationProperties properties) {
+        this.properties = properties;
+        this.workers = new ThreadPoolExecutor(properties.workers(), properties.workers(), 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(properties.queueCapacity()), Thread.ofPlatform().name("acme-challenge-validation-", 0).daemon(true).factory());
+        this.workers.allowCoreThreadTimeOut(true);
+    }
+
+    @Autowired
+    public void setAcmeChallengeRepository(AcmeChallengeRepository acmeChallengeRepository) {
+        this.acmeChallengeRepository = acmeChallengeRepository;
+    }
+
+    @Autowired
+    public void setAcmeAuthorizationRepository(AcmeAuthorizationRepository acmeAuthorizationRepository) {
+        this.acmeAuthorizationRepository = acmeAuthorizationRepository;
+    }
+
+    @Autowired
+    public void setAcmeOrderRepository(AcmeOrderRepository acmeOrderRepository) {
+        this.acmeOrderRepository = acmeOrderRepository;
+    }
+
+    @Autowired
+    public void setTransactionManager(PlatformTransactionManager transactionManager) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Submits challenge in processing state for validation. If called in transaction, the challenge is submitted after the transaction commits.
+     *
+     * @param challengeUuid UUID of the challenge
+     */
+    public void submit(UUID challengeUuid) {
+        ValidationAttempt attempt = new ValidationAttempt(challengeUuid, 1);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            enqueue(attempt);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                enqueue(attempt);
+            }
+        });
+    }
+
+    /**
+     * Submits challenge for validation again if it has been in processing state longer than the processing timeout.
+     * Challenge is claimed by refreshing its update time, so it is resubmitted only once even when polled by several instances.
+     *
+     * @param challengeUuid UUID of the challenge
+     * @return True if the challenge has been submitted again
+     */
+    public boolean resubmitIfAbandoned(UUID challengeUuid) {
+        OffsetDateTime now = OffsetDateTime.now();
+        Integer claimed = transactionTemplate.execute(status -> acmeChallengeRepository.touchIfStatusAndUpdatedBefore(challengeUuid,
+                ChallengeStatus.PROCESSING, now.minus(properties.processingTimeout()), now));
+        if (claimed == null || claimed == 0) {
+            return false;
+        }
+        logger.info("Validation of ACME challenge {} has not completed in {}, challenge is submitted for validation again", challengeUuid, properties.processingTimeout());
+        submit(challengeUuid);
+        return true;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void startAbandonedValidationsSweep() {
+        long intervalMs = properties.processingTimeout().toMillis();
+        try {
+            scheduler.scheduleWithFixedDelay(this::resubmitAbandoned, 0, intervalMs, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            logger.debug("Sweep of abandoned ACME challenge validations is not started, validator has been stopped");
+        }
+    }
+
+    /**
+     * Performs one validation attempt of the challenge on the calling thread. Challenge is completed when it is valid or when the attempt is the last one.
+     *
+     * @param challengeUuid UUID of the challenge
+     * @param lastAttempt   True if the challenge should be invalid when the attempt fails
+     * @return True if the challenge is no longer in processing state, false if the attempt should be retried
+     */
+    boolean validate(UUID challengeUuid, boolean lastAttempt) {
+        ChallengeValidation validation = transactionTemplate.execute(status -> loadValidation(challengeUuid));
+        if (validation == null) {
+            return true;
+        }
+        return validate(validation, lastAttempt);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+        workers.shutdownNow();
+    }
+
+    private void enqueue(ValidationAttempt attempt) {
+        try {
+            workers.execute(() -> run(attempt));
+        } catch (RejectedExecutionException e) {
+            if (workers.isShutdown()) {
+                return;
+            }
+            logger.warn("Queue of ACME challenges waiting for validation is full, challenge {} is returned to pending state", attempt.challengeUuid());
+            transactionTemplate.executeWithoutResult(status -> acmeChallengeRepository.findByUuid(attempt.challengeUuid())
+                    .filter(challenge -> challenge.getStatus() == ChallengeStatus.PROCESSING)
+                    .ifPresent(challenge -> {
+                        challenge.setStatus(ChallengeStatus.PENDING);
+                        acmeChallengeRepository.save(challenge);
+                    }));
+        }
+    }
+
+    private void resubmitAbandoned() {
+        try {
+            List<UUID> challengeUuids = transactionTemplate.execute(status -> acmeChallengeRepository.findUuidsByStatusAndUpdatedBefore(
+                    ChallengeStatus.PROCESSING, OffsetDateTime.now().minus(properties.processingTimeout())));
+            if (challengeUuids != null) {
+                challengeUuids.forEach(this::resubmitIfAbandoned);
+            }
+        } catch (Exception e) {
+            logger.error("Unable to resubmit abandoned ACME challenge validations: {}", e.getMessage(), e);
+        }
+    }
+
+    private void schedule(ValidationAttempt attempt, long delayMs) {
+        try {
+            scheduler.schedule(() -> enqueue(attempt), delayMs, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            logger.debug("Validation of ACME challenge {} is not scheduled, validator has been stopped", attempt.challengeUuid());
+        }
+    }
+
+    private void run(ValidationAttempt attempt) {
+        try {
+            ChallengeValidation validation = transactionTemplate.execute(status -> loadValidation(attempt.challengeUuid()));
+            if (validation == null) {
+                return;
+            }
+            if (!acquireDomain(validation.domain())) {
+                logger.debug("Limit of concurrent validations of domain {} reached, validation of challenge {} is postponed", validation.domain(), attempt.challengeUuid());
+                schedule(attempt, DOMAIN_BUSY_DELAY_MS);
+                return;
+            }
+            boolean completed;
+            try {
+                completed = validate(validation, attempt.number() >= properties.maxAttempts());
+            } finally {
+                releaseDomain(validation.domain());
+            }
+            if (!completed) {
+                long delayMs = properties.retryDelay().toMillis() << Math.min(attempt.number() - 1, 20);
+                logger.debug("Validation attempt {} of challenge {} failed, retrying in {} ms", attempt.number(), attempt.challengeUuid(), delayMs);
+                schedule(new ValidationAttempt(attempt.challengeUuid(), attempt.number() + 1), delayMs);
+            }
+        } catch (Exception e) {
+            logger.error("Validation of ACME challenge {} failed: {}", attempt.challengeUuid(), e.getMessage(), e);
+        }
+    }
+
+    private boolean validate(ChallengeValidation validation, boolean lastAttempt) {
+        boolean isValid;
+        try {
+            if (validation.type().equals(ChallengeType.HTTP01)) {
+                isValid = validateHttpChallenge(validation);
+            } else {
+                isValid = validateDnsChallenge(validation);
+            }
+        } catch (AcmeProblemDocumentException e) {
+            logger.error("Challenge {} cannot be validated: {}", validation.challengeUuid(), e.getMessage());
+            isValid = false;
+            lastAttempt = true;
+        }
+
+        if (!isValid && !lastAttempt) {
+            return false;
+        }
+        boolean valid = isValid;
+        transactionTemplate.executeWithoutResult(status -> completeValidation(validation.challengeUuid(), valid));
+        return true;
+    }
+
+    private ChallengeValidation loadValidation(UUID challengeUuid) {
+        AcmeChallenge challenge = acmeChallengeRepository.findByUuid(challengeUuid).orElse(null);
+        if (challenge == null || challenge.getStatus() != ChallengeStatus.PROCESSING) {
+            return null;
+        }
+        AcmeAuthorization authorization = challenge.getAuthorization();
+        AcmeProfile acmeProfile = authorization.getOrder().getAcmeAccount().getAcmeProfile();
+        String domain = SerializationUtil.deserializeIdentifier(authorization.getIdentifier()).getValue().replace("*.", "");
+        return new ChallengeValidation(challengeUuid, challenge.getType(), challenge.getToken(), domain,
+                authorization.getOrder().getAcmeAccount().getPublicKey(), acmeProfile.getDnsResolverIp(), acmeProfile.getDnsResolverPort());
+    }
+
+    private void completeValidation(UUID challengeUuid, boolean isValid) {
+        AcmeChallenge challenge = acmeChallengeRepository.findByUuid(challengeUuid).orElse(null);
+        if (challenge == null || challenge.getStatus() != ChallengeStatus.PROCESSING) {
+            return;
+        }
+        AcmeAuthorization authorization = challenge.getAuthorization();
+        AcmeOrder order = authorization.getOrder();
+        if (isValid) {
+            challenge.setValidated(new Date());
+            challenge.setStatus(ChallengeStatus.VALID);
+            authorization.setStatus(AuthorizationStatus.VALID);
+            order.setStatus(OrderStatus.READY);
+        } else {
+            challenge.setStatus(ChallengeStatus.INVALID);
+        }
+
+        acmeOrderRepository.save(order);
+        acmeChallengeRepository.save(challenge);
+        acmeAuthorizationRepository.save(authorization);
+
+        logger.debug("Validation of the Challenge is completed: {}", challenge);
+    }
+
+    private boolean acquireDomain(String domain) {
+        boolean[] acquired = new boolean[1];
+        activeValidations.compute(domain, (d, count) -> {
+            int active = count == null ? 0 : count;
+            acquired[0] = active < properties.maxConcurrentPerDomain();
+            return acquired[0] ? active + 1 : count;
+        });
+        return acquired[0];
+    }
+
+    private void releaseDomain(String domain) {
+        activeValidations.computeIfPresent(domain, (d, count) -> count > 1 ? count - 1 : null);
+    }
+
+    private boolean validateHttpChallenge(ChallengeValidation validation) throws AcmeProblemDocumentException {
+        logger.debug("Initiating HTTP-01 Challenge validation: {}", validation);
+        String response = getResponseFollowRedirects(AcmeConstants.HTTP_CHALLENGE_BASE_URL.formatted(validation.domain(), validation.token()));
+        PublicKey pubKey;
+        try {
+            pubKey = AcmePublicKeyProcessor.publicKeyObjectFromString(validation.publicKey());
+        } catch (Exception e) {
+            throw new AcmeProblemDocumentException(HttpStatus.BAD_REQUEST, Problem.SERVER_INTERNAL);
+        }
+        String expectedResponse = AcmeCommonHelper.createKeyAuthorization(validation.token(), pubKey);
+        logger.debug("HTTP01 validation response from the server: {}, expected response: {}", response, expectedResponse);
+        return response.equals(expectedResponse);
+    }
+
+    private boolean validateDnsChallenge(ChallengeValidation validation) throws AcmeProblemDocumentException {
+        logger.info("Initiating DNS-01 validation for challenge: {}", validation);
+        Properties env = getEnv(validation);
+        List<String> txtRecords = new ArrayList<>();
+        String expectedKeyAuthorization = generateDnsValidationToken(validation.publicKey(), validation.token());
+        DirContext context = null;
+        try {
+            context = new InitialDirContext(env);
+            Attributes list = context.getAttributes(AcmeConstants.DNS_ACME_PREFIX + validation.domain(),
+                    new String[]{AcmeConstants.DNS_RECORD_TYPE});
+            NamingEnumeration<? extends Attribute> records = list.getAll();
+
+            while (records.hasMore()) {
+                Attribute record = records.next();
+                txtRecords.add(record.get().toString());
+            }
+        } catch (NamingException e) {
+            logger.error(e.getMessage());
+        } finally {
+            closeContext(context);
+        }
+        if (txtRecords.isEmpty()) {
+            logger.error("TXT record is empty for Challenge: {}", validation);
+            return false;
+        }
+        if (!txtRecords.contains(expectedKeyAuthorization)) {
+            logger.error("TXT record not found for Challenge: {}", validation);
+            return false;
+        }
+        return true;
+    }
+
+    private static void closeContext(DirContext context) {
+        if (context == null) {
+            return;
+        }
+        try {
+            context.close();
+        } catch (NamingException e) {
+            logger.debug("Unable to close DNS context: {}", e.getMessage());
+        }
+    }
+
+    private Properties getEnv(ChallengeValidation validation) {
+        Properties env = new Properties();
+        env.setProperty(Context.INITIAL_CONTEXT_FACTORY, AcmeConstants.DNS_CONTENT_FACTORY);
+        env.setProperty(DNS_TIMEOUT_PROPERTY, String.valueOf(properties.timeout().toMillis()));
+        env.setProperty(DNS_RETRIES_PROPERTY, "1");
+        if (validation.dnsResolverIp() == null || validation.dnsResolverIp().isEmpty()) {
+            env.setProperty(Context.PROVIDER_URL, AcmeConstants.DNS_ENV_PREFIX);
+        } else {
+            env.setProperty(Context.PROVIDER_URL, AcmeConstants.DNS_ENV_PREFIX + validation.dnsResolverIp() + ":" + Optional.ofNullable(validation.dnsResolverPort())
+                    .orElse(AcmeConstants.DEFAULT_DNS_PORT));
+        }
+        return env;
+    }
+
+    private String getResponseFollowRedirects(String url) throws AcmeProblemDocumentException {
+        int timeoutMs = (int) Math.min(properties.timeout().toMillis(), Integer.MAX_VALUE);
+        String finalUrl = url;
+        String acmeChallengeOutput = "";
+        int redirectFollowCount = 0;
+        try {
+            HttpURLConnection connection;
+            do {
+                redirectFollowCount += 1;
+                URL urlObject = new URL(finalUrl);
+                if (!(urlObject.getPort() == 80 || urlObject.getPort() == 443 || urlObject.getPort() == -1)) {
+                    throw new AcmeProblemDocumentException(HttpStatus.BAD_REQUEST, Problem.TLS, "Only 80 and 443 ports can be followed");
+                }
+                connection = (HttpURLConnection) urlObject.openConnection();
+                connection.setInstanceFollowRedirects(false);
+                connection.setUseCaches(false);
+                connection.setConnectTimeout(timeoutMs);
+                connection.setReadTimeout(timeoutMs);
+                connection.setRequestMethod(AcmeConstants.HTTP_CHALLENGE_REQUEST_METHOD);
+                connection.connect();
+                int responseCode = connection.getResponseCode();
+                if (100 <= responseCode && responseCode <= 399) {
+                    try (BufferedReader bufferedReader = new BufferedReader(new InputStreamReader(connection.getInputStream()))) {
+                        acmeChallengeOutput = bufferedReader.lines().collect(Collectors.joining());
+                    }
+                }
+                if (responseCode >= 300 && responseCode < 400) {
+                    String redirectedUrl = connection.getHeaderField(AcmeConstants.LOCATION_HEADER_NAME);
+                    if (null == redirectedUrl) {
+                        break;
+                    }
+                    finalUrl = redirectedUrl;
+                    connection.disconnect();
+                } else
+                    break;
+            } while (redirectFollowCount < AcmeConstants.MAX_REDIRECT_COUNT);
+            connection.disconnect();
+        } catch (AcmeProblemDocumentException e) {
+            throw e;
+        } catch (Exception e) {
+            logger.error(e.getMessage());
+        }
+        return acmeChallengeOutput;
+    }
+
+    private String generateDnsValidationToken(String publicKey, String token) throws AcmeProblemDocumentException {
+        MessageDigest digest;
+        try {
+            PublicKey pubKey = AcmePublicKeyProcessor.publicKeyObjectFromString(publicKey);
+            digest = MessageDigest.getInstance(AcmeConstants.MESSAGE_DIGEST_ALGORITHM);
+            final byte[] encodedHashOfExpectedKeyAuthorization = digest.digest(AcmeCommonHelper.createKeyAuthorization(token, pubKey).getBytes(StandardCharsets.UTF_8));
+            return Base64URL.encode(encodedHashOfExpectedKeyAuthorization).toString();
+        } catch (NoSuchAlgorithmException | InvalidKeySpecException e) {
+            logger.error(e.getMessage());
+            throw new AcmeProblemDocumentException(HttpStatus.BAD_REQUEST, Problem.SERVER_INTERNAL);
+        }
+    }
+
+    private record ValidationAttempt(UUID challengeUuid, int number) {
+    }
+
+    /**
+     * Data of the challenge needed for its validation, loaded before the validation so no database connection is held during it
+     */
+    private record ChallengeValidation(UUID challengeUuid, ChallengeType type, String token, String domain, String publicKey,
+                                       String dnsResolverIp, String dnsResolverPort) {
+    }
+}
@@ -0,0 +1,180 @@
+package com.czertainly.core.service.acme.impl;
+
+import com.czertainly.core.dao.repository.acme.AcmeNonceRepository;
+import com.czertainly.core.service.acme.AcmeConstants;
+import com.czertainly.core.service.acme.AcmeNonceProperties;
+import com.czertainly.core.service.acme.AcmeNonceService;
+import com.czertainly.core.util.SecretsUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.security.InvalidKeyException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Clock;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Nonces consist of issue time, ID of the issuing instance and counter, authenticated by truncated HMAC-SHA256
+ * with key derived from the encryption key, so any instance can validate them without storing issued nonces.
+ * Used nonces are tracked until they expire, in memory grouped by issue time or in the database if shared by more instances.
+ * When the limit of nonces tracked in memory is reached, the oldest group is dropped and nonces issued until its end
+ * are rejected from then on, so used nonces cannot be replayed and flooding the tracker does not block fresh nonces.
+ */
+@Service
+public class AcmeNonceServiceImpl implements AcmeNonceService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AcmeNonceServiceImpl.class);
+
+    private static final String MAC_ALGORITHM = "HmacSHA256";
+    private static final String MAC_KEY_PURPOSE = "czertainly-acme-nonce";
+    private static final int MAC_LENGTH = 16;
+    private static final int PAYLOAD_LENGTH = 3 * Long.BYTES;
+    private static final long BUCKET_SECONDS = 10;
+    private static final long CLOCK_SKEW_SECONDS = 60;
+
+    private final AcmeNonceProperties properties;
+    private final long instanceId = new SecureRandom().nextLong();
+    private final AtomicLong counter = new AtomicLong();
+
+    // used nonces by bucket of their issue time
+    private final Map<Long, Set<String>> usedNonces = new ConcurrentHashMap<>();
+    private final AtomicInteger usedNoncesCount = new AtomicInteger();
+    // nonces issued in older buckets are rejected, since their used nonces are no longer tracked
+    private final AtomicLong oldestTrackedBucket = new AtomicLong(Long.MIN_VALUE);
+    private final Clock clock;
+
+    private volatile SecretKeySpec macKey;
+    private final ThreadLocal<Mac> macs = ThreadLocal.withInitial(() -> {
+        try {
+            return Mac.getInstance(MAC_ALGORITHM);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Algorithm " + MAC_ALGORITHM + " not found", e);
+        }
+    });
+
+    private AcmeNonceRepository acmeNonceRepository;
+
+    @Autowired
+    public AcmeNonceServiceImpl(AcmeNonceProperties properties) {
+        this(properties, Clock.systemUTC());
+    }
+
+    public AcmeNonceServiceImpl(AcmeNonceProperties properties, Clock clock) {
+        this.properties = properties;
+        this.clock = clock;
+    }
+
+    @Autowired
+    public void setAcmeNonceRepository(AcmeNonceRepository acmeNonceRepository) {
+        this.acmeNonceRepository = acmeNonceRepository;
+    }
+
+    @Override
+    public String generateNonce() {
+        ByteBuffer nonce = ByteBuffer.allocate(PAYLOAD_LENGTH + MAC_LENGTH);
+        nonce.putLong(currentEpochSecond());
+        nonce.putLong(instanceId);
+        nonce.putLong(counter.incrementAndGet());
+        nonce.put(computeMac(nonce.array()), 0, MAC_LENGTH);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(nonce.array());
+    }
+
+    @Override
+    @Transactional
+    public boolean consumeNonce(String nonce) {
+        byte[] decoded;
+        try {
+            decoded = Base64.getUrlDecoder().decode(nonce);
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+        if (decoded.length != PAYLOAD_LENGTH + MAC_LENGTH) {
+            return false;
+        }
+
+        byte[] mac = Arrays.copyOfRange(computeMac(decoded), 0, MAC_LENGTH);
+        if (!MessageDigest.isEqual(mac, Arrays.copyOfRange(decoded, PAYLOAD_LENGTH, decoded.length))) {
+            logger.debug("ACME nonce {} has invalid MAC", nonce);
+            return false;
+        }
+
+        long issuedAt = ByteBuffer.wrap(decoded).getLong();
+        long now = currentEpochSecond();
+        if (issuedAt > now + CLOCK_SKEW_SECONDS || now - issuedAt > AcmeConstants.NONCE_VALIDITY) {
+            logger.debug("ACME nonce {} is expired", nonce);
+            return false;
+        }
+
+        if (properties.replayStore() == AcmeNonceProperties.ReplayStore.DATABASE) {
+            return acmeNonceRepository.insertWithNonceConflictResolve(nonce, new Date(issuedAt * 1000), new Date((issuedAt + AcmeConstants.NONCE_VALIDITY) * 1000)) > 0;
+        }
+        return markUsed(nonce, issuedAt, now);
+    }
+
+    private boolean markUsed(String nonce, long issuedAt, long now) {
+        removeBucketsBefore((now - AcmeConstants.NONCE_VALIDITY) / BUCKET_SECONDS);
+        while (usedNoncesCount.get() >= properties.maxTrackedNonces() && !usedNonces.isEmpty()) {
+            long oldestBucket = Collections.min(usedNonces.keySet());
+            logger.warn("Limit of {} used ACME nonces tracked in memory reached, nonces issued before {} are rejected.", properties.maxTrackedNonces(), (oldestBucket + 1) * BUCKET_SECONDS);
+            removeBucketsBefore(oldestBucket + 1);
+        }
+
+        long bucket = issuedAt / BUCKET_SECONDS;
+        if (bucket < oldestTrackedBucket.get()) {
+            logger.debug("ACME nonce {} was issued before the oldest tracked used nonces", nonce);
+            return false;
+        }
+        if (!usedNonces.computeIfAbsent(bucket, k -> ConcurrentHashMap.newKeySet()).add(nonce)) {
+            logger.debug("ACME nonce {} has been already used", nonce);
+            return false;
+        }
+        usedNoncesCount.incrementAndGet();
+        return true;
+    }
+
+    private void removeBucketsBefore(long bucket) {
+        // nonces of removed buckets must be rejected before their used nonces are dropped
+        oldestTrackedBucket.accumulateAndGet(bucket, Math::max);
+        for (Map.Entry<Long, Set<String>> entry : usedNonces.entrySet()) {
+            // only the thread that removed the bucket updates the count
+            if (entry.getKey() < bucket && usedNonces.remove(entry.getKey(), entry.getValue())) {
+                usedNoncesCount.addAndGet(-entry.getValue().size());
+            }
+        }
+    }
+
+    private byte[] computeMac(byte[] nonce) {
+        Mac mac = macs.get();
+        try {
+            mac.init(getMacKey());
+        } catch (InvalidKeyException e) {
+            throw new IllegalStateException("Invalid key provided for " + MAC_ALGORITHM, e);
+        }
+        mac.update(nonce, 0, PAYLOAD_LENGTH);
+        return mac.doFinal();
+    }
+
+    private SecretKeySpec getMacKey() {
+        SecretKeySpec key = macKey;
+        if (key == null) {
+            key = new SecretKeySpec(SecretsUtil.deriveKey(MAC_KEY_PURPOSE, 32), MAC_ALGORITHM);
+            macKey = key;
+        }
+        return key;
+    }
+
+    private long currentEpochSecond() {
+        return clock.millis() / 1000;
+    }
+}
@@ -30,13 +30,14 @@ import com.czertainly.core.security.authz.SecuredParentUUID;
 import com.czertainly.core.security.authz.SecuredUUID;
 import com.czertainly.core.service.CertificateService;
 import com.czertainly.core.service.acme.AcmeConstants;
+import com.czertainly.core.service.acme.AcmeContextCache;
+import com.czertainly.core.service.acme.AcmeNonceService;
 import com.czertainly.core.service.acme.AcmeService;
 import com.czertainly.core.service.acme.message.AcmeJwsRequest;
 import com.czertainly.core.service.v2.ClientOperationService;
 import com.czertainly.core.util.*;
 import com.nimbusds.jose.JOSEException;
 import com.nimbusds.jose.JWSObject;
-import com.nimbusds.jose.util.Base64URL;
 import jakarta.transaction.Transactional;
 import org.bouncycastle.asn1.pkcs.PKCSObjectIdentifiers;
 import org.bouncycastle.asn1.x500.style.BCStyle;
@@ -61,22 +62,10 @@ import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
-import javax.naming.Context;
-import javax.naming.NamingEnumeration;
-import javax.naming.NamingException;
-import javax.naming.directory.Attribute;
-import javax.naming.directory.Attributes;
-import javax.naming.directory.DirContext;
-import javax.naming.directory.InitialDirContext;
-import java.io.BufferedReader;
 import java.io.IOException;
-import java.io.InputStreamReader;
 import java.io.StringWriter;
-import java.net.HttpURLConnection;
 import java.net.URI;
-import java.net.URL;
 import java.nio.charset.StandardCharsets;
-import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.security.PublicKey;
 import java.security.cert.CertificateException;
@@ -92,7 +81,9 @@ public class AcmeServiceImpl implements AcmeService {
 
     private static final Logger logger = LoggerFactory.getLogger(AcmeServiceImpl.class);
 
-    private AcmeNonceRepository acmeNonceRepository;
+    private AcmeNonceService acmeNonceService;
+    private AcmeChallengeValidator acmeChallengeValidator;
+    private AcmeContextCache acmeContextCache;
     private RaProfileRepository raProfileRepository;
     private AcmeProfileRepository acmeProfileRepository;
     private AcmeAccountRepository acmeAccountRepository;
@@ -109,8 +100,18 @@ public class AcmeServiceImpl implements AcmeService {
     }
 
     @Autowired
-    public void setAcmeNonceRepository(AcmeNonceRepository acmeNonceRepository) {
-        this.acmeNonceRepository = acmeNonceRepository;
+    public void setAcmeNonceService(AcmeNonceService acmeNonceService) {
+        this.acmeNonceService = acmeNonceService;
+    }
+
+    @Autowired
+    public void setAcmeChallengeValidator(AcmeChallengeValidator acmeChallengeValidator) {
+        this.acmeChallengeValidator = acmeChallengeValidator;
+    }
+
+    @Autowired
+    public void setAcmeContextCache(AcmeContextCache acmeContextCache) {
+        this.acmeContextCache = acmeContextCache;
     }
 
     @Autowired
@@ -304,6 +305,7 @@ public class AcmeServiceImpl implements AcmeService {
             account.setStatus(AccountStatus.DEACTIVATED);
         }
         acmeAccountRepository.save(account);
+        acmeContextCache.invalidateAccount(account.getAccountId());
         if (logger.isDebugEnabled()) {
             logger.debug("Updated Account: {}", account.mapToDto().toString());
         }
@@ -379,6 +381,7 @@ public class AcmeServiceImpl implements AcmeService {
 
         acmeAccount.setPublicKey(AcmePublicKeyProcessor.publicKeyPemStringFromObject(newKey));
         acmeAccountRepository.save(acmeAccount);
+        acmeContextCache.invalidateAccount(acmeAccount.getAccountId());
 
         return ResponseEntity.ok()
                 .header(AcmeConstants.LINK_HEADER_NAME, generateLinkHeader(acmeProfileName, isRaProfileBased))
@@ -432,8 +435,9 @@ public class AcmeServiceImpl implements AcmeService {
         }
 
         Integer invalidatedOrders = acmeOrderRepository.invalidateExpiredOrders(acmeAccount, new Date());
-        acmeAccount.setFailedOrders(acmeAccount.getFailedOrders() + invalidatedOrders);
-        acmeAccountRepository.save(acmeAccount);
+        if (invalidatedOrders > 0) {
+            acmeAccountRepository.incrementFailedOrders(acmeAccount.getUuid(), invalidatedOrders);
+        }
 
         logger.debug("Request to list Orders for the Account with ID: {}", accountId);
         List<Order> orders = acmeAccount
@@ -500,29 +504,21 @@ public class AcmeServiceImpl implements AcmeService {
         logger.debug("Order corresponding to the Challenge: {}", order.toString());
         LoggingHelper.putLogResourceInfo(com.czertainly.api.model.core.auth.Resource.ACME_ORDER, true, order.getUuid().toString(), order.getOrderId());
 
-        boolean isValid;
-        if (challenge.getType().equals(ChallengeType.HTTP01)) {
-            isValid = validateHttpChallenge(challenge);
-        } else {
-            isValid = validateDnsChallenge(challenge);
+        // challenge is validated asynchronously, repeated requests while it is processed return its current state
+        if (challenge.getStatus() == ChallengeStatus.PENDING || challenge.getStatus() == ChallengeStatus.INVALID) {
+            challenge.setStatus(ChallengeStatus.PROCESSING);
+            acmeChallengeRepository.save(challenge);
+            acmeChallengeValidator.submit(challenge.getUuid());
+            logger.debug("Validation of the Challenge is started: {}", challenge);
+        } else if (challenge.getStatus() == ChallengeStatus.PROCESSING) {
+            acmeChallengeValidator.resubmitIfAbandoned(challenge.getUuid());
         }
 
-        if (isValid) {
-            challenge.setValidated(new Date());
-            challenge.setStatus(ChallengeStatus.VALID);
-            authorization.setStatus(AuthorizationStatus.VALID);
-            order.setStatus(OrderStatus.READY);
-        } else {
-            challenge.setStatus(ChallengeStatus.INVALID);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (challenge.getStatus() == ChallengeStatus.PROCESSING) {
+            response.header(AcmeConstants.RETRY_HEADER_NAME, order.getAcmeAccount().getAcmeProfile().getRetryInterval().toString());
         }
-
-        acmeOrderRepository.save(order);
-        acmeChallengeRepository.save(challenge);
-        acmeAuthorizationRepository.save(authorization);
-
-        logger.debug("Validation of the Challenge is completed: {}", challenge);
-
-        return ResponseEntity.ok()
+        return response
                 .header(AcmeConstants.NONCE_HEADER_NAME, generateNonce())
                 .header(AcmeConstants.LINK_HEADER_NAME, generateLinkHeader(acmeProfileName, isRaProfileBased))
                 .header(AcmeConstants.LINK_HEADER_NAME, "<" + challenge.getAuthorization().getUrl() + ">;rel=\"up\"")
@@ -598,8 +594,10 @@ public class AcmeServiceImpl implements AcmeService {
     public ResponseEntity<Order> getOrder(String acmeProfileName, String orderId, URI requestUri, boolean isRaProfileBased) throws AcmeProblemDocumentException {
         AcmeOrder order = validateOrder(orderId);
         LoggingHelper.putLogResourceInfo(com.czertainly.api.model.core.auth.Resource.ACME_ORDER, false, order.getUuid().toString(), order.getOrderId());
-        if (order.getAcmeAccount() != null) {
-            LoggingHelper.putLogResourceInfo(com.czertainly.api.model.core.auth.Resource.ACME_ACCOUNT, true, order.getAcmeAccount().getUuid().toString(), order.getAcmeAccount().getAccountId());
+        // account and profile are taken from cache, so polling of the order does not load them
+        AcmeContextCache.AccountContext account = order.getAcmeAccountUuid() == null ? null : getAccountContext(order.getAcmeAccountUuid()).orElse(null);
+        if (account != null) {
+            LoggingHelper.putLogResourceInfo(com.czertainly.api.model.core.auth.Resource.ACME_ACCOUNT, true, account.uuid().toString(), account.accountId());
         }
 
         if (order.getStatus().equals(OrderStatus.INVALID)) {
@@ -607,10 +605,14 @@ public class AcmeServiceImpl implements AcmeService {
             throw new AcmeProblemDocumentException(HttpStatus.BAD_REQUEST, Problem.SERVER_INTERNAL);
         }
 
+        AcmeContextCache.ProfileContext profile = getProfileContext(acmeProfileName, isRaProfileBased).orElse(null);
+        Integer retryInterval = profile != null && account != null && profile.acmeProfileUuid() != null && profile.acmeProfileUuid().equals(account.acmeProfileUuid())
+                ? profile.retryInterval() : order.getAcmeAccount().getAcmeProfile().getRetryInterval();
+
         return ResponseEntity.ok()
                 .location(URI.create(order.getUrl()))
                 .header(AcmeConstants.NONCE_HEADER_NAME, generateNonce())
-                .header(AcmeConstants.RETRY_HEADER_NAME, order.getAcmeAccount().getAcmeProfile().getRetryInterval().toString())
+                .header(AcmeConstants.RETRY_HEADER_NAME, retryInterval.toString())
                 .header(AcmeConstants.LINK_HEADER_NAME, generateLinkHeader(acmeProfileName, isRaProfileBased))
                 .body(order.mapToDto());
     }
@@ -722,33 +724,69 @@ public class AcmeServiceImpl implements AcmeService {
     }
 
     private DirectoryMeta frameDirectoryMeta(String profileName, boolean isRaProfileBased) throws NotFoundException {
-        AcmeProfile acmeProfile;
-        if (isRaProfileBased) {
-            acmeProfile = getRaProfileEntity(profileName).getAcmeProfile();
-        } else {
-            acmeProfile = acmeProfileRepository.findByName(profileName).orElse(null);
-        }
-        if (acmeProfile == null) {
+        AcmeContextCache.ProfileContext profile = getProfileContext(profileName, isRaProfileBased).orElse(null);
+        if (profile == null || profile.acmeProfileUuid() == null) {
             throw new NotFoundException(AcmeProfile.class, profileName);
         }
-        DirectoryMeta meta = new DirectoryMeta();
-        meta.setCaaIdentities(new String[0]);
-        meta.setTermsOfService(acmeProfile.getTermsOfServiceUrl());
-        meta.setExternalAccountRequired(false);
-        meta.setWebsite(acmeProfile.getWebsite());
-        logger.debug("Directory meta: {}", meta);
-        return meta;
+        logger.debug("Directory meta: {}", profile.directoryMeta());
+        return profile.directoryMeta();
+    }
+
+    private Optional<AcmeContextCache.ProfileContext> getProfileContext(String profileName, boolean isRaProfileBased) {
+        return acmeContextCache.getProfile(profileName, isRaProfileBased, () -> {
+            AcmeProfile acmeProfile;
+            RaProfile raProfile;
+            if (isRaProfileBased) {
+                raProfile = raProfileRepository.findByName(profileName).orElse(null);
+                if (raProfile == null) {
+                    return Optional.empty();
+                }
+                acmeProfile = raProfile.getAcmeProfile();
+            } else {
+                acmeProfile = acmeProfileRepository.findByName(profileName).orElse(null);
+                if (acmeProfile == null) {
+                    return Optional.empty();
+                }
+                raProfile = acmeProfile.getRaProfile();
+            }
+            if (acmeProfile == null) {
+                return Optional.of(new AcmeContextCache.ProfileContext(null, false, raProfile.getUuid(), Boolean.TRUE.equals(raProfile.getEnabled()),
+                        false, null, null, null, null));
+            }
+
+            DirectoryMeta meta = new DirectoryMeta();
+            meta.setCaaIdentities(new String[0]);
+            meta.setTermsOfService(acmeProfile.getTermsOfServiceUrl());
+            meta.setExternalAccountRequired(false);
+            meta.setWebsite(acmeProfile.getWebsite());
+            return Optional.of(new AcmeContextCache.ProfileContext(acmeProfile.getUuid(), Boolean.TRUE.equals(acmeProfile.isEnabled()),
+                    raProfile == null ? null : raProfile.getUuid(), raProfile != null && Boolean.TRUE.equals(raProfile.getEnabled()),
+                    Boolean.TRUE.equals(acmeProfile.isDisableNewOrders()), acmeProfile.getTermsOfServiceUrl(), acmeProfile.getTermsOfServiceChangeUrl(),
+                    acmeProfile.getRetryInterval(), meta));
+        });
+    }
+
+    private Optional<AcmeContextCache.AccountContext> getAccountContext(String accountId) {
+        return acmeContextCache.getAccount(accountId, () -> acmeAccountRepository.findByAccountId(accountId).map(this::toAccountContext));
+    }
+
+    private Optional<AcmeContextCache.AccountContext> getAccountContext(UUID accountUuid) {
+        return acmeContextCache.getAccount(accountUuid, () -> acmeAccountRepository.findByUuid(accountUuid).map(this::toAccountContext));
+    }
+
+    private AcmeContextCache.AccountContext toAccountContext(AcmeAccount account) {
+        PublicKey publicKey = null;
+        try {
+            publicKey = AcmePublicKeyProcessor.publicKeyObjectFromString(account.getPublicKey());
+        } catch (NoSuchAlgorithmException | InvalidKeySpecException e) {
+            logger.error("Public key of ACME Account {} cannot be parsed: {}", account.getAccountId(), e.getMessage());
+        }
+        return new AcmeContextCache.AccountContext(account.getUuid(), account.getAccountId(), account.getStatus(), publicKey,
+                account.getAcmeProfileUuid(), account.getRaProfileUuid());
     }
 
     private String generateNonce() {
-        String nonceString = AcmeRandomGeneratorAndValidator.generateNonce();
-        Date expires = AcmeCommonHelper.addSeconds(new Date(), AcmeConstants.NONCE_VALIDITY);
-        AcmeNonce acmeNonce = new AcmeNonce();
-        acmeNonce.setCreated(new Date());
-        acmeNonce.setNonce(nonceString);
-        acmeNonce.setExpires(expires);
-        acmeNonceRepository.save(acmeNonce);
-        return nonceString;
+        return acmeNonceService.generateNonce();
     }
 
     // RFC 8555 Section 7.1
@@ -843,7 +881,9 @@ public class AcmeServiceImpl implements AcmeService {
             deactivateAuthorizations(order.getAuthorizations());
             acmeOrderRepository.save(order);
         }
-        acmeAccount.setFailedOrders(acmeAccount.getFailedOrders() + failedOrdersCount);
+        if (failedOrdersCount > 0) {
+            acmeAccountRepository.incrementFailedOrders(acmeAccount.getUuid(), failedOrdersCount);
+        }
     }
 
     private void deactivateAuthorizations(Set<AcmeAuthorization> authorizations) {
@@ -949,129 +989,6 @@ public class AcmeServiceImpl implements AcmeService {
         return challenge;
     }
 
-    private boolean validateHttpChallenge(AcmeChallenge challenge) throws AcmeProblemDocumentException {
-        logger.debug("Initiating HTTP-01 Challenge validation: {}", challenge.toString());
-        String response = getHttpChallengeResponse(
-                SerializationUtil.deserializeIdentifier(
-                                challenge
-                                        .getAuthorization()
-                                        .getIdentifier()
-                        )
-                        .getValue().replace("*.", ""),
-                challenge.getToken());
-        PublicKey pubKey;
-        try {
-            pubKey = AcmePublicKeyProcessor.publicKeyObjectFromString(challenge.getAuthorization().getOrder().getAcmeAccount().getPublicKey());
-        } catch (Exception e) {
-            throw new AcmeProblemDocumentException(HttpStatus.BAD_REQUEST, Problem.SERVER_INTERNAL);
-        }
-        String expectedResponse = AcmeCommonHelper.createKeyAuthorization(challenge.getToken(), pubKey);
-        logger.debug("HTTP01 validation response from the server: {}, expected response: {}", response, expectedResponse);
-        return response.equals(expectedResponse);
-    }
-
-    private boolean validateDnsChallenge(AcmeChallenge challenge) throws AcmeProblemDocumentException {
-        logger.info("Initiating DNS-01 validation for challenge: {}", challenge.toString());
-        Properties env = getEnv(challenge);
-        List<String> txtRecords = new ArrayList<>();
-        String expectedKeyAuthorization = generateDnsValidationToken(challenge.getAuthorization().getOrder().getAcmeAccount().getPublicKey(), challenge.getToken());
-        DirContext context;
-        try {
-            context = new InitialDirContext(env);
-            Attributes list = context.getAttributes(AcmeConstants.DNS_ACME_PREFIX
-                            + SerializationUtil.deserializeIdentifier(
-                            challenge.getAuthorization().getIdentifier()).getValue(),
-                    new String[]{AcmeConstants.DNS_RECORD_TYPE});
-            NamingEnumeration<? extends Attribute> records = list.getAll();
-
-            while (records.hasMore()) {
-                javax.naming.directory.Attribute record = records.next();
-                txtRecords.add(record.get().toString());
-            }
-        } catch (NamingException e) {
-            logger.error(e.getMessage());
-        }
-        if (txtRecords.isEmpty()) {
-            logger.error("TXT record is empty for Challenge: {}", challenge);
-            return false;
-        }
-        if (!txtRecords.contains(expectedKeyAuthorization)) {
-            logger.error("TXT record not found for Challenge: {}", challenge);
-            return false;
-        }
-        return true;
-    }
-
-    private static Properties getEnv(AcmeChallenge challenge) {
-        Properties env = new Properties();
-        env.setProperty(Context.INITIAL_CONTEXT_FACTORY, AcmeConstants.DNS_CONTENT_FACTORY);
-        AcmeProfile acmeProfile = challenge.getAuthorization().getOrder().getAcmeAccount().getAcmeProfile();
-        if (acmeProfile.getDnsResolverIp() == null || acmeProfile.getDnsResolverIp().isEmpty()) {
-            env.setProperty(Context.PROVIDER_URL, AcmeConstants.DNS_ENV_PREFIX);
-        } else {
-            env.setProperty(Context.PROVIDER_URL, AcmeConstants.DNS_ENV_PREFIX + acmeProfile.getDnsResolverIp() + ":" + Optional.ofNullable(acmeProfile.getDnsResolverPort())
-                    .orElse(AcmeConstants.DEFAULT_DNS_PORT));
-        }
-        return env;
-    }
-
-    private String getHttpChallengeResponse(String domain, String token) throws AcmeProblemDocumentException {
-        return getResponseFollowRedirects(AcmeConstants.HTTP_CHALLENGE_BASE_URL.formatted(domain, token));
-    }
-
-    private String getResponseFollowRedirects(String url) throws AcmeProblemDocumentException {
-        String finalUrl = url;
-        String acmeChallengeOutput = "";
-        int redirectFollowCount = 0;
-        try {
-            HttpURLConnection connection;
-            do {
-                redirectFollowCount += 1;
-                URL urlObject = new URL(finalUrl);
-                if (!(urlObject.getPort() == 80 || urlObject.getPort() == 443 || urlObject.getPort() == -1)) {
-                    throw new AcmeProblemDocumentException(HttpStatus.BAD_REQUEST, Problem.TLS, "Only 80 and 443 ports can be followed");
-                }
-                connection = (HttpURLConnection) new URL(finalUrl).openConnection();
-                connection.setInstanceFollowRedirects(false);
-                connection.setUseCaches(false);
-                connection.setRequestMethod(AcmeConstants.HTTP_CHALLENGE_REQUEST_METHOD);
-                connection.connect();
-                int responseCode = connection.getResponseCode();
-                if (100 <= connection.getResponseCode() && connection.getResponseCode() <= 399) {
-                    BufferedReader bufferedReader = new BufferedReader(new InputStreamReader(connection.getInputStream()));
-                    acmeChallengeOutput = bufferedReader.lines().collect(Collectors.joining());
-                }
-                if (responseCode >= 300 && responseCode < 400) {
-                    String redirectedUrl = connection.getHeaderField(AcmeConstants.LOCATION_HEADER_NAME);
-                    if (null == redirectedUrl) {
-                        break;
-                    }
-                    finalUrl = redirectedUrl;
-                } else
-                    break;
-            } while (connection.getResponseCode() != HttpURLConnection.HTTP_OK && redirectFollowCount < AcmeConstants.MAX_REDIRECT_COUNT);
-            connection.disconnect();
-        } catch (AcmeProblemDocumentException e) {
-            throw e;
-        } catch (Exception e) {
-            logger.error(e.getMessage());
-        }
-        return acmeChallengeOutput;
-    }
-
-    private String generateDnsValidationToken(String publicKey, String token) throws AcmeProblemDocumentException {
-        MessageDigest digest;
-        try {
-            PublicKey pubKey = AcmePublicKeyProcessor.publicKeyObjectFromString(publicKey);
-            digest = MessageDigest.getInstance(AcmeConstants.MESSAGE_DIGEST_ALGORITHM);
-            final byte[] encodedHashOfExpectedKeyAuthorization = digest.digest(AcmeCommonHelper.createKeyAuthorization(token, pubKey).getBytes(StandardCharsets.UTF_8));
-            return Base64URL.encode(encodedHashOfExpectedKeyAuthorization).toString();
-        } catch (NoSuchAlgorithmException | InvalidKeySpecException e) {
-            logger.error(e.getMessage());
-            throw new AcmeProblemDocumentException(HttpStatus.BAD_REQUEST, Problem.SERVER_INTERNAL);
-        }
-    }
-
     private void validateCSR(JcaPKCS10CertificationRequest csr, AcmeOrder order) throws AcmeProblemDocumentException {
         List<String> sans = new ArrayList<>();
         List<String> dnsIdentifiers = new ArrayList<>();
@@ -1180,9 +1097,7 @@ public class AcmeServiceImpl implements AcmeService {
             OrderStatus newStatus = checkOrderStatusByCertificate(order.getCertificateReference());
             logger.debug("Calling finalize of Order but certificate is already requested. Current status: {}", newStatus);
             if (!newStatus.equals(order.getStatus())) {
-                order.setStatus(newStatus);
-                incrementOrderCounts(newStatus, order);
-                acmeOrderRepository.save(order);
+                updateOrderStatus(order, newStatus);
             }
         }
     }
@@ -1221,10 +1136,11 @@ public class AcmeServiceImpl implements AcmeService {
     }
 
     private void checkAccountConfiguration(AcmeAccount account, String profileName, boolean isRaProfileBased) throws AcmeProblemDocumentException {
-        AcmeRaProfiles acmeRaProfiles = getProfiles(profileName, isRaProfileBased);
+        AcmeContextCache.ProfileContext profile = getProfileContext(profileName, isRaProfileBased).orElseThrow(() ->
+                new AcmeProblemDocumentException(HttpStatus.BAD_REQUEST, Problem.MALFORMED, isRaProfileBased ? "RA Profile is not found" : "ACME Profile is not found"));
 
-        if (!account.getAcmeProfileUuid().equals(acmeRaProfiles.acmeProfile.getUuid()) ||
-                !account.getRaProfileUuid().equals(acmeRaProfiles.raProfile.getUuid())) {
+        if (!account.getAcmeProfileUuid().equals(profile.acmeProfileUuid()) ||
+                !account.getRaProfileUuid().equals(profile.raProfileUuid())) {
             throw new AcmeProblemDocumentException(HttpStatus.UNAUTHORIZED, Problem.UNAUTHORIZED, "Account does not belong to this profile");
         }
     }
@@ -1288,9 +1204,7 @@ public class AcmeServiceImpl implements AcmeService {
             throw new AcmeProblemDocumentException(HttpStatus.BAD_REQUEST, Problem.BAD_NONCE);
         }
 
-        AcmeNonce acmeNonce = acmeNonceRepository.findByNonce(nonce.toString()).orElseThrow(
-                () -> new AcmeProblemDocumentException(HttpStatus.BAD_REQUEST, Problem.BAD_NONCE));
-        if (acmeNonce.getExpires().after(AcmeCommonHelper.addSeconds(new Date(), AcmeConstants.NONCE_VALIDITY))) {
+        if (!acmeNonceService.consumeNonce(nonce.toString())) {
             throw new AcmeProblemDocumentException(HttpStatus.BAD_REQUEST, Problem.BAD_NONCE);
         }
     }
@@ -1300,67 +1214,62 @@ public class AcmeServiceImpl implements AcmeService {
             acmeJwsRequest.checkSignature(acmeJwsRequest.getPublicKey());
         } else {
             String kid = acmeJwsRequest.getKid();
-            AcmeAccount account = acmeAccountRepository.findByAccountId(
-                            kid.split("/")[kid.split("/").length - 1])
+            AcmeContextCache.AccountContext account = getAccountContext(kid.split("/")[kid.split("/").length - 1])
                     .orElseThrow(
                             () -> new AcmeProblemDocumentException(HttpStatus.BAD_REQUEST, Problem.ACCOUNT_DOES_NOT_EXIST));
-            PublicKey publicKey;
-            try {
-                publicKey = AcmePublicKeyProcessor.publicKeyObjectFromString(account.getPublicKey());
-                if (!acmeJwsRequest.checkSignature(publicKey)) {
-                    throw new AcmeProblemDocumentException(HttpStatus.BAD_REQUEST, Problem.UNAUTHORIZED);
-                }
-            } catch (NoSuchAlgorithmException | InvalidKeySpecException e) {
-                logger.error(e.getMessage());
+            if (account.publicKey() == null) {
                 throw new AcmeProblemDocumentException(HttpStatus.BAD_REQUEST, Problem.BAD_PUBLIC_KEY);
             }
+            if (!acmeJwsRequest.checkSignature(account.publicKey())) {
+                throw new AcmeProblemDocumentException(HttpStatus.BAD_REQUEST, Problem.UNAUTHORIZED);
+            }
         }
     }
 
     public void validateRaBasedAcme(String raProfileName) throws AcmeProblemDocumentException {
-        RaProfile raProfile = raProfileRepository.findByName(raProfileName).orElseThrow(() ->
+        AcmeContextCache.ProfileContext profile = getProfileContext(raProfileName, true).orElseThrow(() ->
                 new AcmeProblemDocumentException(HttpStatus.BAD_REQUEST, Problem.MALFORMED,
                         "Given RA Profile in the request URL is not found"));
-        if (raProfile.getAcmeProfile() == null) {
+        if (profile.acmeProfileUuid() == null) {
             throw new AcmeProblemDocumentException(HttpStatus.BAD_REQUEST, Problem.MALFORMED,
                     "ACME Profile is not associated with the RA Profile");
         }
-        if (!raProfile.getEnabled()) {
+        if (!profile.raProfileEnabled()) {
             throw new AcmeProblemDocumentException(HttpStatus.BAD_REQUEST, Problem.MALFORMED,
                     "RA Profile is not enabled");
         }
 
-        if (!raProfile.getAcmeProfile().isEnabled()) {
+        if (!profile.acmeProfileEnabled()) {
             throw new AcmeProblemDocumentException(HttpStatus.BAD_REQUEST, Problem.MALFORMED,
                     "ACME Profile is not enabled");
         }
     }
 
     private void validateAcme(String acmeProfileName) throws AcmeProblemDocumentException {
-        AcmeProfile acmeProfile = acmeProfileRepository.findByName(acmeProfileName).orElse(null);
-        if (acmeProfile == null) {
+        AcmeContextCache.ProfileContext profile = getProfileContext(acmeProfileName, false).orElse(null);
+        if (profile == null) {
             throw new AcmeProblemDocumentException(HttpStatus.BAD_REQUEST, Problem.MALFORMED,
                     "Given ACME Profile in the request URL is not found");
         }
 
-        if (!acmeProfile.isEnabled()) {
+        if (!profile.acmeProfileEnabled()) {
             throw new AcmeProblemDocumentException(HttpStatus.BAD_REQUEST, Problem.MALFORMED,
                     "ACME Profile is not enabled");
         }
-        if (acmeProfile.getRaProfile() == null) {
+        if (profile.raProfileUuid() == null) {
             throw new AcmeProblemDocumentException(HttpStatus.BAD_REQUEST, Problem.MALFORMED,
                     "RA Profile is not found");
         }
-        if (!acmeProfile.getRaProfile().getEnabled()) {
+        if (!profile.raProfileEnabled()) {
             throw new AcmeProblemDocumentException(HttpStatus.BAD_REQUEST, Problem.MALFORMED,
                     "RA Profile is not enabled");
         }
-        if (acmeProfile.isDisableNewOrders()) {
+        if (profile.disableNewOrders()) {
             ProblemDocument problemDocument = new ProblemDocument(Problem.USER_ACTION_REQUIRED);
-            problemDocument.setInstance(acmeProfile.getTermsOfServiceUrl());
+            problemDocument.setInstance(profile.termsOfServiceUrl());
             problemDocument.setDetail("Terms of service have changed");
             Map<String, String> additionalHeaders = new HashMap<>();
-            additionalHeaders.put("Link", "<" + acmeProfile.getTermsOfServiceChangeUrl() + ">;rel=\"terms-of-service\"");
+            additionalHeaders.put("Link", "<" + profile.termsOfServiceChangeUrl() + ">;rel=\"terms-of-service\"");
             throw new AcmeProblemDocumentException(HttpStatus.FORBIDDEN, problemDocument, additionalHeaders);
         }
     }
@@ -1382,15 +1291,23 @@ public class AcmeServiceImpl implements AcmeService {
             OrderStatus newStatus = checkOrderStatusByCertificate(order.getCertificateReference());
             if (!newStatus.equals(order.getStatus())) {
                 logger.info("ACME Order status changed from {} to {}.", order.getStatus(), newStatus);
-                order.setStatus(newStatus);
-                incrementOrderCounts(newStatus, order);
-                acmeOrderRepository.save(order);
+                updateOrderStatus(order, newStatus);
             }
         }
 
         return order;
     }
 
+    private void updateOrderStatus(AcmeOrder order, OrderStatus newStatus) {
+        // order can be polled concurrently, only the request that changes the status updates the counts
+        boolean changed = acmeOrderRepository.updateStatus(order.getUuid(), order.getStatus(), newStatus) > 0;
+        order.setStatus(newStatus);
+        acmeOrderRepository.save(order);
+        if (changed) {
+            incrementOrderCounts(newStatus, order);
+        }
+    }
+
     private void incrementOrderCounts(OrderStatus newStatus, AcmeOrder order) {
         // Since this method is called only if the order status has been changed, the count of failed/valid orders will
         // always need to be updated
@@ -1398,14 +1315,12 @@ public class AcmeServiceImpl implements AcmeService {
             incrementFailedOrdersCount(order);
         }
         if (newStatus == OrderStatus.VALID) {
-            order.getAcmeAccount().setValidOrders(order.getAcmeAccount().getValidOrders() + 1);
-            acmeAccountRepository.save(order.getAcmeAccount());
+            acmeAccountRepository.incrementValidOrders(order.getAcmeAccountUuid(), 1);
         }
     }
 
     private void incrementFailedOrdersCount(AcmeOrder order) {
-        order.getAcmeAccount().setFailedOrders(order.getAcmeAccount().getFailedOrders() + 1);
-        acmeAccountRepository.save(order.getAcmeAccount());
+        acmeAccountRepository.incrementFailedOrders(order.getAcmeAccountUuid(), 1);
     }
 
     private AcmeAuthorization validateAuthorization(String authorizationId) throws AcmeProblemDocumentException {
@@ -1435,10 +1350,13 @@ public class AcmeServiceImpl implements AcmeService {
     }
 
     private void validateAccount(String accountId) throws AcmeProblemDocumentException {
-        AcmeAccount acmeAccount = acmeAccountRepository.findByAccountId(accountId)
+        AcmeContextCache.AccountContext acmeAccount = getAccountContext(accountId)
                 .orElseThrow(() ->
                         new AcmeProblemDocumentException(HttpStatus.BAD_REQUEST, Problem.ACCOUNT_DOES_NOT_EXIST));
-        validateAccount(acmeAccount);
+        if (!acmeAccount.status().equals(AccountStatus.VALID)) {
+            throw new AcmeProblemDocumentException(HttpStatus.BAD_REQUEST, Problem.UNAUTHORIZED,
+                    "The requested account has been deactivated");
+        }
     }
 
 }
@@ -0,0 +1,49 @@
+package com.czertainly.core.service.cmp.configurations;
+
+import com.czertainly.api.interfaces.core.cmp.error.CmpConfigurationException;
+import com.czertainly.core.util.VersionedTtlCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Registry of runtime contexts of CMP profiles used by CMP messages, so the signing certificate chain is not validated,
+ * the signing key is not resolved, the shared secret is not decrypted and protection attributes are not loaded on every message.
+ * <p>
+ * Contexts are invalidated when CMP profiles or RA profiles are written and expire after the configured time to live,
+ * which also bounds how long changes of signing certificate status are not reflected, see {@link VersionedTtlCache}.
+ * Profiles failing validation are not cached.
+ */
+@Component
+public class CmpContextCache {
+
+    private final VersionedTtlCache<ProfileKey, CmpProfileContext> profiles;
+
+    public CmpContextCache(@Value("${cmp.context-cache.ttl:30s}") Duration ttl) {
+        this.profiles = new VersionedTtlCache<>("CMP context", ttl);
+    }
+
+    /**
+     * Gets runtime context of CMP profile, loading it if not cached
+     *
+     * @param profileName      Name of CMP profile, or name of RA profile if the message is RA profile based
+     * @param isRaProfileBased True if the CMP profile is resolved by RA profile
+     * @param loader           Loads, validates and prepares context of the profile
+     * @return Cached context
+     * @throws CmpConfigurationException when the profile cannot be used to process CMP messages
+     */
+    public CmpProfileContext getProfile(String profileName, boolean isRaProfileBased, VersionedTtlCache.Loader<CmpProfileContext, CmpConfigurationException> loader) throws CmpConfigurationException {
+        return profiles.get(new ProfileKey(profileName, isRaProfileBased), loader);
+    }
+
+    /**
+     * Invalidates contexts of all CMP profiles after CMP profiles or RA profiles have been written
+     */
+    public void invalidateProfiles() {
+        profiles.invalidateAll();
+    }
+
+    private record ProfileKey(String profileName, boolean isRaProfileBased) {
+    }
+}
@@ -0,0 +1,237 @@
+package com.czertainly.core.service.cmp.configurations;
+
+import com.czertainly.api.interfaces.core.cmp.error.CmpConfigurationException;
+import com.czertainly.api.model.client.attribute.RequestAttribute;
+import com.czertainly.api.model.common.enums.cryptography.DigestAlgorithm;
+import com.czertainly.api.model.common.enums.cryptography.KeyAlgorithm;
+import com.czertainly.api.model.common.enums.cryptography.RsaSignatureScheme;
+import com.czertainly.api.model.core.cmp.ProtectionMethod;
+import com.czertainly.core.attribute.EcdsaSignatureAttributes;
+import com.czertainly.core.attribute.RsaSignatureAttributes;
+import com.czertainly.core.dao.entity.Certificate;
+import com.czertainly.core.dao.entity.cmp.CmpProfile;
+import com.czertainly.core.provider.CzertainlyProvider;
+import com.czertainly.core.provider.key.CzertainlyPrivateKey;
+import com.czertainly.core.service.cmp.message.CertificateKeyService;
+import com.czertainly.core.util.CertificateUtil;
+import com.czertainly.core.util.CryptographyUtil;
+import org.bouncycastle.asn1.ASN1OctetString;
+import org.bouncycastle.asn1.DEROctetString;
+import org.bouncycastle.asn1.cmp.CMPCertificate;
+import org.bouncycastle.asn1.cmp.PKIFailureInfo;
+import org.bouncycastle.asn1.x500.X500Name;
+import org.bouncycastle.asn1.x509.AlgorithmIdentifier;
+import org.bouncycastle.asn1.x509.Extension;
+import org.bouncycastle.asn1.x509.GeneralName;
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.security.GeneralSecurityException;
+import java.security.InvalidKeyException;
+import java.security.MessageDigest;
+import java.security.cert.CertificateException;
+import java.security.cert.X509Certificate;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+import static com.czertainly.core.service.cmp.message.PkiMessageDumper.ifNotNull;
+
+/**
+ * Runtime state of CMP profile shared by concurrent CMP messages of the profile, so the shared secret is not decrypted
+ * and the signing key, provider and certificate are not resolved on every message.
+ * <p>
+ * Signing material is resolved on first use, or eagerly by {@link #prepare()} while the profile is still attached
+ * to the persistence context. Prepared context drops the reference to the signing certificate entity, so contexts
+ * kept in {@link CmpContextCache} hold only resolved values, and it is not modified afterward.
+ */
+public class CmpProfileContext {
+
+    private static final Logger logger = LoggerFactory.getLogger(CmpProfileContext.class);
+
+    private final String cmpProfileName;
+    private final ProtectionMethod responseProtectionMethod;
+    private final byte[] sharedSecret;
+    private final CertificateKeyService certificateKeyService;
+    private final List<RequestAttribute> issueAttributes;
+    private final List<RequestAttribute> revokeAttributes;
+    // guarded by this, kept only until the signing material is resolved or the context is prepared
+    private Certificate signingCertificate;
+    private volatile SigningContext signing;
+
+    public CmpProfileContext(CmpProfile cmpProfile, CertificateKeyService certificateKeyService,
+                             List<RequestAttribute> issueAttributes, List<RequestAttribute> revokeAttributes) {
+        this.cmpProfileName = cmpProfile.getName();
+        this.responseProtectionMethod = cmpProfile.getResponseProtectionMethod();
+        String secret = cmpProfile.getSharedSecret();
+        this.sharedSecret = secret == null ? null : secret.getBytes();
+        this.signingCertificate = cmpProfile.getSigningCertificate();
+        this.certificateKeyService = certificateKeyService;
+        this.issueAttributes = issueAttributes;
+        this.revokeAttributes = revokeAttributes;
+    }
+
+    /**
+     * Resolves signing material of the profile, if responses are protected by signature, and drops the reference
+     * to the signing certificate entity
+     *
+     * @throws CmpConfigurationException if signing certificate or its key cannot be used to protect responses
+     */
+    public synchronized void prepare() throws CmpConfigurationException {
+        if (ProtectionMethod.SIGNATURE.equals(responseProtectionMethod)) {
+            getSigning();
+        }
+        signingCertificate = null;
+    }
+
+    public String getCmpProfileName() {
+        return cmpProfileName;
+    }
+
+    /**
+     * @return decrypted shared secret of the profile, null if not configured; must not be modified
+     */
+    public byte[] getSharedSecret() {
+        return sharedSecret;
+    }
+
+    public List<RequestAttribute> getIssueAttributes() {
+        return issueAttributes;
+    }
+
+    public List<RequestAttribute> getRevokeAttributes() {
+        return revokeAttributes;
+    }
+
+    /**
+     * Derives BASEKEY of password-based MAC from the shared secret (see rfc4210, section 5.1.3.1), the one-way function
+     * is applied <code>iterationCount</code> times to the salted secret.
+     *
+     * @param salt           salt of PBMParameter
+     * @param iterationCount iteration count of PBMParameter
+     * @param owf            one-way function of PBMParameter
+     * @return derived key
+     * @throws GeneralSecurityException if shared secret is not configured or one-way function is not supported
+     * @see <a href="https://www.rfc-editor.org/rfc/rfc4210#section-5.1.3.1">Shared Secret Information, at rfc4210</a>
+     */
+    public byte[] getPbmBaseKey(byte[] salt, int iterationCount, AlgorithmIdentifier owf) throws GeneralSecurityException {
+        if (sharedSecret == null) {
+            throw new InvalidKeyException("shared secret of CMP profile " + cmpProfileName + " is not configured");
+        }
+
+        byte[] baseKey = new byte[sharedSecret.length + salt.length];
+        System.arraycopy(sharedSecret, 0, baseKey, 0, sharedSecret.length);
+        System.arraycopy(salt, 0, baseKey, sharedSecret.length, salt.length);
+        MessageDigest digest = MessageDigest.getInstance(owf.getAlgorithm().getId(), BouncyCastleProvider.PROVIDER_NAME);
+        for (int i = 0; i < iterationCount; i++) {
+            baseKey = digest.digest(baseKey);
+            digest.reset();
+        }
+        return baseKey;
+    }
+
+    /**
+     * @return signing material used for signature-based protection of responses
+     * @throws CmpConfigurationException if signing certificate or its key cannot be used to protect responses
+     */
+    public SigningContext getSigning() throws CmpConfigurationException {
+        SigningContext result = signing;
+        if (result == null) {
+            synchronized (this) {
+                result = signing;
+                if (result == null) {
+                    result = resolveSigning();
+                    signing = result;
+                    signingCertificate = null;
+                }
+            }
+        }
+        return result;
+    }
+
+    private SigningContext resolveSigning() throws CmpConfigurationException {
+        if (signingCertificate == null) {
+            throw new CmpConfigurationException(PKIFailureInfo.systemFailure,
+                    "PN=" + cmpProfileName + " | CMP profile does not have any associated CA certificate");
+        }
+        X509Certificate certificate;
+        try {
+            certificate = CertificateUtil.parseCertificate(signingCertificate.getCertificateContent().getContent());
+        } catch (CertificateException e) {
+            throw new CmpConfigurationException(PKIFailureInfo.systemFailure,
+                    "problem to get singerCertificate");
+        }
+        if (certificate.getPublicKey() == null) {
+            throw new CmpConfigurationException(PKIFailureInfo.systemFailure,
+                    "extracted public key is null");
+        }
+
+        CzertainlyPrivateKey privateKey;
+        CzertainlyProvider provider;
+        try {
+            privateKey = certificateKeyService.getPrivateKey(signingCertificate);
+            provider = certificateKeyService.getProvider(cmpProfileName, signingCertificate);
+        } catch (IllegalStateException e) {
+            throw new CmpConfigurationException(PKIFailureInfo.systemFailure,
+                    "PN=" + cmpProfileName + " | " + e.getMessage());
+        }
+
+        KeyAlgorithm keyAlgorithm = KeyAlgorithm.findByCode(privateKey.getAlgorithm());
+        // use default signature attributes
+        // for RSA: PKCS1_v1_5, SHA-256
+        // for ECDSA: SHA-256
+        // other algorithms are not supported
+        // TODO: add support for other algorithms, and definition of signature attributes based on the request
+        //  or configuration in CMP Profile
+        List<RequestAttribute> signatureAttributes = new ArrayList<>();
+        switch (keyAlgorithm) {
+            case RSA -> {
+                signatureAttributes.add(RsaSignatureAttributes.buildRequestRsaSigScheme(RsaSignatureScheme.PKCS1_v1_5));
+                signatureAttributes.add(RsaSignatureAttributes.buildRequestDigest(DigestAlgorithm.SHA_256));
+            }
+            case ECDSA -> signatureAttributes.add(EcdsaSignatureAttributes.buildRequestDigest(DigestAlgorithm.SHA_256));
+            default -> throw new CmpConfigurationException(PKIFailureInfo.systemFailure,
+                    "unsupported key algorithm for signature protection: " + keyAlgorithm);
+        }
+        AlgorithmIdentifier signatureAlgorithm = CryptographyUtil.prepareSignatureAlgorithm(
+                keyAlgorithm,
+                Base64.getEncoder().encodeToString(certificate.getPublicKey().getEncoded()),
+                signatureAttributes
+        );
+        logger.debug("PN={} | signature algorithm: {}", cmpProfileName, signatureAlgorithm.getAlgorithm().getId());
+
+        List<CMPCertificate> extraCerts;
+        try {
+            extraCerts = List.of(CertificateUtil.toCmpCertificate(certificate));
+        } catch (CertificateException e) {
+            throw new CmpConfigurationException(PKIFailureInfo.systemFailure,
+                    "problem to convert singerCertificate to extraCerts");
+        }
+
+        GeneralName sender = new GeneralName(X500Name.getInstance(certificate.getSubjectX500Principal().getEncoded()));
+        ASN1OctetString senderKID = ifNotNull(
+                certificate.getExtensionValue(Extension.subjectKeyIdentifier.getId()),
+                x -> new DEROctetString(
+                        ASN1OctetString.getInstance(ASN1OctetString.getInstance(x).getOctets())
+                                .getOctets()));
+
+        return new SigningContext(certificate, privateKey, provider, signatureAlgorithm, extraCerts, sender, senderKID);
+    }
+
+    /**
+     * Signing material of CMP profile, with values of response header which depend only on the signing certificate
+     *
+     * @param certificate        signing certificate
+     * @param privateKey         private key of signing certificate
+     * @param provider           provider of operations with the private key
+     * @param signatureAlgorithm algorithm of response protection
+     * @param extraCerts         certificates added to extraCerts of responses
+     * @param sender             sender of responses, subject of signing certificate
+     * @param senderKID          sender KID of responses, subject key identifier of signing certificate, or null
+     */
+    public record SigningContext(X509Certificate certificate, CzertainlyPrivateKey privateKey, CzertainlyProvider provider,
+                                 AlgorithmIdentifier signatureAlgorithm, List<CMPCertificate> extraCerts,
+                                 GeneralName sender, ASN1OctetString senderKID) {
+    }
+}
@@ -20,6 +20,11 @@ public interface ConfigurationContext {
 
     RaProfile getRaProfile();
 
+    /**
+     * @return runtime context of CMP profile shared by messages of the profile
+     */
+    CmpProfileContext getProfileContext();
+
     GeneralName getRecipient();
 
     ASN1OctetString getSenderKID();
@@ -7,6 +7,7 @@ import com.czertainly.api.interfaces.core.cmp.error.CmpConfigurationException;
 import com.czertainly.api.model.core.cmp.ProtectionMethod;
 import com.czertainly.core.dao.entity.RaProfile;
 import com.czertainly.core.dao.entity.cmp.CmpProfile;
+import com.czertainly.core.service.cmp.configurations.CmpProfileContext;
 import com.czertainly.core.service.cmp.message.CertificateKeyService;
 import com.czertainly.core.service.cmp.configurations.ConfigurationContext;
 import com.czertainly.core.service.cmp.message.protection.ProtectionStrategy;
@@ -26,20 +27,23 @@ public class CmpConfigurationContext implements ConfigurationContext {
     protected final PKIMessage requestMessage;
     protected final CmpProfile cmpProfile;
     private final RaProfile raProfile;
-    private final CertificateKeyService certificateKeyService;
-    private final List<RequestAttribute> issueAttributes;
-    private final List<RequestAttribute> revokeAttributes;
+    private final CmpProfileContext profileContext;
+    private ProtectionStrategy protectionStrategy;
 
     public CmpConfigurationContext(CmpProfile cmpProfile, RaProfile raProfile, PKIMessage pkiRequest,
                                    CertificateKeyService certificateKeyServiceImpl,
                                    List<RequestAttribute> issueAttributes,
                                    List<RequestAttribute> revokeAttributes) {
+        this(cmpProfile, raProfile, pkiRequest,
+                new CmpProfileContext(cmpProfile, certificateKeyServiceImpl, issueAttributes, revokeAttributes));
+    }
+
+    public CmpConfigurationContext(CmpProfile cmpProfile, RaProfile raProfile, PKIMessage pkiRequest,
+                                   CmpProfileContext profileContext) {
         this.requestMessage = pkiRequest;
         this.cmpProfile = cmpProfile;
         this.raProfile = raProfile;
-        this.certificateKeyService = certificateKeyServiceImpl;
-        this.issueAttributes = issueAttributes;
-        this.revokeAttributes = revokeAttributes;
+        this.profileContext = profileContext;
     }
 
     @Override
@@ -52,6 +56,11 @@ public class CmpConfigurationContext implements ConfigurationContext {
         return raProfile;
     }
 
+    @Override
+    public CmpProfileContext getProfileContext() {
+        return profileContext;
+    }
+
     /**
      * <b>scope: header template - response part</b>
      *
@@ -86,19 +95,30 @@ public class CmpConfigurationContext implements ConfigurationContext {
         return getCmpProfile().getRequestProtectionMethod();
     }
 
+    /**
+     * Protection strategy is created once per message, its keys are resolved by {@link CmpProfileContext}
+     * shared by messages of the profile.
+     */
     @Override
     public ProtectionStrategy getProtectionStrategy() throws CmpBaseException {
+        if (protectionStrategy == null) {
+            protectionStrategy = createProtectionStrategy();
+        }
+        return protectionStrategy;
+    }
+
+    private ProtectionStrategy createProtectionStrategy() throws CmpBaseException {
         ProtectionMethod czrtProtectionMethod = getCmpProfile().getResponseProtectionMethod();
         switch (czrtProtectionMethod) {
             case SIGNATURE:
                 return new SingatureBaseProtectionStrategy(this,
-                        requestMessage.getHeader().getProtectionAlg(), certificateKeyService);
+                        requestMessage.getHeader().getProtectionAlg(), profileContext.getSigning());
             case SHARED_SECRET:
                 byte[] salt = CertificateUtil.generateRandomBytes(20);
                 int iterationCount = 1000;
                 return new PasswordBasedMacProtectionStrategy(this,
                         requestMessage.getHeader().getProtectionAlg(),
-                        getSharedSecret(), salt, iterationCount);
+                        salt, iterationCount);
             default:
                 throw new CmpConfigurationException(requestMessage.getHeader().getTransactionID(),
                         PKIFailureInfo.systemFailure,
@@ -112,12 +132,12 @@ public class CmpConfigurationContext implements ConfigurationContext {
          *    that indicates to the receiver the appropriate shared secret
          *    information to use to verify the message */
         // ASN1OctetString senderKID = requestMessage.getHeader().getSenderKID();
-        return getCmpProfile().getSharedSecret().getBytes();
+        return profileContext.getSharedSecret();
     }
 
     @Override
     public List<RequestAttribute> getClientOperationAttributes(boolean isRevoke) {
-        return (isRevoke) ? revokeAttributes : issueAttributes;
+        return (isRevoke) ? profileContext.getRevokeAttributes() : profileContext.getIssueAttributes();
     }
 
     @Override
@@ -4,6 +4,7 @@ import com.czertainly.api.model.client.attribute.RequestAttribute;
 import com.czertainly.api.interfaces.core.cmp.error.CmpCrmfValidationException;
 import com.czertainly.api.interfaces.core.cmp.error.CmpProcessingException;
 import com.czertainly.core.dao.entity.RaProfile;
+import com.czertainly.core.service.cmp.configurations.CmpProfileContext;
 import com.czertainly.core.service.cmp.message.CertificateKeyService;
 import com.czertainly.core.dao.entity.cmp.CmpProfile;
 import org.bouncycastle.asn1.ASN1OctetString;
@@ -27,6 +28,11 @@ public class Mobile3gppProfileContext extends CmpConfigurationContext {
         super(cmpProfile, raProfile, pkiRequest, certificateKeyServiceImpl, issueAttributes, revokeAttributes);
     }
 
+    public Mobile3gppProfileContext(CmpProfile cmpProfile, RaProfile raProfile, PKIMessage pkiRequest,
+                                    CmpProfileContext profileContext) {
+        super(cmpProfile, raProfile, pkiRequest, profileContext);
+    }
+
     /**
      * <p>The subject field of the CertTemplate shall contain the suggested name of the base
      * station if the base station has knowledge of it. Otherwise it shall be omitted.</p>
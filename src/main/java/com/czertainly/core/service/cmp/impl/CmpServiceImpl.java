@@ -8,12 +8,15 @@ import com.czertainly.api.model.common.attribute.v2.DataAttributeV2;
 import com.czertainly.api.model.core.auth.Resource;
 import com.czertainly.api.model.core.certificate.CertificateDetailDto;
 import com.czertainly.api.model.core.certificate.CertificateValidationStatus;
+import com.czertainly.api.model.core.cmp.CmpProfileVariant;
 import com.czertainly.api.model.core.cmp.CmpTransactionState;
 import com.czertainly.api.model.core.cmp.ProtectionMethod;
 import com.czertainly.api.model.core.logging.enums.Operation;
 import com.czertainly.core.dao.entity.cmp.CmpTransaction;
 import com.czertainly.core.logging.LoggingHelper;
 import com.czertainly.core.service.CertificateService;
+import com.czertainly.core.service.cmp.configurations.CmpContextCache;
+import com.czertainly.core.service.cmp.configurations.CmpProfileContext;
 import com.czertainly.core.service.cmp.message.CertificateKeyServiceImpl;
 import com.czertainly.core.service.cmp.configurations.ConfigurationContext;
 import com.czertainly.core.service.cmp.message.CmpTransactionService;
@@ -63,8 +66,6 @@ public class CmpServiceImpl implements CmpService {
     private static final Logger LOG = LoggerFactory.getLogger(CmpServiceImpl.class.getName());
 
     // -- RA PROFILE
-    private boolean raProfileBased;
-    private RaProfile raProfile;
     private RaProfileRepository raProfileRepository;
 
     @Autowired
@@ -73,7 +74,6 @@ public class CmpServiceImpl implements CmpService {
     }
 
     // -- CMP PROFILE
-    private CmpProfile cmpProfile;
     private CmpProfileRepository cmpProfileRepository;
 
     @Autowired
@@ -81,8 +81,12 @@ public class CmpServiceImpl implements CmpService {
         this.cmpProfileRepository = cmpProfileRepository;
     }
 
-    private List<RequestAttribute> issueAttributes;
-    private List<RequestAttribute> revokeAttributes;
+    private CmpContextCache cmpContextCache;
+
+    @Autowired
+    public void setCmpContextCache(CmpContextCache cmpContextCache) {
+        this.cmpContextCache = cmpContextCache;
+    }
 
     // -- CRYPTO
     private CertificateKeyServiceImpl certificateKeyServiceImpl;
@@ -193,22 +197,13 @@ public class CmpServiceImpl implements CmpService {
         }
 
         // -- (processing) part
-        init(profileName);
-        ConfigurationContext configuration = switch (cmpProfile.getVariant()) {
-            /*   3gpp*/
-            case V2_3GPP -> new Mobile3gppProfileContext(cmpProfile, raProfile, pkiRequest,
-                    certificateKeyServiceImpl, issueAttributes, revokeAttributes);
-            /*rfc4210*/
-            case V2 -> new CmpConfigurationContext(cmpProfile, raProfile, pkiRequest,
-                    certificateKeyServiceImpl, issueAttributes, revokeAttributes);
-            /*rfc9483*/
-            case V3 -> throw new UnsupportedOperationException("not implemented");
-        };
-
+        RequestProfiles profiles = init(profileName);
+        ConfigurationContext configuration = null;
         try {
             PKIMessage pkiResponse;
             int bodyType = pkiRequest.getBody().getType();
-            validateProfile(tid, bodyType, profileName);
+            CmpProfileContext profileContext = validateProfile(tid, bodyType, profileName, profiles);
+            configuration = createConfiguration(profiles, pkiRequest, profileContext);
 
             headerValidator.validate(pkiRequest, configuration);
             bodyValidator.validate(pkiRequest, configuration);
@@ -271,11 +266,7 @@ public class CmpServiceImpl implements CmpService {
             return buildOk(pkiResponse);
         } catch (CmpBaseException e) {
             handleTrxError(tid, e);
-            PKIMessage pkiResponse = new PkiMessageBuilder(configuration)
-                    .addHeader(PkiMessageBuilder.buildBasicHeaderTemplate(pkiRequest))
-                    .addBody(e.toPKIBody())
-                    .addExtraCerts(null)
-                    .build();
+            PKIMessage pkiResponse = buildErrorResponse(pkiRequest, profiles, configuration, e);
             if (verbose) {
                 LOG.error("{} | processing failed: \n\n response:\n {}", logPrefix,
                         PkiMessageDumper.dumpPkiMessage(pkiResponse), e);
@@ -340,44 +331,66 @@ public class CmpServiceImpl implements CmpService {
                 .body(pkiMessage.getEncoded());
     }
 
-    private void init(String profileName) {
-        this.raProfileBased = ServletUriComponentsBuilder.fromCurrentRequestUri().build()
+    private RequestProfiles init(String profileName) {
+        boolean raProfileBased = ServletUriComponentsBuilder.fromCurrentRequestUri().build()
                 .toUriString().contains("/raProfile/");
+        RaProfile raProfile = null;
+        CmpProfile cmpProfile = null;
         if (raProfileBased) {
             raProfile = raProfileRepository.findByName(profileName).orElse(null);
-            if (raProfile == null) {
-                return;
+            if (raProfile != null) {
+                cmpProfile = raProfile.getCmpProfile();
             }
-            cmpProfile = raProfile.getCmpProfile();
-            if (cmpProfile == null) {
-                return;
-            }
-            LoggingHelper.putLogResourceInfo(Resource.CMP_PROFILE, true, cmpProfile.getUuid().toString(), cmpProfile.getName());
-
-            String attributesJson = raProfile.getProtocolAttribute() != null ? raProfile.getProtocolAttribute().getCmpIssueCertificateAttributes() : null;
-            issueAttributes = AttributeDefinitionUtils.getClientAttributes(AttributeDefinitionUtils.deserialize(attributesJson, DataAttributeV2.class));
-            String revokeAttributesJson = raProfile.getProtocolAttribute() != null ? raProfile.getProtocolAttribute().getCmpRevokeCertificateAttributes() : null;
-            revokeAttributes = AttributeDefinitionUtils.getClientAttributes(AttributeDefinitionUtils.deserialize(revokeAttributesJson, DataAttributeV2.class));
         } else {
             cmpProfile = cmpProfileRepository.findByName(profileName).orElse(null);
-            if (cmpProfile == null) {
-                return;
+            if (cmpProfile != null) {
+                raProfile = cmpProfile.getRaProfile();
             }
+        }
+        if (cmpProfile != null) {
             LoggingHelper.putLogResourceInfo(Resource.CMP_PROFILE, true, cmpProfile.getUuid().toString(), cmpProfile.getName());
-            raProfile = cmpProfile.getRaProfile();
-            if (raProfile == null) {
-                return;
-            }
-            issueAttributes = attributeEngine.getRequestObjectDataAttributesContent(cmpProfile.getRaProfile().getAuthorityInstanceReference().getConnectorUuid(), AttributeOperation.CERTIFICATE_ISSUE, Resource.CMP_PROFILE, cmpProfile.getUuid());
-            revokeAttributes = attributeEngine.getRequestObjectDataAttributesContent(cmpProfile.getRaProfile().getAuthorityInstanceReference().getConnectorUuid(), AttributeOperation.CERTIFICATE_REVOKE, Resource.CMP_PROFILE, cmpProfile.getUuid());
         }
         LOG.debug("PN={} | CMP service initialized: isRaProfileBased: {}, raProfile: {}, cmpProfile: {}", profileName, raProfileBased, raProfile, cmpProfile);
+        return new RequestProfiles(raProfileBased, raProfile, cmpProfile);
     }
 
-    private void validateProfile(ASN1OctetString tid, int bodyType, String incomingProfileName) throws CmpBaseException {
+    private ConfigurationContext createConfiguration(RequestProfiles profiles, PKIMessage pkiRequest, CmpProfileContext profileContext) {
+        return switch (profiles.cmpProfile().getVariant()) {
+            /*   3gpp*/
+            case V2_3GPP -> new Mobile3gppProfileContext(profiles.cmpProfile(), profiles.raProfile(), pkiRequest, profileContext);
+            /*rfc4210*/
+            case V2 -> new CmpConfigurationContext(profiles.cmpProfile(), profiles.raProfile(), pkiRequest, profileContext);
+            /*rfc9483*/
+            case V3 -> throw new UnsupportedOperationException("not implemented");
+        };
+    }
+
+    private PKIMessage buildErrorResponse(PKIMessage pkiRequest, RequestProfiles profiles, ConfigurationContext configuration,
+                                          CmpBaseException e) throws CmpBaseException {
+        CmpProfile cmpProfile = profiles.cmpProfile();
+        if (configuration == null && cmpProfile != null && cmpProfile.getVariant() != CmpProfileVariant.V3) {
+            // profile failed validation, response is protected by its configuration which is not cached
+            configuration = createConfiguration(profiles, pkiRequest,
+                    new CmpProfileContext(cmpProfile, certificateKeyServiceImpl, null, null));
+        }
+        if (configuration == null) {
+            return PkiMessageError.unprotectedMessage(pkiRequest.getHeader(), e);
+        }
+        return new PkiMessageBuilder(configuration)
+                .addHeader(PkiMessageBuilder.buildBasicHeaderTemplate(pkiRequest))
+                .addBody(e.toPKIBody())
+                .addExtraCerts(null)
+                .build();
+    }
+
+    private CmpProfileContext validateProfile(ASN1OctetString tid, int bodyType, String incomingProfileName,
+                                              RequestProfiles profiles) throws CmpBaseException {
         try {
-            validateCmpProfile(incomingProfileName);
-            validateRaProfile(incomingProfileName);
+            validateCmpProfile(incomingProfileName, profiles);
+            validateRaProfile(incomingProfileName, profiles);
+            // signing certificate chain and keys are validated and resolved once for the cached context
+            return cmpContextCache.getProfile(incomingProfileName, profiles.raProfileBased(),
+                    () -> loadContext(incomingProfileName, profiles));
         } catch (CmpConfigurationException e) {
             switch (bodyType) {
                 case PKIBody.TYPE_INIT_REQ, PKIBody.TYPE_CERT_REQ, PKIBody.TYPE_KEY_UPDATE_REQ:
@@ -388,7 +401,8 @@ public class CmpServiceImpl implements CmpService {
         }
     }
 
-    private void validateCmpProfile(String incomingProfileName) throws CmpConfigurationException {
+    private void validateCmpProfile(String incomingProfileName, RequestProfiles profiles) throws CmpConfigurationException {
+        CmpProfile cmpProfile = profiles.cmpProfile();
         if (cmpProfile == null) {
             throw new CmpConfigurationException(PKIFailureInfo.systemFailure,
                     "PN=" + incomingProfileName + " | Requested CMP Profile not found");
@@ -397,7 +411,14 @@ public class CmpServiceImpl implements CmpService {
             throw new CmpConfigurationException(PKIFailureInfo.systemFailure,
                     "PN=" + incomingProfileName + " | CMP Profile is not enabled");
         }
+        if (!profiles.raProfileBased() && cmpProfile.getRaProfile() == null) {
+            throw new CmpConfigurationException(PKIFailureInfo.systemFailure,
+                    "PN=" + incomingProfileName + " | CMP Profile does not contain associated RA Profile");
+        }
+    }
 
+    private CmpProfileContext loadContext(String incomingProfileName, RequestProfiles profiles) throws CmpConfigurationException {
+        CmpProfile cmpProfile = profiles.cmpProfile();
         if (ProtectionMethod.SIGNATURE.equals(cmpProfile.getResponseProtectionMethod())) {
             Certificate cmpCaCertificate = cmpProfile.getSigningCertificate();
             if (cmpCaCertificate == null) {
@@ -433,7 +454,7 @@ public class CmpServiceImpl implements CmpService {
                         "PN=" + incomingProfileName + " | CMP Profile does not have associated CA certificate chain");
             } catch (CertificateException e) {
                 // This should not happen
-                throw new IllegalArgumentException("PN=" + this.cmpProfile.getName() + " | Failed to parse certificate content: " +
+                throw new IllegalArgumentException("PN=" + cmpProfile.getName() + " | Failed to parse certificate content: " +
                         certificateContent);
             }
 
@@ -441,13 +462,28 @@ public class CmpServiceImpl implements CmpService {
                 throw new CmpConfigurationException(PKIFailureInfo.systemFailure, "CMP Profile does not have associated acceptable CA certificate");
             }
         }
-        if (!raProfileBased && cmpProfile.getRaProfile() == null) {
-            throw new CmpConfigurationException(PKIFailureInfo.systemFailure,
-                    "PN=" + incomingProfileName + " | CMP Profile does not contain associated RA Profile");
+
+        RaProfile raProfile = profiles.raProfile();
+        List<RequestAttribute> issueAttributes;
+        List<RequestAttribute> revokeAttributes;
+        if (profiles.raProfileBased()) {
+            String attributesJson = raProfile.getProtocolAttribute() != null ? raProfile.getProtocolAttribute().getCmpIssueCertificateAttributes() : null;
+            issueAttributes = AttributeDefinitionUtils.getClientAttributes(AttributeDefinitionUtils.deserialize(attributesJson, DataAttributeV2.class));
+            String revokeAttributesJson = raProfile.getProtocolAttribute() != null ? raProfile.getProtocolAttribute().getCmpRevokeCertificateAttributes() : null;
+            revokeAttributes = AttributeDefinitionUtils.getClientAttributes(AttributeDefinitionUtils.deserialize(revokeAttributesJson, DataAttributeV2.class));
+        } else {
+            issueAttributes = attributeEngine.getRequestObjectDataAttributesContent(raProfile.getAuthorityInstanceReference().getConnectorUuid(), AttributeOperation.CERTIFICATE_ISSUE, Resource.CMP_PROFILE, cmpProfile.getUuid());
+            revokeAttributes = attributeEngine.getRequestObjectDataAttributesContent(raProfile.getAuthorityInstanceReference().getConnectorUuid(), AttributeOperation.CERTIFICATE_REVOKE, Resource.CMP_PROFILE, cmpProfile.getUuid());
         }
+
+        CmpProfileContext context = new CmpProfileContext(cmpProfile, certificateKeyServiceImpl, issueAttributes, revokeAttributes);
+        // signing material is resolved while the profile is attached, the context outlives the transaction
+        context.prepare();
+        return context;
     }
 
-    private void validateRaProfile(String incomingProfileName) throws CmpConfigurationException {
+    private void validateRaProfile(String incomingProfileName, RequestProfiles profiles) throws CmpConfigurationException {
+        RaProfile raProfile = profiles.raProfile();
         if (raProfile == null) {
             throw new CmpConfigurationException(PKIFailureInfo.systemFailure,
                     "PN=" + incomingProfileName + " | Requested RA Profile not found");
@@ -456,10 +492,20 @@ public class CmpServiceImpl implements CmpService {
             throw new CmpConfigurationException(PKIFailureInfo.systemFailure,
                     "PN=" + incomingProfileName + " | RA Profile is not enabled");
         }
-        if (raProfileBased && raProfile.getCmpProfile() == null) {
+        if (profiles.raProfileBased() && raProfile.getCmpProfile() == null) {
             throw new CmpConfigurationException(PKIFailureInfo.systemFailure,
                     "PN=" + incomingProfileName + " | RA Profile does not contain associated CMP Profile");
         }
     }
 
+    /**
+     * CMP and RA profiles resolved for processed message
+     *
+     * @param raProfileBased True if the CMP profile is resolved by RA profile
+     * @param raProfile      RA profile, null if not found
+     * @param cmpProfile     CMP profile, null if not found
+     */
+    private record RequestProfiles(boolean raProfileBased, RaProfile raProfile, CmpProfile cmpProfile) {
+    }
+
 }
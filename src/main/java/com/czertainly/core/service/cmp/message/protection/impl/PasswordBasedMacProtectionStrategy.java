@@ -18,7 +18,6 @@ import org.bouncycastle.operator.DefaultMacAlgorithmIdentifierFinder;
 import javax.crypto.Mac;
 import javax.crypto.spec.SecretKeySpec;
 import java.io.IOException;
-import java.security.MessageDigest;
 import java.util.List;
 
 /**
@@ -38,23 +37,14 @@ public class PasswordBasedMacProtectionStrategy extends BaseProtectionStrategy i
 
     public PasswordBasedMacProtectionStrategy(ConfigurationContext configuration,
                                               AlgorithmIdentifier headerProtectionAlgorithm,
-                                              byte[] sharedSecret,
                                               byte[] protectionSalt,
                                               int iterationCount)
             throws CmpBaseException {
         super(configuration, headerProtectionAlgorithm);
-        byte[] calculatingBaseKey = new byte[sharedSecret.length + protectionSalt.length];
-        System.arraycopy(sharedSecret, 0, calculatingBaseKey, 0, sharedSecret.length);
-        System.arraycopy(protectionSalt, 0, calculatingBaseKey, sharedSecret.length, protectionSalt.length);
-
         try {
             AlgorithmIdentifier digestAlgorithm = getDigestAlgorithm();
-            MessageDigest digest = MessageDigest.getInstance(digestAlgorithm.getAlgorithm().getId(),
-                    BouncyCastleProvider.PROVIDER_NAME);
-            for (int i = 0; i < iterationCount; i++) {
-                calculatingBaseKey = digest.digest(calculatingBaseKey);
-                digest.reset();
-            }
+            byte[] calculatingBaseKey = configuration.getProfileContext()
+                    .getPbmBaseKey(protectionSalt, iterationCount, digestAlgorithm);
 
             AlgorithmIdentifier macAlgorithm = getMacAlgorithm();
             this.mac = Mac.getInstance(macAlgorithm.getAlgorithm().getId(),
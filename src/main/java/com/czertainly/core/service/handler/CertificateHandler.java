@@ -16,6 +16,7 @@ import com.czertainly.core.dao.repository.DiscoveryRepository;
 import com.czertainly.core.events.transaction.CertificateValidationEvent;
 import com.czertainly.core.messaging.jms.producers.ValidationProducer;
 import com.czertainly.core.messaging.model.ValidationMessage;
+import com.czertainly.core.model.discovery.DiscoveredPublicKeys;
 import com.czertainly.core.service.*;
 import com.czertainly.core.util.*;
 import org.slf4j.Logger;
@@ -28,11 +29,10 @@ import org.springframework.transaction.annotation.Transactional;
 import org.springframework.transaction.event.TransactionPhase;
 import org.springframework.transaction.event.TransactionalEventListener;
 
-import java.nio.charset.StandardCharsets;
-import java.security.NoSuchAlgorithmException;
-import java.security.PublicKey;
 import java.security.cert.X509Certificate;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
 
 @Service
 @Transactional
@@ -40,6 +40,8 @@ public class CertificateHandler {
 
     private static final Logger logger = LoggerFactory.getLogger(CertificateHandler.class);
 
+    private static final int MAX_CERTIFICATES_PER_UPDATE = 1000;
+
     private AttributeEngine attributeEngine;
     private ValidationProducer validationProducer;
 
@@ -125,59 +127,116 @@ public class CertificateHandler {
         }
     }
 
+    /**
+     * Creates discovery certificates of one downloaded batch. Certificates are parsed in parallel, existing certificates
+     * and certificate contents are looked up by fingerprints of the whole batch at once and new entities are inserted in JDBC batches.
+     *
+     * @param batch                  Identification of the batch for logging
+     * @param discovery              Discovery the certificates belong to
+     * @param discoveredCertificates Certificates downloaded from provider
+     * @param downloadedCount        Counter of certificates downloaded by the discovery so far, used to report progress
+     */
     @Transactional(propagation = Propagation.REQUIRES_NEW, isolation = Isolation.DEFAULT)
-    public void createDiscoveredCertificate(String batch, DiscoveryHistory discovery, List<DiscoveryProviderCertificateDataDto> discoveredCertificates) {
-        for (DiscoveryProviderCertificateDataDto certificate : discoveredCertificates) {
-            DiscoveryCertificate discoveryCertificate = null;
-            try {
-                X509Certificate x509Cert = CertificateUtil.parseCertificate(certificate.getBase64Content());
-                String fingerprint = CertificateUtil.getThumbprint(x509Cert.getEncoded());
-                Certificate existingCertificate = certificateRepository.findByFingerprint(fingerprint).orElse(null);
+    public void createDiscoveredCertificate(String batch, DiscoveryHistory discovery, List<DiscoveryProviderCertificateDataDto> discoveredCertificates, AtomicInteger downloadedCount) {
+        // parse certificates and compute fingerprints in parallel, it is the CPU bound part of the ingestion
+        List<ParsedDiscoveredCertificate> parsedCertificates = discoveredCertificates.parallelStream()
+                .map(certificate -> parseDiscoveredCertificate(batch, discovery, certificate))
+                .filter(Objects::nonNull)
+                .toList();
 
-                discoveryCertificate = CertificateUtil.prepareDiscoveryCertificate(existingCertificate, x509Cert);
-                discoveryCertificate.setDiscovery(discovery);
-                discoveryCertificate.setNewlyDiscovered(existingCertificate == null);
-                discoveryCertificate.setMeta(certificate.getMeta());
+        Set<String> fingerprints = parsedCertificates.stream().map(ParsedDiscoveredCertificate::fingerprint).collect(Collectors.toSet());
+        Map<String, Certificate> existingCertificates = new HashMap<>();
+        if (!fingerprints.isEmpty()) {
+            for (Certificate certificate : certificateRepository.findWithCertificateContentByFingerprintIn(fingerprints)) {
+                existingCertificates.put(certificate.getFingerprint(), certificate);
+            }
+        }
 
+        // prepare discovery certificates of new certificates in parallel (in order of parsed certificates), it does not touch persistence context
+        List<DiscoveryCertificate> newDiscoveryCertificates = parsedCertificates.parallelStream()
+                .map(parsedCertificate -> existingCertificates.containsKey(parsedCertificate.fingerprint()) ? null : prepareNewDiscoveryCertificate(batch, discovery, parsedCertificate))
+                .toList();
+
+        Map<String, String> newContents = new HashMap<>();
+        for (int i = 0; i < parsedCertificates.size(); i++) {
+            if (newDiscoveryCertificates.get(i) != null) {
+                newContents.putIfAbsent(parsedCertificates.get(i).fingerprint(), parsedCertificates.get(i).pemContent());
+            }
+        }
+        Map<String, CertificateContent> certificateContents = certificateService.checkAddCertificateContents(newContents);
+
+        List<DiscoveryCertificate> discoveryCertificates = new ArrayList<>(parsedCertificates.size());
+        for (int i = 0; i < parsedCertificates.size(); i++) {
+            ParsedDiscoveredCertificate parsedCertificate = parsedCertificates.get(i);
+            DiscoveryCertificate discoveryCertificate = null;
+            try {
+                Certificate existingCertificate = existingCertificates.get(parsedCertificate.fingerprint());
                 if (existingCertificate == null) {
-                    discoveryCertificate.setCertificateContent(certificateService.checkAddCertificateContent(fingerprint, X509ObjectToString.toPem(x509Cert)));
+                    discoveryCertificate = newDiscoveryCertificates.get(i);
+                    if (discoveryCertificate == null) continue;
+                    discoveryCertificate.setCertificateContent(certificateContents.get(parsedCertificate.fingerprint()));
                 } else {
-                    updateDiscoveredCertificate(discovery, existingCertificate, certificate.getMeta());
+                    discoveryCertificate = CertificateUtil.prepareDiscoveryCertificate(existingCertificate, parsedCertificate.x509Certificate());
+                    updateDiscoveredCertificate(discovery, existingCertificate, parsedCertificate.data().getMeta());
                     discoveryCertificate.setProcessed(true);
                 }
-
-                discoveryCertificateRepository.save(discoveryCertificate);
+                discoveryCertificate.setDiscovery(discovery);
+                discoveryCertificate.setNewlyDiscovered(existingCertificate == null);
+                discoveryCertificate.setMeta(parsedCertificate.data().getMeta());
+                discoveryCertificates.add(discoveryCertificate);
             } catch (Exception e) {
-                logger.error("Unable to create discovery certificate {} in batch {} for discovery {}. Message: {}", discoveryCertificate == null ? certificate.getUuid() : discoveryCertificate.getCommonName(), batch, discovery.getName(), e.getMessage(), e);
+                logger.error("Unable to create discovery certificate {} in batch {} for discovery {}. Message: {}", discoveryCertificate == null ? parsedCertificate.data().getUuid() : discoveryCertificate.getCommonName(), batch, discovery.getName(), e.getMessage(), e);
             }
         }
+        discoveryCertificateRepository.saveAll(discoveryCertificates);
 
         // report progress
-        Long currentCount = discoveryCertificateRepository.countByDiscovery(discovery);
+        int currentCount = downloadedCount.addAndGet(discoveryCertificates.size());
         discovery.setMessage(String.format("Downloaded %d %% of discovered certificates from provider (%d / %d)", (int) ((currentCount / (double) discovery.getConnectorTotalCertificatesDiscovered()) * 100), currentCount, discovery.getConnectorTotalCertificatesDiscovered()));
         discoveryRepository.save(discovery);
     }
 
-    @Transactional(propagation = Propagation.REQUIRES_NEW, isolation = Isolation.DEFAULT)
-    public void uploadDiscoveredCertificateKey(PublicKey publicKey, List<UUID> certificateUuids) throws NoSuchAlgorithmException {
-        UUID keyUuid = uploadKeyInternal(publicKey, certificateUuids, "certKey_");
-        certificateRepository.setKeyUuid(keyUuid, certificateUuids);
+    private ParsedDiscoveredCertificate parseDiscoveredCertificate(String batch, DiscoveryHistory discovery, DiscoveryProviderCertificateDataDto certificate) {
+        try {
+            X509Certificate x509Cert = CertificateUtil.parseCertificate(certificate.getBase64Content());
+            return new ParsedDiscoveredCertificate(certificate, x509Cert, CertificateUtil.getThumbprint(x509Cert.getEncoded()), X509ObjectToString.toPem(x509Cert));
+        } catch (Exception e) {
+            logger.error("Unable to parse discovery certificate {} in batch {} for discovery {}. Message: {}", certificate.getUuid(), batch, discovery.getName(), e.getMessage(), e);
+            return null;
+        }
     }
 
-    @Transactional(propagation = Propagation.REQUIRES_NEW, isolation = Isolation.DEFAULT)
-    public void uploadDiscoveredCertificateAltKey(PublicKey publicKey, List<UUID> certificateUuids) throws NoSuchAlgorithmException {
-        UUID keyUuid = uploadKeyInternal(publicKey, certificateUuids, "altCertKey_");
-        certificateRepository.setAltKeyUuidAndHybridCertificate(keyUuid, certificateUuids);
+    private DiscoveryCertificate prepareNewDiscoveryCertificate(String batch, DiscoveryHistory discovery, ParsedDiscoveredCertificate parsedCertificate) {
+        try {
+            return CertificateUtil.prepareDiscoveryCertificate(null, parsedCertificate.x509Certificate());
+        } catch (Exception e) {
+            logger.error("Unable to create discovery certificate {} in batch {} for discovery {}. Message: {}", parsedCertificate.data().getUuid(), batch, discovery.getName(), e.getMessage(), e);
+            return null;
+        }
     }
 
-    private UUID uploadKeyInternal(PublicKey publicKey, List<UUID> certificateUuids, String namePrefix) throws NoSuchAlgorithmException {
-        String fingerprint = CertificateUtil.getThumbprint(Base64.getEncoder().encodeToString(publicKey.getEncoded()).getBytes(StandardCharsets.UTF_8));
-        UUID keyUuid = cryptographicKeyService.findKeyByFingerprint(fingerprint);
-        Certificate firstCertificate = certificateRepository.findFirstByUuidIn(certificateUuids);
-        if (keyUuid == null) {
-            keyUuid = cryptographicKeyService.uploadCertificatePublicKey(namePrefix + firstCertificate.getCommonName(), publicKey, KeySizeUtil.getKeyLength(publicKey), fingerprint);
+    private record ParsedDiscoveredCertificate(DiscoveryProviderCertificateDataDto data, X509Certificate x509Certificate, String fingerprint, String pemContent) {
+    }
+
+    /**
+     * Uploads public keys of discovered certificates not registered yet and links the certificates to the keys by their fingerprints
+     *
+     * @param publicKeys    Public keys of the certificates
+     * @param altPublicKeys Alternative public keys of hybrid certificates
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW, isolation = Isolation.DEFAULT)
+    public void uploadDiscoveredCertificateKeys(DiscoveredPublicKeys publicKeys, DiscoveredPublicKeys altPublicKeys) {
+        int uploadedKeys = cryptographicKeyService.uploadCertificatePublicKeys(publicKeys.getKeys());
+        int uploadedAltKeys = cryptographicKeyService.uploadCertificatePublicKeys(altPublicKeys.getKeys());
+        List<UUID> certificateUuids = publicKeys.getCertificateUuids();
+        for (int i = 0; i < certificateUuids.size(); i += MAX_CERTIFICATES_PER_UPDATE) {
+            certificateRepository.linkKeysByPublicKeyFingerprint(certificateUuids.subList(i, Math.min(i + MAX_CERTIFICATES_PER_UPDATE, certificateUuids.size())));
+        }
+        List<UUID> hybridCertificateUuids = altPublicKeys.getCertificateUuids();
+        for (int i = 0; i < hybridCertificateUuids.size(); i += MAX_CERTIFICATES_PER_UPDATE) {
+            certificateRepository.linkAltKeysByAltKeyFingerprint(hybridCertificateUuids.subList(i, Math.min(i + MAX_CERTIFICATES_PER_UPDATE, hybridCertificateUuids.size())));
         }
-        return keyUuid;
+        logger.debug("Uploaded {} public keys and {} alternative public keys of {} discovered certificates", uploadedKeys, uploadedAltKeys, certificateUuids.size());
     }
 
     public void updateDiscoveredCertificate(DiscoveryHistory discovery, Certificate certificate, List<MetadataAttribute> metadata) {
@@ -0,0 +1,169 @@
+package com.czertainly.core.service.handler;
+
+import com.czertainly.api.model.connector.discovery.DiscoveryProviderDto;
+import com.czertainly.api.model.core.discovery.DiscoveryStatus;
+import com.czertainly.core.service.DiscoveryProperties;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.concurrent.DelegatingSecurityContextExecutor;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.*;
+
+/**
+ * Waits for discoveries running at providers to leave the {@link DiscoveryStatus#IN_PROGRESS} state without blocking
+ * a thread per discovery. Provider is polled with exponential backoff from a shared scheduler and the polls run
+ * on virtual threads, so waiting discoveries hold no threads between polls.
+ * <p>
+ * When the provider signals completion (see {@link #signalCompletion(String)}), the discovery is polled immediately
+ * instead of waiting for the next scheduled poll. Signal can be delivered to a platform instance that does not wait
+ * for the discovery, in that case it is ignored and the completion is found out by the scheduled poll.
+ */
+@Component
+public class DiscoveryCompletionWaiter {
+
+    private static final Logger logger = LoggerFactory.getLogger(DiscoveryCompletionWaiter.class);
+
+    private final DiscoveryProperties discoveryProperties;
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().name("discovery-completion-scheduler").daemon(true).factory());
+    private final ExecutorService pollExecutor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Map<String, PendingDiscovery> pendingDiscoveries = new ConcurrentHashMap<>();
+
+    public DiscoveryCompletionWaiter(DiscoveryProperties discoveryProperties) {
+        this.discoveryProperties = discoveryProperties;
+    }
+
+    /**
+     * Starts waiting for completion of the discovery at provider. Polls are executed with security context of the caller.
+     *
+     * @param providerDiscoveryUuid UUID of the discovery at provider
+     * @param poll                  Function loading the current state of the discovery from provider,
+     *                              exception thrown by it ends the waiting
+     * @return Future completed with the first response of the provider that is not in progress
+     */
+    public CompletableFuture<DiscoveryProviderDto> awaitCompletion(String providerDiscoveryUuid, DiscoveryPoll poll) {
+        PendingDiscovery pendingDiscovery = new PendingDiscovery(providerDiscoveryUuid, poll, new DelegatingSecurityContextExecutor(pollExecutor, SecurityContextHolder.getContext()));
+        PendingDiscovery previous = pendingDiscoveries.put(providerDiscoveryUuid, pendingDiscovery);
+        if (previous != null) {
+            previous.result.cancel(false);
+        }
+        pendingDiscovery.schedule(discoveryProperties.sleepTimeMs());
+        return pendingDiscovery.result;
+    }
+
+    /**
+     * Signals that the discovery has been completed at provider and polls it without further delay
+     *
+     * @param providerDiscoveryUuid UUID of the discovery at provider
+     * @return True if the discovery is awaited by this instance
+     */
+    public boolean signalCompletion(String providerDiscoveryUuid) {
+        PendingDiscovery pendingDiscovery = pendingDiscoveries.get(providerDiscoveryUuid);
+        if (pendingDiscovery == null) {
+            return false;
+        }
+        logger.debug("Completion of discovery {} signalled by provider", providerDiscoveryUuid);
+        pendingDiscovery.pollNow();
+        return true;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+        pollExecutor.shutdownNow();
+        pendingDiscoveries.values().forEach(pendingDiscovery -> pendingDiscovery.result.completeExceptionally(new CancellationException("Waiting for discovery completion has been stopped")));
+        pendingDiscoveries.clear();
+    }
+
+    private long getBackoffDelay(int attempts) {
+        long delay = (long) discoveryProperties.sleepTimeMs() << Math.min(attempts, 20);
+        return Math.min(delay, discoveryProperties.maxSleepTimeMs());
+    }
+
+    @FunctionalInterface
+    public interface DiscoveryPoll {
+        DiscoveryProviderDto poll() throws Exception;
+    }
+
+    private final class PendingDiscovery {
+        private final String providerDiscoveryUuid;
+        private final DiscoveryPoll poll;
+        private final Executor executor;
+        private final CompletableFuture<DiscoveryProviderDto> result = new CompletableFuture<>();
+
+        private int attempts;
+        private boolean polling;
+        private boolean signalled;
+        private ScheduledFuture<?> scheduledPoll;
+
+        private PendingDiscovery(String providerDiscoveryUuid, DiscoveryPoll poll, Executor executor) {
+            this.providerDiscoveryUuid = providerDiscoveryUuid;
+            this.poll = poll;
+            this.executor = executor;
+        }
+
+        private synchronized void schedule(long delayMs) {
+            if (result.isDone()) return;
+            scheduledPoll = scheduler.schedule(() -> executor.execute(this::poll), delayMs, TimeUnit.MILLISECONDS);
+        }
+
+        private synchronized void pollNow() {
+            if (polling) {
+                // poll is running right now, repeat it when it finishes in case the provider state changed meanwhile
+                signalled = true;
+                return;
+            }
+            if (scheduledPoll != null) {
+                scheduledPoll.cancel(false);
+            }
+            schedule(0);
+        }
+
+        private void poll() {
+            synchronized (this) {
+                if (result.isDone()) {
+                    // waiting has been cancelled by the caller
+                    pendingDiscoveries.remove(providerDiscoveryUuid, this);
+                    return;
+                }
+                if (polling) return;
+                polling = true;
+                signalled = false;
+            }
+
+            DiscoveryProviderDto response = null;
+            Exception failure = null;
+            try {
+                response = poll.poll();
+            } catch (Exception e) {
+                failure = e;
+            }
+
+            if (failure == null && response == null) {
+                failure = new IllegalStateException("Provider returned no state of discovery " + providerDiscoveryUuid);
+            }
+
+            synchronized (this) {
+                polling = false;
+                if (failure == null && response.getStatus() == DiscoveryStatus.IN_PROGRESS) {
+                    long delay = signalled ? 0 : getBackoffDelay(++attempts);
+                    logger.debug("Discovery {} is still in progress at provider, next poll in {}ms", providerDiscoveryUuid, delay);
+                    schedule(delay);
+                    return;
+                }
+                pendingDiscoveries.remove(providerDiscoveryUuid, this);
+            }
+
+            // complete outside of the lock, dependent actions continue processing of the discovery in this thread
+            if (failure != null) {
+                result.completeExceptionally(failure);
+            } else {
+                result.complete(response);
+            }
+        }
+    }
+}
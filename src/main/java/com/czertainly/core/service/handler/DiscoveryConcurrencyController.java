@@ -0,0 +1,402 @@
+package com.czertainly.core.service.handler;
+
+import com.czertainly.core.service.DiscoveryConcurrencyProperties;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Controls how many requests discoveries send concurrently to discovery providers and how many batches of discovered
+ * certificates they store and process concurrently.
+ * <p>
+ * Each discovery provider (connector) has its own limit and all discoveries share one storage limit. Limits are adapted
+ * by additive increase and multiplicative decrease: a limit grows while it is fully used and requests succeed, and
+ * a quarter of it is removed when requests fail, their latency grows above the long-term latency or the DB connection
+ * pool is saturated. Running discoveries get a fair share of each limit, so one large discovery does not starve
+ * the others. The state of each discovery run is exposed as metrics tagged by discovery UUID and removed when the run ends.
+ * <p>
+ * A discovery downloads pages of certificates from its provider one after another, so it holds at most one provider
+ * permit at a time. The provider limit therefore only arbitrates between discoveries running concurrently against
+ * the same provider, it does not parallelize the download of a single discovery.
+ */
+@Component
+public class DiscoveryConcurrencyController {
+
+    private static final Logger logger = LoggerFactory.getLogger(DiscoveryConcurrencyController.class);
+
+    private static final String METRIC_PREFIX = "czertainly.discovery.concurrency.";
+    private static final String LIMITER_TAG = "limiter";
+    private static final String STORAGE_LIMITER = "storage";
+
+    public static final String DOWNLOAD_PHASE = "download";
+    public static final String PROCESSING_PHASE = "processing";
+
+    private final DiscoveryConcurrencyProperties properties;
+    private final DataSource dataSource;
+    private final MeterRegistry meterRegistry;
+
+    private final AdaptiveLimiter storageLimiter;
+    private final Map<UUID, AdaptiveLimiter> connectorLimiters = new ConcurrentHashMap<>();
+    private HikariDataSource hikariDataSource;
+    private volatile boolean hikariResolved;
+
+    public DiscoveryConcurrencyController(DiscoveryConcurrencyProperties properties, DataSource dataSource, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.dataSource = dataSource;
+        this.meterRegistry = meterRegistry;
+        this.storageLimiter = registerLimiter(STORAGE_LIMITER, properties.storageMaxConcurrency(), this::isDbPoolSaturated);
+    }
+
+    /**
+     * Starts run of downloading certificates of the discovery from provider
+     *
+     * @param discoveryUuid  UUID of the discovery
+     * @param connectorUuid  UUID of the discovery provider
+     * @param maxConcurrency Maximum number of concurrently stored batches of the discovery, requests to provider are sent one at a time
+     * @return Run of the discovery, it has to be closed when the download is finished
+     */
+    public DiscoveryRun startDownload(UUID discoveryUuid, UUID connectorUuid, int maxConcurrency) {
+        AdaptiveLimiter connectorLimiter = connectorLimiters.computeIfAbsent(connectorUuid,
+                uuid -> registerLimiter(uuid.toString(), properties.connectorMaxConcurrency(), () -> false));
+        return new DiscoveryRun(discoveryUuid, DOWNLOAD_PHASE, connectorLimiter, maxConcurrency);
+    }
+
+    /**
+     * Starts run of processing newly discovered certificates of the discovery
+     *
+     * @param discoveryUuid UUID of the discovery
+     * @return Run of the discovery, it has to be closed when the processing is finished
+     */
+    public DiscoveryRun startProcessing(UUID discoveryUuid) {
+        return new DiscoveryRun(discoveryUuid, PROCESSING_PHASE, null, properties.storageMaxConcurrency());
+    }
+
+    private AdaptiveLimiter registerLimiter(String name, int maxLimit, BooleanSupplier congested) {
+        AdaptiveLimiter limiter = new AdaptiveLimiter(name, maxLimit, properties.latencyTolerance(), congested);
+        Gauge.builder(METRIC_PREFIX + "limit", limiter, AdaptiveLimiter::getLimit)
+                .description("Current concurrency limit of discoveries")
+                .tag(LIMITER_TAG, name)
+                .register(meterRegistry);
+        Gauge.builder(METRIC_PREFIX + "inflight", limiter, AdaptiveLimiter::getInFlight)
+                .description("Number of requests of discoveries currently in flight")
+                .tag(LIMITER_TAG, name)
+                .register(meterRegistry);
+        return limiter;
+    }
+
+    private boolean isDbPoolSaturated() {
+        HikariDataSource hikari = resolveHikariDataSource();
+        HikariPoolMXBean pool = hikari != null ? hikari.getHikariPoolMXBean() : null;
+        if (pool == null) {
+            return false;
+        }
+        if (pool.getThreadsAwaitingConnection() > 0) {
+            return true;
+        }
+        return (double) pool.getActiveConnections() / hikari.getMaximumPoolSize() >= properties.dbPoolHighWatermark();
+    }
+
+    private HikariDataSource resolveHikariDataSource() {
+        if (!hikariResolved) {
+            hikariResolved = true;
+            try {
+                if (dataSource != null && dataSource.isWrapperFor(HikariDataSource.class)) {
+                    hikariDataSource = dataSource.unwrap(HikariDataSource.class);
+                }
+            } catch (SQLException e) {
+                logger.warn("Unable to resolve DB connection pool, DB saturation will not be considered for discoveries: {}", e.getMessage());
+            }
+        }
+        return hikariDataSource;
+    }
+
+    /**
+     * Run of one phase of a discovery. Permits are acquired from the limiters shared with other runs, run can hold
+     * at most its fair share of each limit.
+     */
+    public final class DiscoveryRun implements AutoCloseable {
+        private final UUID discoveryUuid;
+        private final String phase;
+        private final int maxConcurrency;
+        private final RunState providerState;
+        private final RunState storageState;
+        private final List<Meter> meters = new ArrayList<>();
+
+        private DiscoveryRun(UUID discoveryUuid, String phase, AdaptiveLimiter connectorLimiter, int maxConcurrency) {
+            this.discoveryUuid = discoveryUuid;
+            this.phase = phase;
+            this.maxConcurrency = Math.max(1, maxConcurrency);
+            this.providerState = connectorLimiter != null ? registerState(connectorLimiter) : null;
+            this.storageState = registerState(storageLimiter);
+            logger.debug("Started {} of discovery {} with maximum concurrency {}", phase, discoveryUuid, this.maxConcurrency);
+        }
+
+        public int getMaxConcurrency() {
+            return maxConcurrency;
+        }
+
+        /**
+         * Waits for a permit to send request to discovery provider
+         */
+        public Permit acquireProvider() throws InterruptedException {
+            if (providerState == null) {
+                throw new IllegalStateException("Discovery %s does not communicate with provider in %s phase".formatted(discoveryUuid, phase));
+            }
+            return providerState.limiter.acquire(providerState);
+        }
+
+        /**
+         * Waits for a permit to store or process batch of discovered certificates
+         */
+        public Permit acquireStorage() throws InterruptedException {
+            return storageLimiter.acquire(storageState);
+        }
+
+        @Override
+        public void close() {
+            if (providerState != null) {
+                providerState.limiter.deregister(providerState);
+            }
+            storageLimiter.deregister(storageState);
+            meters.forEach(meterRegistry::remove);
+            meters.clear();
+            logger.debug("Finished {} of discovery {}", phase, discoveryUuid);
+        }
+
+        private RunState registerState(AdaptiveLimiter limiter) {
+            Tags tags = Tags.of("discovery", discoveryUuid.toString(), "phase", phase, LIMITER_TAG, limiter.name);
+            RunState state = new RunState(limiter, maxConcurrency,
+                    Timer.builder(METRIC_PREFIX + "run.latency").description("Latency of requests of the discovery run").tags(tags).tag("outcome", "success").register(meterRegistry),
+                    Timer.builder(METRIC_PREFIX + "run.latency").description("Latency of requests of the discovery run").tags(tags).tag("outcome", "failure").register(meterRegistry));
+            meters.add(state.successTimer);
+            meters.add(state.failureTimer);
+            meters.add(Gauge.builder(METRIC_PREFIX + "run.inflight", state, s -> s.inFlight)
+                    .description("Number of requests of the discovery run currently in flight")
+                    .tags(tags)
+                    .register(meterRegistry));
+            meters.add(Gauge.builder(METRIC_PREFIX + "run.share", state, s -> s.limiter.getFairShare(s))
+                    .description("Current fair share of the discovery run on the concurrency limit")
+                    .tags(tags)
+                    .register(meterRegistry));
+            limiter.register(state);
+            return state;
+        }
+    }
+
+    /**
+     * Permit acquired by a discovery run, has to be released when the request or batch is finished
+     */
+    public static final class Permit {
+        private final AdaptiveLimiter limiter;
+        private final RunState state;
+        private final long startNanos = System.nanoTime();
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Permit(AdaptiveLimiter limiter, RunState state) {
+            this.limiter = limiter;
+            this.state = state;
+        }
+
+        /**
+         * @param success False if the request failed, it decreases the concurrency limit
+         */
+        public void release(boolean success) {
+            if (released.compareAndSet(false, true)) {
+                long latencyNanos = System.nanoTime() - startNanos;
+                (success ? state.successTimer : state.failureTimer).record(latencyNanos, TimeUnit.NANOSECONDS);
+                limiter.release(state, latencyNanos, success);
+            }
+        }
+    }
+
+    private static final class RunState {
+        private final AdaptiveLimiter limiter;
+        private final int maxConcurrency;
+        private final Timer successTimer;
+        private final Timer failureTimer;
+        private volatile int inFlight;
+        private boolean closed;
+
+        private RunState(AdaptiveLimiter limiter, int maxConcurrency, Timer successTimer, Timer failureTimer) {
+            this.limiter = limiter;
+            this.maxConcurrency = maxConcurrency;
+            this.successTimer = successTimer;
+            this.failureTimer = failureTimer;
+        }
+    }
+
+    /**
+     * Concurrency limit adapted by additive increase and multiplicative decrease, state of runs is guarded by its lock
+     */
+    static final class AdaptiveLimiter {
+        private static final double SHORT_LATENCY_WEIGHT = 0.3;
+        private static final double LONG_LATENCY_WEIGHT = 0.05;
+
+        private final String name;
+        private final int maxLimit;
+        private final double latencyTolerance;
+        private final BooleanSupplier congested;
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Condition permitReleased = lock.newCondition();
+
+        private double limit;
+        private int inFlight;
+        private int activeRuns;
+        private double shortLatencyNanos;
+        private double longLatencyNanos;
+        private long lastDecreaseNanos;
+
+        AdaptiveLimiter(String name, int maxLimit, double latencyTolerance, BooleanSupplier congested) {
+            this.name = name;
+            this.maxLimit = maxLimit;
+            this.latencyTolerance = latencyTolerance;
+            this.congested = congested;
+            // start from half of the maximum and let the limit grow while the requests are fast
+            this.limit = Math.max(1, Math.ceil(maxLimit / 2.0));
+            this.lastDecreaseNanos = System.nanoTime();
+        }
+
+        int getLimit() {
+            lock.lock();
+            try {
+                return (int) limit;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        int getInFlight() {
+            lock.lock();
+            try {
+                return inFlight;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private int getFairShare(RunState state) {
+            lock.lock();
+            try {
+                return fairShare(state);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private int fairShare(RunState state) {
+            int share = (int) Math.ceil((int) limit / (double) Math.max(1, activeRuns));
+            return Math.max(1, Math.min(state.maxConcurrency, share));
+        }
+
+        private void register(RunState state) {
+            lock.lock();
+            try {
+                ++activeRuns;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void deregister(RunState state) {
+            lock.lock();
+            try {
+                if (state.closed) return;
+                state.closed = true;
+                --activeRuns;
+                // permits not released by the run are returned with it
+                inFlight -= state.inFlight;
+                state.inFlight = 0;
+                permitReleased.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private Permit acquire(RunState state) throws InterruptedException {
+            lock.lockInterruptibly();
+            try {
+                while (!state.closed && (inFlight >= (int) limit || state.inFlight >= fairShare(state))) {
+                    permitReleased.await();
+                }
+                if (state.closed) {
+                    throw new IllegalStateException("Run of discovery has been already finished");
+                }
+                ++inFlight;
+                ++state.inFlight;
+                return new Permit(this, state);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void release(RunState state, long latencyNanos, boolean success) {
+            boolean congestion = !success || congested.getAsBoolean();
+            lock.lock();
+            try {
+                if (state.closed) return;
+                boolean limitUsed = inFlight >= (int) limit;
+                --inFlight;
+                --state.inFlight;
+
+                if (success) {
+                    congestion |= updateLatency(latencyNanos);
+                }
+                if (congestion) {
+                    decrease();
+                } else if (limitUsed && limit < maxLimit) {
+                    limit = Math.min(maxLimit, limit + 1.0 / limit);
+                }
+                permitReleased.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * @return True if the recent latency exceeds the long-term latency more than tolerated
+         */
+        private boolean updateLatency(long latencyNanos) {
+            if (longLatencyNanos == 0) {
+                shortLatencyNanos = latencyNanos;
+                longLatencyNanos = latencyNanos;
+                return false;
+            }
+            shortLatencyNanos += SHORT_LATENCY_WEIGHT * (latencyNanos - shortLatencyNanos);
+            longLatencyNanos += LONG_LATENCY_WEIGHT * (latencyNanos - longLatencyNanos);
+            return shortLatencyNanos > longLatencyNanos * latencyTolerance;
+        }
+
+        private void decrease() {
+            // decrease at most once per round trip, requests in flight were sent with the previous limit
+            long now = System.nanoTime();
+            if (now - lastDecreaseNanos < shortLatencyNanos) return;
+            lastDecreaseNanos = now;
+
+            double previous = limit;
+            limit = Math.max(1, limit - Math.max(1, Math.floor(limit / 4)));
+            if ((int) previous != (int) limit) {
+                logger.debug("Decreased concurrency limit of discoveries of '{}' from {} to {}", name, (int) previous, (int) limit);
+            }
+        }
+    }
+}
@@ -21,6 +21,7 @@ import com.czertainly.core.security.authz.SecuredUUID;
 import com.czertainly.core.security.authz.SecurityFilter;
 import com.czertainly.core.service.AcmeAccountService;
 import com.czertainly.core.service.PermissionEvaluator;
+import com.czertainly.core.service.acme.AcmeContextCache;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -42,12 +43,18 @@ public class AcmeAccountServiceImpl implements AcmeAccountService {
     private AcmeAccountRepository acmeAccountRepository;
     private AcmeOrderRepository acmeOrderRepository;
     private PermissionEvaluator permissionEvaluator;
+    private AcmeContextCache acmeContextCache;
 
     @Autowired
     public void setPermissionEvaluator(PermissionEvaluator permissionEvaluator) {
         this.permissionEvaluator = permissionEvaluator;
     }
 
+    @Autowired
+    public void setAcmeContextCache(AcmeContextCache acmeContextCache) {
+        this.acmeContextCache = acmeContextCache;
+    }
+
     @Autowired
     public void setAcmeAccountRepository(AcmeAccountRepository acmeAccountRepository) {
         this.acmeAccountRepository = acmeAccountRepository;
@@ -151,8 +158,11 @@ public class AcmeAccountServiceImpl implements AcmeAccountService {
         AcmeAccount acmeAccount = getAcmeAccountEntity(uuid);
 
         Integer invalidatedExpiredOrders = acmeOrderRepository.invalidateExpiredOrders(acmeAccount, new Date());
-        acmeAccount.setFailedOrders(acmeAccount.getFailedOrders() + invalidatedExpiredOrders);
-        acmeAccountRepository.save(acmeAccount);
+        if (invalidatedExpiredOrders > 0) {
+            acmeAccountRepository.incrementFailedOrders(acmeAccount.getUuid(), invalidatedExpiredOrders);
+            // counter is not written with the account, loaded account is updated for the response only
+            acmeAccount.setFailedOrders(acmeAccount.getFailedOrders() + invalidatedExpiredOrders);
+        }
 
         return getAcmeAccountEntity(uuid).mapToDtoForUi();
     }
@@ -170,6 +180,7 @@ public class AcmeAccountServiceImpl implements AcmeAccountService {
         account.setStatus(AccountStatus.REVOKED);
         account.setEnabled(false);
         acmeAccountRepository.save(account);
+        acmeContextCache.invalidateAccount(account.getAccountId());
     }
 
     @Override
@@ -29,6 +29,7 @@ import com.czertainly.core.security.authz.SecuredUUID;
 import com.czertainly.core.security.authz.SecurityFilter;
 import com.czertainly.core.service.AcmeProfileService;
 import com.czertainly.core.service.RaProfileService;
+import com.czertainly.core.service.acme.AcmeContextCache;
 import com.czertainly.core.service.model.SecuredList;
 import com.czertainly.core.service.v2.ExtendedAttributeService;
 import com.czertainly.core.util.ValidatorUtil;
@@ -55,6 +56,7 @@ public class AcmeProfileServiceImpl implements AcmeProfileService {
     private ExtendedAttributeService extendedAttributeService;
     private AttributeEngine attributeEngine;
     private ProtocolCertificateAssociationsRepository certificateAssociationRepository;
+    private AcmeContextCache acmeContextCache;
 
     @Autowired
     public void setCertificateAssociationRepository(ProtocolCertificateAssociationsRepository certificateAssociationRepository) {
@@ -66,6 +68,11 @@ public class AcmeProfileServiceImpl implements AcmeProfileService {
         this.acmeProfileRepository = acmeProfileRepository;
     }
 
+    @Autowired
+    public void setAcmeContextCache(AcmeContextCache acmeContextCache) {
+        this.acmeContextCache = acmeContextCache;
+    }
+
     @Autowired
     public void setAcmeAccountRepository(AcmeAccountRepository acmeAccountRepository) {
         this.acmeAccountRepository = acmeAccountRepository;
@@ -163,6 +170,7 @@ public class AcmeProfileServiceImpl implements AcmeProfileService {
             acmeProfile.setCertificateAssociationsUuid(certificateAssociation.getUuid());
         }
         acmeProfile = acmeProfileRepository.save(acmeProfile);
+        acmeContextCache.invalidateProfiles();
 
         return updateAndMapDtoAttributes(
                 acmeProfile,
@@ -254,9 +262,12 @@ public class AcmeProfileServiceImpl implements AcmeProfileService {
 
         acmeProfile = acmeProfileRepository.save(acmeProfile);
 
+        acmeContextCache.invalidateProfiles();
+
         if (raProfile != null) {
             // Keep as the last because it will flush and evict all entities from the Hibernate first-level cache.
             acmeAccountRepository.updateRaProfileForDefaultAccounts(acmeProfile.getUuid(), raProfile.getUuid());
+            acmeContextCache.invalidateAccounts();
         }
 
         return updateAndMapDtoAttributes(
@@ -340,6 +351,7 @@ public class AcmeProfileServiceImpl implements AcmeProfileService {
         }
         acmeProfile.setEnabled(true);
         acmeProfileRepository.save(acmeProfile);
+        acmeContextCache.invalidateProfiles();
     }
 
     @Override
@@ -351,6 +363,7 @@ public class AcmeProfileServiceImpl implements AcmeProfileService {
         }
         acmeProfile.setEnabled(false);
         acmeProfileRepository.save(acmeProfile);
+        acmeContextCache.invalidateProfiles();
     }
 
     @Override
@@ -364,6 +377,7 @@ public class AcmeProfileServiceImpl implements AcmeProfileService {
                 }
                 acmeProfile.setEnabled(true);
                 acmeProfileRepository.save(acmeProfile);
+                acmeContextCache.invalidateProfiles();
             } catch (NotFoundException e) {
                 logger.warn(e.getMessage());
             }
@@ -381,6 +395,7 @@ public class AcmeProfileServiceImpl implements AcmeProfileService {
                 }
                 acmeProfile.setEnabled(false);
                 acmeProfileRepository.save(acmeProfile);
+                acmeContextCache.invalidateProfiles();
             } catch (NotFoundException e) {
                 logger.warn(e.getMessage());
             }
@@ -411,7 +426,9 @@ public class AcmeProfileServiceImpl implements AcmeProfileService {
         RaProfile newRaProfile = getRaProfile(raProfileUuid);
         acmeProfile.setRaProfile(newRaProfile);
         acmeProfileRepository.save(acmeProfile);
+        acmeContextCache.invalidateProfiles();
         acmeAccountRepository.updateRaProfileForDefaultAccounts(acmeProfile.getUuid(), newRaProfile.getUuid());
+        acmeContextCache.invalidateAccounts();
     }
 
     @Override
@@ -482,6 +499,8 @@ public class AcmeProfileServiceImpl implements AcmeProfileService {
         } else {
             attributeEngine.deleteAllObjectAttributeContent(Resource.ACME_PROFILE, acmeProfile.getUuid());
             acmeProfileRepository.delete(acmeProfile);
+            acmeContextCache.invalidateProfiles();
+            acmeContextCache.invalidateAccounts();
         }
     }
 }
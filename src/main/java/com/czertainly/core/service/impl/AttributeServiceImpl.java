@@ -24,6 +24,7 @@ import com.czertainly.api.model.common.attribute.v3.CustomAttributeV3;
 import com.czertainly.api.model.common.attribute.v3.content.BaseAttributeContentV3;
 import com.czertainly.api.model.core.auth.Resource;
 import com.czertainly.api.model.core.scheduler.PaginationRequestDto;
+import com.czertainly.core.attribute.engine.AttributeDefinitionCache;
 import com.czertainly.core.attribute.engine.AttributeEngine;
 import com.czertainly.core.attribute.engine.AttributeVersionHelper;
 import com.czertainly.core.dao.entity.AttributeDefinition;
@@ -51,6 +52,7 @@ public class AttributeServiceImpl implements AttributeService {
     private static final Logger logger = LoggerFactory.getLogger(AttributeServiceImpl.class);
 
     private AttributeEngine attributeEngine;
+    private AttributeDefinitionCache attributeDefinitionCache;
     private AttributeDefinitionRepository attributeDefinitionRepository;
 
     @Autowired
@@ -58,6 +60,11 @@ public class AttributeServiceImpl implements AttributeService {
         this.attributeEngine = attributeEngine;
     }
 
+    @Autowired
+    public void setAttributeDefinitionCache(AttributeDefinitionCache attributeDefinitionCache) {
+        this.attributeDefinitionCache = attributeDefinitionCache;
+    }
+
     @Autowired
     public void setAttributeDefinitionRepository(AttributeDefinitionRepository attributeDefinitionRepository) {
         this.attributeDefinitionRepository = attributeDefinitionRepository;
@@ -240,6 +247,7 @@ public class AttributeServiceImpl implements AttributeService {
         AttributeDefinition definition = attributeDefinitionRepository.findByUuidAndType(uuid, AttributeType.CUSTOM).orElseThrow(() -> new NotFoundException(AttributeDefinition.class, uuid.toString()));
         definition.setEnabled(enable);
         attributeDefinitionRepository.save(definition);
+        attributeDefinitionCache.invalidateCustomDefinitions();
     }
 
     @Override
@@ -35,6 +35,7 @@ import com.czertainly.core.attribute.engine.AttributeContentPurpose;
 import com.czertainly.core.attribute.engine.AttributeEngine;
 import com.czertainly.core.attribute.engine.AttributeOperation;
 import com.czertainly.core.attribute.engine.records.ObjectAttributeContentInfo;
+import com.czertainly.core.attribute.engine.records.ObjectsAttributesContent;
 import com.czertainly.core.comparator.SearchFieldDataComparator;
 import com.czertainly.core.dao.entity.*;
 import com.czertainly.core.dao.entity.Certificate;
@@ -54,6 +55,7 @@ import com.czertainly.core.events.transaction.UpdateCertificateHistoryEvent;
 import com.czertainly.core.messaging.jms.producers.EventProducer;
 import com.czertainly.core.messaging.jms.producers.NotificationProducer;
 import com.czertainly.core.messaging.jms.producers.ValidationProducer;
+import com.czertainly.core.messaging.model.EventMessage;
 import com.czertainly.core.messaging.model.NotificationRecipient;
 import com.czertainly.core.messaging.model.ValidationMessage;
 import com.czertainly.core.model.auth.CertificateProtocolInfo;
@@ -407,22 +409,28 @@ public class CertificateServiceImpl implements CertificateService, AttributeReso
             }).toList());
         }
         if (dto.getCertificateRequest() != null) {
-            dto.getCertificateRequest().setAttributes(attributeEngine.getObjectDataAttributesContent(null, null, Resource.CERTIFICATE_REQUEST, certificate.getCertificateRequest().getUuid()));
-            dto.getCertificateRequest().setSignatureAttributes(attributeEngine.getObjectDataAttributesContent(null, AttributeOperation.CERTIFICATE_REQUEST_SIGN, Resource.CERTIFICATE_REQUEST, certificate.getCertificateRequest().getUuid()));
-            dto.getCertificateRequest().setAltSignatureAttributes(attributeEngine.getObjectDataAttributesContent(null, AttributeOperation.CERTIFICATE_REQUEST_SIGN, AttributeContentPurpose.CERTIFICATE_REQUEST_ALT_KEY, Resource.CERTIFICATE_REQUEST, certificate.getCertificateRequest().getUuid()));
+            setCertificateRequestAttributes(dto.getCertificateRequest(), certificate.getCertificateRequest().getUuid());
         }
+        ObjectsAttributesContent attributesContent = attributeEngine.loadObjectsAttributesContent(Resource.CERTIFICATE, List.of(certificate.getUuid()));
         // if has RA profile with authority and connector
         if (certificate.getRaProfile() != null && certificate.getRaProfile().getAuthorityInstanceReference() != null && certificate.getRaProfile().getAuthorityInstanceReference().getConnectorUuid() != null) {
-            dto.setIssueAttributes(attributeEngine.getObjectDataAttributesContent(certificate.getRaProfile().getAuthorityInstanceReference().getConnectorUuid(), AttributeOperation.CERTIFICATE_ISSUE, Resource.CERTIFICATE, certificate.getUuid()));
-            dto.setRevokeAttributes(attributeEngine.getObjectDataAttributesContent(certificate.getRaProfile().getAuthorityInstanceReference().getConnectorUuid(), AttributeOperation.CERTIFICATE_REVOKE, Resource.CERTIFICATE, certificate.getUuid()));
+            dto.setIssueAttributes(attributeEngine.getObjectDataAttributesContent(attributesContent, certificate.getRaProfile().getAuthorityInstanceReference().getConnectorUuid(), AttributeOperation.CERTIFICATE_ISSUE, null, certificate.getUuid()));
+            dto.setRevokeAttributes(attributeEngine.getObjectDataAttributesContent(attributesContent, certificate.getRaProfile().getAuthorityInstanceReference().getConnectorUuid(), AttributeOperation.CERTIFICATE_REVOKE, null, certificate.getUuid()));
         }
         // TODO: originally showing only metadata from discovery resource, should it be like that?
-        dto.setMetadata(attributeEngine.getMappedMetadataContent(new ObjectAttributeContentInfo(Resource.CERTIFICATE, certificate.getUuid())));
-        dto.setCustomAttributes(attributeEngine.getObjectCustomAttributesContent(Resource.CERTIFICATE, certificate.getUuid()));
+        dto.setMetadata(attributeEngine.getMappedMetadataContent(attributesContent, new ObjectAttributeContentInfo(Resource.CERTIFICATE, certificate.getUuid())));
+        dto.setCustomAttributes(attributeEngine.getObjectCustomAttributesContent(attributesContent, certificate.getUuid()));
         dto.setRelatedCertificates(certificate.getSuccessorRelations().stream().map(r -> r.getSuccessorCertificate().mapToListDto()).toList());
         return dto;
     }
 
+    private void setCertificateRequestAttributes(CertificateRequestDto certificateRequestDto, UUID certificateRequestUuid) {
+        ObjectsAttributesContent attributesContent = attributeEngine.loadObjectsAttributesContent(Resource.CERTIFICATE_REQUEST, List.of(certificateRequestUuid), AttributeType.DATA);
+        certificateRequestDto.setAttributes(attributeEngine.getObjectDataAttributesContent(attributesContent, null, null, null, certificateRequestUuid));
+        certificateRequestDto.setSignatureAttributes(attributeEngine.getObjectDataAttributesContent(attributesContent, null, AttributeOperation.CERTIFICATE_REQUEST_SIGN, null, certificateRequestUuid));
+        certificateRequestDto.setAltSignatureAttributes(attributeEngine.getObjectDataAttributesContent(attributesContent, null, AttributeOperation.CERTIFICATE_REQUEST_SIGN, AttributeContentPurpose.CERTIFICATE_REQUEST_ALT_KEY, certificateRequestUuid));
+    }
+
     @Override
     @ExternalAuthorization(resource = Resource.CERTIFICATE, action = ResourceAction.DETAIL)
     public Certificate getCertificateEntity(SecuredUUID uuid) throws NotFoundException {
@@ -1153,6 +1161,32 @@ public class CertificateServiceImpl implements CertificateService, AttributeReso
         return certificateContent;
     }
 
+    @Override
+    public Map<String, CertificateContent> checkAddCertificateContents(Map<String, String> contents) {
+        Map<String, CertificateContent> certificateContents = new HashMap<>();
+        if (contents.isEmpty()) {
+            return certificateContents;
+        }
+
+        for (CertificateContent certificateContent : certificateContentRepository.findByFingerprintIn(contents.keySet())) {
+            certificateContents.put(certificateContent.getFingerprint(), certificateContent);
+        }
+
+        List<CertificateContent> newCertificateContents = new ArrayList<>();
+        contents.forEach((fingerprint, content) -> {
+            if (!certificateContents.containsKey(fingerprint)) {
+                CertificateContent certificateContent = new CertificateContent();
+                certificateContent.setContent(CertificateUtil.normalizeCertificateContent(content));
+                certificateContent.setFingerprint(fingerprint);
+                newCertificateContents.add(certificateContent);
+                certificateContents.put(fingerprint, certificateContent);
+            }
+        });
+        certificateContentRepository.saveAll(newCertificateContents);
+
+        return certificateContents;
+    }
+
     @Override
     @ExternalAuthorization(resource = Resource.CERTIFICATE, action = ResourceAction.CREATE)
     public CertificateDetailDto upload(UploadCertificateRequestDto request, boolean ignoreCustomAttributes) throws CertificateException, NoSuchAlgorithmException, AlreadyExistException, NotFoundException, AttributeException {
@@ -1770,12 +1804,11 @@ public class CertificateServiceImpl implements CertificateService, AttributeReso
 
         CertificateDetailDto dto = certificate.mapToDto();
         if (dto.getCertificateRequest() != null) {
-            dto.getCertificateRequest().setAttributes(attributeEngine.getObjectDataAttributesContent(null, null, Resource.CERTIFICATE_REQUEST, certificate.getCertificateRequest().getUuid()));
-            dto.getCertificateRequest().setSignatureAttributes(attributeEngine.getObjectDataAttributesContent(null, AttributeOperation.CERTIFICATE_REQUEST_SIGN, Resource.CERTIFICATE_REQUEST, certificate.getCertificateRequest().getUuid()));
-            dto.getCertificateRequest().setAltSignatureAttributes(attributeEngine.getObjectDataAttributesContent(null, AttributeOperation.CERTIFICATE_REQUEST_SIGN, AttributeContentPurpose.CERTIFICATE_REQUEST_ALT_KEY, Resource.CERTIFICATE_REQUEST, certificate.getCertificateRequest().getUuid()));
+            setCertificateRequestAttributes(dto.getCertificateRequest(), certificate.getCertificateRequest().getUuid());
         }
-        dto.setMetadata(attributeEngine.getMappedMetadataContent(new ObjectAttributeContentInfo(Resource.CERTIFICATE, certificate.getUuid())));
-        dto.setCustomAttributes(attributeEngine.getObjectCustomAttributesContent(Resource.CERTIFICATE, certificate.getUuid()));
+        ObjectsAttributesContent attributesContent = attributeEngine.loadObjectsAttributesContent(Resource.CERTIFICATE, List.of(certificate.getUuid()), AttributeType.CUSTOM, AttributeType.META);
+        dto.setMetadata(attributeEngine.getMappedMetadataContent(attributesContent, new ObjectAttributeContentInfo(Resource.CERTIFICATE, certificate.getUuid())));
+        dto.setCustomAttributes(attributeEngine.getObjectCustomAttributesContent(attributesContent, certificate.getUuid()));
 
         // check validity of certificate async from queue
         applicationEventPublisher.publishEvent(new CertificateValidationEvent(certificate.getUuid()));
@@ -1807,8 +1840,8 @@ public class CertificateServiceImpl implements CertificateService, AttributeReso
     @Override
     public int handleExpiringCertificates() {
         List<UUID> expiringCertificates = certificateRepository.findExpiringCertificatesWithoutRenewal();
-        for (UUID uuid : expiringCertificates) {
-            eventProducer.produceMessage(CertificateExpiringEventHandler.constructEventMessages(uuid));
+        for (EventMessage eventMessage : CertificateExpiringEventHandler.constructEventMessages(expiringCertificates)) {
+            eventProducer.produceMessage(eventMessage);
         }
         return expiringCertificates.size();
     }
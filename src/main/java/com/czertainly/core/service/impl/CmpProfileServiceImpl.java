@@ -30,6 +30,7 @@ import com.czertainly.core.security.authz.SecurityFilter;
 import com.czertainly.core.service.CertificateService;
 import com.czertainly.core.service.CmpProfileService;
 import com.czertainly.core.service.RaProfileService;
+import com.czertainly.core.service.cmp.configurations.CmpContextCache;
 import com.czertainly.core.service.model.SecuredList;
 import com.czertainly.core.service.v2.ExtendedAttributeService;
 import com.czertainly.core.util.CertificateUtil;
@@ -62,6 +63,7 @@ public class CmpProfileServiceImpl implements CmpProfileService {
     private CertificateService certificateService;
     private AttributeEngine attributeEngine;
     private ProtocolCertificateAssociationsRepository certificateAssociationRepository;
+    private CmpContextCache cmpContextCache;
 
     @Autowired
     public void setCertificateAssociationRepository(ProtocolCertificateAssociationsRepository certificateAssociationRepository) {
@@ -93,6 +95,11 @@ public class CmpProfileServiceImpl implements CmpProfileService {
         this.certificateService = certificateService;
     }
 
+    @Autowired
+    public void setCmpContextCache(CmpContextCache cmpContextCache) {
+        this.cmpContextCache = cmpContextCache;
+    }
+
     // -----------------------------------------------------------------------------------------------------------------
     // -----------------------------------------------------------------------------------------------------------------
     // Methods implementations
@@ -222,6 +229,7 @@ public class CmpProfileServiceImpl implements CmpProfileService {
         cmpProfile.setCertificateAssociationsUuid(certificateAssociationUuid);
 
         cmpProfileRepository.save(cmpProfile);
+        cmpContextCache.invalidateProfiles();
 
         CmpProfileDetailDto dto = updateAndMapDtoAttributes(
                 cmpProfile,
@@ -324,6 +332,7 @@ public class CmpProfileServiceImpl implements CmpProfileService {
         CmpProfile cmpProfile = getCmpProfileEntity(cmpProfileUuid);
         cmpProfile.setRaProfile(getRaProfile(raProfileUuid));
         cmpProfileRepository.save(cmpProfile);
+        cmpContextCache.invalidateProfiles();
     }
 
     @Override
@@ -559,6 +568,7 @@ public class CmpProfileServiceImpl implements CmpProfileService {
         } else {
             attributeEngine.deleteAllObjectAttributeContent(Resource.CMP_PROFILE, cmpProfile.getUuid());
             cmpProfileRepository.delete(cmpProfile);
+            cmpContextCache.invalidateProfiles();
         }
     }
 
@@ -566,6 +576,7 @@ public class CmpProfileServiceImpl implements CmpProfileService {
         CmpProfile cmpProfile = getCmpProfileEntity(cmpProfileUuid);
         cmpProfile.setEnabled(enabled);
         cmpProfileRepository.save(cmpProfile);
+        cmpContextCache.invalidateProfiles();
     }
 
 }
@@ -19,6 +19,7 @@ import com.czertainly.api.model.connector.cryptography.key.KeyDataResponseDto;
 import com.czertainly.api.model.connector.cryptography.key.KeyPairDataResponseDto;
 import com.czertainly.api.model.core.auth.Resource;
 import com.czertainly.api.model.core.auth.UserDto;
+import com.czertainly.api.model.core.compliance.ComplianceStatus;
 import com.czertainly.api.model.core.connector.ConnectorDto;
 import com.czertainly.api.model.core.cryptography.key.*;
 import com.czertainly.api.model.core.scheduler.PaginationRequestDto;
@@ -27,6 +28,7 @@ import com.czertainly.api.model.core.search.SearchFieldDataByGroupDto;
 import com.czertainly.api.model.core.search.SearchFieldDataDto;
 import com.czertainly.core.attribute.engine.AttributeEngine;
 import com.czertainly.core.attribute.engine.records.ObjectAttributeContentInfo;
+import com.czertainly.core.attribute.engine.records.ObjectsAttributesContent;
 import com.czertainly.core.comparator.SearchFieldDataComparator;
 import com.czertainly.core.dao.entity.*;
 import com.czertainly.core.dao.repository.*;
@@ -34,6 +36,7 @@ import com.czertainly.core.enums.FilterField;
 import com.czertainly.core.messaging.model.NotificationRecipient;
 import com.czertainly.core.messaging.jms.producers.NotificationProducer;
 import com.czertainly.core.model.auth.ResourceAction;
+import com.czertainly.core.model.discovery.DiscoveredPublicKeys;
 import com.czertainly.core.security.authn.client.UserManagementApiClient;
 import com.czertainly.core.security.authz.ExternalAuthorization;
 import com.czertainly.core.security.authz.ObjectFilterAspect;
@@ -42,15 +45,19 @@ import com.czertainly.core.security.authz.SecuredUUID;
 import com.czertainly.core.security.authz.SecurityFilter;
 import com.czertainly.core.service.*;
 import com.czertainly.core.util.*;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import jakarta.persistence.criteria.CriteriaBuilder;
 import jakarta.persistence.criteria.CriteriaQuery;
 import jakarta.persistence.criteria.Predicate;
 import jakarta.persistence.criteria.Root;
 import org.apache.commons.lang3.function.TriFunction;
+import org.hibernate.Session;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.AuditorAware;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.lang.NonNull;
@@ -65,6 +72,7 @@ import org.springframework.transaction.support.DefaultTransactionDefinition;
 import java.nio.charset.StandardCharsets;
 import java.security.NoSuchAlgorithmException;
 import java.security.PublicKey;
+import java.sql.PreparedStatement;
 import java.time.LocalDateTime;
 import java.util.*;
 import java.util.stream.Collectors;
@@ -78,6 +86,21 @@ public class CryptographicKeyServiceImpl implements CryptographicKeyService {
 
     private static final Logger logger = LoggerFactory.getLogger(CryptographicKeyServiceImpl.class);
 
+    private static final int MAX_FINGERPRINTS_PER_QUERY = 1000;
+
+    private static final String INSERT_PUBLIC_KEY_WITH_FINGERPRINT_CONFLICT_RESOLVE = """
+            WITH inserted_item AS (
+                INSERT INTO cryptographic_key_item (
+                    uuid, name, type, key_uuid, key_algorithm, format, key_data,
+                    state, enabled, length, fingerprint, compliance_status, created_at, updated_at, usage
+                ) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, 0)
+                ON CONFLICT (fingerprint) DO NOTHING
+                RETURNING key_uuid, name
+            )
+            INSERT INTO cryptographic_key (uuid, i_author, i_cre, i_upd, name)
+            SELECT key_uuid, ?, ?, ?, name FROM inserted_item
+            """;
+
     // forbidden usages for the keys -- by key type and by key algorithm
     private static final Map<KeyType, List<KeyUsage>> FORBIDDEN_TYPE_USAGES = Map.of(
             KeyType.PRIVATE_KEY, List.of(KeyUsage.VERIFY, KeyUsage.ENCRYPT, KeyUsage.WRAP),
@@ -96,8 +119,12 @@ public class CryptographicKeyServiceImpl implements CryptographicKeyService {
     @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:500}")
     private int bulkDeleteBatchSize;
 
+    @PersistenceContext
+    private EntityManager entityManager;
+
     private PlatformTransactionManager transactionManager;
     private ObjectFilterAspect objectFilterAspect;
+    private AuditorAware<String> auditorAware;
 
     // --------------------------------------------------------------------------------
     // Services & API Clients
@@ -126,6 +153,11 @@ public class CryptographicKeyServiceImpl implements CryptographicKeyService {
         this.transactionManager = transactionManager;
     }
 
+    @Autowired
+    public void setAuditorAware(AuditorAware<String> auditorAware) {
+        this.auditorAware = auditorAware;
+    }
+
     @Autowired
     public void setObjectFilterAspect(ObjectFilterAspect objectFilterAspect) {
         this.objectFilterAspect = objectFilterAspect;
@@ -289,11 +321,16 @@ public class CryptographicKeyServiceImpl implements CryptographicKeyService {
     public KeyDetailDto getKey(SecuredUUID uuid) throws NotFoundException {
         CryptographicKey key = checkKeyRequestToken(uuid.getValue(), "get detail of", true, true);
         KeyDetailDto dto = key.mapToDetailDto();
+        // key and its items share the object type, so content of all of them is loaded at once
+        List<UUID> objectUuids = new ArrayList<>();
+        objectUuids.add(key.getUuid());
+        dto.getItems().forEach(k -> objectUuids.add(UUID.fromString(k.getUuid())));
+        ObjectsAttributesContent attributesContent = attributeEngine.loadObjectsAttributesContent(Resource.CRYPTOGRAPHIC_KEY, objectUuids);
         if (key.getTokenInstanceReferenceUuid() != null) {
-            dto.setAttributes(attributeEngine.getObjectDataAttributesContent(key.getTokenInstanceReference().getConnectorUuid(), null, Resource.CRYPTOGRAPHIC_KEY, key.getUuid()));
+            dto.setAttributes(attributeEngine.getObjectDataAttributesContent(attributesContent, key.getTokenInstanceReference().getConnectorUuid(), null, null, key.getUuid()));
         }
-        dto.setCustomAttributes(attributeEngine.getObjectCustomAttributesContent(Resource.CRYPTOGRAPHIC_KEY, key.getUuid()));
-        dto.getItems().forEach(k -> k.setMetadata(attributeEngine.getMappedMetadataContent(new ObjectAttributeContentInfo(Resource.CRYPTOGRAPHIC_KEY, UUID.fromString(k.getUuid())))));
+        dto.setCustomAttributes(attributeEngine.getObjectCustomAttributesContent(attributesContent, key.getUuid()));
+        dto.getItems().forEach(k -> k.setMetadata(attributeEngine.getMappedMetadataContent(attributesContent, new ObjectAttributeContentInfo(Resource.CRYPTOGRAPHIC_KEY, UUID.fromString(k.getUuid())))));
         logger.debug("Key details with attributes {}", dto);
         return dto;
     }
@@ -931,6 +968,62 @@ public class CryptographicKeyServiceImpl implements CryptographicKeyService {
         return cryptographicKey.getUuid();
     }
 
+    @Override
+    public int uploadCertificatePublicKeys(Collection<DiscoveredPublicKeys.EncodedPublicKey> publicKeys) {
+        Map<String, DiscoveredPublicKeys.EncodedPublicKey> newKeys = new HashMap<>();
+        publicKeys.forEach(publicKey -> newKeys.put(publicKey.fingerprint(), publicKey));
+        List<String> fingerprints = new ArrayList<>(newKeys.keySet());
+        for (int i = 0; i < fingerprints.size(); i += MAX_FINGERPRINTS_PER_QUERY) {
+            cryptographicKeyItemRepository.findFingerprintsByFingerprintIn(fingerprints.subList(i, Math.min(i + MAX_FINGERPRINTS_PER_QUERY, fingerprints.size()))).forEach(newKeys::remove);
+        }
+        if (newKeys.isEmpty()) {
+            return 0;
+        }
+
+        // key item is inserted first so that no key is created when concurrent upload registered the same fingerprint meanwhile,
+        // foreign key of the item is checked at the end of the statement when the key is already inserted
+        String author = auditorAware.getCurrentAuditor().orElse("system");
+        LocalDateTime now = LocalDateTime.now();
+        return entityManager.unwrap(Session.class).doReturningWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(INSERT_PUBLIC_KEY_WITH_FINGERPRINT_CONFLICT_RESOLVE)) {
+                int batchSize = 0;
+                int insertedCount = 0;
+                for (DiscoveredPublicKeys.EncodedPublicKey publicKey : newKeys.values()) {
+                    statement.setObject(1, UUID.randomUUID());
+                    statement.setString(2, publicKey.name());
+                    statement.setString(3, KeyType.PUBLIC_KEY.name());
+                    statement.setObject(4, UUID.randomUUID());
+                    statement.setString(5, publicKey.keyAlgorithm().name());
+                    statement.setString(6, publicKey.format() == null ? null : publicKey.format().name());
+                    statement.setString(7, publicKey.keyData());
+                    statement.setString(8, KeyState.ACTIVE.name());
+                    statement.setBoolean(9, true);
+                    statement.setInt(10, publicKey.length());
+                    statement.setString(11, publicKey.fingerprint());
+                    statement.setString(12, ComplianceStatus.NOT_CHECKED.name());
+                    statement.setObject(13, now);
+                    statement.setObject(14, now);
+                    statement.setString(15, author);
+                    statement.setObject(16, now);
+                    statement.setObject(17, now);
+                    statement.addBatch();
+                    if (++batchSize == MAX_FINGERPRINTS_PER_QUERY) {
+                        insertedCount += countInserted(statement.executeBatch());
+                        batchSize = 0;
+                    }
+                }
+                if (batchSize > 0) {
+                    insertedCount += countInserted(statement.executeBatch());
+                }
+                return insertedCount;
+            }
+        });
+    }
+
+    private static int countInserted(int[] updateCounts) {
+        return (int) Arrays.stream(updateCounts).filter(count -> count > 0).count();
+    }
+
     @Override
     public NameAndUuidDto getResourceObjectInternal(UUID objectUuid) throws NotFoundException {
         return cryptographicKeyRepository.findResourceObject(objectUuid, CryptographicKey_.name);
@@ -47,6 +47,8 @@ import com.czertainly.core.security.authz.SecuredUUID;
 import com.czertainly.core.security.authz.SecurityFilter;
 import com.czertainly.core.service.*;
 import com.czertainly.core.service.handler.CertificateHandler;
+import com.czertainly.core.service.handler.DiscoveryCompletionWaiter;
+import com.czertainly.core.service.handler.DiscoveryConcurrencyController;
 import com.czertainly.core.tasks.ScheduledJobInfo;
 import com.czertainly.core.util.*;
 import jakarta.persistence.criteria.CriteriaBuilder;
@@ -71,6 +73,7 @@ import org.springframework.transaction.support.DefaultTransactionDefinition;
 import java.security.cert.X509Certificate;
 import java.util.*;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
 
 @Service(Resource.Codes.DISCOVERY)
 @Transactional
@@ -78,8 +81,6 @@ public class DiscoveryServiceImpl implements DiscoveryService {
 
     private static final Logger logger = LoggerFactory.getLogger(DiscoveryServiceImpl.class);
 
-    private static final Semaphore downloadCertSemaphore = new Semaphore(10);
-
     private final DiscoveryProperties discoveryProperties;
 
     private EventProducer eventProducer;
@@ -88,6 +89,8 @@ public class DiscoveryServiceImpl implements DiscoveryService {
 
     private AttributeEngine attributeEngine;
     private CertificateHandler certificateHandler;
+    private DiscoveryCompletionWaiter discoveryCompletionWaiter;
+    private DiscoveryConcurrencyController discoveryConcurrencyController;
 
     private TriggerService triggerService;
     private DiscoveryRepository discoveryRepository;
@@ -130,6 +133,16 @@ public class DiscoveryServiceImpl implements DiscoveryService {
         this.certificateHandler = certificateHandler;
     }
 
+    @Autowired
+    public void setDiscoveryCompletionWaiter(DiscoveryCompletionWaiter discoveryCompletionWaiter) {
+        this.discoveryCompletionWaiter = discoveryCompletionWaiter;
+    }
+
+    @Autowired
+    public void setDiscoveryConcurrencyController(DiscoveryConcurrencyController discoveryConcurrencyController) {
+        this.discoveryConcurrencyController = discoveryConcurrencyController;
+    }
+
     @Autowired
     public void setDiscoveryRepository(DiscoveryRepository discoveryRepository) {
         this.discoveryRepository = discoveryRepository;
@@ -349,25 +362,80 @@ public class DiscoveryServiceImpl implements DiscoveryService {
             return finalizeDiscoveryInTx(context, false, null);
         }
 
-        // discover certificates by provider
+        // start discovery at provider
         DiscoveryProviderDto providerResponse;
         try {
-            providerResponse = discoverCertificatesByProvider(context);
-            if (context.getConnectorCertificatesDiscovered() == 0) {
-                context.setDiscoveryStatus(DiscoveryStatus.COMPLETED);
-                return finalizeDiscoveryInTx(context, true, "No certificates discovered at provider");
+            providerResponse = startDiscoveryAtProvider(context);
+        } catch (Exception e) {
+            return handleDiscoveryAtProviderFailure(context, e);
+        }
+
+        // wait for completion of discovery at provider, polls and completion signals are handled by shared scheduler
+        if (providerResponse.getStatus() == DiscoveryStatus.IN_PROGRESS) {
+            DiscoverySyncApiClient discoveryApiClient = connectorApiFactory.getDiscoveryApiClient(context.getConnectorDto());
+            DiscoveryDataRequestDto getRequest = getDiscoveryDataRequest(providerResponse.getName(), discovery.getKind(), 1);
+            String providerDiscoveryUuid = providerResponse.getUuid();
+            CompletableFuture<DiscoveryProviderDto> completion = discoveryCompletionWaiter.awaitCompletion(providerDiscoveryUuid,
+                    () -> pollDiscoveryAtProvider(context, discoveryApiClient, getRequest, providerDiscoveryUuid));
+
+            if (discoveryProperties.asyncCompletion()) {
+                context.setScheduledJobInfo(scheduledJobInfo);
+                context.setDiscoveryStatus(DiscoveryStatus.IN_PROGRESS);
+                context.setConnectorDiscoveryStatus(DiscoveryStatus.IN_PROGRESS);
+                context.setMessage("Waiting for discovery to be completed at provider.");
+                updateDiscoveryStateInTx(context, false);
+                completion.whenComplete((response, e) -> {
+                    try {
+                        if (e != null) {
+                            handleDiscoveryAtProviderFailure(context, e instanceof CompletionException && e.getCause() != null ? e.getCause() : e);
+                        } else {
+                            processCompletedDiscovery(context, response, scheduledJobInfo);
+                        }
+                    } catch (Exception ex) {
+                        logger.error("Unable to process discovery '{}' completed at provider: {}", discovery.getName(), ex.getMessage(), ex);
+                    }
+                });
+                logger.debug("Discovery will be processed asynchronously after completion at provider: name={}, uuid={}", discovery.getName(), discovery.getUuid());
+                return discovery.mapToDto();
             }
-            updateDiscoveryStateInTx(context, true);
-        } catch (DiscoveryException e) {
+
+            try {
+                providerResponse = completion.get();
+            } catch (ExecutionException e) {
+                return handleDiscoveryAtProviderFailure(context, e.getCause());
+            } catch (InterruptedException e) {
+                completion.cancel(false);
+                return handleDiscoveryAtProviderFailure(context, e);
+            }
+        }
+
+        return processCompletedDiscovery(context, providerResponse, scheduledJobInfo);
+    }
+
+    private DiscoveryHistoryDetailDto handleDiscoveryAtProviderFailure(DiscoveryContext context, Throwable e) {
+        if (e instanceof DiscoveryException) {
             logger.error(e.getMessage());
-            return finalizeDiscoveryInTx(context, true, null);
-        } catch (Exception e) {
-            logger.error("Error in discovery '{}' at provider: {}", discovery.getName(), e.getMessage());
+        } else {
+            logger.error("Error in discovery '{}' at provider: {}", context.getDiscoveryHistory().getName(), e.getMessage());
             context.setDiscoveryFailed("Error in provider during discovery: " + e.getMessage());
             if (e instanceof InterruptedException) {
                 Thread.currentThread().interrupt();
             }
-            return finalizeDiscoveryInTx(context, true, null);
+        }
+        return finalizeDiscoveryInTx(context, true, null);
+    }
+
+    private DiscoveryHistoryDetailDto processCompletedDiscovery(DiscoveryContext context, DiscoveryProviderDto providerResponse, ScheduledJobInfo scheduledJobInfo) {
+        DiscoveryHistory discovery = context.getDiscoveryHistory();
+        try {
+            completeDiscoveryAtProvider(context, providerResponse);
+            if (context.getConnectorCertificatesDiscovered() == 0) {
+                context.setDiscoveryStatus(DiscoveryStatus.COMPLETED);
+                return finalizeDiscoveryInTx(context, true, "No certificates discovered at provider");
+            }
+            updateDiscoveryStateInTx(context, true);
+        } catch (Exception e) {
+            return handleDiscoveryAtProviderFailure(context, e);
         }
 
         // download and create discovered certificates
@@ -461,7 +529,7 @@ public class DiscoveryServiceImpl implements DiscoveryService {
         return discoveryContext;
     }
 
-    private DiscoveryProviderDto discoverCertificatesByProvider(final DiscoveryContext context) throws InterruptedException, DiscoveryException {
+    private DiscoveryProviderDto startDiscoveryAtProvider(final DiscoveryContext context) throws DiscoveryException {
         DiscoveryHistory discovery = context.getDiscoveryHistory();
 
         DiscoveryRequestDto dtoRequest = new DiscoveryRequestDto();
@@ -487,45 +555,46 @@ public class DiscoveryServiceImpl implements DiscoveryService {
             throw new DiscoveryException(discovery.getName(), context.getMessage());
         }
 
-        DiscoveryDataRequestDto getRequest = new DiscoveryDataRequestDto();
-        getRequest.setName(response.getName());
-        getRequest.setKind(discovery.getKind());
-        getRequest.setPageNumber(1);
-        getRequest.setItemsPerPage(discoveryProperties.maxCertificatesPerPage());
-
-        boolean isReachedMaxTime = false;
-        while (response.getStatus() == DiscoveryStatus.IN_PROGRESS) {
-            logger.debug("Waiting {}ms for discovery to be completed: name={}, uuid={}", discoveryProperties.sleepTimeMs(), discovery.getName(), discovery.getUuid());
-            Thread.sleep(discoveryProperties.sleepTimeMs());
+        return response;
+    }
 
-            try {
-                response = discoveryApiClient.getDiscoveryData(context.getConnectorDto(), getRequest, response.getUuid());
-            } catch (ConnectorException e) {
-                context.setDiscoveryFailed("Discovery has failed on connector side while waiting for completion");
-                throw new DiscoveryException(discovery.getName(), context.getMessage());
-            }
+    private DiscoveryProviderDto pollDiscoveryAtProvider(final DiscoveryContext context, DiscoverySyncApiClient discoveryApiClient, DiscoveryDataRequestDto getRequest, String providerDiscoveryUuid) throws DiscoveryException {
+        DiscoveryHistory discovery = context.getDiscoveryHistory();
 
-            logger.debug("Discovery response: name={}, uuid={}, status={}, total={}", discovery.getName(), discovery.getUuid(), response.getStatus(), response.getTotalCertificatesDiscovered());
+        DiscoveryProviderDto response;
+        try {
+            response = discoveryApiClient.getDiscoveryData(context.getConnectorDto(), getRequest, providerDiscoveryUuid);
+        } catch (ConnectorException e) {
+            context.setDiscoveryFailed("Discovery has failed on connector side while waiting for completion");
+            throw new DiscoveryException(discovery.getName(), context.getMessage());
+        }
 
-            long secondsElapsed = (new Date().getTime() - discovery.getStartTime().getTime()) / 1000;
-            if (!isReachedMaxTime && secondsElapsed > discoveryProperties.maxWaitTimeSeconds()) {
-                isReachedMaxTime = true;
+        logger.debug("Discovery response: name={}, uuid={}, status={}, total={}", discovery.getName(), discovery.getUuid(), response.getStatus(), response.getTotalCertificatesDiscovered());
+        if (response.getStatus() != DiscoveryStatus.IN_PROGRESS) {
+            return response;
+        }
 
-                context.setDiscoveryStatus(DiscoveryStatus.WARNING);
-                context.setConnectorDiscoveryStatus(response.getStatus());
-                context.setConnectorCertificatesDiscovered(response.getTotalCertificatesDiscovered());
-                context.setMessage("Discovery exceeded maximum time of %d hours. Please abort the discovery if the provider is stuck in state '%s'."
-                        .formatted((int) (discoveryProperties.maxWaitTimeSeconds() / (60 * 60)), DiscoveryStatus.IN_PROGRESS.getLabel()));
-                updateDiscoveryStateInTx(context, false);
-            } else if (isReachedMaxTime && secondsElapsed > 2 * discoveryProperties.maxWaitTimeSeconds()) {
-                context.setDiscoveryStatus(DiscoveryStatus.FAILED);
-                context.setConnectorDiscoveryStatus(response.getStatus());
-                context.setConnectorCertificatesDiscovered(response.getTotalCertificatesDiscovered());
-                context.setMessage("Discovery exceeded maximum time limit and is marked as failed.");
-                throw new DiscoveryException(discovery.getName(), context.getMessage());
-            }
+        long secondsElapsed = (new Date().getTime() - discovery.getStartTime().getTime()) / 1000;
+        boolean isReachedMaxTime = context.getDiscoveryStatus() == DiscoveryStatus.WARNING;
+        if (!isReachedMaxTime && secondsElapsed > discoveryProperties.maxWaitTimeSeconds()) {
+            context.setDiscoveryStatus(DiscoveryStatus.WARNING);
+            context.setConnectorDiscoveryStatus(response.getStatus());
+            context.setConnectorCertificatesDiscovered(response.getTotalCertificatesDiscovered());
+            context.setMessage("Discovery exceeded maximum time of %d hours. Please abort the discovery if the provider is stuck in state '%s'."
+                    .formatted((int) (discoveryProperties.maxWaitTimeSeconds() / (60 * 60)), DiscoveryStatus.IN_PROGRESS.getLabel()));
+            updateDiscoveryStateInTx(context, false);
+        } else if (isReachedMaxTime && secondsElapsed > 2 * discoveryProperties.maxWaitTimeSeconds()) {
+            context.setDiscoveryStatus(DiscoveryStatus.FAILED);
+            context.setConnectorDiscoveryStatus(response.getStatus());
+            context.setConnectorCertificatesDiscovered(response.getTotalCertificatesDiscovered());
+            context.setMessage("Discovery exceeded maximum time limit and is marked as failed.");
+            throw new DiscoveryException(discovery.getName(), context.getMessage());
         }
+        return response;
+    }
 
+    private void completeDiscoveryAtProvider(final DiscoveryContext context, DiscoveryProviderDto response) throws DiscoveryException {
+        DiscoveryHistory discovery = context.getDiscoveryHistory();
         if (response.getTotalCertificatesDiscovered() == 0 && response.getStatus() == DiscoveryStatus.FAILED) {
             context.setMetadata(response.getMeta());
             context.setDiscoveryFailed("Discovery has failed on connector side without any certificates found.");
@@ -537,7 +606,15 @@ public class DiscoveryServiceImpl implements DiscoveryService {
         context.setMetadata(response.getMeta());
         context.setMessage("Discovery completed at provider.");
         context.setConnectorCertificatesDiscovered(response.getTotalCertificatesDiscovered());
-        return response;
+    }
+
+    private DiscoveryDataRequestDto getDiscoveryDataRequest(String name, String kind, int pageNumber) {
+        DiscoveryDataRequestDto getRequest = new DiscoveryDataRequestDto();
+        getRequest.setName(name);
+        getRequest.setKind(kind);
+        getRequest.setPageNumber(pageNumber);
+        getRequest.setItemsPerPage(discoveryProperties.maxCertificatesPerPage());
+        return getRequest;
     }
 
     private void downloadDiscoveredCertificates(final DiscoveryContext context, DiscoveryProviderDto response, List<DiscoveryProviderCertificateDataDto> duplicateCertificates) throws DiscoveryException {
@@ -553,18 +630,38 @@ public class DiscoveryServiceImpl implements DiscoveryService {
 
         List<Future<?>> futures = new ArrayList<>();
         Set<String> uniqueCertificateContents = new HashSet<>();
+        AtomicInteger downloadedCount = new AtomicInteger();
         DiscoverySyncApiClient discoveryApiClient = connectorApiFactory.getDiscoveryApiClient(context.getConnectorDto());
-        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+        // run is closed after the executor waits for the submitted batches
+        try (DiscoveryConcurrencyController.DiscoveryRun run = discoveryConcurrencyController.startDownload(discovery.getUuid(), discovery.getConnectorUuid(), discoveryProperties.maxParallelism());
+             ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            // pages are downloaded sequentially, provider permit only waits for requests of other discoveries to the same provider
             while (currentTotal < response.getTotalCertificatesDiscovered()) {
                 getRequest.setPageNumber(currentPage);
                 getRequest.setItemsPerPage(discoveryProperties.maxCertificatesPerPage());
+                DiscoveryConcurrencyController.Permit providerPermit;
+                try {
+                    providerPermit = run.acquireProvider();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw handleDownloadInterrupted(context, futures, e);
+                }
+                ConnectorException requestFailure = null;
+                boolean requestSucceeded = false;
                 try {
                     response = discoveryApiClient.getDiscoveryData(context.getConnectorDto(), getRequest, response.getUuid());
+                    requestSucceeded = true;
                 } catch (ConnectorException e) {
+                    requestFailure = e;
+                } finally {
+                    // permit is released also when the request fails by unexpected exception
+                    providerPermit.release(requestSucceeded);
+                }
+                if (requestFailure != null) {
                     handleDiscoveredCertificatesBatch(futures, discovery.getName());
                     context.setDiscoveryStatus(DiscoveryStatus.WARNING);
                     context.setMessage("Discovery has failed on connector side while downloading certificates.");
-                    throw new DiscoveryException(discovery.getName(), context.getMessage(), e);
+                    throw new DiscoveryException(discovery.getName(), context.getMessage(), requestFailure);
                 }
 
                 if (response.getCertificateData().isEmpty()) {
@@ -580,14 +677,20 @@ public class DiscoveryServiceImpl implements DiscoveryService {
                     throw new DiscoveryException(discovery.getName(), context.getMessage());
                 }
 
-                futures.add(downloadDiscoveredCertificatesBatchAsync(discovery, response, context.getConnectorDto(), uniqueCertificateContents, duplicateCertificates, executor, currentPage));
+                // waiting for storage permit here holds back downloading of next pages while the batches are stored
+                DiscoveryConcurrencyController.Permit storagePermit;
+                try {
+                    logger.trace("Waiting to download batch {} of discovered certificates for discovery {}.", currentPage, discovery.getName());
+                    storagePermit = run.acquireStorage();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw handleDownloadInterrupted(context, futures, e);
+                }
+                futures.removeIf(Future::isDone);
+                futures.add(downloadDiscoveredCertificatesBatchAsync(discovery, response, context.getConnectorDto(), uniqueCertificateContents, duplicateCertificates, downloadedCount, executor, currentPage, storagePermit));
 
                 ++currentPage;
                 currentTotal += response.getCertificateData().size();
-
-                if (futures.size() >= discoveryProperties.maxParallelism()) {
-                    handleDiscoveredCertificatesBatch(futures, discovery.getName());
-                }
             }
 
             // Wait for all tasks to complete
@@ -597,7 +700,17 @@ public class DiscoveryServiceImpl implements DiscoveryService {
         }
     }
 
-    private Future<?> downloadDiscoveredCertificatesBatchAsync(final DiscoveryHistory discovery, final DiscoveryProviderDto response, final ConnectorDto connector, final Set<String> uniqueCertificateContents, final List<DiscoveryProviderCertificateDataDto> duplicateCertificates, final ExecutorService executor, final int currentPage) {
+    private DiscoveryException handleDownloadInterrupted(DiscoveryContext context, List<Future<?>> futures, InterruptedException e) {
+        String discoveryName = context.getDiscoveryHistory().getName();
+        logger.error("Downloading discovered certificates for discovery {} interrupted.", discoveryName, e);
+        futures.forEach(future -> future.cancel(true));
+        futures.clear();
+        context.setDiscoveryStatus(DiscoveryStatus.WARNING);
+        context.setMessage("Downloading of discovered certificates has been interrupted.");
+        return new DiscoveryException(discoveryName, context.getMessage(), e);
+    }
+
+    private Future<?> downloadDiscoveredCertificatesBatchAsync(final DiscoveryHistory discovery, final DiscoveryProviderDto response, final ConnectorDto connector, final Set<String> uniqueCertificateContents, final List<DiscoveryProviderCertificateDataDto> duplicateCertificates, final AtomicInteger downloadedCount, final ExecutorService executor, final int currentPage, final DiscoveryConcurrencyController.Permit storagePermit) {
         // categorize certs and collect metadata definitions
         List<MetadataAttribute> metadataDefinitions = new ArrayList<>();
         Map<String, Set<AttributeContent>> metadataContentsMapping = new HashMap<>();
@@ -627,20 +740,16 @@ public class DiscoveryServiceImpl implements DiscoveryService {
 
         // run in separate virtual thread and continue
         return executor.submit(() -> {
+            boolean success = false;
             try {
-                logger.trace("Waiting to download batch {} of discovered certificates for discovery {}.", currentPage, discovery.getName());
-                downloadCertSemaphore.acquire();
                 logger.trace("Downloading batch {} of discovered certificates for discovery {}.", currentPage, discovery.getName());
-
-                certificateHandler.createDiscoveredCertificate(String.valueOf(currentPage), discovery, discoveredCertificates);
-            } catch (InterruptedException e) {
-                logger.error("Downloading batch {} of discovered certificates for discovery {} interrupted.", currentPage, discovery.getName(), e);
-                Thread.currentThread().interrupt();
+                certificateHandler.createDiscoveredCertificate(String.valueOf(currentPage), discovery, discoveredCertificates, downloadedCount);
+                success = true;
             } catch (Exception e) {
                 logger.error("Downloading batch {} of discovered certificates for discovery {} failed.", currentPage, discovery.getName(), e);
             } finally {
-                logger.trace("Downloading batch {} of discovered certificates for discovery {} finalized. Released semaphore.", currentPage, discovery.getName());
-                downloadCertSemaphore.release();
+                logger.trace("Downloading batch {} of discovered certificates for discovery {} finalized. Released storage permit.", currentPage, discovery.getName());
+                storagePermit.release(success);
             }
         });
     }
@@ -700,7 +809,7 @@ public class DiscoveryServiceImpl implements DiscoveryService {
         transactionManager.commit(transaction);
 
         DiscoveryHistoryDetailDto discoveryDto = discovery.mapToDto();
-        eventProducer.produceMessage(DiscoveryFinishedEventHandler.constructEventMessage(discovery.getUuid(), discoveryContext.getLoggedUserUuid(), null, new DiscoveryResult(discovery.getStatus(), discovery.getMessage())));
+        eventProducer.produceMessage(DiscoveryFinishedEventHandler.constructEventMessage(discovery.getUuid(), discoveryContext.getLoggedUserUuid(), discoveryContext.getScheduledJobInfo(), new DiscoveryResult(discovery.getStatus(), discovery.getMessage())));
         return discoveryDto;
     }
 
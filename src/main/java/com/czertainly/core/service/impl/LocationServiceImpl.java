@@ -32,6 +32,7 @@ import com.czertainly.api.model.core.v2.ClientCertificateRenewRequestDto;
 import com.czertainly.api.model.core.v2.ClientCertificateSignRequestDto;
 import com.czertainly.core.attribute.engine.AttributeEngine;
 import com.czertainly.core.attribute.engine.records.ObjectAttributeContentInfo;
+import com.czertainly.core.attribute.engine.records.ObjectsAttributesContent;
 import com.czertainly.core.comparator.SearchFieldDataComparator;
 import com.czertainly.core.dao.entity.*;
 import com.czertainly.core.dao.repository.*;
@@ -204,7 +205,7 @@ public class LocationServiceImpl implements LocationService {
         locationDto.setMetadata(attributeEngine.getMappedMetadataContent(new ObjectAttributeContentInfo(Resource.LOCATION, location.getUuid())));
         locationDto.setCustomAttributes(attributeEngine.updateObjectCustomAttributesContent(Resource.LOCATION, location.getUuid(), dto.getCustomAttributes()));
         locationDto.setAttributes(attributeEngine.updateObjectDataAttributesContent(entityInstanceRef.getConnectorUuid(), null, Resource.LOCATION, location.getUuid(), dto.getAttributes()));
-        locationDto.getCertificates().forEach(e -> e.setMetadata(attributeEngine.getMappedMetadataContent(new ObjectAttributeContentInfo(entityInstanceRef.getConnectorUuid(), Resource.CERTIFICATE, UUID.fromString(e.getCertificateUuid()), Resource.LOCATION, location.getUuid()))));
+        setCertificatesMetadata(locationDto.getCertificates(), entityInstanceRef.getConnectorUuid(), location.getUuid());
 
         return locationDto;
     }
@@ -215,10 +216,11 @@ public class LocationServiceImpl implements LocationService {
         Location location = locationRepository.findByUuid(locationUuid)
                 .orElseThrow(() -> new NotFoundException(Location.class, locationUuid));
         LocationDto dto = mapLocationToDto(location);
-        dto.setMetadata(attributeEngine.getMappedMetadataContent(new ObjectAttributeContentInfo(Resource.LOCATION, location.getUuid())));
-        dto.setCustomAttributes(attributeEngine.getObjectCustomAttributesContent(Resource.LOCATION, location.getUuid()));
-        dto.setAttributes(attributeEngine.getObjectDataAttributesContent(location.getEntityInstanceReference().getConnectorUuid(), null, Resource.LOCATION, location.getUuid()));
-        dto.getCertificates().forEach(e -> e.setMetadata(attributeEngine.getMappedMetadataContent(new ObjectAttributeContentInfo(Resource.CERTIFICATE, UUID.fromString(e.getCertificateUuid()), Resource.LOCATION, location.getUuid()))));
+        ObjectsAttributesContent attributesContent = attributeEngine.loadObjectsAttributesContent(Resource.LOCATION, List.of(location.getUuid()));
+        dto.setMetadata(attributeEngine.getMappedMetadataContent(attributesContent, new ObjectAttributeContentInfo(Resource.LOCATION, location.getUuid())));
+        dto.setCustomAttributes(attributeEngine.getObjectCustomAttributesContent(attributesContent, location.getUuid()));
+        dto.setAttributes(attributeEngine.getObjectDataAttributesContent(attributesContent, location.getEntityInstanceReference().getConnectorUuid(), null, null, location.getUuid()));
+        setCertificatesMetadata(dto.getCertificates(), null, location.getUuid());
         return dto;
     }
 
@@ -248,7 +250,7 @@ public class LocationServiceImpl implements LocationService {
         locationDto.setMetadata(attributeEngine.getMappedMetadataContent(new ObjectAttributeContentInfo(Resource.LOCATION, updatedLocationUuid)));
         locationDto.setCustomAttributes(attributeEngine.updateObjectCustomAttributesContent(Resource.LOCATION, updatedLocationUuid, dto.getCustomAttributes()));
         locationDto.setAttributes(attributeEngine.updateObjectDataAttributesContent(entityInstanceRef.getConnectorUuid(), null, Resource.LOCATION, updatedLocationUuid, dto.getAttributes()));
-        locationDto.getCertificates().forEach(e -> e.setMetadata(attributeEngine.getMappedMetadataContent(new ObjectAttributeContentInfo(entityInstanceRef.getConnectorUuid(), Resource.CERTIFICATE, UUID.fromString(e.getCertificateUuid()), Resource.LOCATION, updatedLocationUuid))));
+        setCertificatesMetadata(locationDto.getCertificates(), entityInstanceRef.getConnectorUuid(), updatedLocationUuid);
         return locationDto;
     }
 
@@ -371,7 +373,7 @@ public class LocationServiceImpl implements LocationService {
         logger.info("Certificate {} removed from Location {}", certificateUuid, location.getName());
         LocationDto locationDto = mapLocationToDto(location);
         locationDto.setCustomAttributes(attributeEngine.getObjectCustomAttributesContent(Resource.LOCATION, location.getUuid()));
-        locationDto.getCertificates().forEach(e -> e.setMetadata(attributeEngine.getMappedMetadataContent(new ObjectAttributeContentInfo(Resource.CERTIFICATE, UUID.fromString(e.getCertificateUuid()), Resource.LOCATION, location.getUuid()))));
+        setCertificatesMetadata(locationDto.getCertificates(), null, location.getUuid());
         return locationDto;
     }
 
@@ -464,7 +466,7 @@ public class LocationServiceImpl implements LocationService {
 
         final LocationDto dto = mapLocationToDto(location);
         dto.setCustomAttributes(attributeEngine.getObjectCustomAttributesContent(Resource.LOCATION, location.getUuid()));
-        dto.getCertificates().forEach(e -> e.setMetadata(attributeEngine.getMappedMetadataContent(new ObjectAttributeContentInfo(Resource.CERTIFICATE, UUID.fromString(e.getCertificateUuid()), Resource.LOCATION, location.getUuid()))));
+        setCertificatesMetadata(dto.getCertificates(), null, location.getUuid());
         return dto;
     }
 
@@ -588,7 +590,7 @@ public class LocationServiceImpl implements LocationService {
 
         LocationDto locationDto = mapLocationToDto(location);
         locationDto.setCustomAttributes(attributeEngine.getObjectCustomAttributesContent(Resource.LOCATION, location.getUuid()));
-        locationDto.getCertificates().forEach(e -> e.setMetadata(attributeEngine.getMappedMetadataContent(new ObjectAttributeContentInfo(Resource.CERTIFICATE, UUID.fromString(e.getCertificateUuid()), Resource.LOCATION, location.getUuid()))));
+        setCertificatesMetadata(locationDto.getCertificates(), null, location.getUuid());
         return locationDto;
     }
 
@@ -627,7 +629,7 @@ public class LocationServiceImpl implements LocationService {
         UUID syncedLocationUuid = location.getUuid();
         LocationDto locationDto = mapLocationToDto(location);
         locationDto.setCustomAttributes(attributeEngine.getObjectCustomAttributesContent(Resource.LOCATION, syncedLocationUuid));
-        locationDto.getCertificates().forEach(e -> e.setMetadata(attributeEngine.getMappedMetadataContent(new ObjectAttributeContentInfo(entityInstanceRef.getConnectorUuid(), Resource.CERTIFICATE, UUID.fromString(e.getCertificateUuid()), Resource.LOCATION, syncedLocationUuid))));
+        setCertificatesMetadata(locationDto.getCertificates(), entityInstanceRef.getConnectorUuid(), syncedLocationUuid);
 
         return locationDto;
     }
@@ -700,11 +702,16 @@ public class LocationServiceImpl implements LocationService {
 
         LocationDto locationDto = mapLocationToDto(location);
         locationDto.setCustomAttributes(attributeEngine.getObjectCustomAttributesContent(Resource.LOCATION, location.getUuid()));
-        locationDto.getCertificates().forEach(e -> e.setMetadata(attributeEngine.getMappedMetadataContent(new ObjectAttributeContentInfo(Resource.CERTIFICATE, UUID.fromString(e.getCertificateUuid()), Resource.LOCATION, location.getUuid()))));
+        setCertificatesMetadata(locationDto.getCertificates(), null, location.getUuid());
 
         return locationDto;
     }
 
+    private void setCertificatesMetadata(List<CertificateInLocationDto> certificates, UUID connectorUuid, UUID locationUuid) {
+        ObjectsAttributesContent attributesContent = attributeEngine.loadObjectsAttributesContent(Resource.CERTIFICATE, certificates.stream().map(e -> UUID.fromString(e.getCertificateUuid())).toList(), AttributeType.META);
+        certificates.forEach(e -> e.setMetadata(attributeEngine.getMappedMetadataContent(attributesContent, new ObjectAttributeContentInfo(connectorUuid, Resource.CERTIFICATE, UUID.fromString(e.getCertificateUuid()), Resource.LOCATION, locationUuid))));
+    }
+
     private LocationDto mapLocationToDto(Location location) {
         LocationDto locationDto = location.mapToDto();
         for (CertificateLocation certificateLocation : location.getCertificates()) {
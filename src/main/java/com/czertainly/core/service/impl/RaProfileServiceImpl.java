@@ -37,6 +37,9 @@ import com.czertainly.core.service.v2.ComplianceProfileService;
 import com.czertainly.core.service.ComplianceService;
 import com.czertainly.core.service.PermissionEvaluator;
 import com.czertainly.core.service.RaProfileService;
+import com.czertainly.core.service.acme.AcmeContextCache;
+import com.czertainly.core.service.cmp.configurations.CmpContextCache;
+import com.czertainly.core.service.scep.ScepContextCache;
 import com.czertainly.core.service.model.SecuredList;
 import com.czertainly.core.service.v2.ExtendedAttributeService;
 import com.czertainly.core.util.AttributeDefinitionUtils;
@@ -78,6 +81,9 @@ public class RaProfileServiceImpl implements RaProfileService {
     private ApprovalProfileRelationRepository approvalProfileRelationRepository;
     private CertificateContentRepository certificateContentRepository;
     private ApprovalProfileService approvalProfileService;
+    private AcmeContextCache acmeContextCache;
+    private ScepContextCache scepContextCache;
+    private CmpContextCache cmpContextCache;
 
     @Override
     @ExternalAuthorization(resource = Resource.RA_PROFILE, action = ResourceAction.LIST, parentResource = Resource.AUTHORITY, parentAction = ResourceAction.LIST)
@@ -207,6 +213,9 @@ public class RaProfileServiceImpl implements RaProfileService {
 
         entity.setEnabled(true);
         raProfileRepository.save(entity);
+        acmeContextCache.invalidateProfiles();
+        scepContextCache.invalidateProfiles();
+        cmpContextCache.invalidateProfiles();
     }
 
     @Override
@@ -217,6 +226,9 @@ public class RaProfileServiceImpl implements RaProfileService {
 
         entity.setEnabled(false);
         raProfileRepository.save(entity);
+        acmeContextCache.invalidateProfiles();
+        scepContextCache.invalidateProfiles();
+        cmpContextCache.invalidateProfiles();
     }
 
     @Override
@@ -241,6 +253,9 @@ public class RaProfileServiceImpl implements RaProfileService {
 
                 entity.setEnabled(false);
                 raProfileRepository.save(entity);
+                acmeContextCache.invalidateProfiles();
+                scepContextCache.invalidateProfiles();
+                cmpContextCache.invalidateProfiles();
             } catch (NotFoundException e) {
                 logger.warn("Unable to disable RA Profile with uuid {}. It may have been deleted", uuid);
             }
@@ -257,6 +272,9 @@ public class RaProfileServiceImpl implements RaProfileService {
 
                 entity.setEnabled(true);
                 raProfileRepository.save(entity);
+                acmeContextCache.invalidateProfiles();
+                scepContextCache.invalidateProfiles();
+                cmpContextCache.invalidateProfiles();
             } catch (NotFoundException e) {
                 logger.warn("Unable to enable RA Profile with uuid {}. It may have been deleted", uuids);
             }
@@ -270,6 +288,7 @@ public class RaProfileServiceImpl implements RaProfileService {
                 uuids.stream().map(SecuredUUID::getValue).toList());
         raProfiles.forEach(raProfile -> raProfile.setAcmeProfile(null));
         raProfileRepository.saveAll(raProfiles);
+        acmeContextCache.invalidateProfiles();
     }
 
     @Override
@@ -278,6 +297,7 @@ public class RaProfileServiceImpl implements RaProfileService {
                 uuids.stream().map(SecuredUUID::getValue).toList());
         raProfiles.forEach(raProfile -> raProfile.setScepProfile(null));
         raProfileRepository.saveAll(raProfiles);
+        scepContextCache.invalidateProfiles();
     }
 
     @Override
@@ -311,6 +331,7 @@ public class RaProfileServiceImpl implements RaProfileService {
         raProfile.setAcmeProfile(acmeProfile);
         raProfile.setProtocolAttribute(raProfileProtocolAttribute);
         raProfileRepository.save(raProfile);
+        acmeContextCache.invalidateProfiles();
 
         return raProfile.mapToAcmeDto();
     }
@@ -325,6 +346,7 @@ public class RaProfileServiceImpl implements RaProfileService {
         raProfileProtocolAttribute.setAcmeIssueCertificateAttributes(null);
         raProfile.setProtocolAttribute(raProfileProtocolAttribute);
         raProfileRepository.save(raProfile);
+        acmeContextCache.invalidateProfiles();
     }
 
     @Override
@@ -347,6 +369,7 @@ public class RaProfileServiceImpl implements RaProfileService {
         raProfile.setScepProfile(scepProfile);
         raProfile.setProtocolAttribute(raProfileProtocolAttribute);
         raProfileRepository.save(raProfile);
+        scepContextCache.invalidateProfiles();
 
         return raProfile.mapToScepDto();
     }
@@ -360,6 +383,7 @@ public class RaProfileServiceImpl implements RaProfileService {
         raProfileProtocolAttribute.setScepIssueCertificateAttributes(null);
         raProfile.setProtocolAttribute(raProfileProtocolAttribute);
         raProfileRepository.save(raProfile);
+        scepContextCache.invalidateProfiles();
     }
 
     // -----------------------------------------------------------------------------------------------------------------
@@ -427,6 +451,7 @@ public class RaProfileServiceImpl implements RaProfileService {
         raProfile.setCmpProfile(cmpProfile);
         raProfile.setProtocolAttribute(raProfileProtocolAttribute);
         raProfileRepository.save(raProfile);
+        cmpContextCache.invalidateProfiles();
 
         return raProfile.mapToCmpDto();
     }
@@ -446,6 +471,7 @@ public class RaProfileServiceImpl implements RaProfileService {
         raProfileProtocolAttribute.setCmpIssueCertificateAttributes(null);
         raProfile.setProtocolAttribute(raProfileProtocolAttribute);
         raProfileRepository.save(raProfile);
+        cmpContextCache.invalidateProfiles();
     }
 
     @Override
@@ -461,6 +487,7 @@ public class RaProfileServiceImpl implements RaProfileService {
                 uuids.stream().map(SecuredUUID::getValue).toList());
         raProfiles.forEach(raProfile -> raProfile.setCmpProfile(null));
         raProfileRepository.saveAll(raProfiles);
+        cmpContextCache.invalidateProfiles();
     }
 
     @Override
@@ -709,6 +736,9 @@ public class RaProfileServiceImpl implements RaProfileService {
 
         attributeEngine.deleteAllObjectAttributeContent(Resource.RA_PROFILE, raProfile.getUuid());
         raProfileRepository.delete(raProfile);
+        acmeContextCache.invalidateProfiles();
+        scepContextCache.invalidateProfiles();
+        cmpContextCache.invalidateProfiles();
     }
 
     private void setAuthorityCertificates(AuthorityInstanceReference authorityInstanceRef, RaProfile raProfile) {
@@ -747,6 +777,21 @@ public class RaProfileServiceImpl implements RaProfileService {
     }
 
 
+    @Autowired
+    public void setAcmeContextCache(AcmeContextCache acmeContextCache) {
+        this.acmeContextCache = acmeContextCache;
+    }
+
+    @Autowired
+    public void setScepContextCache(ScepContextCache scepContextCache) {
+        this.scepContextCache = scepContextCache;
+    }
+
+    @Autowired
+    public void setCmpContextCache(CmpContextCache cmpContextCache) {
+        this.cmpContextCache = cmpContextCache;
+    }
+
     @Autowired
     public void setAcmeProfileRepository(AcmeProfileRepository acmeProfileRepository) {
         this.acmeProfileRepository = acmeProfileRepository;
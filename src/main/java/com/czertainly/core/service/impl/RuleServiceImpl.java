@@ -12,6 +12,7 @@ import com.czertainly.core.dao.entity.workflows.Trigger;
 import com.czertainly.core.dao.repository.workflows.ConditionItemRepository;
 import com.czertainly.core.dao.repository.workflows.ConditionRepository;
 import com.czertainly.core.dao.repository.workflows.RuleRepository;
+import com.czertainly.core.evaluator.ConditionItemCompiler;
 import com.czertainly.core.model.auth.ResourceAction;
 import com.czertainly.core.security.authz.ExternalAuthorization;
 import com.czertainly.core.security.authz.SecuredUUID;
@@ -30,6 +31,7 @@ public class RuleServiceImpl implements RuleService {
     private ConditionRepository conditionRepository;
     private ConditionItemRepository conditionItemRepository;
     private RuleRepository ruleRepository;
+    private ConditionItemCompiler conditionItemCompiler;
 
     @Autowired
     public void setConditionRepository(ConditionRepository conditionRepository) {
@@ -46,6 +48,11 @@ public class RuleServiceImpl implements RuleService {
         this.ruleRepository = ruleRepository;
     }
 
+    @Autowired
+    public void setConditionItemCompiler(ConditionItemCompiler conditionItemCompiler) {
+        this.conditionItemCompiler = conditionItemCompiler;
+    }
+
     //region Conditions
 
     @Override
@@ -102,6 +109,7 @@ public class RuleServiceImpl implements RuleService {
 
         Condition condition = conditionRepository.findByUuid(SecuredUUID.fromString(conditionUuid)).orElseThrow(() -> new NotFoundException(Condition.class, conditionUuid));
         conditionItemRepository.deleteAll(condition.getItems());
+        conditionItemCompiler.evict(condition.getItems());
 
         condition.setDescription(request.getDescription());
         condition.setItems(createConditionItems(request.getItems(), condition));
@@ -121,6 +129,7 @@ public class RuleServiceImpl implements RuleService {
         }
 
         conditionRepository.delete(condition);
+        conditionItemCompiler.evict(condition.getItems());
     }
 
     private Set<ConditionItem> createConditionItems(List<ConditionItemRequestDto> conditionItemRequestDtos, Condition condition) {
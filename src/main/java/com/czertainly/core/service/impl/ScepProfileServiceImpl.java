@@ -27,6 +27,7 @@ import com.czertainly.core.security.authz.SecuredUUID;
 import com.czertainly.core.security.authz.SecurityFilter;
 import com.czertainly.core.service.*;
 import com.czertainly.core.service.model.SecuredList;
+import com.czertainly.core.service.scep.ScepContextCache;
 import com.czertainly.core.service.v2.ExtendedAttributeService;
 import com.czertainly.core.util.CertificateUtil;
 import com.czertainly.core.util.ValidatorUtil;
@@ -52,6 +53,7 @@ public class ScepProfileServiceImpl implements ScepProfileService {
     private CertificateService certificateService;
     private AttributeEngine attributeEngine;
     private ProtocolCertificateAssociationsRepository certificateAssociationRepository;
+    private ScepContextCache scepContextCache;
 
     @Autowired
     public void setCertificateAssociationRepository(ProtocolCertificateAssociationsRepository certificateAssociationRepository) {
@@ -83,6 +85,11 @@ public class ScepProfileServiceImpl implements ScepProfileService {
         this.certificateService = certificateService;
     }
 
+    @Autowired
+    public void setScepContextCache(ScepContextCache scepContextCache) {
+        this.scepContextCache = scepContextCache;
+    }
+
     @Override
     @ExternalAuthorization(resource = Resource.SCEP_PROFILE, action = ResourceAction.LIST)
     public List<ScepProfileDto> listScepProfile(SecurityFilter filter) {
@@ -235,6 +242,7 @@ public class ScepProfileServiceImpl implements ScepProfileService {
         scepProfile.setCertificateAssociationsUuid(certificateAssociationUuid);
 
         scepProfile = scepProfileRepository.save(scepProfile);
+        scepContextCache.invalidateProfiles();
 
         return updateAndMapDtoAttributes(
                 scepProfile,
@@ -346,6 +354,7 @@ public class ScepProfileServiceImpl implements ScepProfileService {
         ScepProfile scepProfile = getScepProfileEntity(uuid);
         scepProfile.setRaProfile(getRaProfile(raProfileUuid));
         scepProfileRepository.save(scepProfile);
+        scepContextCache.invalidateProfiles();
     }
 
     @Override
@@ -409,12 +418,14 @@ public class ScepProfileServiceImpl implements ScepProfileService {
         ScepProfile scepProfile = getScepProfileEntity(uuid);
         scepProfile.setEnabled(true);
         scepProfileRepository.save(scepProfile);
+        scepContextCache.invalidateProfiles();
     }
 
     private void disable(SecuredUUID uuid) throws NotFoundException {
         ScepProfile scepProfile = getScepProfileEntity(uuid);
         scepProfile.setEnabled(false);
         scepProfileRepository.save(scepProfile);
+        scepContextCache.invalidateProfiles();
     }
 
     private void deleteScepProfile(ScepProfile scepProfile) {
@@ -432,6 +443,7 @@ public class ScepProfileServiceImpl implements ScepProfileService {
         } else {
             attributeEngine.deleteAllObjectAttributeContent(Resource.SCEP_PROFILE, scepProfile.getUuid());
             scepProfileRepository.delete(scepProfile);
+            scepContextCache.invalidateProfiles();
         }
     }
 }
@@ -264,7 +264,7 @@ public class SecretServiceImpl implements SecretService, AttributeResourceServic
         SecretActionData actionData;
         try {
             actionData = SecretActionData.builder()
-                    .encryptedContent(SecretsUtil.encryptAndEncodeSecretString(MAPPER.writeValueAsString(secretRequest.getSecret()), SecretEncodingVersion.V1))
+                    .encryptedContent(SecretsUtil.encryptAndEncodeSecretString(MAPPER.writeValueAsString(secretRequest.getSecret()), SecretEncodingVersion.LATEST))
                     .name(secretRequest.getName())
                     .attributes(secretRequest.getAttributes())
                     .build();
@@ -336,7 +336,7 @@ public class SecretServiceImpl implements SecretService, AttributeResourceServic
                 try {
                     actionData = SecretActionData.builder()
                             .attributes(secretRequest.getAttributes())
-                            .encryptedContent(SecretsUtil.encryptAndEncodeSecretString(MAPPER.writeValueAsString(secretRequest.getSecret()), SecretEncodingVersion.V1))
+                            .encryptedContent(SecretsUtil.encryptAndEncodeSecretString(MAPPER.writeValueAsString(secretRequest.getSecret()), SecretEncodingVersion.LATEST))
                             .originalState(secret.getState())
                             .build();
                 } catch (JsonProcessingException e) {
@@ -776,13 +776,13 @@ public class SecretServiceImpl implements SecretService, AttributeResourceServic
             case CREATE -> {
                 SecretRequestDto secretRequestDto = new SecretRequestDto();
                 secretRequestDto.setName(secretActionData.name());
-                secretRequestDto.setSecret(MAPPER.readValue(SecretsUtil.decodeAndDecryptSecretString(secretActionData.encryptedContent(), SecretEncodingVersion.V1), SecretContent.class));
+                secretRequestDto.setSecret(MAPPER.readValue(SecretsUtil.decodeAndDecryptSecretString(secretActionData.encryptedContent()), SecretContent.class));
                 secretRequestDto.setAttributes(secretActionData.attributes());
                 createSecretAction(actionMessage.getResourceUuid(), secretRequestDto, isApproved);
             }
             case UPDATE -> {
                 SecretUpdateRequestDto secretUpdateRequestDto = new SecretUpdateRequestDto();
-                secretUpdateRequestDto.setSecret(MAPPER.readValue(SecretsUtil.decodeAndDecryptSecretString(secretActionData.encryptedContent(), SecretEncodingVersion.V1), SecretContent.class));
+                secretUpdateRequestDto.setSecret(MAPPER.readValue(SecretsUtil.decodeAndDecryptSecretString(secretActionData.encryptedContent()), SecretContent.class));
                 secretUpdateRequestDto.setAttributes(secretActionData.attributes());
                 updateSecretAction(actionMessage.getResourceUuid(), secretUpdateRequestDto, isApproved, secretActionData.originalState());
             }
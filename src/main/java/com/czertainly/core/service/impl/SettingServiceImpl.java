@@ -395,7 +395,7 @@ public class SettingServiceImpl implements SettingService {
 
         // if request does not contain client secret, keep old one
         if (settingsDto.getClientSecret() != null && !settingsDto.getClientSecret().isEmpty()) {
-            settingsDto.setClientSecret(SecretsUtil.encryptAndEncodeSecretString(settingsDto.getClientSecret(), SecretEncodingVersion.V1));
+            settingsDto.setClientSecret(SecretsUtil.encryptAndEncodeSecretString(settingsDto.getClientSecret(), SecretEncodingVersion.LATEST));
         } else if (!isNewProvider) {
             OAuth2ProviderSettingsDto storedProviderSettings;
             try {
@@ -0,0 +1,49 @@
+package com.czertainly.core.service.scep;
+
+import com.czertainly.api.exception.ScepException;
+import com.czertainly.core.util.VersionedTtlCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Registry of SCEP profile contexts resolved by SCEP requests, so the profile is not loaded and validated, and its CA certificate,
+ * certificate chain and private key are not prepared on every request.
+ * <p>
+ * Contexts are invalidated when SCEP profiles or RA profiles are written and expire after the configured time to live,
+ * which also bounds how long changes of CA certificate status are not reflected, see {@link VersionedTtlCache}.
+ * Profiles failing validation are not cached.
+ */
+@Component
+public class ScepContextCache {
+
+    private final VersionedTtlCache<ProfileKey, ScepProfileContext> profiles;
+
+    public ScepContextCache(@Value("${scep.context-cache.ttl:30s}") Duration ttl) {
+        this.profiles = new VersionedTtlCache<>("SCEP context", ttl);
+    }
+
+    /**
+     * Gets context of SCEP profile, loading it if not cached
+     *
+     * @param profileName      Name of SCEP profile, or name of RA profile if the request is RA profile based
+     * @param isRaProfileBased True if the SCEP profile is resolved by RA profile
+     * @param loader           Loads and validates context of the profile
+     * @return Cached context
+     * @throws ScepException when the profile cannot be used to process SCEP requests
+     */
+    public ScepProfileContext getProfile(String profileName, boolean isRaProfileBased, VersionedTtlCache.Loader<ScepProfileContext, ScepException> loader) throws ScepException {
+        return profiles.get(new ProfileKey(profileName, isRaProfileBased), loader);
+    }
+
+    /**
+     * Invalidates contexts of all SCEP profiles after SCEP profiles or RA profiles have been written
+     */
+    public void invalidateProfiles() {
+        profiles.invalidateAll();
+    }
+
+    private record ProfileKey(String profileName, boolean isRaProfileBased) {
+    }
+}
@@ -0,0 +1,74 @@
+package com.czertainly.core.service.scep;
+
+import com.czertainly.api.model.client.attribute.RequestAttribute;
+import com.czertainly.api.model.common.enums.cryptography.KeyAlgorithm;
+import com.czertainly.core.provider.CzertainlyProvider;
+import com.czertainly.core.provider.key.CzertainlyPrivateKey;
+
+import java.security.cert.X509Certificate;
+import java.util.List;
+import java.util.Properties;
+import java.util.UUID;
+
+/**
+ * Validated SCEP profile with its RA profile and CA certificate prepared for processing of SCEP requests.
+ * Context is shared by concurrent requests, so it keeps copies of mutable components and returns copies
+ * of the encoded response and Intune configuration.
+ *
+ * @param raProfileBased            True if the profile was resolved by RA profile
+ * @param scepProfileUuid           UUID of SCEP profile
+ * @param scepProfileName           Name of SCEP profile
+ * @param raProfileUuid             UUID of RA profile
+ * @param raProfileName             Name of RA profile
+ * @param authorityInstanceUuid     UUID of authority instance of RA profile
+ * @param caCertificate             CA certificate of SCEP profile, recipient of requests and signer of responses
+ * @param caCertificates            Encoded GetCACert response
+ * @param caCertificatesContentType Content type of GetCACert response
+ * @param privateKey                Private key of CA certificate, null if the key is not available in token
+ * @param provider                  Provider of operations with the private key, null if the key is not available in token
+ * @param keyAlgorithm              Algorithm of the private key
+ * @param challengePassword         Challenge password, null if not required
+ * @param requireManualApproval     True if certificates are only requested and wait for approval
+ * @param includeCaCertificate      True if CA certificate is included in response
+ * @param includeCaCertificateChain True if whole CA certificate chain is included in response
+ * @param renewalThreshold          Renewal threshold in days
+ * @param intuneConfiguration       Configuration of Intune client, null if Intune is not enabled
+ * @param issueAttributes           Attributes of certificate issue operation
+ */
+public record ScepProfileContext(boolean raProfileBased, UUID scepProfileUuid, String scepProfileName,
+                                 UUID raProfileUuid, String raProfileName, UUID authorityInstanceUuid,
+                                 X509Certificate caCertificate, byte[] caCertificates, String caCertificatesContentType,
+                                 CzertainlyPrivateKey privateKey, CzertainlyProvider provider, KeyAlgorithm keyAlgorithm,
+                                 String challengePassword, boolean requireManualApproval, boolean includeCaCertificate,
+                                 boolean includeCaCertificateChain, Integer renewalThreshold, Properties intuneConfiguration,
+                                 List<RequestAttribute> issueAttributes) {
+
+    public ScepProfileContext {
+        caCertificates = caCertificates == null ? null : caCertificates.clone();
+        intuneConfiguration = copyOf(intuneConfiguration);
+        issueAttributes = issueAttributes == null ? List.of() : List.copyOf(issueAttributes);
+    }
+
+    @Override
+    public byte[] caCertificates() {
+        return caCertificates == null ? null : caCertificates.clone();
+    }
+
+    @Override
+    public Properties intuneConfiguration() {
+        return copyOf(intuneConfiguration);
+    }
+
+    public boolean intuneEnabled() {
+        return intuneConfiguration != null;
+    }
+
+    private static Properties copyOf(Properties properties) {
+        if (properties == null) {
+            return null;
+        }
+        Properties copy = new Properties();
+        copy.putAll(properties);
+        return copy;
+    }
+}
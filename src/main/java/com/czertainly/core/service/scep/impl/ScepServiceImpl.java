@@ -34,9 +34,12 @@ import com.czertainly.core.logging.LoggingHelper;
 import com.czertainly.core.model.auth.CertificateProtocolInfo;
 import com.czertainly.core.provider.CzertainlyProvider;
 import com.czertainly.core.provider.key.CzertainlyPrivateKey;
+import com.czertainly.core.security.authz.SecuredParentUUID;
 import com.czertainly.core.security.authz.SecuredUUID;
 import com.czertainly.core.service.CertificateService;
 import com.czertainly.core.service.CryptographicKeyService;
+import com.czertainly.core.service.scep.ScepContextCache;
+import com.czertainly.core.service.scep.ScepProfileContext;
 import com.czertainly.core.service.scep.ScepService;
 import com.czertainly.core.service.scep.message.ScepRequest;
 import com.czertainly.core.service.scep.message.ScepResponse;
@@ -83,7 +86,7 @@ public class ScepServiceImpl implements ScepService {
     public static final String SCEP_OPERATION_PKI_OPERATION = "PKIOperation";
 
     private static final Logger logger = LoggerFactory.getLogger(ScepServiceImpl.class);
-    private static final List<String> SCEP_CA_CAPABILITIES = List.of(
+    private static final String SCEP_CA_CAPABILITIES = String.join(System.lineSeparator(), List.of(
             "POSTPKIOperation",
             "SHA-1",
             "SHA-256",
@@ -92,17 +95,11 @@ public class ScepServiceImpl implements ScepService {
             "AES",
             "Renewal",
             "SCEPStandard"
-    );
+    ));
 
     @Value("${app.version}")
     private String appVersion;
 
-    private List<X509Certificate> caCertificateChain = new ArrayList<>();
-    private X509Certificate recipient;
-    private boolean raProfileBased;
-    private RaProfile raProfile;
-    private List<RequestAttribute> issueAttributes;
-    private ScepProfile scepProfile;
     private RaProfileRepository raProfileRepository;
     private ScepProfileRepository scepProfileRepository;
     private ScepTransactionRepository scepTransactionRepository;
@@ -111,6 +108,7 @@ public class ScepServiceImpl implements ScepService {
     private CryptographicKeyService cryptographicKeyService;
     private ConnectorApiFactory connectorApiFactory;
     private AttributeEngine attributeEngine;
+    private ScepContextCache scepContextCache;
 
     @Autowired
     public void setAttributeEngine(AttributeEngine attributeEngine) {
@@ -152,13 +150,9 @@ public class ScepServiceImpl implements ScepService {
         this.connectorApiFactory = connectorApiFactory;
     }
 
-    public void setRecipient(String certificateContent) {
-        try {
-            this.recipient = CertificateUtil.parseCertificate(certificateContent);
-        } catch (CertificateException e) {
-            // This should not occur
-            throw new IllegalArgumentException("Error converting the certificate to x509 object");
-        }
+    @Autowired
+    public void setScepContextCache(ScepContextCache scepContextCache) {
+        this.scepContextCache = scepContextCache;
     }
 
     @Override
@@ -180,69 +174,127 @@ public class ScepServiceImpl implements ScepService {
     }
 
     private ResponseEntity<Object> service(String profileName, String operation, byte[] message) throws ScepException {
-        init(profileName);
-        validateProfile();
+        boolean raProfileBased = ServletUriComponentsBuilder.fromCurrentRequestUri().build().toUriString().contains("/raProfile/");
+        ScepProfileContext context = scepContextCache.getProfile(profileName, raProfileBased, () -> loadContext(profileName, raProfileBased));
+        LoggingHelper.putLogResourceInfo(Resource.SCEP_PROFILE, true, context.scepProfileUuid().toString(), context.scepProfileName());
         logger.info("SCEP request received for profile: {}, operation: {}", profileName, operation);
         return switch (operation) {
             case SCEP_OPERATION_GET_CA_CERT -> {
                 LoggingHelper.putAuditLogOperation(Operation.LIST_PROTOCOL_CERTIFICATES);
-                yield getCaCerts();
+                yield getCaCerts(context);
             }
             case SCEP_OPERATION_GET_CA_CAPS -> {
                 LoggingHelper.putAuditLogOperation(Operation.SCEP_CA_CAPABILITIES);
                 yield getCaCaps();
             }
-            case SCEP_OPERATION_PKI_OPERATION -> pkiOperation(message);
+            case SCEP_OPERATION_PKI_OPERATION -> pkiOperation(context, message);
             default ->
-                    buildResponse(null, buildFailedResponse(new ScepException("Unsupported Operation", FailInfo.BAD_REQUEST), null));
+                    buildResponse(context, null, buildFailedResponse(context, new ScepException("Unsupported Operation", FailInfo.BAD_REQUEST), null));
         };
     }
 
-    private void init(String profileName) throws ScepException {
-        this.raProfileBased = ServletUriComponentsBuilder.fromCurrentRequestUri().build().toUriString().contains("/raProfile/");
+    private ScepProfileContext loadContext(String profileName, boolean raProfileBased) throws ScepException {
+        RaProfile raProfile;
+        ScepProfile scepProfile;
         if (raProfileBased) {
             raProfile = raProfileRepository.findByName(profileName).orElse(null);
-            if (raProfile == null) {
-                return;
-            }
-            scepProfile = raProfile.getScepProfile();
-            String attributesJson = raProfile.getProtocolAttribute() != null ? raProfile.getProtocolAttribute().getScepIssueCertificateAttributes() : null;
-            issueAttributes = AttributeDefinitionUtils.getClientAttributes(AttributeDefinitionUtils.deserialize(attributesJson, DataAttributeV2.class));
+            scepProfile = raProfile != null ? raProfile.getScepProfile() : null;
         } else {
             scepProfile = scepProfileRepository.findByName(profileName).orElse(null);
-            if (scepProfile == null) {
-                return;
-            }
-            raProfile = scepProfile.getRaProfile();
-            if (raProfile == null) {
-                return;
-            }
+            raProfile = scepProfile != null ? scepProfile.getRaProfile() : null;
+        }
+        if (scepProfile != null) {
+            LoggingHelper.putLogResourceInfo(Resource.SCEP_PROFILE, true, scepProfile.getUuid().toString(), scepProfile.getName());
+        }
+        validateScepProfile(scepProfile, raProfileBased);
+        validateRaProfile(raProfile, raProfileBased);
 
-            issueAttributes = attributeEngine.getRequestObjectDataAttributesContent(scepProfile.getRaProfile().getAuthorityInstanceReference().getConnectorUuid(), AttributeOperation.CERTIFICATE_ISSUE, Resource.SCEP_PROFILE, scepProfile.getUuid());
+        List<RequestAttribute> issueAttributes;
+        if (raProfileBased) {
+            String attributesJson = raProfile.getProtocolAttribute() != null ? raProfile.getProtocolAttribute().getScepIssueCertificateAttributes() : null;
+            issueAttributes = AttributeDefinitionUtils.getClientAttributes(AttributeDefinitionUtils.deserialize(attributesJson, DataAttributeV2.class));
+        } else {
+            issueAttributes = attributeEngine.getRequestObjectDataAttributesContent(raProfile.getAuthorityInstanceReference().getConnectorUuid(), AttributeOperation.CERTIFICATE_ISSUE, Resource.SCEP_PROFILE, scepProfile.getUuid());
         }
-        LoggingHelper.putLogResourceInfo(Resource.SCEP_PROFILE, true, scepProfile.getUuid().toString(), scepProfile.getName());
 
         Certificate scepCaCertificate = scepProfile.getCaCertificate();
-        if (scepCaCertificate == null) {
-            throw new ScepException("SCEP Profile does not have any associated CA certificate", FailInfo.BAD_REQUEST);
+        X509Certificate caCertificate;
+        List<X509Certificate> caCertificateChain;
+        try {
+            caCertificate = CertificateUtil.parseCertificate(scepCaCertificate.getCertificateContent().getContent());
+        } catch (CertificateException e) {
+            // This should not occur
+            throw new IllegalArgumentException("Error converting the certificate to x509 object");
         }
-
-        setRecipient(scepCaCertificate.getCertificateContent().getContent());
         try {
-            this.caCertificateChain = loadCertificateChain(scepCaCertificate);
+            caCertificateChain = loadCertificateChain(scepCaCertificate);
         } catch (NotFoundException e) {
             throw new ScepException("Failed to load certificate chain of SCEP profile CA certificate");
         }
 
-        logger.debug("SCEP service initialized: isRaProfileBased: {}, raProfile: {}, scepProfile: {}", raProfileBased, raProfile, scepProfile);
-    }
+        byte[] caCertificates;
+        String caCertificatesContentType;
+        try {
+            if (caCertificateChain.size() > 1) {
+                logger.debug("Certificate chain is more than one, returning CA-RA certificate");
+                CMSSignedDataGenerator generator = new CMSSignedDataGenerator();
+                generator.addCertificates(new JcaCertStore(caCertificateChain));
+                caCertificates = generator.generate(new CMSProcessableByteArray(new byte[0])).getEncoded();
+                caCertificatesContentType = "application/x-x509-ca-ra-cert";
+            } else {
+                logger.debug("Certificate chain is one, returning CA certificate");
+                caCertificates = caCertificate.getEncoded();
+                caCertificatesContentType = "application/x-x509-ca-cert";
+            }
+        } catch (CertificateException | CMSException | IOException e) {
+            // This should not happen
+            throw new IllegalArgumentException("Error converting the certificate to x509 object");
+        }
 
-    private void validateProfile() throws ScepException {
-        validateScepProfile();
-        validateRaProfile();
+        CryptographicKey key = scepCaCertificate.getKey();
+        CryptographicKeyItem item = cryptographicKeyService.getKeyItemFromKey(key, KeyType.PRIVATE_KEY);
+        CzertainlyPrivateKey czertainlyPrivateKey = null;
+        CzertainlyProvider czertainlyProvider = null;
+        if (key.getTokenInstanceReference() != null) {
+            var connectorDto = key.getTokenInstanceReference().getConnector().mapToDto();
+            // Get the private key from the configuration of SCEP Profile
+            czertainlyPrivateKey = new CzertainlyPrivateKey(
+                    key.getTokenInstanceReference().getTokenInstanceUuid(),
+                    item.getKeyReferenceUuid().toString(),
+                    connectorDto,
+                    item.getKeyAlgorithm().getLabel()
+            );
+            CryptographicOperationsSyncApiClient cryptoApiClient = connectorApiFactory.getCryptographicOperationsApiClient(connectorDto);
+            czertainlyProvider = CzertainlyProvider.getInstance(scepProfile.getName(), true, cryptoApiClient);
+        }
+
+        ScepProfileContext context = new ScepProfileContext(
+                raProfileBased,
+                scepProfile.getUuid(),
+                scepProfile.getName(),
+                raProfile.getUuid(),
+                raProfile.getName(),
+                raProfile.getAuthorityInstanceReferenceUuid(),
+                caCertificate,
+                caCertificates,
+                caCertificatesContentType,
+                czertainlyPrivateKey,
+                czertainlyProvider,
+                item.getKeyAlgorithm(),
+                scepProfile.getChallengePassword(),
+                !Boolean.FALSE.equals(scepProfile.getRequireManualApproval()),
+                scepProfile.isIncludeCaCertificate(),
+                scepProfile.isIncludeCaCertificateChain(),
+                scepProfile.getRenewalThreshold(),
+                scepProfile.isIntuneEnabled() ? getIntuneConfiguration(scepProfile) : null,
+                issueAttributes
+        );
+
+        logger.debug("SCEP service initialized: isRaProfileBased: {}, raProfile: {}, scepProfile: {}", raProfileBased, raProfile, scepProfile);
+        return context;
     }
 
-    private void validateScepProfile() throws ScepException {
+    private void validateScepProfile(ScepProfile scepProfile, boolean raProfileBased) throws ScepException {
         if (scepProfile == null) {
             throw new ScepException("Requested SCEP Profile not found", FailInfo.BAD_REQUEST);
         }
@@ -260,7 +312,7 @@ public class ScepServiceImpl implements ScepService {
         }
     }
 
-    private void validateRaProfile() throws ScepException {
+    private void validateRaProfile(RaProfile raProfile, boolean raProfileBased) throws ScepException {
         if (raProfile == null) {
             throw new ScepException("Requested RA Profile not found", FailInfo.BAD_REQUEST);
         }
@@ -272,29 +324,14 @@ public class ScepServiceImpl implements ScepService {
         }
     }
 
-    private ResponseEntity<Object> getCaCerts() {
-        byte[] encoded;
-        try {
-            if (caCertificateChain.size() > 1) {
-                logger.debug("Certificate chain is more than one, returning CA-RA certificate");
-                CMSSignedDataGenerator generator = new CMSSignedDataGenerator();
-                generator.addCertificates(new JcaCertStore(caCertificateChain));
-                encoded = generator.generate(new CMSProcessableByteArray(new byte[0])).getEncoded();
-                return getResponseEntity(encoded, "application/x-x509-ca-ra-cert", encoded.length);
-            } else {
-                logger.debug("Certificate chain is one, returning CA certificate");
-                encoded = recipient.getEncoded();
-                return getResponseEntity(encoded, "application/x-x509-ca-cert", encoded.length);
-            }
-        } catch (CertificateException | CMSException | IOException e) {
-            // This should not happen
-            throw new IllegalArgumentException("Error converting the certificate to x509 object");
-        }
+    private ResponseEntity<Object> getCaCerts(ScepProfileContext context) {
+        byte[] caCertificates = context.caCertificates();
+        return getResponseEntity(caCertificates, context.caCertificatesContentType(), caCertificates.length);
     }
 
     private ResponseEntity<Object> getCaCaps() {
         logger.debug("Returning CA capabilities");
-        return getResponseEntity(String.join(System.lineSeparator(), SCEP_CA_CAPABILITIES), "text/plain", null);
+        return getResponseEntity(SCEP_CA_CAPABILITIES, "text/plain", null);
     }
 
     private ResponseEntity<Object> getResponseEntity(Object body, String contentType, Integer contentLength) {
@@ -304,7 +341,7 @@ public class ScepServiceImpl implements ScepService {
         return new ResponseEntity<>(body, responseHeaders, HttpStatus.OK);
     }
 
-    private ResponseEntity<Object> pkiOperation(byte[] body) throws ScepException {
+    private ResponseEntity<Object> pkiOperation(ScepProfileContext context, byte[] body) throws ScepException {
         ScepRequest scepRequest;
         ScepResponse scepResponse;
         IntuneScepServiceClient intuneClient = null;
@@ -313,76 +350,61 @@ public class ScepServiceImpl implements ScepService {
 
         logger.debug("Processing SCEP request: transactionId={}", scepRequest.getTransactionId());
 
-        CryptographicKey key = scepProfile.getCaCertificate().getKey();
-        CryptographicKeyItem item = cryptographicKeyService.getKeyItemFromKey(key, KeyType.PRIVATE_KEY);
-        // Get the private key from the configuration of SCEP Profile
-        CzertainlyPrivateKey czertainlyPrivateKey = new CzertainlyPrivateKey(
-                key.getTokenInstanceReference().getTokenInstanceUuid(),
-                item.getKeyReferenceUuid().toString(),
-                key.getTokenInstanceReference().getConnector().mapToDto(),
-                item.getKeyAlgorithm().getLabel()
-        );
-
-        var connectorDto = key.getTokenInstanceReference().getConnector().mapToDto();
-        CryptographicOperationsSyncApiClient cryptoApiClient = connectorApiFactory.getCryptographicOperationsApiClient(connectorDto);
-        CzertainlyProvider czertainlyProvider = CzertainlyProvider.getInstance(scepProfile.getName(), true, cryptoApiClient);
-
         // decrypt the PKCS#10 request
         try {
             scepRequest.decryptData(
-                    czertainlyPrivateKey,
-                    czertainlyProvider,
-                    cryptographicKeyService.getKeyItemFromKey(scepProfile.getCaCertificate().getKey(), KeyType.PRIVATE_KEY).getKeyAlgorithm(),
-                    scepProfile.getChallengePassword()
+                    getPrivateKey(context),
+                    context.provider(),
+                    context.keyAlgorithm(),
+                    context.challengePassword()
             );
         } catch (CMSException e) {
-            return buildResponse(scepRequest, buildFailedResponse(new ScepException("Unable to decrypt the data. " + e.getMessage(), FailInfo.BAD_REQUEST), scepRequest.getTransactionId()));
+            return buildResponse(context, scepRequest, buildFailedResponse(context, new ScepException("Unable to decrypt the data. " + e.getMessage(), FailInfo.BAD_REQUEST), scepRequest.getTransactionId()));
         }
 
-        if (scepProfile.isIntuneEnabled()) {
-            Properties properties = getIntuneConfiguration();
-            intuneClient = buildIntuneClient(properties);
+        if (context.intuneEnabled()) {
+            intuneClient = buildIntuneClient(context.intuneConfiguration());
         }
 
         // validate challenge password, if configured
         if (scepRequest.getMessageType().equals(MessageType.PKCS_REQ) || scepRequest.getMessageType().equals(MessageType.RENEWAL_REQ)) {
-            if (!validateScepChallengePassword(scepRequest.getChallengePassword())) {
-                return buildResponse(scepRequest, buildFailedResponse(new ScepException("Challenge password validation failed.", FailInfo.BAD_MESSAGE_CHECK), scepRequest.getTransactionId()));
+            if (!validateScepChallengePassword(context, scepRequest.getChallengePassword())) {
+                return buildResponse(context, scepRequest, buildFailedResponse(context, new ScepException("Challenge password validation failed.", FailInfo.BAD_MESSAGE_CHECK), scepRequest.getTransactionId()));
             }
             // validate the request POP
             try {
-                verifyRequest(scepRequest);
+                verifyRequest(context, scepRequest);
             } catch (ScepException e) {
-                return buildResponse(scepRequest, buildFailedResponse(e, scepRequest.getTransactionId()));
+                return buildResponse(context, scepRequest, buildFailedResponse(context, e, scepRequest.getTransactionId()));
             }
         }
 
-        if (scepTransactionRepository.existsByTransactionIdAndScepProfile(scepRequest.getTransactionId(), scepProfile)) {
+        if (scepTransactionRepository.existsByTransactionIdAndScepProfileUuid(scepRequest.getTransactionId(), context.scepProfileUuid())) {
             LoggingHelper.putAuditLogOperation(Operation.SCEP_TRANSACTION_CHECK);
             try {
-                scepResponse = getExistingTransaction(scepRequest.getTransactionId());
+                scepResponse = getExistingTransaction(context, scepRequest.getTransactionId());
             } catch (ScepException e) {
-                scepResponse = buildFailedResponse(new ScepException("Error while formatting certificate", FailInfo.BAD_REQUEST), scepRequest.getTransactionId());
+                scepResponse = buildFailedResponse(context, new ScepException("Error while formatting certificate", FailInfo.BAD_REQUEST), scepRequest.getTransactionId());
             } catch (NotFoundException e) {
-                scepResponse = buildFailedResponse(new ScepException("Transaction certificate not found", FailInfo.BAD_REQUEST), scepRequest.getTransactionId());
+                scepResponse = buildFailedResponse(context, new ScepException("Transaction certificate not found", FailInfo.BAD_REQUEST), scepRequest.getTransactionId());
             }
         } else if (scepRequest.getMessageType().equals(MessageType.PKCS_REQ)) {
             try {
                 // Manual approval for the SCEP clients are configured in the SCEP Profile.
                 // If the SCEP Profile has the manual approval set to true, only the CSR will be generated
-                if (scepProfile.getRequireManualApproval() != null && !scepProfile.getRequireManualApproval()) {
+                if (!context.requireManualApproval()) {
                     LoggingHelper.putAuditLogOperation(Operation.ISSUE);
-                    scepResponse = issueCertificate(scepRequest, intuneClient);
+                    scepResponse = issueCertificate(context, scepRequest, intuneClient);
                 } else {
                     LoggingHelper.putAuditLogOperation(Operation.REQUEST);
-                    scepResponse = generateCsr(scepRequest, intuneClient);
+                    scepResponse = generateCsr(context, scepRequest, intuneClient);
                 }
             } catch (ScepException e) {
-                scepResponse = buildFailedResponse(e, scepRequest.getTransactionId());
+                scepResponse = buildFailedResponse(context, e, scepRequest.getTransactionId());
                 // 32-bit error code formulated using the instructions specified in https://msdn.microsoft.com/en-us/library/cc231198.aspx
                 // this is a vendor specific error code
                 final long errorCode = 0x20000000L + e.getFailInfo().getValue();
-                if (scepProfile.isIntuneEnabled()) {
+                if (context.intuneEnabled()) {
                     sendIntuneFailureMessage(
                             intuneClient,
                             scepRequest,
@@ -393,14 +415,14 @@ public class ScepServiceImpl implements ScepService {
             }
         } else if (scepRequest.getMessageType().equals(MessageType.CERT_POLL)) {
             LoggingHelper.putAuditLogOperation(Operation.SCEP_CERTIFICATE_POLL);
-            scepResponse = pollCertificate(scepRequest, intuneClient);
+            scepResponse = pollCertificate(context, scepRequest, intuneClient);
         } else {
-            scepResponse = buildFailedResponse(new ScepException("Unsupported Operation. The requested operation is not supported", FailInfo.BAD_REQUEST), scepRequest.getTransactionId());
+            scepResponse = buildFailedResponse(context, new ScepException("Unsupported Operation. The requested operation is not supported", FailInfo.BAD_REQUEST), scepRequest.getTransactionId());
         }
-        return buildResponse(scepRequest, scepResponse);
+        return buildResponse(context, scepRequest, scepResponse);
     }
 
-    private ScepResponse buildFailedResponse(ScepException scepException, String transactionId) {
+    private ScepResponse buildFailedResponse(ScepProfileContext context, ScepException scepException, String transactionId) {
         ScepResponse scepResponse = new ScepResponse();
         scepResponse.setPkiStatus(PkiStatus.FAILURE);
         scepResponse.setFailInfo(scepException.getFailInfo());
@@ -414,37 +436,20 @@ public class ScepServiceImpl implements ScepService {
                 scepException.getFailInfo(),
                 scepException.getCause() != null ? scepException.getCause().getMessage() : null,
                 transactionId,
-                this.scepProfile.getName(),
-                this.raProfileBased ? this.raProfile.getName() : null
+                context.scepProfileName(),
+                context.raProfileBased() ? context.raProfileName() : null
         );
 
         return scepResponse;
     }
 
-    private ResponseEntity<Object> buildResponse(ScepRequest scepRequest, ScepResponse scepResponse) throws ScepException {
-        prepareMessage(scepRequest, scepResponse);
-        CryptographicKey key = scepProfile.getCaCertificate().getKey();
-        var connectorDto = key.getTokenInstanceReference().getConnector().mapToDto();
-        CryptographicOperationsSyncApiClient cryptoApiClient = connectorApiFactory.getCryptographicOperationsApiClient(connectorDto);
-        CzertainlyProvider czertainlyProvider = CzertainlyProvider.getInstance(scepProfile.getName(), true, cryptoApiClient);
-        CryptographicKeyItem item = cryptographicKeyService.getKeyItemFromKey(key, KeyType.PRIVATE_KEY);
-        // Get the private key from the configuration of SCEP Profile
-        CzertainlyPrivateKey czertainlyPrivateKey = new CzertainlyPrivateKey(
-                key.getTokenInstanceReference().getTokenInstanceUuid(),
-                item.getKeyReferenceUuid().toString(),
-                key.getTokenInstanceReference().getConnector().mapToDto(),
-                item.getKeyAlgorithm().getLabel()
+    private ResponseEntity<Object> buildResponse(ScepProfileContext context, ScepRequest scepRequest, ScepResponse scepResponse) throws ScepException {
+        prepareMessage(context, scepRequest, scepResponse);
+        scepResponse.setSigningAttributes(
+                context.caCertificate(),
+                getPrivateKey(context),
+                context.provider()
         );
-        try {
-            scepResponse.setSigningAttributes(
-                    CertificateUtil.getX509Certificate(scepProfile.getCaCertificate().getCertificateContent().getContent()),
-                    czertainlyPrivateKey,
-                    czertainlyProvider
-
-            );
-        } catch (CertificateException e) {
-            throw new ScepException("Unable to set certificate for signing SCEP response", e, FailInfo.BAD_REQUEST);
-        }
         scepResponse.generate();
         byte[] responseBody;
         try {
@@ -455,8 +460,15 @@ public class ScepServiceImpl implements ScepService {
         return getResponseEntity(responseBody, "application/x-pki-message", responseBody.length);
     }
 
-    private ScepResponse issueCertificate(ScepRequest scepRequest, IntuneScepServiceClient intuneClient) throws ScepException {
-        if (scepProfile.isIntuneEnabled()) {
+    private CzertainlyPrivateKey getPrivateKey(ScepProfileContext context) throws ScepException {
+        if (context.privateKey() == null) {
+            throw new ScepException("Private key of SCEP Profile CA certificate is not available", FailInfo.BAD_REQUEST);
+        }
+        return context.privateKey();
+    }
+
+    private ScepResponse issueCertificate(ScepProfileContext context, ScepRequest scepRequest, IntuneScepServiceClient intuneClient) throws ScepException {
+        if (context.intuneEnabled()) {
             validateIntuneRequest(
                     intuneClient,
                     scepRequest
@@ -466,13 +478,13 @@ public class ScepServiceImpl implements ScepService {
         try {
             requestDto.setRequest(new String(Base64.getEncoder().encode(scepRequest.getPkcs10Request().getEncoded())));
             requestDto.setFormat(CertificateRequestFormat.PKCS10);
-            requestDto.setAttributes(issueAttributes);
+            requestDto.setAttributes(context.issueAttributes());
         } catch (IOException e) {
             throw new ScepException("Unable to decode PKCS#10 request", e, FailInfo.BAD_REQUEST);
         }
         ClientCertificateDataResponseDto response;
         try {
-            response = clientOperationService.issueCertificate(raProfile.getAuthorityInstanceReference().getSecuredParentUuid(), raProfile.getSecuredUuid(), requestDto, CertificateProtocolInfo.Scep(scepProfile.getUuid()));
+            response = clientOperationService.issueCertificate(SecuredParentUUID.fromUUID(context.authorityInstanceUuid()), SecuredUUID.fromUUID(context.raProfileUuid()), requestDto, CertificateProtocolInfo.Scep(context.scepProfileUuid()));
         } catch (CertificateException | NotFoundException | CertificateOperationException e) {
             throw new ScepException("Unable to issue certificate", e, FailInfo.BAD_REQUEST);
         } catch (NoSuchAlgorithmException e) {
@@ -486,7 +498,7 @@ public class ScepServiceImpl implements ScepService {
         ScepResponse scepResponse = new ScepResponse();
         if (response.getCertificateData() == null || response.getCertificateData().isEmpty()) {
             // certificate is not yet issued
-            addTransactionEntity(scepRequest.getTransactionId(), response.getUuid());
+            addTransactionEntity(context, scepRequest.getTransactionId(), response.getUuid());
             scepResponse.setPkiStatus(PkiStatus.PENDING);
             return scepResponse;
         }
@@ -501,15 +513,15 @@ public class ScepServiceImpl implements ScepService {
         Certificate certificateEntity;
         try {
             certificateEntity = certificateService.getCertificateEntity(SecuredUUID.fromString(response.getUuid()));
-            scepResponse.setCertificateChain(getIssuedCertificateChain(certificateEntity));
+            scepResponse.setCertificateChain(getIssuedCertificateChain(context, certificateEntity));
         } catch (NotFoundException e) {
             throw new ScepException(String.format("Issued certificate not found in inventory: uuid=%s", response.getUuid()), FailInfo.BAD_REQUEST);
         }
 
-        addTransactionEntity(scepRequest.getTransactionId(), response.getUuid());
+        addTransactionEntity(context, scepRequest.getTransactionId(), response.getUuid());
 
         scepResponse.setPkiStatus(PkiStatus.SUCCESS);
-        if (scepProfile.isIntuneEnabled()) sendIntuneSuccessNotification(
+        if (context.intuneEnabled()) sendIntuneSuccessNotification(
                 intuneClient,
                 scepRequest,
                 certificate
@@ -518,8 +530,8 @@ public class ScepServiceImpl implements ScepService {
     }
 
 
-    private ScepResponse generateCsr(ScepRequest scepRequest, IntuneScepServiceClient intuneClient) throws ScepException {
-        if (scepProfile.isIntuneEnabled()) {
+    private ScepResponse generateCsr(ScepProfileContext context, ScepRequest scepRequest, IntuneScepServiceClient intuneClient) throws ScepException {
+        if (context.intuneEnabled()) {
             validateIntuneRequest(
                     intuneClient,
                     scepRequest
@@ -527,7 +539,7 @@ public class ScepServiceImpl implements ScepService {
         }
         ScepResponse scepResponse = new ScepResponse();
         ClientCertificateRequestDto requestDto = new ClientCertificateRequestDto();
-        if (raProfile != null) requestDto.setRaProfileUuid(raProfile.getUuid());
+        requestDto.setRaProfileUuid(context.raProfileUuid());
         try {
             requestDto.setRequest(new String(Base64.getEncoder().encode(scepRequest.getPkcs10Request().getEncoded())));
             requestDto.setFormat(CertificateRequestFormat.PKCS10);
@@ -536,64 +548,64 @@ public class ScepServiceImpl implements ScepService {
         }
         CertificateDetailDto response;
         try {
-            response = clientOperationService.submitCertificateRequest(requestDto, CertificateProtocolInfo.Scep(scepProfile.getUuid()));
+            response = clientOperationService.submitCertificateRequest(requestDto, CertificateProtocolInfo.Scep(context.scepProfileUuid()));
         } catch (CertificateException | NotFoundException | NoSuchAlgorithmException | AttributeException |
                  ConnectorException | CertificateRequestException e) {
             throw new ScepException("Unable to submit certificate request", e, FailInfo.BAD_REQUEST);
         }
 
-        addTransactionEntity(scepRequest.getTransactionId(), response.getUuid());
+        addTransactionEntity(context, scepRequest.getTransactionId(), response.getUuid());
         scepResponse.setPkiStatus(PkiStatus.PENDING);
 
         return scepResponse;
     }
 
-    private ScepResponse getExistingTransaction(String transactionId) throws ScepException, NotFoundException {
-        ScepTransaction scepTransaction = scepTransactionRepository.findByTransactionIdAndScepProfile(transactionId, scepProfile).orElse(null);
+    private ScepResponse getExistingTransaction(ScepProfileContext context, String transactionId) throws ScepException, NotFoundException {
+        ScepTransaction scepTransaction = scepTransactionRepository.findByTransactionIdAndScepProfileUuid(transactionId, context.scepProfileUuid()).orElse(null);
         assert scepTransaction != null;
         Certificate certificate = scepTransaction.getCertificate();
 
         if (certificate.getState() == CertificateState.REJECTED) {
-            return buildFailedResponse(new ScepException("Certificate issuance was rejected", FailInfo.BAD_REQUEST), transactionId);
+            return buildFailedResponse(context, new ScepException("Certificate issuance was rejected", FailInfo.BAD_REQUEST), transactionId);
         }
         if (certificate.getState() == CertificateState.FAILED) {
-            return buildFailedResponse(new ScepException("Certificate issuance failed", FailInfo.BAD_REQUEST), transactionId);
+            return buildFailedResponse(context, new ScepException("Certificate issuance failed", FailInfo.BAD_REQUEST), transactionId);
         }
 
         ScepResponse scepResponse = new ScepResponse();
         if (certificate.getState() == CertificateState.ISSUED) {
             scepResponse.setPkiStatus(PkiStatus.SUCCESS);
-            scepResponse.setCertificateChain(getIssuedCertificateChain(certificate));
+            scepResponse.setCertificateChain(getIssuedCertificateChain(context, certificate));
         } else {
             scepResponse.setPkiStatus(PkiStatus.PENDING);
         }
         return scepResponse;
     }
 
-    private void addTransactionEntity(String transactionId, String certificateUuid) {
+    private void addTransactionEntity(ScepProfileContext context, String transactionId, String certificateUuid) {
         ScepTransaction scepTransaction = new ScepTransaction();
         scepTransaction.setTransactionId(transactionId);
         scepTransaction.setCertificateUuid(UUID.fromString(certificateUuid));
-        scepTransaction.setScepProfile(scepProfile);
+        scepTransaction.setScepProfileUuid(context.scepProfileUuid());
         scepTransactionRepository.save(scepTransaction);
     }
 
-    private ScepResponse pollCertificate(ScepRequest scepRequest, IntuneScepServiceClient intuneClient) {
+    private ScepResponse pollCertificate(ScepProfileContext context, ScepRequest scepRequest, IntuneScepServiceClient intuneClient) {
         ScepResponse scepResponse = new ScepResponse();
         try {
             ScepTransaction transaction = getTransaction(scepRequest.getTransactionId());
             if (transaction != null) {
                 Certificate certificate = transaction.getCertificate();
                 if (certificate.getState() == CertificateState.REJECTED) {
-                    return buildFailedResponse(new ScepException("Certificate issuance was rejected", FailInfo.BAD_REQUEST), scepRequest.getTransactionId());
+                    return buildFailedResponse(context, new ScepException("Certificate issuance was rejected", FailInfo.BAD_REQUEST), scepRequest.getTransactionId());
                 }
                 if (certificate.getState() == CertificateState.FAILED) {
-                    return buildFailedResponse(new ScepException("Certificate issuance failed", FailInfo.BAD_REQUEST), scepRequest.getTransactionId());
+                    return buildFailedResponse(context, new ScepException("Certificate issuance failed", FailInfo.BAD_REQUEST), scepRequest.getTransactionId());
                 }
 
                 if (certificate.getState().equals(CertificateState.ISSUED)) {
                     X509Certificate x509Certificate = CertificateUtil.parseCertificate(certificate.getCertificateContent().getContent());
-                    scepResponse.setCertificateChain(getIssuedCertificateChain(certificate));
+                    scepResponse.setCertificateChain(getIssuedCertificateChain(context, certificate));
                     scepResponse.setPkiStatus(PkiStatus.SUCCESS);
                     sendIntuneSuccessNotification(
                             intuneClient,
@@ -604,7 +616,7 @@ public class ScepServiceImpl implements ScepService {
             } else {
                 scepResponse.setPkiStatus(PkiStatus.PENDING);
             }
-            prepareMessage(scepRequest, scepResponse);
+            prepareMessage(context, scepRequest, scepResponse);
 
         } catch (Exception e) {
             logger.error(e.getMessage());
@@ -629,8 +641,8 @@ public class ScepServiceImpl implements ScepService {
         return certificateChain;
     }
 
-    private List<X509Certificate> getIssuedCertificateChain(Certificate certificate) throws ScepException, NotFoundException {
-        if (!this.scepProfile.isIncludeCaCertificateChain() && !this.scepProfile.isIncludeCaCertificate()) {
+    private List<X509Certificate> getIssuedCertificateChain(ScepProfileContext context, Certificate certificate) throws ScepException, NotFoundException {
+        if (!context.includeCaCertificateChain() && !context.includeCaCertificate()) {
             try {
                 checkCertificateValidity(certificate.mapToDto());
 
@@ -644,11 +656,11 @@ public class ScepServiceImpl implements ScepService {
 
         logger.debug("Building the certificate chain for the response message");
         var certificateChain = loadCertificateChain(certificate);
-        if (this.scepProfile.isIncludeCaCertificateChain()) return certificateChain;
+        if (context.includeCaCertificateChain()) return certificateChain;
         else return certificateChain.subList(0, Math.min(2, certificateChain.size()));
     }
 
-    private void prepareMessage(ScepRequest scepRequest, ScepResponse scepResponse) {
+    private void prepareMessage(ScepProfileContext context, ScepRequest scepRequest, ScepResponse scepResponse) {
         if (scepRequest == null) {
             return;
         }
@@ -656,7 +668,7 @@ public class ScepServiceImpl implements ScepService {
         // are handled when generating the attributes for the CMS signed data for the response
         scepResponse.setRecipientNonce(scepRequest.getSenderNonce());
         scepResponse.setTransactionId(scepRequest.getTransactionId());
-        scepResponse.setCaCertificate(recipient);
+        scepResponse.setCaCertificate(context.caCertificate());
         scepResponse.setRecipientKeyInfo(scepRequest.getRequestKeyInfo());
         scepResponse.setDigestAlgorithmOid(scepRequest.getDigestAlgorithmOid());
         scepResponse.setSenderNonce(RandomUtil.generateRandomNonceBase64(16));
@@ -667,14 +679,14 @@ public class ScepServiceImpl implements ScepService {
         return scepTransactionRepository.findByTransactionId(transactionId).orElse(null);
     }
 
-    private boolean validateScepChallengePassword(String challengePassword) {
-        if (scepProfile.getChallengePassword() == null || scepProfile.getChallengePassword().isEmpty()) {
+    private boolean validateScepChallengePassword(ScepProfileContext context, String challengePassword) {
+        if (context.challengePassword() == null || context.challengePassword().isEmpty()) {
             return true;
         }
-        return challengePassword.equals(scepProfile.getChallengePassword());
+        return challengePassword.equals(context.challengePassword());
     }
 
-    public void verifyRequest(ScepRequest scepRequest) throws ScepException {
+    private void verifyRequest(ScepProfileContext context, ScepRequest scepRequest) throws ScepException {
 
         // Throw exception if the request type is not renewal or issuing a new certificate
         if (!scepRequest.getMessageType().equals(MessageType.RENEWAL_REQ) && !scepRequest.getMessageType().equals(MessageType.PKCS_REQ)) {
@@ -686,7 +698,7 @@ public class ScepServiceImpl implements ScepService {
             // (https://datatracker.ietf.org/doc/id/draft-nourse-scep-23.txt), RENEWAL_REQ is not part of the message type
             // Commonly used SCEP clients like JSCEP and SSCEP uses this version of RFC and
             // may use PKCS_REQ for renewal
-            renewalValidation(scepRequest);
+            renewalValidation(context, scepRequest);
             try {
                 if (!scepRequest.verifyRequest()) {
                     throw new ScepException("Failed to verify PKCS#10 request POP, invalid signature", FailInfo.BAD_REQUEST);
@@ -695,11 +707,11 @@ public class ScepServiceImpl implements ScepService {
                 throw new ScepException("Failed to verify PKCS#10 request POP", FailInfo.BAD_REQUEST);
             }
         } else if (scepRequest.getMessageType().equals(MessageType.RENEWAL_REQ)) {
-            renewalValidation(scepRequest);
+            renewalValidation(context, scepRequest);
         }
     }
 
-    private void renewalValidation(ScepRequest scepRequest) throws ScepException {
+    private void renewalValidation(ScepProfileContext context, ScepRequest scepRequest) throws ScepException {
         JcaPKCS10CertificationRequest pkcs10Request = scepRequest.getPkcs10Request();
         Certificate extCertificate;
         try {
@@ -723,12 +735,12 @@ public class ScepServiceImpl implements ScepService {
             throw new ScepException("Exception when verifying signature." + e.getMessage());
         }
         // No need to verify the same key pair used in request since it is already handled by the rekey method in client operations
-        checkRenewalTimeframe(extCertificate);
+        checkRenewalTimeframe(context, extCertificate);
     }
 
-    private void checkRenewalTimeframe(Certificate certificate) throws ScepException {
+    private void checkRenewalTimeframe(ScepProfileContext context, Certificate certificate) throws ScepException {
         // Empty renewal threshold or the value 0 will be considered as null value and the half life of the certificate will be assumed
-        if (scepProfile.getRenewalThreshold() == null || scepProfile.getRenewalThreshold() == 0) {
+        if (context.renewalThreshold() == null || context.renewalThreshold() == 0) {
             // If the renewal timeframe is not given, we consider that renewal is possible only after the certificate
             // crosses its half lime time
             if (certificate.getValidity() / 2 < certificate.getExpiryInDays()) {
@@ -737,13 +749,13 @@ public class ScepServiceImpl implements ScepService {
         } else if (certificate.getValidationStatus().equals(CertificateValidationStatus.EXPIRED) || certificate.getState().equals(CertificateState.REVOKED)) {
             throw new ScepException("Cannot renew certificate. Certificate is already in expired or revoked state", FailInfo.BAD_REQUEST);
         } else {
-            if (certificate.getExpiryInDays() > scepProfile.getRenewalThreshold()) {
+            if (certificate.getExpiryInDays() > context.renewalThreshold()) {
                 throw new ScepException("Cannot renew certificate. Validity exceeds the configured value in SCEP profile", FailInfo.BAD_REQUEST);
             }
         }
     }
 
-    private Properties getIntuneConfiguration() {
+    private Properties getIntuneConfiguration(ScepProfile scepProfile) {
         // Create the properties based on the SCEP profile Intune properties
         Properties configProperties = new Properties();
         configProperties.put("AAD_APP_ID", scepProfile.getIntuneApplicationId());
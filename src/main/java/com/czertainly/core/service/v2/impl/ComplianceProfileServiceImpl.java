@@ -21,6 +21,7 @@ import com.czertainly.core.dao.entity.*;
 import com.czertainly.core.dao.entity.workflows.ConditionItem;
 import com.czertainly.core.dao.repository.*;
 import com.czertainly.core.dao.repository.workflows.ConditionItemRepository;
+import com.czertainly.core.evaluator.ConditionItemCompiler;
 import com.czertainly.core.model.auth.ResourceAction;
 import com.czertainly.core.security.authz.ExternalAuthorization;
 import com.czertainly.core.security.authz.SecuredUUID;
@@ -53,6 +54,7 @@ public class ComplianceProfileServiceImpl implements ComplianceProfileService {
     private ConnectorRepository connectorRepository;
     private ComplianceInternalRuleRepository internalRuleRepository;
     private ConditionItemRepository conditionItemRepository;
+    private ConditionItemCompiler conditionItemCompiler;
 
     private AttributeEngine attributeEngine;
     private ComplianceProfileRuleHandler ruleHandler;
@@ -97,6 +99,11 @@ public class ComplianceProfileServiceImpl implements ComplianceProfileService {
         this.conditionItemRepository = conditionItemRepository;
     }
 
+    @Autowired
+    public void setConditionItemCompiler(ConditionItemCompiler conditionItemCompiler) {
+        this.conditionItemCompiler = conditionItemCompiler;
+    }
+
     @Autowired
     public void setAttributeEngine(AttributeEngine attributeEngine) {
         this.attributeEngine = attributeEngine;
@@ -353,6 +360,7 @@ public class ComplianceProfileServiceImpl implements ComplianceProfileService {
     public ComplianceRuleListDto updateComplianceInternalRule(UUID internalRuleUuid, ComplianceInternalRuleRequestDto request) throws NotFoundException {
         ComplianceInternalRule internalRule = internalRuleRepository.findByUuid(internalRuleUuid).orElseThrow(() -> new NotFoundException(ComplianceInternalRule.class, internalRuleUuid));
         conditionItemRepository.deleteAll(internalRule.getConditionItems());
+        conditionItemCompiler.evict(internalRule.getConditionItems());
 
         internalRule.setName(request.getName());
         internalRule.setDescription(request.getDescription());
@@ -374,6 +382,7 @@ public class ComplianceProfileServiceImpl implements ComplianceProfileService {
             throw new ValidationException("Cannot delete the compliance internal rule as it is associated to compliance profiles: %s".formatted(String.join(", ", profileNames)));
         }
         internalRuleRepository.delete(internalRule);
+        conditionItemCompiler.evict(internalRule.getConditionItems());
     }
 
     @Override
@@ -89,7 +89,8 @@ public class DiscoveryCertificateTask implements ScheduledJobTask {
 
         // After the discovery is created and commited, run discovery
         discovery = discoveryService.runDiscovery(UUID.fromString(discovery.getUuid()), scheduledJobInfo);
-        if (discovery.getStatus() != DiscoveryStatus.PROCESSING) {
+        // discovery waiting for completion at provider or processing discovered certificates reports its result when finished
+        if (discovery.getStatus() != DiscoveryStatus.PROCESSING && discovery.getStatus() != DiscoveryStatus.IN_PROGRESS) {
             return new ScheduledTaskResult(discovery.getStatus() == DiscoveryStatus.FAILED ? SchedulerJobExecutionStatus.FAILED : SchedulerJobExecutionStatus.SUCCESS, discovery.getMessage(), Resource.DISCOVERY, discovery.getUuid());
         }
 
@@ -1,7 +1,10 @@
 package com.czertainly.core.util;
 
 public enum SecretEncodingVersion {
-    V1("v1");
+    V1("v1"),
+    V2("v2");
+
+    public static final SecretEncodingVersion LATEST = V2;
 
     private String version;
 
@@ -13,4 +16,13 @@ public enum SecretEncodingVersion {
         return version;
     }
 
+    public static SecretEncodingVersion fromVersion(String version) {
+        for (SecretEncodingVersion secretEncodingVersion : values()) {
+            if (secretEncodingVersion.version.equals(version)) {
+                return secretEncodingVersion;
+            }
+        }
+        throw new IllegalArgumentException("Secret version not supported");
+    }
+
 }
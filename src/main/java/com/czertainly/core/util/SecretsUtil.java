@@ -12,15 +12,23 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import org.bouncycastle.crypto.digests.SHA256Digest;
+import org.bouncycastle.crypto.generators.HKDFBytesGenerator;
+import org.bouncycastle.crypto.params.HKDFParameters;
 import javax.crypto.*;
+import javax.crypto.spec.GCMParameterSpec;
 import javax.crypto.spec.PBEKeySpec;
+import javax.crypto.spec.SecretKeySpec;
 import java.nio.charset.StandardCharsets;
+import java.security.InvalidAlgorithmParameterException;
 import java.security.InvalidKeyException;
 import java.security.NoSuchAlgorithmException;
 import java.security.NoSuchProviderException;
 import java.security.SecureRandom;
 import java.security.spec.InvalidKeySpecException;
 import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Component
 public class SecretsUtil {
@@ -34,11 +42,35 @@ public class SecretsUtil {
     @Value("${secrets.encryption.key}")
     public void setEncryptionKeyStatic(String key){
         SecretsUtil.encryptionKey = key;
+        SecretsUtil.aeadKey = null;
+        pbeKeys.clear();
     }
 
     private static final String algorithm = "PBEWithSHA256And256BitAES-CBC-BC";
     private static final int iterations = 1000;
 
+    private static final String aeadAlgorithm = "AES/GCM/NoPadding";
+    private static final int aeadNonceLength = 12;
+    private static final int aeadTagLength = 128;
+    private static final String aeadKeyPurpose = "czertainly-secrets-v2";
+
+    private static final int MAX_CACHED_PBE_KEYS = 10_000;
+
+    // key derived from the encryption key for AEAD encoding
+    private static volatile SecretKey aeadKey;
+    // keys derived by PBE for salts of secrets encoded by V1
+    private static final Map<String, SecretKey> pbeKeys = new ConcurrentHashMap<>();
+
+    private static final ThreadLocal<Cipher> aeadCiphers = ThreadLocal.withInitial(() -> {
+        try {
+            return Cipher.getInstance(aeadAlgorithm);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Algorithm " + aeadAlgorithm + " not found", e);
+        } catch (NoSuchPaddingException e) {
+            throw new IllegalStateException("Padding for " + aeadAlgorithm + " not found.", e);
+        }
+    });
+
     private static final ObjectMapper objectMapper = JsonMapper.builder()
             .findAndAddModules()
             .configure(MapperFeature.SORT_PROPERTIES_ALPHABETICALLY, true)
@@ -46,7 +78,9 @@ public class SecretsUtil {
             .build();
 
     /**
-     * Encrypts and encodes the given secret using the PBEWithSHA256And256BitAES-CBC-BC algorithm.
+     * Encrypts and encodes the given secret.
+     * V1 uses the PBEWithSHA256And256BitAES-CBC-BC algorithm with key derived for each secret,
+     * V2 uses AES-GCM with random nonce and key derived once from the encryption key by HKDF.
      * @param secret the secret to encrypt and encode
      * @param secretVersion the version of the encoding
      * @return the encrypted and encoded secret
@@ -56,15 +90,43 @@ public class SecretsUtil {
             return null;
         }
 
+        return switch (secretVersion) {
+            case V1 -> encryptAndEncodeSecretStringV1(secret);
+            case V2 -> encryptAndEncodeSecretStringV2(secret);
+        };
+    }
+
+    /**
+     * Decodes and decrypts the given secret, the version of the encoding is read from the secret
+     * @param secret the encrypted and encoded secret
+     * @return the decrypted secret
+     */
+    public static String decodeAndDecryptSecretString(String secret) {
+        return decodeAndDecryptSecretString(secret, getSecretEncodingVersion(secret));
+    }
+
+    public static String decodeAndDecryptSecretString(String secret, SecretEncodingVersion secretVersion) {
+        return switch (secretVersion) {
+            case V1 -> decodeAndDecryptSecretStringV1(secret);
+            case V2 -> decodeAndDecryptSecretStringV2(secret);
+        };
+    }
+
+    private static SecretEncodingVersion getSecretEncodingVersion(String secret) {
+        int separatorIndex = secret.indexOf('|');
+        if (separatorIndex < 0) {
+            throw new IllegalArgumentException("Secret string is not in the correct format");
+        }
+        return SecretEncodingVersion.fromVersion(secret.substring(0, separatorIndex));
+    }
+
+    private static String encryptAndEncodeSecretStringV1(String secret) {
         byte[] salt = generateRandomSalt();
 
-        PBEKeySpec keySpec = new PBEKeySpec(encryptionKey.toCharArray(), salt, iterations);
         byte[] encryptedSecret;
-
         try {
             Cipher c = Cipher.getInstance(algorithm, BouncyCastleProvider.PROVIDER_NAME);
-            SecretKeyFactory fact = SecretKeyFactory.getInstance(algorithm, BouncyCastleProvider.PROVIDER_NAME);
-            c.init(Cipher.ENCRYPT_MODE, fact.generateSecret(keySpec));
+            c.init(Cipher.ENCRYPT_MODE, getPbeKey(salt, iterations));
             encryptedSecret = c.doFinal(secret.getBytes(StandardCharsets.UTF_8));
         } catch (NoSuchPaddingException e) {
             throw new IllegalStateException("Padding for " + algorithm + " not found.", e);
@@ -72,8 +134,6 @@ public class SecretsUtil {
             throw new IllegalStateException("Illegal block size for " + algorithm, e);
         } catch (NoSuchAlgorithmException e) {
             throw new IllegalStateException("Algorithm " + algorithm + " not found", e);
-        } catch (InvalidKeySpecException e) {
-            throw new IllegalStateException("Invalid specification for " + algorithm, e);
         } catch (BadPaddingException e) {
             throw new IllegalStateException("Bad padding for " + algorithm, e);
         } catch (NoSuchProviderException e) {
@@ -82,32 +142,17 @@ public class SecretsUtil {
             throw new IllegalStateException("Invalid key provided for " + algorithm, e);
         }
 
-        if (secretVersion == SecretEncodingVersion.V1) {
-            return encodeSecretStringV1(encryptedSecret, salt, iterations);
-        } else {
-            throw new IllegalArgumentException("Secret version not supported");
-        }
-
+        return encodeSecretStringV1(encryptedSecret, salt, iterations);
     }
 
-    public static String decodeAndDecryptSecretString(String secret, SecretEncodingVersion secretVersion) {
-        byte[] salt;
-        int iterations;
-        byte[] encryptedSecret;
-        if (secretVersion == SecretEncodingVersion.V1) {
-            salt = decodeSaltFromSecretStringV1(secret);
-            iterations = getIterationsFromSecretStringV1(secret);
-            encryptedSecret = decodeEncryptedSecretFromSecretStringV1(secret);
-        } else {
-            throw new IllegalArgumentException("Secret version not supported");
-        }
-
-        PBEKeySpec keySpec = new PBEKeySpec(encryptionKey.toCharArray(), salt, iterations);
+    private static String decodeAndDecryptSecretStringV1(String secret) {
+        byte[] salt = decodeSaltFromSecretStringV1(secret);
+        int iterations = getIterationsFromSecretStringV1(secret);
+        byte[] encryptedSecret = decodeEncryptedSecretFromSecretStringV1(secret);
 
         try {
             Cipher c = Cipher.getInstance(algorithm, BouncyCastleProvider.PROVIDER_NAME);
-            SecretKeyFactory fact = SecretKeyFactory.getInstance(algorithm, BouncyCastleProvider.PROVIDER_NAME);
-            c.init(Cipher.DECRYPT_MODE, fact.generateSecret(keySpec));
+            c.init(Cipher.DECRYPT_MODE, getPbeKey(salt, iterations));
             byte[] decryptedSecret = c.doFinal(encryptedSecret);
             return new String(decryptedSecret);
         } catch (NoSuchPaddingException e) {
@@ -116,8 +161,6 @@ public class SecretsUtil {
             throw new IllegalStateException("Illegal block size for " + algorithm, e);
         } catch (NoSuchAlgorithmException e) {
             throw new IllegalStateException("Algorithm " + algorithm + " not found", e);
-        } catch (InvalidKeySpecException e) {
-            throw new IllegalStateException("Invalid specification for " + algorithm, e);
         } catch (BadPaddingException e) {
             throw new IllegalStateException("Bad padding for " + algorithm, e);
         } catch (NoSuchProviderException e) {
@@ -127,6 +170,88 @@ public class SecretsUtil {
         }
     }
 
+    private static String encryptAndEncodeSecretStringV2(String secret) {
+        byte[] nonce = new byte[aeadNonceLength];
+        random.nextBytes(nonce);
+
+        byte[] encryptedSecret;
+        try {
+            Cipher c = aeadCiphers.get();
+            c.init(Cipher.ENCRYPT_MODE, getAeadKey(), new GCMParameterSpec(aeadTagLength, nonce));
+            encryptedSecret = c.doFinal(secret.getBytes(StandardCharsets.UTF_8));
+        } catch (InvalidKeyException | InvalidAlgorithmParameterException e) {
+            throw new IllegalStateException("Invalid key provided for " + aeadAlgorithm, e);
+        } catch (IllegalBlockSizeException | BadPaddingException e) {
+            throw new IllegalStateException("Unable to encrypt secret with " + aeadAlgorithm, e);
+        }
+
+        return encodeSecretStringV2(encryptedSecret, nonce);
+    }
+
+    private static String decodeAndDecryptSecretStringV2(String secret) {
+        String[] parts = secret.split("\\|");
+        if (parts.length != 3 || !parts[0].equals(SecretEncodingVersion.V2.getVersion())) {
+            throw new IllegalArgumentException("Secret string is not in the correct format");
+        }
+        byte[] nonce = Base64.getDecoder().decode(parts[1]);
+        byte[] encryptedSecret = Base64.getDecoder().decode(parts[2]);
+
+        try {
+            Cipher c = aeadCiphers.get();
+            c.init(Cipher.DECRYPT_MODE, getAeadKey(), new GCMParameterSpec(aeadTagLength, nonce));
+            return new String(c.doFinal(encryptedSecret), StandardCharsets.UTF_8);
+        } catch (InvalidKeyException | InvalidAlgorithmParameterException e) {
+            throw new IllegalStateException("Invalid key provided for " + aeadAlgorithm, e);
+        } catch (AEADBadTagException e) {
+            throw new IllegalStateException("Secret cannot be authenticated with the encryption key", e);
+        } catch (IllegalBlockSizeException | BadPaddingException e) {
+            throw new IllegalStateException("Unable to decrypt secret with " + aeadAlgorithm, e);
+        }
+    }
+
+    /**
+     * Derives key for the given purpose from the encryption key using HKDF-SHA256.
+     * All instances sharing the encryption key derive the same key.
+     * @param purpose purpose of the key, keys derived for different purposes are independent
+     * @param length length of the key in bytes
+     * @return derived key
+     */
+    public static byte[] deriveKey(String purpose, int length) {
+        HKDFBytesGenerator generator = new HKDFBytesGenerator(new SHA256Digest());
+        generator.init(new HKDFParameters(encryptionKey.getBytes(StandardCharsets.UTF_8), null, purpose.getBytes(StandardCharsets.UTF_8)));
+        byte[] key = new byte[length];
+        generator.generateBytes(key, 0, length);
+        return key;
+    }
+
+    private static SecretKey getAeadKey() {
+        SecretKey key = aeadKey;
+        if (key == null) {
+            key = new SecretKeySpec(deriveKey(aeadKeyPurpose, 32), "AES");
+            aeadKey = key;
+        }
+        return key;
+    }
+
+    private static SecretKey getPbeKey(byte[] salt, int iterations) throws NoSuchAlgorithmException, NoSuchProviderException {
+        String cacheKey = Base64.getEncoder().encodeToString(salt) + "|" + iterations;
+        SecretKey key = pbeKeys.get(cacheKey);
+        if (key == null) {
+            PBEKeySpec keySpec = new PBEKeySpec(encryptionKey.toCharArray(), salt, iterations);
+            try {
+                key = SecretKeyFactory.getInstance(algorithm, BouncyCastleProvider.PROVIDER_NAME).generateSecret(keySpec);
+            } catch (InvalidKeySpecException e) {
+                throw new IllegalStateException("Invalid specification for " + algorithm, e);
+            }
+            if (pbeKeys.size() >= MAX_CACHED_PBE_KEYS) {
+                logger.debug("Cache of derived secret keys reached its limit of {} entries and has been cleared.", MAX_CACHED_PBE_KEYS);
+                pbeKeys.clear();
+            }
+            pbeKeys.put(cacheKey, key);
+        }
+        return key;
+    }
+
     public static String calculateSecretContentFingerprint(SecretContent secretContent) throws JsonProcessingException, NoSuchAlgorithmException {
         switch (secretContent.getType()) {
             case BASIC_AUTH -> {
@@ -191,6 +316,17 @@ public class SecretsUtil {
         return encoded.toString();
     }
 
+    /**
+     * Encoded the secret value into string
+     * V2|nonce|secret
+     * @param secret value to be encoded, including authentication tag
+     * @param nonce used nonce
+     * @return encoded string
+     */
+    private static String encodeSecretStringV2(byte[] secret, byte[] nonce) {
+        return SecretEncodingVersion.V2.getVersion() + "|" + Base64.getEncoder().encodeToString(nonce) + "|" + Base64.getEncoder().encodeToString(secret);
+    }
+
     private static byte[] decodeSaltFromSecretStringV1(String secret) {
         if (isSecretStringV1(secret)) {
             String[] parts = secret.split("\\|");
@@ -0,0 +1,154 @@
+package com.czertainly.core.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+
+/**
+ * In-memory cache of values loaded from the database, with entries expiring after a time to live.
+ * <p>
+ * Each removal of entries increases the version of the cache and values loaded in older version are not stored,
+ * so a value loaded concurrently with a write of its source is not kept. Invalidation removes entries immediately
+ * and once more when the current transaction completes, so values loaded before the write is committed are not kept either.
+ * The time to live bounds how long other instances of the cluster can use values changed by this one.
+ * When the number of entries reaches its limit, the cache is cleared.
+ * <p>
+ * Cached values are shared by all callers and must not be modified.
+ *
+ * @param <K> Type of keys
+ * @param <V> Type of cached values
+ */
+public class VersionedTtlCache<K, V> {
+
+    private static final Logger logger = LoggerFactory.getLogger(VersionedTtlCache.class);
+
+    static final int MAX_CACHED_ENTRIES = 10_000;
+
+    private final String name;
+    private final long ttlNanos;
+    private final AtomicLong version = new AtomicLong();
+    private final Map<K, Entry<V>> entries = new ConcurrentHashMap<>();
+
+    /**
+     * @param name Name of the cache used in log messages
+     * @param ttl  Time to live of entries, zero disables caching
+     */
+    public VersionedTtlCache(String name, Duration ttl) {
+        this.name = name;
+        this.ttlNanos = ttl.toNanos();
+    }
+
+    /**
+     * Gets value of the key, loading it if it is not cached or has expired
+     *
+     * @param key    Key of the value
+     * @param loader Loads the value, value is not cached when the loader throws an exception
+     * @return Cached or loaded value
+     * @throws E when the value cannot be loaded
+     */
+    public <E extends Exception> V get(K key, Loader<V, E> loader) throws E {
+        long now = System.nanoTime();
+        Entry<V> entry = entries.get(key);
+        if (entry != null && now - entry.loadedAt() < ttlNanos) {
+            return entry.value();
+        }
+
+        long loadVersion = version.get();
+        V value = loader.load();
+        // value loaded concurrently with write could be stale
+        if (version.get() == loadVersion && ttlNanos > 0) {
+            if (entries.size() >= MAX_CACHED_ENTRIES) {
+                logger.debug("{} cache reached its limit of {} entries and has been cleared.", name, MAX_CACHED_ENTRIES);
+                entries.clear();
+            }
+            entries.put(key, new Entry<>(value, now));
+        }
+        return value;
+    }
+
+    /**
+     * @param key Key of the value
+     * @return Cached value of the key, null if it is not cached or has expired
+     */
+    public V getIfPresent(K key) {
+        Entry<V> entry = entries.get(key);
+        return entry != null && System.nanoTime() - entry.loadedAt() < ttlNanos ? entry.value() : null;
+    }
+
+    /**
+     * Invalidates value of the key after its source has been written
+     *
+     * @param key Key of the value
+     */
+    public void invalidate(K key) {
+        remove(key);
+        afterCompletion(() -> remove(key));
+    }
+
+    /**
+     * Invalidates all values after their sources have been written
+     */
+    public void invalidateAll() {
+        clear();
+        afterCompletion(this::clear);
+    }
+
+    /**
+     * Removes value of the key immediately, without waiting for completion of the current transaction
+     *
+     * @param key Key of the value
+     */
+    public void remove(K key) {
+        version.incrementAndGet();
+        entries.remove(key);
+    }
+
+    /**
+     * Removes values of keys matching the filter immediately, without waiting for completion of the current transaction
+     *
+     * @param filter Filter of keys to remove
+     */
+    public void removeIf(Predicate<K> filter) {
+        version.incrementAndGet();
+        entries.keySet().removeIf(filter);
+    }
+
+    /**
+     * Removes all values immediately, without waiting for completion of the current transaction
+     */
+    public void clear() {
+        version.incrementAndGet();
+        entries.clear();
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    private static void afterCompletion(Runnable invalidation) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                invalidation.run();
+            }
+        });
+    }
+
+    @FunctionalInterface
+    public interface Loader<V, E extends Exception> {
+        V load() throws E;
+    }
+
+    private record Entry<V>(V value, long loadedAt) {
+    }
+}
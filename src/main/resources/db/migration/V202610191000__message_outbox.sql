@@ -0,0 +1,9 @@
+CREATE SEQUENCE outbox_message_id_seq START 1 INCREMENT 1;
+CREATE TABLE outbox_message (
+    id BIGINT NOT NULL,
+    destination VARCHAR NOT NULL,
+    routing_key VARCHAR NOT NULL,
+    payload TEXT NOT NULL,
+    created_at TIMESTAMPTZ NOT NULL DEFAULT NOW(),
+    PRIMARY KEY (id)
+);
@@ -0,0 +1,41 @@
+-- hash of normalized JSON of content item, backslashes are escaped for the text to be converted to bytes literally
+ALTER TABLE attribute_content_item
+    ADD COLUMN json_hash BYTEA GENERATED ALWAYS AS (sha256(CAST(replace(CAST(json AS TEXT), '\', '\\') AS BYTEA))) STORED;
+
+create index attribute_content_2_object_attribute_content_item_uuid
+    on attribute_content_2_object (attribute_content_item_uuid);
+
+-- merge duplicate content items of the same definition, encrypted content items are never shared
+CREATE TEMPORARY TABLE duplicate_attribute_content_item AS
+SELECT uuid, kept_uuid
+FROM (SELECT uuid, first_value(uuid) OVER (PARTITION BY attribute_definition_uuid, json_hash ORDER BY uuid) AS kept_uuid
+      FROM attribute_content_item
+      WHERE encrypted_data IS NULL) items
+WHERE uuid <> kept_uuid;
+
+UPDATE attribute_content_2_object aco
+SET attribute_content_item_uuid = d.kept_uuid
+FROM duplicate_attribute_content_item d
+WHERE aco.attribute_content_item_uuid = d.uuid;
+
+-- object could have been assigned more duplicate content items
+DELETE FROM attribute_content_2_object aco
+USING attribute_content_2_object other
+WHERE aco.attribute_content_item_uuid IN (SELECT DISTINCT kept_uuid FROM duplicate_attribute_content_item)
+  AND other.attribute_content_item_uuid = aco.attribute_content_item_uuid
+  AND other.object_type = aco.object_type
+  AND other.object_uuid = aco.object_uuid
+  AND other.connector_uuid IS NOT DISTINCT FROM aco.connector_uuid
+  AND other.source_object_type IS NOT DISTINCT FROM aco.source_object_type
+  AND other.source_object_uuid IS NOT DISTINCT FROM aco.source_object_uuid
+  AND other.purpose IS NOT DISTINCT FROM aco.purpose
+  AND other.uuid < aco.uuid;
+
+DELETE FROM attribute_content_item aci
+USING duplicate_attribute_content_item d
+WHERE aci.uuid = d.uuid;
+
+DROP TABLE duplicate_attribute_content_item;
+
+CREATE UNIQUE INDEX attribute_content_item_definition_json_hash
+    ON attribute_content_item (attribute_definition_uuid, json_hash) WHERE encrypted_data IS NULL;
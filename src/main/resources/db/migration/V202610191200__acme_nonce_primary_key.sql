@@ -0,0 +1,3 @@
+-- used nonces are recorded by conflict on the nonce when shared replay store is enabled
+DELETE FROM acme_nonce a USING acme_nonce b WHERE a.nonce = b.nonce AND a.ctid < b.ctid;
+ALTER TABLE acme_nonce ADD PRIMARY KEY (nonce);
@@ -35,7 +35,9 @@ import com.czertainly.api.model.client.connector.v2.ConnectorVersion;
 import com.czertainly.api.model.core.search.FilterFieldSource;
 import com.czertainly.api.model.core.search.SearchFieldDataByGroupDto;
 import com.czertainly.core.attribute.engine.AttributeEngine;
+import com.czertainly.core.attribute.engine.AttributeOperation;
 import com.czertainly.core.attribute.engine.records.ObjectAttributeContentInfo;
+import com.czertainly.core.attribute.engine.records.ObjectsAttributesContent;
 import com.czertainly.core.dao.entity.*;
 import com.czertainly.core.dao.repository.*;
 import com.czertainly.core.security.authz.SecuredUUID;
@@ -211,6 +213,21 @@ class AttributeEngineTest extends BaseSpringBootTest {
         Assertions.assertEquals("TEST", metadataResponseDto.get().getItems().getFirst().getContent().getFirst().getReference());
     }
 
+    @Test
+    void testMetadataContentItemsShared() throws AttributeException {
+        networkDiscoveryMeta.setContent(List.of(new StringAttributeContentV3("localhost:1443"), new StringAttributeContentV3("localhost:1443"), new StringAttributeContentV3("localhost:2443")));
+        attributeEngine.updateMetadataAttribute(networkDiscoveryMeta, new ObjectAttributeContentInfo(connectorDiscovery.getUuid(), Resource.CERTIFICATE, certificate.getUuid(), Resource.DISCOVERY, networkDiscoveryUuid));
+        AttributeDefinition definition = attributeDefinitionRepository.findByTypeAndConnectorUuidAndAttributeUuidAndName(AttributeType.META, connectorDiscovery.getUuid(), UUID.fromString(networkDiscoveryMeta.getUuid()), networkDiscoveryMeta.getName()).orElseThrow();
+        int contentItemsCount = attributeContentItemRepository.findByAttributeDefinitionUuid(definition.getUuid()).size();
+
+        UUID otherObjectUuid = UUID.randomUUID();
+        attributeEngine.updateMetadataAttribute(networkDiscoveryMeta, new ObjectAttributeContentInfo(connectorDiscovery.getUuid(), Resource.CERTIFICATE, otherObjectUuid, Resource.DISCOVERY, networkDiscoveryUuid));
+
+        Assertions.assertEquals(contentItemsCount, attributeContentItemRepository.findByAttributeDefinitionUuid(definition.getUuid()).size());
+        List<MetadataResponseDto> mappedMetadata = attributeEngine.getMappedMetadataContent(new ObjectAttributeContentInfo(Resource.CERTIFICATE, otherObjectUuid));
+        Assertions.assertEquals(2, mappedMetadata.getFirst().getItems().getFirst().getContent().size());
+    }
+
     @Test
     void testAttributeContentValidation() {
         RequestAttributeV3 departmentAttributeDto = new RequestAttributeV3();
@@ -578,6 +595,75 @@ class AttributeEngineTest extends BaseSpringBootTest {
         Assertions.assertTrue(attributeContent2ObjectRepository.getObjectDataAttributesContentNoOperation(AttributeType.DATA, connectorDiscovery.getUuid(), Resource.CERTIFICATE, certificate.getUuid()).isEmpty());
     }
 
+    @Test
+    void testCachedAttributeDefinitionsInvalidated() throws AttributeException, NotFoundException {
+        DataAttributeV3 dataAttribute = new DataAttributeV3();
+        dataAttribute.setUuid(UUID.randomUUID().toString());
+        dataAttribute.setName("cached_data_attr");
+        dataAttribute.setType(AttributeType.DATA);
+        dataAttribute.setContentType(AttributeContentType.STRING);
+        DataAttributeProperties dataProps = new DataAttributeProperties();
+        dataProps.setLabel("Cached Data Attr");
+        dataAttribute.setProperties(dataProps);
+
+        Assertions.assertNull(attributeEngine.getDataAttributeDefinition(connectorDiscovery.getUuid(), dataAttribute.getName()));
+        attributeEngine.updateDataAttributeDefinitions(connectorDiscovery.getUuid(), null, List.of(dataAttribute));
+        Assertions.assertNotNull(attributeEngine.getDataAttributeDefinition(connectorDiscovery.getUuid(), dataAttribute.getName()));
+
+        // returned definition is a copy, modifying it does not change the cached definition
+        attributeEngine.getDataAttributeDefinition(connectorDiscovery.getUuid(), dataAttribute.getName()).getProperties().setLabel("Modified");
+        Assertions.assertEquals("Cached Data Attr", attributeEngine.getDataAttributeDefinition(connectorDiscovery.getUuid(), dataAttribute.getName()).getProperties().getLabel());
+
+        attributeEngine.deleteConnectorAttributeDefinitionsContent(connectorDiscovery.getUuid());
+        Assertions.assertNull(attributeEngine.getDataAttributeDefinition(connectorDiscovery.getUuid(), dataAttribute.getName()));
+
+        Assertions.assertEquals(1, attributeEngine.getCustomAttributesByResource(Resource.AUTHORITY, SecurityResourceFilter.create()).size());
+        AttributeDefinition orderNoDefinition = attributeDefinitionRepository.findByConnectorUuidAndAttributeUuid(null, UUID.fromString(orderNoCustomAttribute.getUuid())).orElseThrow();
+        attributeEngine.updateCustomAttributeResources(orderNoDefinition.getUuid(), List.of(Resource.CERTIFICATE, Resource.AUTHORITY));
+        Assertions.assertEquals(2, attributeEngine.getCustomAttributesByResource(Resource.AUTHORITY, SecurityResourceFilter.create()).size());
+    }
+
+    @Test
+    void testLoadObjectsAttributesContent() throws AttributeException, NotFoundException {
+        DataAttributeV3 issueAttribute = new DataAttributeV3();
+        issueAttribute.setUuid(UUID.randomUUID().toString());
+        issueAttribute.setName("issueAttribute");
+        issueAttribute.setType(AttributeType.DATA);
+        issueAttribute.setContentType(AttributeContentType.STRING);
+        DataAttributeProperties props = new DataAttributeProperties();
+        props.setLabel("Issue attribute");
+        issueAttribute.setProperties(props);
+        attributeEngine.updateDataAttributeDefinitions(connectorAuthority.getUuid(), AttributeOperation.CERTIFICATE_ISSUE, List.of(issueAttribute));
+
+        RequestAttributeV3 issueRequestAttribute = new RequestAttributeV3();
+        issueRequestAttribute.setUuid(UUID.fromString(issueAttribute.getUuid()));
+        issueRequestAttribute.setName(issueAttribute.getName());
+        issueRequestAttribute.setContentType(AttributeContentType.STRING);
+        issueRequestAttribute.setContent(List.of(new StringAttributeContentV3("issued")));
+        attributeEngine.updateObjectDataAttributesContent(connectorAuthority.getUuid(), AttributeOperation.CERTIFICATE_ISSUE, Resource.CERTIFICATE, certificate.getUuid(), List.of(issueRequestAttribute));
+
+        UUID otherCertificateUuid = UUID.randomUUID();
+        ObjectsAttributesContent attributesContent = attributeEngine.loadObjectsAttributesContent(Resource.CERTIFICATE, List.of(certificate.getUuid(), otherCertificateUuid));
+
+        Assertions.assertEquals(attributeEngine.getMappedMetadataContent(new ObjectAttributeContentInfo(Resource.CERTIFICATE, certificate.getUuid())).size(),
+                attributeEngine.getMappedMetadataContent(attributesContent, new ObjectAttributeContentInfo(Resource.CERTIFICATE, certificate.getUuid())).size());
+        Assertions.assertEquals(1, attributeEngine.getMappedMetadataContent(attributesContent, new ObjectAttributeContentInfo(connectorDiscovery.getUuid(), Resource.CERTIFICATE, certificate.getUuid(), Resource.DISCOVERY, networkDiscoveryUuid)).size());
+        Assertions.assertEquals(attributeEngine.getObjectCustomAttributesContent(Resource.CERTIFICATE, certificate.getUuid()).size(),
+                attributeEngine.getObjectCustomAttributesContent(attributesContent, certificate.getUuid()).size());
+
+        List<ResponseAttribute> issueAttributes = attributeEngine.getObjectDataAttributesContent(attributesContent, connectorAuthority.getUuid(), AttributeOperation.CERTIFICATE_ISSUE, null, certificate.getUuid());
+        Assertions.assertEquals(1, issueAttributes.size());
+        Assertions.assertEquals(issueAttribute.getName(), issueAttributes.getFirst().getName());
+        Assertions.assertTrue(attributeEngine.getObjectDataAttributesContent(attributesContent, connectorAuthority.getUuid(), AttributeOperation.CERTIFICATE_REVOKE, null, certificate.getUuid()).isEmpty());
+
+        Assertions.assertTrue(attributeEngine.getObjectCustomAttributesContent(attributesContent, otherCertificateUuid).isEmpty());
+        Assertions.assertTrue(attributeEngine.getMappedMetadataContent(attributesContent, new ObjectAttributeContentInfo(Resource.CERTIFICATE, otherCertificateUuid)).isEmpty());
+
+        ObjectsAttributesContent metadataContent = attributeEngine.loadObjectsAttributesContent(Resource.CERTIFICATE, List.of(certificate.getUuid()), AttributeType.META);
+        UUID certificateUuid = certificate.getUuid();
+        Assertions.assertThrows(IllegalStateException.class, () -> attributeEngine.getObjectCustomAttributesContent(metadataContent, certificateUuid));
+    }
+
     @Test
     void testBulkDeleteObjectAttributeContent() throws AttributeException, NotFoundException {
         // Use existing certificate and create another one
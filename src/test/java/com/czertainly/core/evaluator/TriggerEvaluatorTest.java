@@ -24,19 +24,24 @@ import com.czertainly.api.model.core.certificate.CertificateValidationStatus;
 import com.czertainly.api.model.core.connector.ConnectorStatus;
 import com.czertainly.api.model.core.enums.CertificateProtocol;
 import com.czertainly.api.model.core.notification.RecipientType;
+import com.czertainly.api.model.core.workflows.ConditionType;
 import com.czertainly.api.model.core.workflows.ExecutionType;
 import com.czertainly.api.model.core.search.FilterConditionOperator;
 import com.czertainly.api.model.core.search.FilterFieldSource;
 import com.czertainly.api.model.core.workflows.TriggerType;
 import com.czertainly.core.attribute.engine.AttributeEngine;
 import com.czertainly.core.attribute.engine.records.ObjectAttributeContentInfo;
+import com.czertainly.core.attribute.engine.records.ObjectAttributeContentLookup;
 import com.czertainly.core.dao.entity.*;
 import com.czertainly.core.dao.entity.acme.AcmeProfile;
 import com.czertainly.core.dao.entity.workflows.*;
 import com.czertainly.core.dao.repository.*;
 import com.czertainly.core.dao.repository.workflows.ActionRepository;
+import com.czertainly.core.dao.repository.workflows.ConditionItemRepository;
+import com.czertainly.core.dao.repository.workflows.ConditionRepository;
 import com.czertainly.core.dao.repository.workflows.ExecutionItemRepository;
 import com.czertainly.core.dao.repository.workflows.ExecutionRepository;
+import com.czertainly.core.dao.repository.workflows.RuleRepository;
 import com.czertainly.core.dao.repository.workflows.TriggerRepository;
 import com.czertainly.core.enums.FilterField;
 import com.czertainly.core.service.*;
@@ -130,6 +135,14 @@ class TriggerEvaluatorTest extends BaseSpringBootTest {
     private ApprovalRepository approvalRepository;
     @Autowired
     private TriggerEvaluator<Approval> approvalTriggerEvaluator;
+    @Autowired
+    private ConditionItemCompiler conditionItemCompiler;
+    @Autowired
+    private ConditionRepository conditionRepository;
+    @Autowired
+    private ConditionItemRepository conditionItemRepository;
+    @Autowired
+    private RuleRepository ruleRepository;
 
 
     private Certificate certificate;
@@ -218,6 +231,186 @@ class TriggerEvaluatorTest extends BaseSpringBootTest {
         Assertions.assertTrue(certificateTriggerEvaluator.evaluateConditionItem(condition, certificate, Resource.CERTIFICATE));
     }
 
+    @Test
+    void testCompiledPropertyConditionIsCachedAndRecompiledOnChange() throws RuleException {
+        certificate.setCommonName("Common Name");
+        condition.setUuid(UUID.randomUUID());
+        condition.setFieldSource(FilterFieldSource.PROPERTY);
+        condition.setFieldIdentifier(FilterField.COMMON_NAME.toString());
+        condition.setOperator(FilterConditionOperator.STARTS_WITH);
+        condition.setValue("Comm");
+
+        CompiledPropertyCondition compiledCondition = conditionItemCompiler.getCompiledPropertyCondition(condition, Resource.CERTIFICATE);
+        Assertions.assertSame(compiledCondition, conditionItemCompiler.getCompiledPropertyCondition(condition, Resource.CERTIFICATE));
+        Assertions.assertTrue(certificateTriggerEvaluator.evaluateConditionItem(condition, certificate, Resource.CERTIFICATE));
+
+        // changed definition of the condition item is recompiled
+        condition.setValue("Name");
+        Assertions.assertNotSame(compiledCondition, conditionItemCompiler.getCompiledPropertyCondition(condition, Resource.CERTIFICATE));
+        Assertions.assertFalse(certificateTriggerEvaluator.evaluateConditionItem(condition, certificate, Resource.CERTIFICATE));
+
+        compiledCondition = conditionItemCompiler.getCompiledPropertyCondition(condition, Resource.CERTIFICATE);
+        conditionItemCompiler.evict(List.of(condition));
+        Assertions.assertNotSame(compiledCondition, conditionItemCompiler.getCompiledPropertyCondition(condition, Resource.CERTIFICATE));
+
+        condition.setFieldIdentifier("UNKNOWN_FIELD");
+        Assertions.assertThrows(RuleException.class, () -> certificateTriggerEvaluator.evaluateConditionItem(condition, certificate, Resource.CERTIFICATE));
+    }
+
+    @Test
+    void testCompiledCountCondition() throws RuleException {
+        Group group = new Group();
+        group.setName("group");
+        group = groupRepository.save(group);
+        certificate.setGroups(new HashSet<>(List.of(group)));
+
+        condition.setUuid(UUID.randomUUID());
+        condition.setFieldSource(FilterFieldSource.PROPERTY);
+        condition.setFieldIdentifier(FilterField.GROUP_NAME.toString());
+        condition.setOperator(FilterConditionOperator.COUNT_GREATER_THAN);
+        condition.setValue(0);
+
+        CompiledPropertyCondition compiledCondition = Assertions.assertDoesNotThrow(() -> conditionItemCompiler.getCompiledPropertyCondition(condition, Resource.CERTIFICATE));
+        Assertions.assertTrue(compiledCondition.evaluate(certificate, Resource.CERTIFICATE));
+        Assertions.assertTrue(certificateTriggerEvaluator.evaluateConditionItem(condition, certificate, Resource.CERTIFICATE));
+
+        condition.setOperator(FilterConditionOperator.COUNT_EQUAL);
+        condition.setValue(2);
+        Assertions.assertFalse(certificateTriggerEvaluator.evaluateConditionItem(condition, certificate, Resource.CERTIFICATE));
+        condition.setValue(1);
+        Assertions.assertTrue(certificateTriggerEvaluator.evaluateConditionItem(condition, certificate, Resource.CERTIFICATE));
+
+        // count operator cannot be applied on single value
+        condition.setFieldIdentifier(FilterField.COMMON_NAME.toString());
+        Assertions.assertThrows(RuleException.class, () -> certificateTriggerEvaluator.evaluateConditionItem(condition, certificate, Resource.CERTIFICATE));
+    }
+
+    @Test
+    void testPushedDownConditions() throws RuleException {
+        certificate.setCommonName("pushed");
+        certificateRepository.save(certificate);
+        Certificate otherCertificate = new Certificate();
+        otherCertificate.setCommonName("other");
+        certificateRepository.save(otherCertificate);
+
+        Condition pushedCondition = new Condition();
+        pushedCondition.setName("PushedCondition");
+        pushedCondition.setType(ConditionType.CHECK_FIELD);
+        pushedCondition.setResource(Resource.CERTIFICATE);
+        conditionRepository.save(pushedCondition);
+
+        ConditionItem pushedItem = new ConditionItem();
+        pushedItem.setCondition(pushedCondition);
+        pushedItem.setFieldSource(FilterFieldSource.PROPERTY);
+        pushedItem.setFieldIdentifier(FilterField.COMMON_NAME.name());
+        pushedItem.setOperator(FilterConditionOperator.EQUALS);
+        pushedItem.setValue("pushed");
+        conditionItemRepository.save(pushedItem);
+
+        // regular expressions are evaluated in memory
+        ConditionItem inMemoryItem = new ConditionItem();
+        inMemoryItem.setCondition(pushedCondition);
+        inMemoryItem.setFieldSource(FilterFieldSource.PROPERTY);
+        inMemoryItem.setFieldIdentifier(FilterField.COMMON_NAME.name());
+        inMemoryItem.setOperator(FilterConditionOperator.MATCHES);
+        inMemoryItem.setValue("^p.*");
+        conditionItemRepository.save(inMemoryItem);
+        pushedCondition.setItems(Set.of(pushedItem, inMemoryItem));
+
+        Rule rule = new Rule();
+        rule.setName("PushedRule");
+        rule.setResource(Resource.CERTIFICATE);
+        rule.setConditions(Set.of(pushedCondition));
+        ruleRepository.save(rule);
+
+        Trigger pushedTrigger = new Trigger();
+        pushedTrigger.setName("PushedTrigger");
+        pushedTrigger.setType(TriggerType.EVENT);
+        pushedTrigger.setResource(Resource.CERTIFICATE);
+        pushedTrigger.setRules(Set.of(rule));
+        triggerRepository.save(pushedTrigger);
+
+        PushedDownConditions pushedDownConditions = certificateTriggerEvaluator.pushDownConditions(pushedTrigger, List.of(certificate, otherCertificate));
+        Assertions.assertEquals(Set.of(certificate.getUuid()), pushedDownConditions.matchingObjectUuids().get(pushedCondition.getUuid()));
+        Assertions.assertEquals(Set.of(pushedItem.getUuid()), pushedDownConditions.conditionItemUuids());
+
+        Assertions.assertTrue(certificateTriggerEvaluator.evaluateTrigger(pushedTrigger, null, certificate, null, null, pushedDownConditions).isConditionsMatched());
+        TriggerHistory otherHistory = certificateTriggerEvaluator.evaluateTrigger(pushedTrigger, null, otherCertificate, null, null, pushedDownConditions);
+        Assertions.assertFalse(otherHistory.isConditionsMatched());
+        Assertions.assertEquals(pushedCondition.getUuid(), otherHistory.getRecords().getFirst().getConditionUuid());
+    }
+
+    @Test
+    void testPushedDownConditionsMatchInMemoryEvaluation() throws RuleException {
+        Group group = new Group();
+        group.setName("group");
+        group = groupRepository.save(group);
+        Group group2 = new Group();
+        group2.setName("group2");
+        group2 = groupRepository.save(group2);
+
+        certificate.setCommonName("pushed");
+        certificate.setGroups(new HashSet<>(List.of(group, group2)));
+        certificateRepository.save(certificate);
+        Certificate noCommonNameCertificate = new Certificate();
+        noCommonNameCertificate.setGroups(new HashSet<>(List.of(group2)));
+        certificateRepository.save(noCommonNameCertificate);
+        List<Certificate> certificates = List.of(certificate, noCommonNameCertificate);
+
+        Trigger equalsTrigger = createPropertyConditionTrigger(FilterField.COMMON_NAME, FilterConditionOperator.EQUALS, "pushed");
+        Trigger groupEqualsTrigger = createPropertyConditionTrigger(FilterField.GROUP_NAME, FilterConditionOperator.EQUALS, List.of("group"));
+        Trigger notEqualsTrigger = createPropertyConditionTrigger(FilterField.COMMON_NAME, FilterConditionOperator.NOT_EQUALS, "other");
+        Trigger notContainsTrigger = createPropertyConditionTrigger(FilterField.COMMON_NAME, FilterConditionOperator.NOT_CONTAINS, "other");
+        Trigger groupNotEqualsTrigger = createPropertyConditionTrigger(FilterField.GROUP_NAME, FilterConditionOperator.NOT_EQUALS, List.of("group"));
+
+        // negated operators would also match missing property or collection with any other element in database, so they are kept in memory
+        for (Trigger negatedTrigger : List.of(notEqualsTrigger, notContainsTrigger, groupNotEqualsTrigger)) {
+            Assertions.assertTrue(certificateTriggerEvaluator.pushDownConditions(negatedTrigger, certificates).conditionItemUuids().isEmpty());
+        }
+        Assertions.assertFalse(certificateTriggerEvaluator.pushDownConditions(equalsTrigger, certificates).conditionItemUuids().isEmpty());
+        Assertions.assertFalse(certificateTriggerEvaluator.pushDownConditions(groupEqualsTrigger, certificates).conditionItemUuids().isEmpty());
+
+        for (Trigger trigger : List.of(equalsTrigger, groupEqualsTrigger, notEqualsTrigger, notContainsTrigger, groupNotEqualsTrigger)) {
+            PushedDownConditions pushedDownConditions = certificateTriggerEvaluator.pushDownConditions(trigger, certificates);
+            for (Certificate cert : certificates) {
+                boolean inMemoryResult = certificateTriggerEvaluator.evaluateTrigger(trigger, null, cert, null, null).isConditionsMatched();
+                boolean pushedDownResult = certificateTriggerEvaluator.evaluateTrigger(trigger, null, cert, null, null, pushedDownConditions).isConditionsMatched();
+                Assertions.assertEquals(inMemoryResult, pushedDownResult, "Trigger " + trigger.getName() + " evaluated differently for certificate " + cert.getCommonName());
+            }
+        }
+    }
+
+    private Trigger createPropertyConditionTrigger(FilterField field, FilterConditionOperator operator, Object value) {
+        String name = field.name() + operator.name();
+        Condition propertyCondition = new Condition();
+        propertyCondition.setName(name);
+        propertyCondition.setType(ConditionType.CHECK_FIELD);
+        propertyCondition.setResource(Resource.CERTIFICATE);
+        conditionRepository.save(propertyCondition);
+
+        ConditionItem item = new ConditionItem();
+        item.setCondition(propertyCondition);
+        item.setFieldSource(FilterFieldSource.PROPERTY);
+        item.setFieldIdentifier(field.name());
+        item.setOperator(operator);
+        item.setValue(value);
+        conditionItemRepository.save(item);
+        propertyCondition.setItems(Set.of(item));
+
+        Rule propertyRule = new Rule();
+        propertyRule.setName(name);
+        propertyRule.setResource(Resource.CERTIFICATE);
+        propertyRule.setConditions(Set.of(propertyCondition));
+        ruleRepository.save(propertyRule);
+
+        Trigger propertyTrigger = new Trigger();
+        propertyTrigger.setName(name);
+        propertyTrigger.setType(TriggerType.EVENT);
+        propertyTrigger.setResource(Resource.CERTIFICATE);
+        propertyTrigger.setRules(Set.of(propertyRule));
+        return triggerRepository.save(propertyTrigger);
+    }
+
     @Test
     void testCertificateRuleEvaluatorOnKeyAlgorithmProperty() throws RuleException {
         condition.setFieldSource(FilterFieldSource.PROPERTY);
@@ -623,6 +816,59 @@ class TriggerEvaluatorTest extends BaseSpringBootTest {
         Assertions.assertTrue(certificateTriggerEvaluator.evaluateConditionItem(newCondition, newCertificate, Resource.CERTIFICATE));
     }
 
+    @Test
+    void testPrefetchedAttributeConditions() throws AlreadyExistException, NotFoundException, RuleException, AttributeException {
+        Certificate otherCertificate = new Certificate();
+        certificateRepository.save(otherCertificate);
+
+        CustomAttributeCreateRequestDto customAttributeRequest = new CustomAttributeCreateRequestDto();
+        customAttributeRequest.setName("prefetched");
+        customAttributeRequest.setLabel("prefetched");
+        customAttributeRequest.setResources(List.of(Resource.CERTIFICATE));
+        customAttributeRequest.setContentType(AttributeContentType.STRING);
+        CustomAttributeDefinitionDetailDto customAttribute = attributeService.createCustomAttribute(customAttributeRequest);
+        attributeEngine.updateObjectCustomAttributeContent(Resource.CERTIFICATE, certificate.getUuid(), null, customAttribute.getName(), List.of(new StringAttributeContentV3("ref", "data")));
+        attributeEngine.updateObjectCustomAttributeContent(Resource.CERTIFICATE, otherCertificate.getUuid(), null, customAttribute.getName(), List.of(new StringAttributeContentV3("ref", "other")));
+
+        Condition attributeCondition = new Condition();
+        attributeCondition.setName("AttributeCondition");
+        attributeCondition.setType(ConditionType.CHECK_FIELD);
+        attributeCondition.setResource(Resource.CERTIFICATE);
+        conditionRepository.save(attributeCondition);
+
+        ConditionItem attributeItem = new ConditionItem();
+        attributeItem.setCondition(attributeCondition);
+        attributeItem.setFieldSource(FilterFieldSource.CUSTOM);
+        attributeItem.setFieldIdentifier("prefetched");
+        attributeItem.setOperator(FilterConditionOperator.EQUALS);
+        attributeItem.setValue("data");
+        conditionItemRepository.save(attributeItem);
+        attributeCondition.setItems(Set.of(attributeItem));
+
+        Rule rule = new Rule();
+        rule.setName("AttributeRule");
+        rule.setResource(Resource.CERTIFICATE);
+        rule.setConditions(Set.of(attributeCondition));
+        ruleRepository.save(rule);
+
+        Trigger attributeTrigger = new Trigger();
+        attributeTrigger.setName("AttributeTrigger");
+        attributeTrigger.setType(TriggerType.EVENT);
+        attributeTrigger.setResource(Resource.CERTIFICATE);
+        attributeTrigger.setRules(Set.of(rule));
+        triggerRepository.save(attributeTrigger);
+
+        PushedDownConditions pushedDownConditions = certificateTriggerEvaluator.pushDownConditions(attributeTrigger, List.of(certificate, otherCertificate));
+        Assertions.assertTrue(pushedDownConditions.conditionItemUuids().isEmpty());
+        ObjectAttributeContentLookup attributeContent = pushedDownConditions.attributeContents().get(Resource.CERTIFICATE);
+        Assertions.assertNotNull(attributeContent);
+        Assertions.assertNotNull(attributeContent.getCustomAttribute(certificate.getUuid(), "prefetched"));
+        Assertions.assertNotNull(attributeContent.getCustomAttribute(otherCertificate.getUuid(), "prefetched"));
+
+        Assertions.assertTrue(certificateTriggerEvaluator.evaluateTrigger(attributeTrigger, null, certificate, null, null, pushedDownConditions).isConditionsMatched());
+        Assertions.assertFalse(certificateTriggerEvaluator.evaluateTrigger(attributeTrigger, null, otherCertificate, null, null, pushedDownConditions).isConditionsMatched());
+    }
+
     @Test
     void testSetCertificateGroup() throws RuleException {
         executionItem.setFieldSource(FilterFieldSource.PROPERTY);
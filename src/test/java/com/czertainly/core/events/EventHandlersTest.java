@@ -32,6 +32,7 @@ import com.czertainly.core.attribute.engine.AttributeEngine;
 import com.czertainly.core.dao.entity.*;
 import com.czertainly.core.dao.entity.notifications.NotificationInstanceReference;
 import com.czertainly.core.dao.entity.notifications.PendingNotification;
+import com.czertainly.core.dao.entity.workflows.TriggerAssociation;
 import com.czertainly.core.dao.repository.*;
 import com.czertainly.core.dao.repository.notifications.NotificationInstanceReferenceRepository;
 import com.czertainly.core.dao.repository.notifications.PendingNotificationRepository;
@@ -41,6 +42,8 @@ import com.czertainly.core.events.data.DiscoveryResult;
 import com.czertainly.core.events.data.EventDataBuilder;
 import com.czertainly.core.events.handlers.*;
 import com.czertainly.core.messaging.jms.listeners.NotificationListener;
+import com.czertainly.core.messaging.jms.producers.NotificationProducer;
+import com.czertainly.core.messaging.model.EventMessage;
 import com.czertainly.core.messaging.model.NotificationMessage;
 import com.czertainly.core.messaging.model.NotificationRecipient;
 import com.czertainly.core.model.ScheduledTaskResult;
@@ -53,9 +56,12 @@ import com.github.tomakehurst.wiremock.WireMockServer;
 import com.github.tomakehurst.wiremock.client.WireMock;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.test.context.DynamicPropertyRegistry;
 import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
 
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
@@ -82,6 +88,8 @@ class EventHandlersTest extends BaseSpringBootTest {
     private CertificateStatusChangedEventHandler certificateStatusChangedEventHandler;
     @Autowired
     private CertificateActionPerformedEventHandler certificateActionPerformedEventHandler;
+    @Autowired
+    private CertificateExpiringEventHandler certificateExpiringEventHandler;
 
     @Autowired
     private GroupRepository groupRepository;
@@ -128,6 +136,8 @@ class EventHandlersTest extends BaseSpringBootTest {
     private PendingNotificationRepository pendingNotificationRepository;
     @Autowired
     private NotificationInstanceReferenceRepository notificationInstanceReferenceRepository;
+    @MockitoBean
+    private NotificationProducer notificationProducer;
 
     private WireMockServer mockServer;
 
@@ -205,6 +215,112 @@ class EventHandlersTest extends BaseSpringBootTest {
         Assertions.assertEquals(CertificateEvent.APPROVAL_CLOSE, historyList.getFirst().getEvent());
     }
 
+    @Test
+    void testSetBasedCertificateExpiringEvent() throws EventException, NotFoundException, AlreadyExistException {
+        Group group = new Group();
+        group.setName("ExpiringGroup");
+        group = groupRepository.save(group);
+
+        List<UUID> certificateUuids = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            Certificate certificate = new Certificate();
+            certificate.setSubjectDn("expiringCertificate" + i);
+            certificate.setIssuerDn("expiringCertificate" + i);
+            certificate.setSerialNumber("expiring" + i);
+            certificate.setNotBefore(Date.from(Instant.now().minus(100, ChronoUnit.DAYS)));
+            certificate.setNotAfter(Date.from(Instant.now().plus(5, ChronoUnit.DAYS)));
+            certificate.setCertificateType(CertificateType.X509);
+            certificate.setState(CertificateState.ISSUED);
+            certificate.setValidationStatus(CertificateValidationStatus.EXPIRING);
+            certificate = certificateRepository.save(certificate);
+            certificateUuids.add(certificate.getUuid());
+            associationService.setGroups(Resource.CERTIFICATE, certificate.getUuid(), Set.of(group.getUuid()));
+        }
+        // not existing certificate is skipped
+        certificateUuids.add(UUID.randomUUID());
+
+        // group triggers notify expiring certificates except the one with serial number 'expiring2'
+        NotificationProfileRequestDto notificationProfileRequest = new NotificationProfileRequestDto();
+        notificationProfileRequest.setName("ExpiringProfile");
+        notificationProfileRequest.setRecipientType(RecipientType.NONE);
+        notificationProfileRequest.setRepetitions(1);
+        notificationProfileRequest.setInternalNotification(true);
+        NotificationProfileDetailDto notificationProfile = notificationProfileService.createNotificationProfile(notificationProfileRequest);
+
+        ConditionItemRequestDto conditionItemRequest = new ConditionItemRequestDto();
+        conditionItemRequest.setFieldSource(FilterFieldSource.PROPERTY);
+        conditionItemRequest.setFieldIdentifier(FilterField.SERIAL_NUMBER.name());
+        conditionItemRequest.setOperator(FilterConditionOperator.EQUALS);
+        conditionItemRequest.setValue("expiring2");
+
+        ConditionRequestDto conditionRequest = new ConditionRequestDto();
+        conditionRequest.setName("ExpiringSerialNumberCondition");
+        conditionRequest.setResource(Resource.CERTIFICATE);
+        conditionRequest.setType(ConditionType.CHECK_FIELD);
+        conditionRequest.setItems(List.of(conditionItemRequest));
+        ConditionDto condition = ruleService.createCondition(conditionRequest);
+
+        RuleRequestDto ruleRequest = new RuleRequestDto();
+        ruleRequest.setName("ExpiringSerialNumberRule");
+        ruleRequest.setResource(Resource.CERTIFICATE);
+        ruleRequest.setConditionsUuids(List.of(condition.getUuid()));
+        RuleDetailDto rule = ruleService.createRule(ruleRequest);
+
+        ExecutionItemRequestDto executionItemRequest = new ExecutionItemRequestDto();
+        executionItemRequest.setNotificationProfileUuid(notificationProfile.getUuid());
+
+        ExecutionRequestDto executionRequest = new ExecutionRequestDto();
+        executionRequest.setName("NotifyExpiringExecution");
+        executionRequest.setResource(Resource.CERTIFICATE);
+        executionRequest.setType(ExecutionType.SEND_NOTIFICATION);
+        executionRequest.setItems(List.of(executionItemRequest));
+        ExecutionDto execution = actionService.createExecution(executionRequest);
+
+        ActionRequestDto actionRequest = new ActionRequestDto();
+        actionRequest.setName("NotifyExpiringAction");
+        actionRequest.setResource(Resource.CERTIFICATE);
+        actionRequest.setExecutionsUuids(List.of(execution.getUuid()));
+        ActionDetailDto action = actionService.createAction(actionRequest);
+
+        TriggerRequestDto triggerRequest = new TriggerRequestDto();
+        triggerRequest.setName("NotifyExpiring");
+        triggerRequest.setType(TriggerType.EVENT);
+        triggerRequest.setEvent(ResourceEvent.CERTIFICATE_EXPIRING);
+        triggerRequest.setResource(Resource.CERTIFICATE);
+        triggerRequest.setActionsUuids(List.of(action.getUuid()));
+        TriggerDetailDto trigger = triggerService.createTrigger(triggerRequest);
+
+        triggerRequest.setName("NotifyExpiringIgnore");
+        triggerRequest.setRulesUuids(List.of(rule.getUuid()));
+        triggerRequest.setIgnoreTrigger(true);
+        triggerRequest.setActionsUuids(List.of());
+        TriggerDetailDto triggerIgnore = triggerService.createTrigger(triggerRequest);
+
+        // associations without user, so triggers are evaluated without authenticating as another user
+        saveGroupTriggerAssociation(triggerIgnore, group, -1);
+        saveGroupTriggerAssociation(trigger, group, 0);
+
+        List<EventMessage> eventMessages = CertificateExpiringEventHandler.constructEventMessages(certificateUuids);
+        Assertions.assertEquals(1, eventMessages.size());
+        Assertions.assertEquals(certificateUuids, eventMessages.getFirst().getObjectUuids());
+        certificateExpiringEventHandler.handleEvent(eventMessages.getFirst());
+
+        // group triggers are shared by the whole set, each selected certificate is notified exactly once
+        ArgumentCaptor<NotificationMessage> notificationCaptor = ArgumentCaptor.forClass(NotificationMessage.class);
+        Mockito.verify(notificationProducer, Mockito.times(2)).produceMessage(notificationCaptor.capture());
+        Assertions.assertEquals(Set.of(certificateUuids.get(0), certificateUuids.get(1)), Set.copyOf(notificationCaptor.getAllValues().stream().map(NotificationMessage::getObjectUuid).toList()));
+        for (NotificationMessage notificationMessage : notificationCaptor.getAllValues()) {
+            Assertions.assertEquals(ResourceEvent.CERTIFICATE_EXPIRING, notificationMessage.getEvent());
+            Assertions.assertEquals(List.of(UUID.fromString(notificationProfile.getUuid())), notificationMessage.getNotificationProfileUuids());
+        }
+
+        List<UUID> manyUuids = new ArrayList<>();
+        for (int i = 0; i < CertificateExpiringEventHandler.MAX_CERTIFICATES_PER_MESSAGE + 1; i++) {
+            manyUuids.add(UUID.randomUUID());
+        }
+        Assertions.assertEquals(2, CertificateExpiringEventHandler.constructEventMessages(manyUuids).size());
+    }
+
     @Test
     void testDiscoveryFinishedEvent() throws EventException, AttributeException, AlreadyExistException, NotFoundException {
         DiscoveryHistory discovery = new DiscoveryHistory();
@@ -591,4 +707,14 @@ class EventHandlersTest extends BaseSpringBootTest {
                 UUID.fromString(notificationProfileDetailDto5.getUuid()));
 
     }
+
+    private void saveGroupTriggerAssociation(TriggerDetailDto trigger, Group group, int triggerOrder) {
+        TriggerAssociation triggerAssociation = new TriggerAssociation();
+        triggerAssociation.setTriggerUuid(UUID.fromString(trigger.getUuid()));
+        triggerAssociation.setResource(Resource.GROUP);
+        triggerAssociation.setObjectUuid(group.getUuid());
+        triggerAssociation.setEvent(ResourceEvent.CERTIFICATE_EXPIRING);
+        triggerAssociation.setTriggerOrder(triggerOrder);
+        triggerAssociationRepository.save(triggerAssociation);
+    }
 }
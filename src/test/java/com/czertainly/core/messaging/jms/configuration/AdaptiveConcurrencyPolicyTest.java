@@ -0,0 +1,80 @@
+package com.czertainly.core.messaging.jms.configuration;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdaptiveConcurrencyPolicyTest {
+
+    private final AdaptiveConcurrencyPolicy policy = new AdaptiveConcurrencyPolicy(
+            new MessagingConcurrencyProperties.Adaptive(true, 10000L, 1000L, 0.8, 0.8, 20, 2));
+
+    @Test
+    void busyConsumers_addOneConsumer() {
+        assertThat(policy.nextMaxConsumers(5, 3, 10, 0.95, 100, false)).isEqualTo(6);
+    }
+
+    @Test
+    void busyConsumers_doNotExceedConfiguredMax() {
+        assertThat(policy.nextMaxConsumers(10, 3, 10, 1.0, 100, false)).isEqualTo(10);
+    }
+
+    @Test
+    void idleConsumers_keepCurrentMax() {
+        assertThat(policy.nextMaxConsumers(6, 3, 10, 0.2, 100, false)).isEqualTo(6);
+    }
+
+    @Test
+    void dbPoolSaturated_removesQuarterOfConsumers() {
+        assertThat(policy.nextMaxConsumers(8, 3, 10, 1.0, 100, true)).isEqualTo(6);
+        assertThat(policy.nextMaxConsumers(3, 3, 10, 1.0, 100, true)).isEqualTo(3);
+    }
+
+    @Test
+    void latencyExceeded_removesConsumers() {
+        assertThat(policy.nextMaxConsumers(5, 1, 10, 1.0, 1500, false)).isEqualTo(4);
+    }
+
+    @Test
+    void instanceCap_scalesDownProportionallyAndKeepsMinimum() {
+        Map<String, Integer> requested = new LinkedHashMap<>();
+        requested.put("eventListener", 10);
+        requested.put("validationListener", 10);
+        Map<String, Integer> minimum = Map.of("eventListener", 2, "validationListener", 6);
+
+        Map<String, Integer> capped = policy.applyInstanceCap(requested, minimum, 0);
+
+        // cluster cap 20 shared by 2 replicas = 10 consumers for this instance
+        assertThat(capped).containsEntry("eventListener", 5).containsEntry("validationListener", 6);
+    }
+
+    @Test
+    void instanceCap_notAppliedWhenBelowCap() {
+        Map<String, Integer> requested = Map.of("eventListener", 4);
+
+        assertThat(policy.applyInstanceCap(requested, Map.of("eventListener", 1), 5)).isSameAs(requested);
+    }
+
+    @Test
+    void instanceCap_countsListenersWithFixedConcurrency() {
+        Map<String, Integer> requested = new LinkedHashMap<>();
+        requested.put("eventListener", 6);
+        requested.put("validationListener", 6);
+        Map<String, Integer> minimum = Map.of("eventListener", 1, "validationListener", 1);
+
+        // 4 consumers of fixed listeners leave 6 of the instance cap of 10 to the adaptive listeners
+        Map<String, Integer> capped = policy.applyInstanceCap(requested, minimum, 4);
+
+        assertThat(capped).containsEntry("eventListener", 3).containsEntry("validationListener", 3);
+    }
+
+    @Test
+    void instanceCap_fixedListenersOverCap_keepMinimum() {
+        Map<String, Integer> requested = Map.of("eventListener", 6);
+
+        assertThat(policy.applyInstanceCap(requested, Map.of("eventListener", 2), 12)).containsEntry("eventListener", 2);
+    }
+}
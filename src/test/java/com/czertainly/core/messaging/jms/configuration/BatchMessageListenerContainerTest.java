@@ -0,0 +1,99 @@
+package com.czertainly.core.messaging.jms.configuration;
+
+import jakarta.jms.JMSException;
+import jakarta.jms.Message;
+import jakarta.jms.MessageConsumer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for {@link BatchMessageListenerContainer} draining of messages into {@link JmsMessageBatch}.
+ */
+class BatchMessageListenerContainerTest {
+
+    private BatchMessageListenerContainer container;
+    private MessageConsumer consumer;
+    private Message first;
+    private Message second;
+    private Message third;
+
+    @BeforeEach
+    void setUp() {
+        container = new BatchMessageListenerContainer();
+        consumer = mock(MessageConsumer.class);
+        first = mock(Message.class);
+        second = mock(Message.class);
+        third = mock(Message.class);
+    }
+
+    @Test
+    void batchSizeOne_returnsSingleMessage() throws JMSException {
+        when(consumer.receive(anyLong())).thenReturn(first, second);
+
+        Message received = container.receiveMessage(consumer);
+
+        assertThat(received).isSameAs(first);
+        verify(consumer, never()).receiveNoWait();
+    }
+
+    @Test
+    void noMessage_returnsNull() throws JMSException {
+        container.setBatchSize(10);
+        when(consumer.receive(anyLong())).thenReturn(null);
+
+        assertThat(container.receiveMessage(consumer)).isNull();
+    }
+
+    @Test
+    void drainsUpToBatchSize() throws JMSException {
+        container.setBatchSize(2);
+        container.setLingerMs(1000);
+        when(consumer.receive(anyLong())).thenReturn(first, second, third);
+
+        Message received = container.receiveMessage(consumer);
+
+        assertThat(received).isInstanceOf(JmsMessageBatch.class);
+        assertThat(((JmsMessageBatch) received).getMessages()).containsExactly(first, second);
+    }
+
+    @Test
+    void returnsPartialBatchWhenNoMoreMessages() throws JMSException {
+        container.setBatchSize(10);
+        container.setLingerMs(0);
+        when(consumer.receive(anyLong())).thenReturn(first);
+        when(consumer.receiveNoWait()).thenReturn(second, (Message) null);
+
+        Message received = container.receiveMessage(consumer);
+
+        assertThat(((JmsMessageBatch) received).getMessages()).containsExactly(first, second);
+    }
+
+    @Test
+    void batchAcknowledgesLastMessageAndDelegatesHeadersToFirst() throws JMSException {
+        when(first.getJMSMessageID()).thenReturn("ID:first");
+        JmsMessageBatch batch = JmsMessageBatch.of(List.of(first, second, third));
+
+        batch.acknowledge();
+
+        verify(third).acknowledge();
+        verify(first, never()).acknowledge();
+        assertThat(batch.getJMSMessageID()).isEqualTo("ID:first");
+    }
+
+    @Test
+    void invalidSettings_areRejected() {
+        assertThatThrownBy(() -> container.setBatchSize(0)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> container.setLingerMs(-1)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> JmsMessageBatch.of(List.of())).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -1,5 +1,7 @@
 package com.czertainly.core.messaging.jms.listeners;
 
+import com.czertainly.core.messaging.jms.configuration.BatchMessageListenerContainer;
+import com.czertainly.core.messaging.jms.configuration.JmsMessageBatch;
 import com.czertainly.core.messaging.jms.configuration.MessagingConcurrencyProperties;
 import com.czertainly.core.messaging.jms.configuration.MessagingProperties;
 import com.czertainly.core.messaging.jms.listeners.actions.ActionsJmsEndpointConfig;
@@ -8,20 +10,36 @@ import com.czertainly.core.messaging.jms.listeners.event.EventJmsEndpointConfig;
 import com.czertainly.core.messaging.jms.listeners.notification.NotificationJmsEndpointConfig;
 import com.czertainly.core.messaging.jms.listeners.scheduler.SchedulerJmsEndpointConfig;
 import com.czertainly.core.messaging.jms.listeners.validation.ValidationJmsEndpointConfig;
+import com.czertainly.core.messaging.model.ValidationMessage;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.jms.Message;
+import jakarta.jms.Session;
+import jakarta.jms.TextMessage;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
+import org.springframework.jms.UncategorizedJmsException;
 import org.springframework.jms.config.SimpleJmsListenerEndpoint;
+import org.springframework.messaging.MessagingException;
 import org.springframework.retry.support.RetryTemplate;
 
+import java.util.List;
+
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 /**
@@ -59,10 +77,11 @@ class JmsEndpointConfigTest {
                 "action", "audit-logs", "event",
                 "notification", "scheduler", "validation"
         );
-        concurrencyProperties = new MessagingConcurrencyProperties("10", "5", "5", "3", "10", "5");
+        concurrencyProperties = new MessagingConcurrencyProperties("10", "5", "5", "3", "10", "5", null);
 
         when(messagingProperties.queue()).thenReturn(queue);
         when(messagingProperties.routingKey()).thenReturn(routingKey);
+        when(messagingProperties.batch()).thenReturn(new MessagingProperties.Batch(null, null, null, null, null, null));
     }
 
     // -------------------------------------------------------------------------
@@ -263,4 +282,133 @@ class JmsEndpointConfigTest {
             assertServiceBus(config.listenerEndpoint(), "core.validation", "validation");
         }
     }
+
+    // -------------------------------------------------------------------------
+    // Batch mode
+    // -------------------------------------------------------------------------
+
+    @Nested
+    class BatchModeTests {
+
+        private MessageProcessor<ValidationMessage> processor;
+        private ValidationJmsEndpointConfig config;
+
+        @BeforeEach
+        void setUp() {
+            when(messagingProperties.batch()).thenReturn(new MessagingProperties.Batch(
+                    null, null, null, null, null, new MessagingProperties.BatchSettings(50, 100L)));
+            processor = mockProcessor();
+            config = new ValidationJmsEndpointConfig(
+                    new ObjectMapper(), processor, new RetryTemplate(), messagingProperties, concurrencyProperties);
+            givenRabbitMQ("core.validation");
+        }
+
+        @Test
+        void batchEnabled_configuresContainerForBatchConsumption() {
+            BatchMessageListenerContainer container = new BatchMessageListenerContainer();
+
+            config.listenerEndpoint().setupListenerContainer(container);
+
+            assertThat(container.getBatchSize()).isEqualTo(50);
+            assertThat(container.getLingerMs()).isEqualTo(100L);
+            assertThat(container.getSessionAcknowledgeMode()).isEqualTo(Session.CLIENT_ACKNOWLEDGE);
+        }
+
+        @Test
+        void batchDisabled_keepsSingleMessageContainer() {
+            BatchMessageListenerContainer container = new BatchMessageListenerContainer();
+            givenRabbitMQ("core.events");
+
+            new EventJmsEndpointConfig(new ObjectMapper(), mockProcessor(), retryTemplate, messagingProperties, concurrencyProperties)
+                    .listenerEndpoint().setupListenerContainer(container);
+
+            assertThat(container.getBatchSize()).isEqualTo(1);
+            assertThat(container.getSessionAcknowledgeMode()).isEqualTo(Session.AUTO_ACKNOWLEDGE);
+        }
+
+        @Test
+        @SuppressWarnings("unchecked")
+        void batchMessage_isDeserializedAndPassedAsList_skippingInvalidMessages() throws Exception {
+            TextMessage valid1 = textMessage("{\"discoveryName\":\"first\"}");
+            TextMessage invalid = textMessage("not a json");
+            TextMessage valid2 = textMessage("{\"discoveryName\":\"second\"}");
+
+            config.listenerEndpoint().getMessageListener().onMessage(JmsMessageBatch.of(List.of(valid1, invalid, valid2)));
+
+            ArgumentCaptor<List<ValidationMessage>> captor = ArgumentCaptor.forClass(List.class);
+            verify(processor).processMessages(captor.capture());
+            assertThat(captor.getValue()).extracting(ValidationMessage::getDiscoveryName).containsExactly("first", "second");
+            verify(processor, never()).processMessage(any());
+        }
+
+        @Test
+        void brokerFailure_recoversSessionForRedelivery() throws Exception {
+            TextMessage first = textMessage("{\"discoveryName\":\"first\"}");
+            TextMessage second = textMessage("{\"discoveryName\":\"second\"}");
+            JmsMessageBatch batch = JmsMessageBatch.of(List.of(first, second));
+            doThrow(new UncategorizedJmsException("broker unavailable")).when(processor).processMessages(any());
+            doThrow(new UncategorizedJmsException("broker unavailable")).when(processor).processMessage(any());
+
+            assertThatThrownBy(() -> config.listenerEndpoint().getMessageListener().onMessage(batch))
+                    .isInstanceOf(MessagingException.class);
+
+            TestBatchContainer container = new TestBatchContainer();
+            config.listenerEndpoint().setupListenerContainer(container);
+            Session session = mock(Session.class);
+            when(session.getAcknowledgeMode()).thenReturn(Session.CLIENT_ACKNOWLEDGE);
+
+            container.deliver(session, batch);
+
+            verify(session).recover();
+            verify(first, never()).acknowledge();
+            verify(second, never()).acknowledge();
+        }
+
+        @Test
+        void alwaysFailingMessage_isSkippedAfterRetries_otherMessagesProcessed() throws Exception {
+            TextMessage first = textMessage("{\"discoveryName\":\"first\"}");
+            TextMessage poison = textMessage("{\"discoveryName\":\"poison\"}");
+            TextMessage second = textMessage("{\"discoveryName\":\"second\"}");
+            JmsMessageBatch batch = JmsMessageBatch.of(List.of(first, poison, second));
+            doThrow(new IllegalStateException("cannot process poison")).when(processor).processMessages(any());
+            doThrow(new IllegalStateException("cannot process poison")).when(processor)
+                    .processMessage(argThat(message -> "poison".equals(message.getDiscoveryName())));
+
+            config.listenerEndpoint().getMessageListener().onMessage(batch);
+
+            // whole batch is retried, then its messages are processed one by one
+            verify(processor, times(3)).processMessages(any());
+            ArgumentCaptor<ValidationMessage> captor = ArgumentCaptor.forClass(ValidationMessage.class);
+            verify(processor, times(3)).processMessage(captor.capture());
+            assertThat(captor.getAllValues()).extracting(ValidationMessage::getDiscoveryName).containsExactly("first", "poison", "second");
+
+            TestBatchContainer container = new TestBatchContainer();
+            config.listenerEndpoint().setupListenerContainer(container);
+            Session session = mock(Session.class);
+            when(session.getAcknowledgeMode()).thenReturn(Session.CLIENT_ACKNOWLEDGE);
+
+            container.deliver(session, batch);
+
+            // batch is acknowledged instead of being redelivered forever
+            verify(session, never()).recover();
+            verify(second).acknowledge();
+        }
+
+        private TextMessage textMessage(String text) throws Exception {
+            TextMessage message = mock(TextMessage.class);
+            when(message.getText()).thenReturn(text);
+            return message;
+        }
+    }
+
+    private static class TestBatchContainer extends BatchMessageListenerContainer {
+
+        TestBatchContainer() {
+            setAcceptMessagesWhileStopping(true);
+        }
+
+        void deliver(Session session, Message message) {
+            executeListener(session, message);
+        }
+    }
 }
@@ -0,0 +1,114 @@
+package com.czertainly.core.messaging.outbox;
+
+import com.czertainly.core.dao.entity.OutboxMessage;
+import com.czertainly.core.dao.repository.OutboxMessageRepository;
+import com.czertainly.core.messaging.jms.configuration.MessagingProperties;
+import jakarta.jms.Destination;
+import jakarta.jms.JMSException;
+import jakarta.jms.MessageProducer;
+import jakarta.jms.Session;
+import jakarta.jms.TextMessage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jms.core.JmsTemplate;
+import org.springframework.jms.core.SessionCallback;
+import org.springframework.jms.support.JmsUtils;
+import org.springframework.jms.support.destination.DestinationResolver;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class OutboxRelayTest {
+
+    @Mock
+    private OutboxMessageRepository outboxMessageRepository;
+    @Mock
+    private JmsTemplate jmsTemplate;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+    @Mock
+    private MessagingProperties messagingProperties;
+    @Mock
+    private Session session;
+    @Mock
+    private MessageProducer producer;
+    @Mock
+    private DestinationResolver destinationResolver;
+
+    private OutboxRelay relay;
+
+    @BeforeEach
+    void setUp() throws JMSException {
+        when(messagingProperties.outbox()).thenReturn(new MessagingProperties.Outbox(true, 2, 1000L));
+        when(outboxMessageRepository.tryAdvisoryTransactionLock(anyLong())).thenReturn(true);
+        when(jmsTemplate.getDestinationResolver()).thenReturn(destinationResolver);
+        when(destinationResolver.resolveDestinationName(any(), anyString(), anyBoolean())).thenReturn(mock(Destination.class));
+        when(session.createProducer(null)).thenReturn(producer);
+        when(session.createTextMessage(anyString())).thenAnswer(invocation -> mock(TextMessage.class));
+        when(jmsTemplate.execute(any(SessionCallback.class), eq(false))).thenAnswer(invocation -> {
+            SessionCallback<?> callback = invocation.getArgument(0);
+            try {
+                return callback.doInJms(session);
+            } catch (JMSException e) {
+                throw JmsUtils.convertJmsAccessException(e);
+            }
+        });
+
+        relay = new OutboxRelay(outboxMessageRepository, jmsTemplate, transactionManager, messagingProperties);
+    }
+
+    @Test
+    void relay_publishesInBatchesUntilOutboxIsEmpty() throws JMSException {
+        when(outboxMessageRepository.findAllByOrderByIdAsc(any(Pageable.class)))
+                .thenReturn(List.of(outboxMessage(1L), outboxMessage(2L)), List.of(outboxMessage(3L)));
+
+        int published = relay.relay();
+
+        assertThat(published).isEqualTo(3);
+        verify(producer, times(3)).send(any(Destination.class), any(TextMessage.class));
+        verify(outboxMessageRepository).deleteAllByIdInBatch(List.of(1L, 2L));
+        verify(outboxMessageRepository).deleteAllByIdInBatch(List.of(3L));
+    }
+
+    @Test
+    void relay_brokerFailure_removesOnlyPublishedMessages() throws JMSException {
+        when(outboxMessageRepository.findAllByOrderByIdAsc(any(Pageable.class)))
+                .thenReturn(List.of(outboxMessage(1L), outboxMessage(2L)));
+        doNothing().doThrow(new JMSException("connection lost")).when(producer).send(any(Destination.class), any(TextMessage.class));
+
+        int published = relay.relay();
+
+        assertThat(published).isZero();
+        verify(outboxMessageRepository).deleteAllByIdInBatch(List.of(1L));
+    }
+
+    @Test
+    void relay_lockedByOtherInstance_doesNotPublish() {
+        when(outboxMessageRepository.tryAdvisoryTransactionLock(anyLong())).thenReturn(false);
+
+        assertThat(relay.relay()).isZero();
+        verify(outboxMessageRepository, never()).findAllByOrderByIdAsc(any());
+        verifyNoInteractions(producer);
+    }
+
+    private static OutboxMessage outboxMessage(long id) {
+        OutboxMessage message = new OutboxMessage();
+        message.setId(id);
+        message.setDestination("/exchanges/czertainly/event");
+        message.setRoutingKey("event");
+        message.setPayload("{\"id\":" + id + "}");
+        return message;
+    }
+}
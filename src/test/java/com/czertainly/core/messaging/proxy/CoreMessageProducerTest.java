@@ -2,9 +2,12 @@ package com.czertainly.core.messaging.proxy;
 
 import com.czertainly.api.clients.mq.model.ConnectorRequest;
 import com.czertainly.api.clients.mq.model.CoreMessage;
+import com.czertainly.api.clients.mq.model.ProxyMessage;
 import com.czertainly.core.messaging.jms.configuration.MessagingProperties;
 import jakarta.jms.JMSException;
 import jakarta.jms.Message;
+import jakarta.jms.MessageProducer;
+import jakarta.jms.Session;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -14,6 +17,8 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.jms.core.JmsTemplate;
 import org.springframework.jms.core.MessagePostProcessor;
+import org.springframework.jms.core.ProducerCallback;
+import org.springframework.jms.support.converter.MessageConverter;
 import org.springframework.retry.RetryCallback;
 import org.springframework.retry.support.RetryTemplate;
 
@@ -22,6 +27,7 @@ import java.time.Instant;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
@@ -253,8 +259,62 @@ class CoreMessageProducerTest {
         assertThat(destCaptor.getValue().toString()).contains("test-instance");
     }
 
+    // ==================== Forwarding Tests ====================
+
+    @Test
+    void forwardResponse_withRabbitMQ_sendsToInstanceQueue() throws JMSException {
+        when(messagingProperties.brokerType()).thenReturn(MessagingProperties.BrokerType.RABBITMQ);
+
+        ProxyMessage message = ProxyMessage.builder().correlationId("core-1.corr-1").build();
+        Message forwarded = forwardResponse(message, "/queues/core-1");
+
+        verify(forwarded).setJMSCorrelationID("core-1.corr-1");
+    }
+
+    @Test
+    void forwardResponse_withServiceBus_labelsWithInstanceId() throws JMSException {
+        when(messagingProperties.brokerType()).thenReturn(MessagingProperties.BrokerType.SERVICEBUS);
+
+        ProxyMessage message = ProxyMessage.builder().correlationId("core-1.corr-1").build();
+        Message forwarded = forwardResponse(message, "czertainly-proxy");
+
+        verify(forwarded).setJMSType("core-1");
+    }
+
+    @Test
+    void forwardResponse_marksForwarderAndExpiresAfterRequestTimeout() throws JMSException {
+        when(messagingProperties.brokerType()).thenReturn(MessagingProperties.BrokerType.RABBITMQ);
+
+        ProxyMessage message = ProxyMessage.builder().correlationId("core-1.corr-1").build();
+        Message forwarded = forwardResponse(message, "/queues/core-1");
+
+        verify(forwarded).setStringProperty(CoreMessageProducer.FORWARDED_BY_PROPERTY, "test-instance");
+    }
+
     // ==================== Helper Methods ====================
 
+    /**
+     * Forwards the response and verifies it was sent to the destination with time to live of the request timeout.
+     *
+     * @return The JMS message that was sent
+     */
+    @SuppressWarnings("unchecked")
+    private Message forwardResponse(ProxyMessage message, String expectedDestination) throws JMSException {
+        Session session = mock(Session.class);
+        MessageProducer messageProducer = mock(MessageProducer.class);
+        MessageConverter messageConverter = mock(MessageConverter.class);
+        Message forwarded = mock(Message.class);
+        when(jmsTemplate.getMessageConverter()).thenReturn(messageConverter);
+        when(messageConverter.toMessage(message, session)).thenReturn(forwarded);
+        when(jmsTemplate.execute(eq(expectedDestination), any(ProducerCallback.class))).thenAnswer(invocation ->
+                invocation.getArgument(1, ProducerCallback.class).doInJms(session, messageProducer));
+
+        producer.forwardResponse(message, "core-1");
+
+        verify(messageProducer).send(eq(forwarded), anyInt(), anyInt(), eq(Duration.ofSeconds(30).toMillis()));
+        return forwarded;
+    }
+
     private CoreMessage createCoreMessage(String correlationId) {
         return CoreMessage.builder()
                 .correlationId(correlationId)
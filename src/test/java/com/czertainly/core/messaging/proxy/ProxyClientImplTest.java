@@ -9,6 +9,7 @@ import com.czertainly.api.model.core.connector.AuthType;
 import com.czertainly.api.model.core.connector.ConnectorDto;
 import com.czertainly.api.model.core.proxy.ProxyDto;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.Timeout;
@@ -65,7 +66,8 @@ class ProxyClientImplTest {
                 ConnectorAuth.builder().type("NONE").attributes(Map.of()).build()
         );
 
-        proxyClient = new ProxyClientImpl(producer, correlator, authConverter, objectMapper, proxyProperties);
+        proxyClient = new ProxyClientImpl(producer, correlator, authConverter, objectMapper, proxyProperties,
+                ProxyCoalescingProperties.disabled(), new SimpleMeterRegistry());
     }
 
     // ==================== Happy Path - Sync Tests ====================
@@ -75,7 +77,7 @@ class ProxyClientImplTest {
     void sendRequest_withSuccessfulResponse_returnsDeserializedBody() throws Exception {
         ConnectorDto connector = createConnector("proxy-001");
         CompletableFuture<ProxyMessage> future = new CompletableFuture<>();
-        when(correlator.registerRequest(anyString(), any(Duration.class))).thenReturn(future);
+        when(correlator.registerRequest(anyString(), any(Duration.class), anyString())).thenReturn(future);
 
         // Complete the future with a successful response
         future.complete(ProxyMessage.builder()
@@ -101,7 +103,7 @@ class ProxyClientImplTest {
     void sendRequest_withVoidResponseType_returnsNull() throws Exception {
         ConnectorDto connector = createConnector("proxy-001");
         CompletableFuture<ProxyMessage> future = new CompletableFuture<>();
-        when(correlator.registerRequest(anyString(), any(Duration.class))).thenReturn(future);
+        when(correlator.registerRequest(anyString(), any(Duration.class), anyString())).thenReturn(future);
 
         future.complete(ProxyMessage.builder()
                 .correlationId("test-corr")
@@ -123,7 +125,7 @@ class ProxyClientImplTest {
     void sendRequest_withNullBody_returnsNull() throws Exception {
         ConnectorDto connector = createConnector("proxy-001");
         CompletableFuture<ProxyMessage> future = new CompletableFuture<>();
-        when(correlator.registerRequest(anyString(), any(Duration.class))).thenReturn(future);
+        when(correlator.registerRequest(anyString(), any(Duration.class), anyString())).thenReturn(future);
 
         future.complete(ProxyMessage.builder()
                 .correlationId("test-corr")
@@ -146,7 +148,7 @@ class ProxyClientImplTest {
     void sendRequest_withPathVariables_includesInRequest() throws Exception {
         ConnectorDto connector = createConnector("proxy-001");
         CompletableFuture<ProxyMessage> future = new CompletableFuture<>();
-        when(correlator.registerRequest(anyString(), any(Duration.class))).thenReturn(future);
+        when(correlator.registerRequest(anyString(), any(Duration.class), anyString())).thenReturn(future);
 
         future.complete(ProxyMessage.builder()
                 .correlationId("test-corr")
@@ -175,7 +177,7 @@ class ProxyClientImplTest {
     void sendRequest_usesDefaultTimeout_whenNotSpecified() throws Exception {
         ConnectorDto connector = createConnector("proxy-001");
         CompletableFuture<ProxyMessage> future = new CompletableFuture<>();
-        when(correlator.registerRequest(anyString(), eq(Duration.ofSeconds(30)))).thenReturn(future);
+        when(correlator.registerRequest(anyString(), eq(Duration.ofSeconds(30)), anyString())).thenReturn(future);
 
         future.complete(ProxyMessage.builder()
                 .correlationId("test-corr")
@@ -189,7 +191,7 @@ class ProxyClientImplTest {
 
         proxyClient.sendRequest(connector, "/v1/test", "GET", null, String.class);
 
-        verify(correlator).registerRequest(anyString(), eq(Duration.ofSeconds(30)));
+        verify(correlator).registerRequest(anyString(), eq(Duration.ofSeconds(30)), anyString());
     }
 
     // ==================== Happy Path - Async Tests ====================
@@ -198,13 +200,13 @@ class ProxyClientImplTest {
     void sendRequestAsync_registersCorrelationBeforeSend() {
         ConnectorDto connector = createConnector("proxy-001");
         CompletableFuture<ProxyMessage> future = new CompletableFuture<>();
-        when(correlator.registerRequest(anyString(), any(Duration.class))).thenReturn(future);
+        when(correlator.registerRequest(anyString(), any(Duration.class), anyString())).thenReturn(future);
 
         proxyClient.sendRequestAsync(connector, "/v1/test", "GET", null, String.class);
 
         // Verify registration happens BEFORE send
         var inOrder = inOrder(correlator, producer);
-        inOrder.verify(correlator).registerRequest(anyString(), any(Duration.class));
+        inOrder.verify(correlator).registerRequest(anyString(), any(Duration.class), anyString());
         inOrder.verify(producer).send(any(), eq("proxy-001"));
     }
 
@@ -213,7 +215,7 @@ class ProxyClientImplTest {
         ConnectorDto connector = createConnector("proxy-001");
         connector.setUrl("http://connector.example.com");
         CompletableFuture<ProxyMessage> future = new CompletableFuture<>();
-        when(correlator.registerRequest(anyString(), any(Duration.class))).thenReturn(future);
+        when(correlator.registerRequest(anyString(), any(Duration.class), anyString())).thenReturn(future);
 
         proxyClient.sendRequestAsync(connector, "/v1/certificates", "POST", Map.of("name", "test"), String.class);
 
@@ -236,7 +238,7 @@ class ProxyClientImplTest {
     void sendRequest_withValidationError_throwsValidationException() {
         ConnectorDto connector = createConnector("proxy-001");
         CompletableFuture<ProxyMessage> future = new CompletableFuture<>();
-        when(correlator.registerRequest(anyString(), any(Duration.class))).thenReturn(future);
+        when(correlator.registerRequest(anyString(), any(Duration.class), anyString())).thenReturn(future);
 
         future.complete(ProxyMessage.builder()
                 .correlationId("test-corr")
@@ -259,7 +261,7 @@ class ProxyClientImplTest {
     void sendRequest_withAuthenticationError_throwsConnectorClientException() {
         ConnectorDto connector = createConnector("proxy-001");
         CompletableFuture<ProxyMessage> future = new CompletableFuture<>();
-        when(correlator.registerRequest(anyString(), any(Duration.class))).thenReturn(future);
+        when(correlator.registerRequest(anyString(), any(Duration.class), anyString())).thenReturn(future);
 
         future.complete(ProxyMessage.builder()
                 .correlationId("test-corr")
@@ -281,7 +283,7 @@ class ProxyClientImplTest {
     void sendRequest_withAuthorizationError_throwsConnectorClientException() {
         ConnectorDto connector = createConnector("proxy-001");
         CompletableFuture<ProxyMessage> future = new CompletableFuture<>();
-        when(correlator.registerRequest(anyString(), any(Duration.class))).thenReturn(future);
+        when(correlator.registerRequest(anyString(), any(Duration.class), anyString())).thenReturn(future);
 
         future.complete(ProxyMessage.builder()
                 .correlationId("test-corr")
@@ -303,7 +305,7 @@ class ProxyClientImplTest {
     void sendRequest_withNotFoundError_throwsConnectorEntityNotFoundException() {
         ConnectorDto connector = createConnector("proxy-001");
         CompletableFuture<ProxyMessage> future = new CompletableFuture<>();
-        when(correlator.registerRequest(anyString(), any(Duration.class))).thenReturn(future);
+        when(correlator.registerRequest(anyString(), any(Duration.class), anyString())).thenReturn(future);
 
         future.complete(ProxyMessage.builder()
                 .correlationId("test-corr")
@@ -325,7 +327,7 @@ class ProxyClientImplTest {
     void sendRequest_withTimeoutError_throwsConnectorCommunicationException() {
         ConnectorDto connector = createConnector("proxy-001");
         CompletableFuture<ProxyMessage> future = new CompletableFuture<>();
-        when(correlator.registerRequest(anyString(), any(Duration.class))).thenReturn(future);
+        when(correlator.registerRequest(anyString(), any(Duration.class), anyString())).thenReturn(future);
 
         future.complete(ProxyMessage.builder()
                 .correlationId("test-corr")
@@ -347,7 +349,7 @@ class ProxyClientImplTest {
     void sendRequest_withConnectionError_throwsConnectorCommunicationException() {
         ConnectorDto connector = createConnector("proxy-001");
         CompletableFuture<ProxyMessage> future = new CompletableFuture<>();
-        when(correlator.registerRequest(anyString(), any(Duration.class))).thenReturn(future);
+        when(correlator.registerRequest(anyString(), any(Duration.class), anyString())).thenReturn(future);
 
         future.complete(ProxyMessage.builder()
                 .correlationId("test-corr")
@@ -369,7 +371,7 @@ class ProxyClientImplTest {
     void sendRequest_withServerError_throwsConnectorServerException() {
         ConnectorDto connector = createConnector("proxy-001");
         CompletableFuture<ProxyMessage> future = new CompletableFuture<>();
-        when(correlator.registerRequest(anyString(), any(Duration.class))).thenReturn(future);
+        when(correlator.registerRequest(anyString(), any(Duration.class), anyString())).thenReturn(future);
 
         future.complete(ProxyMessage.builder()
                 .correlationId("test-corr")
@@ -391,7 +393,7 @@ class ProxyClientImplTest {
     void sendRequest_withUnknownErrorCategory_throwsConnectorException() {
         ConnectorDto connector = createConnector("proxy-001");
         CompletableFuture<ProxyMessage> future = new CompletableFuture<>();
-        when(correlator.registerRequest(anyString(), any(Duration.class))).thenReturn(future);
+        when(correlator.registerRequest(anyString(), any(Duration.class), anyString())).thenReturn(future);
 
         future.complete(ProxyMessage.builder()
                 .correlationId("test-corr")
@@ -413,7 +415,7 @@ class ProxyClientImplTest {
     void sendRequest_withNullErrorCategory_throwsConnectorException() {
         ConnectorDto connector = createConnector("proxy-001");
         CompletableFuture<ProxyMessage> future = new CompletableFuture<>();
-        when(correlator.registerRequest(anyString(), any(Duration.class))).thenReturn(future);
+        when(correlator.registerRequest(anyString(), any(Duration.class), anyString())).thenReturn(future);
 
         future.complete(ProxyMessage.builder()
                 .correlationId("test-corr")
@@ -437,7 +439,7 @@ class ProxyClientImplTest {
     void sendRequest_withHttp404_throwsConnectorEntityNotFoundException() {
         ConnectorDto connector = createConnector("proxy-001");
         CompletableFuture<ProxyMessage> future = new CompletableFuture<>();
-        when(correlator.registerRequest(anyString(), any(Duration.class))).thenReturn(future);
+        when(correlator.registerRequest(anyString(), any(Duration.class), anyString())).thenReturn(future);
 
         future.complete(ProxyMessage.builder()
                 .correlationId("test-corr")
@@ -457,7 +459,7 @@ class ProxyClientImplTest {
     void sendRequest_withHttp422_throwsValidationException() {
         ConnectorDto connector = createConnector("proxy-001");
         CompletableFuture<ProxyMessage> future = new CompletableFuture<>();
-        when(correlator.registerRequest(anyString(), any(Duration.class))).thenReturn(future);
+        when(correlator.registerRequest(anyString(), any(Duration.class), anyString())).thenReturn(future);
 
         future.complete(ProxyMessage.builder()
                 .correlationId("test-corr")
@@ -477,7 +479,7 @@ class ProxyClientImplTest {
     void sendRequest_withHttp4xx_throwsConnectorClientException() {
         ConnectorDto connector = createConnector("proxy-001");
         CompletableFuture<ProxyMessage> future = new CompletableFuture<>();
-        when(correlator.registerRequest(anyString(), any(Duration.class))).thenReturn(future);
+        when(correlator.registerRequest(anyString(), any(Duration.class), anyString())).thenReturn(future);
 
         future.complete(ProxyMessage.builder()
                 .correlationId("test-corr")
@@ -497,7 +499,7 @@ class ProxyClientImplTest {
     void sendRequest_withHttp5xx_throwsConnectorServerException() {
         ConnectorDto connector = createConnector("proxy-001");
         CompletableFuture<ProxyMessage> future = new CompletableFuture<>();
-        when(correlator.registerRequest(anyString(), any(Duration.class))).thenReturn(future);
+        when(correlator.registerRequest(anyString(), any(Duration.class), anyString())).thenReturn(future);
 
         future.complete(ProxyMessage.builder()
                 .correlationId("test-corr")
@@ -517,7 +519,7 @@ class ProxyClientImplTest {
     void sendRequest_withBlankErrorMessage_usesHttpStatusReasonPhrase() {
         ConnectorDto connector = createConnector("proxy-001");
         CompletableFuture<ProxyMessage> future = new CompletableFuture<>();
-        when(correlator.registerRequest(anyString(), any(Duration.class))).thenReturn(future);
+        when(correlator.registerRequest(anyString(), any(Duration.class), anyString())).thenReturn(future);
 
         future.complete(ProxyMessage.builder()
                 .correlationId("test-corr")
@@ -572,7 +574,7 @@ class ProxyClientImplTest {
     void sendRequest_onInterruption_throwsConnectorCommunicationExceptionAndSetsInterruptFlag() {
         ConnectorDto connector = createConnector("proxy-001");
         CompletableFuture<ProxyMessage> future = new CompletableFuture<>();
-        when(correlator.registerRequest(anyString(), any(Duration.class))).thenReturn(future);
+        when(correlator.registerRequest(anyString(), any(Duration.class), anyString())).thenReturn(future);
 
         // Interrupt the current thread before making the call
         Thread.currentThread().interrupt();
@@ -594,7 +596,7 @@ class ProxyClientImplTest {
         ConnectorDto connector = createConnector("proxy-001");
         Duration customTimeout = Duration.ofMinutes(2);
         CompletableFuture<ProxyMessage> future = new CompletableFuture<>();
-        when(correlator.registerRequest(anyString(), eq(customTimeout))).thenReturn(future);
+        when(correlator.registerRequest(anyString(), eq(customTimeout), anyString())).thenReturn(future);
 
         future.complete(ProxyMessage.builder()
                 .correlationId("test-corr")
@@ -608,7 +610,7 @@ class ProxyClientImplTest {
 
         proxyClient.sendRequest(connector, "/v1/test", "GET", null, String.class, customTimeout);
 
-        verify(correlator).registerRequest(anyString(), eq(customTimeout));
+        verify(correlator).registerRequest(anyString(), eq(customTimeout), anyString());
     }
 
     // ==================== Fire-and-Forget Tests ====================
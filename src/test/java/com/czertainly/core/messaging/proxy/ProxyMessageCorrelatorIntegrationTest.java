@@ -3,6 +3,7 @@ package com.czertainly.core.messaging.proxy;
 import com.czertainly.api.clients.mq.model.ConnectorResponse;
 import com.czertainly.api.clients.mq.model.ProxyMessage;
 import com.czertainly.core.util.BaseSpringBootTest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -41,7 +42,7 @@ class ProxyMessageCorrelatorIntegrationTest extends BaseSpringBootTest {
                 100, // Low capacity for testing
                 null
         );
-        correlator = new ProxyMessageCorrelator(testProps);
+        correlator = new ProxyMessageCorrelator(testProps, new SimpleMeterRegistry());
     }
 
     @AfterEach
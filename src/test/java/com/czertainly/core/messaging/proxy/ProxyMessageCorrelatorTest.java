@@ -2,6 +2,8 @@ package com.czertainly.core.messaging.proxy;
 
 import com.czertainly.api.clients.mq.model.ConnectorResponse;
 import com.czertainly.api.clients.mq.model.ProxyMessage;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -12,6 +14,7 @@ import java.time.Duration;
 import java.time.Instant;
 import java.util.List;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.assertj.core.api.Assertions.*;
 import static org.awaitility.Awaitility.await;
@@ -35,7 +38,7 @@ class ProxyMessageCorrelatorTest {
                 100, // low max pending for testing capacity
                 null
         );
-        correlator = new ProxyMessageCorrelator(proxyProperties);
+        correlator = new ProxyMessageCorrelator(proxyProperties, new SimpleMeterRegistry());
     }
 
     @AfterEach
@@ -412,6 +415,101 @@ class ProxyMessageCorrelatorTest {
         assertThat(correlator.getPendingCount()).isZero();
     }
 
+    @Test
+    @Timeout(value = 10, unit = TimeUnit.SECONDS)
+    @DisplayName("Capacity limit is strict under concurrent registrations")
+    void concurrentRegistrations_neverExceedCapacity() throws Exception {
+        int threadCount = 20;
+        int requestsPerThread = 20; // 400 attempts against capacity of 100
+        ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+        CountDownLatch startLatch = new CountDownLatch(1);
+        CountDownLatch doneLatch = new CountDownLatch(threadCount);
+        AtomicInteger registered = new AtomicInteger();
+
+        for (int t = 0; t < threadCount; t++) {
+            final int threadId = t;
+            executor.submit(() -> {
+                try {
+                    startLatch.await();
+                    for (int i = 0; i < requestsPerThread; i++) {
+                        try {
+                            correlator.registerRequest("cap-" + threadId + "-" + i, Duration.ofSeconds(30));
+                            registered.incrementAndGet();
+                        } catch (IllegalStateException e) {
+                            // rejected over capacity
+                        }
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    doneLatch.countDown();
+                }
+            });
+        }
+
+        startLatch.countDown();
+        doneLatch.await();
+        executor.shutdown();
+
+        assertThat(registered.get()).isEqualTo(100);
+        assertThat(correlator.getPendingCount()).isEqualTo(100);
+    }
+
+    @Test
+    void registerRequest_withDuplicateCorrelationId_throwsAndKeepsCapacity() {
+        correlator.registerRequest("corr-dup", Duration.ofSeconds(30));
+
+        assertThatThrownBy(() -> correlator.registerRequest("corr-dup", Duration.ofSeconds(30)))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("already pending");
+
+        for (int i = 0; i < 99; i++) {
+            correlator.registerRequest("corr-" + i, Duration.ofSeconds(30));
+        }
+        assertThat(correlator.getPendingCount()).isEqualTo(100);
+    }
+
+    // ==================== Metrics Tests ====================
+
+    @Test
+    @Timeout(value = 5, unit = TimeUnit.SECONDS)
+    void metrics_recordPendingLatencyTimeoutsAndRejections() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        ProxyMessageCorrelator metered = new ProxyMessageCorrelator(new ProxyProperties(
+                "test-exchange", "test-queue", "test-instance", Duration.ofSeconds(30), 2, null), meterRegistry);
+        try {
+            String authorityUuid = "0b8e7f4a-3e0d-4f1e-9a51-6d2f0e8b1c11";
+            metered.registerRequest("corr-ok", Duration.ofSeconds(30), "GET.v1.authorities." + authorityUuid);
+            metered.registerRequest("corr-timeout", Duration.ofMillis(200), "POST.v1.discovery");
+            assertThat(meterRegistry.get("czertainly.proxy.requests.pending").gauge().value()).isEqualTo(2);
+
+            assertThatThrownBy(() -> metered.registerRequest("corr-rejected", Duration.ofSeconds(30), "GET.v1"))
+                    .isInstanceOf(IllegalStateException.class);
+            assertThat(meterRegistry.get("czertainly.proxy.requests.rejected").counter().count()).isEqualTo(1);
+
+            metered.completeRequest(createSuccessMessage("corr-ok"));
+            assertThat(meterRegistry.get("czertainly.proxy.requests.latency")
+                    .tag("messageType", "GET.v1.authorities.{id}").timer().count()).isEqualTo(1);
+
+            await().atMost(Duration.ofSeconds(2)).untilAsserted(() ->
+                    assertThat(meterRegistry.find("czertainly.proxy.requests.timeouts")
+                            .tag("messageType", "POST.v1.discovery").counter())
+                            .isNotNull()
+                            .extracting(Counter::count).isEqualTo(1.0));
+            assertThat(meterRegistry.get("czertainly.proxy.requests.pending").gauge().value()).isZero();
+        } finally {
+            metered.shutdown();
+        }
+    }
+
+    @Test
+    void normalizeMessageType_replacesIdentifiers() {
+        assertThat(ProxyMessageCorrelator.normalizeMessageType("POST.v2.authorities.8f1c4a4e-7b1e-4bb0-a1a5-3c9e7fe1a2b0.certificates.issue"))
+                .isEqualTo("POST.v2.authorities.{id}.certificates.issue");
+        assertThat(ProxyMessageCorrelator.normalizeMessageType("GET.v1.discoveries.42")).isEqualTo("GET.v1.discoveries.{id}");
+        assertThat(ProxyMessageCorrelator.normalizeMessageType(null)).isEqualTo("unknown");
+    }
+
     // ==================== Helper Methods ====================
 
     private ProxyMessage createSuccessMessage(String correlationId) {
@@ -88,6 +88,8 @@ class ProxyMessageJmsEndpointConfigTest {
 
             assertThat(endpoint.getDestination()).isEqualTo("test-proxy-exchange");
             assertThat(endpoint.getSubscription()).isEqualTo("test-core-queue");
+            // responses forwarded to other instances over the same topic are not consumed again
+            assertThat(endpoint.getSelector()).isEqualTo(CoreMessageProducer.FORWARDED_BY_PROPERTY + " IS NULL");
         }
 
         @Test
@@ -100,6 +102,7 @@ class ProxyMessageJmsEndpointConfigTest {
 
             assertThat(endpoint.getDestination()).isEqualTo("/queues/test-core-queue");
             assertThat(endpoint.getSubscription()).isNull();
+            assertThat(endpoint.getSelector()).isNull();
         }
     }
 }
@@ -82,4 +82,36 @@ class ProxyPropertiesTest {
         assertThat(props.maxPendingRequests()).isEqualTo(1000);
         assertThat(props.concurrency()).isEqualTo("1");
     }
+
+    @Test
+    void createCorrelationId_embedsInstanceId() {
+        ProxyProperties props = new ProxyProperties(
+                "exchange", "core", "core-0",
+                Duration.ofSeconds(30), 1000, "1"
+        );
+        String correlationId = props.createCorrelationId();
+
+        assertThat(correlationId).startsWith("core-0.");
+        assertThat(ProxyProperties.getOwnerInstanceId(correlationId)).isEqualTo("core-0");
+        assertThat(props.createCorrelationId()).isNotEqualTo(correlationId);
+    }
+
+    @Test
+    void getOwnerInstanceId_withoutInstanceId_returnsNull() {
+        assertThat(ProxyProperties.getOwnerInstanceId(null)).isNull();
+        assertThat(ProxyProperties.getOwnerInstanceId("2f1c9e8a-5b6d-4c3e-9f2a-1b0c8d7e6f5a")).isNull();
+        assertThat(ProxyProperties.getOwnerInstanceId(".abc")).isNull();
+    }
+
+    @Test
+    void getOwnerInstanceId_withMalformedInstanceCorrelationId_returnsNull() {
+        String uuid = "2f1c9e8a-5b6d-4c3e-9f2a-1b0c8d7e6f5a";
+        assertThat(ProxyProperties.getOwnerInstanceId("core-0." + uuid)).isEqualTo("core-0");
+        assertThat(ProxyProperties.getOwnerInstanceId("core-0.extra." + uuid)).isNull();
+        assertThat(ProxyProperties.getOwnerInstanceId("core-0." + uuid + ".")).isNull();
+        assertThat(ProxyProperties.getOwnerInstanceId("core-0.not-a-uuid")).isNull();
+        assertThat(ProxyProperties.getOwnerInstanceId("../queues/core-0." + uuid)).isNull();
+        assertThat(ProxyProperties.isInstanceScoped("core-0.extra." + uuid)).isTrue();
+        assertThat(ProxyProperties.isInstanceScoped(uuid)).isFalse();
+    }
 }
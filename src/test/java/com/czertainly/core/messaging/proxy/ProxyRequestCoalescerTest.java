@@ -0,0 +1,139 @@
+package com.czertainly.core.messaging.proxy;
+
+import com.czertainly.api.clients.mq.model.ConnectorResponse;
+import com.czertainly.api.clients.mq.model.ProxyMessage;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ProxyRequestCoalescerTest {
+
+    private static final ProxyRequestCoalescer.RequestKey KEY =
+            new ProxyRequestCoalescer.RequestKey("proxy-001", "http://connector", "GET", "/v1/info", "hash");
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void isCoalescable_onlyGetAndSafePost() {
+        ProxyRequestCoalescer coalescer = coalescer(Duration.ZERO);
+
+        assertThat(coalescer.isCoalescable("GET", "/v1/info")).isTrue();
+        assertThat(coalescer.isCoalescable("get", "/v1/info")).isTrue();
+        assertThat(coalescer.isCoalescable("POST", "/v1/entityProvider/entity/attributes/validate")).isTrue();
+        assertThat(coalescer.isCoalescable("POST", "/v1/entityProvider/entities")).isFalse();
+        assertThat(coalescer.isCoalescable("DELETE", "/v1/entityProvider/entities/1")).isFalse();
+    }
+
+    @Test
+    void isCoalescable_disabled_returnsFalse() {
+        ProxyRequestCoalescer coalescer = new ProxyRequestCoalescer(ProxyCoalescingProperties.disabled(), meterRegistry);
+
+        assertThat(coalescer.isCoalescable("GET", "/v1/info")).isFalse();
+    }
+
+    @Test
+    void execute_concurrentIdenticalRequests_shareOneRoundTrip() {
+        ProxyRequestCoalescer coalescer = coalescer(Duration.ZERO);
+        AtomicInteger sent = new AtomicInteger();
+        CompletableFuture<ProxyMessage> response = new CompletableFuture<>();
+
+        CompletableFuture<ProxyMessage> first = coalescer.execute(KEY, () -> { sent.incrementAndGet(); return response; });
+        CompletableFuture<ProxyMessage> second = coalescer.execute(KEY, () -> { sent.incrementAndGet(); return response; });
+
+        assertThat(sent).hasValue(1);
+        assertThat(coalescer.inFlightCount()).isEqualTo(1);
+
+        ProxyMessage message = successResponse();
+        response.complete(message);
+
+        assertThat(first).isCompletedWithValue(message);
+        assertThat(second).isCompletedWithValue(message);
+        assertThat(coalescer.inFlightCount()).isZero();
+        assertThat(meterRegistry.get("czertainly.proxy.requests.coalesced").tag("source", "in-flight").counter().count())
+                .isEqualTo(1.0);
+    }
+
+    @Test
+    void execute_withoutTtl_sendsAgainAfterCompletion() {
+        ProxyRequestCoalescer coalescer = coalescer(Duration.ZERO);
+        AtomicInteger sent = new AtomicInteger();
+
+        coalescer.execute(KEY, () -> { sent.incrementAndGet(); return CompletableFuture.completedFuture(successResponse()); });
+        coalescer.execute(KEY, () -> { sent.incrementAndGet(); return CompletableFuture.completedFuture(successResponse()); });
+
+        assertThat(sent).hasValue(2);
+    }
+
+    @Test
+    void execute_withTtl_servesSuccessfulResponseFromCache() {
+        ProxyRequestCoalescer coalescer = coalescer(Duration.ofMinutes(1));
+        AtomicInteger sent = new AtomicInteger();
+        ProxyMessage message = successResponse();
+
+        coalescer.execute(KEY, () -> { sent.incrementAndGet(); return CompletableFuture.completedFuture(message); });
+        CompletableFuture<ProxyMessage> cached = coalescer.execute(KEY, () -> { sent.incrementAndGet(); return new CompletableFuture<>(); });
+
+        assertThat(sent).hasValue(1);
+        assertThat(cached).isCompletedWithValue(message);
+    }
+
+    @Test
+    void execute_withTtl_doesNotCacheErrorResponse() {
+        ProxyRequestCoalescer coalescer = coalescer(Duration.ofMinutes(1));
+        AtomicInteger sent = new AtomicInteger();
+        ProxyMessage error = ProxyMessage.builder()
+                .correlationId("corr")
+                .timestamp(Instant.now())
+                .connectorResponse(ConnectorResponse.builder().statusCode(500).build())
+                .build();
+
+        coalescer.execute(KEY, () -> { sent.incrementAndGet(); return CompletableFuture.completedFuture(error); });
+        coalescer.execute(KEY, () -> { sent.incrementAndGet(); return CompletableFuture.completedFuture(error); });
+
+        assertThat(sent).hasValue(2);
+    }
+
+    @Test
+    void execute_failure_isSharedAndNotRetained() {
+        ProxyRequestCoalescer coalescer = coalescer(Duration.ofMinutes(1));
+        CompletableFuture<ProxyMessage> response = new CompletableFuture<>();
+
+        CompletableFuture<ProxyMessage> first = coalescer.execute(KEY, () -> response);
+        CompletableFuture<ProxyMessage> second = coalescer.execute(KEY, () -> response);
+        response.completeExceptionally(new IllegalStateException("timeout"));
+
+        assertThat(first).isCompletedExceptionally();
+        assertThat(second).isCompletedExceptionally();
+        assertThat(coalescer.inFlightCount()).isZero();
+    }
+
+    @Test
+    void execute_senderThrows_propagatesAndReleasesKey() {
+        ProxyRequestCoalescer coalescer = coalescer(Duration.ZERO);
+
+        assertThatThrownBy(() -> coalescer.execute(KEY, () -> { throw new IllegalStateException("Too many pending proxy requests"); }))
+                .isInstanceOf(IllegalStateException.class);
+        assertThat(coalescer.inFlightCount()).isZero();
+    }
+
+    private ProxyRequestCoalescer coalescer(Duration cacheTtl) {
+        return new ProxyRequestCoalescer(new ProxyCoalescingProperties(true, cacheTtl, 10,
+                List.of(".*/attributes/validate")), meterRegistry);
+    }
+
+    private static ProxyMessage successResponse() {
+        return ProxyMessage.builder()
+                .correlationId("corr")
+                .timestamp(Instant.now())
+                .connectorResponse(ConnectorResponse.builder().statusCode(200).body("ok").build())
+                .build();
+    }
+}
@@ -2,14 +2,19 @@ package com.czertainly.core.messaging.proxy;
 
 import com.czertainly.api.clients.mq.model.ProxyMessage;
 import com.czertainly.core.messaging.proxy.handler.MessageTypeHandlerRegistry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jms.UncategorizedJmsException;
 
+import java.time.Duration;
 import java.time.Instant;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatCode;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
@@ -17,14 +22,26 @@ import static org.mockito.Mockito.*;
 @ExtendWith(MockitoExtension.class)
 class SharedProxyMessageListenerTest {
 
+    private static final String CORRELATION_UUID = "2f1c9e8a-5b6d-4c3e-9f2a-1b0c8d7e6f5a";
+
     @Mock
     private MessageTypeHandlerRegistry handlerRegistry;
 
+    @Mock
+    private ProxyMessageCorrelator correlator;
+
+    @Mock
+    private CoreMessageProducer coreMessageProducer;
+
+    private MeterRegistry meterRegistry;
     private SharedProxyMessageListener listener;
 
     @BeforeEach
     void setUp() {
-        listener = new SharedProxyMessageListener(handlerRegistry);
+        ProxyProperties proxyProperties = new ProxyProperties(
+                "czertainly-proxy", "core", "core-0", Duration.ofSeconds(30), 1000, null);
+        meterRegistry = new SimpleMeterRegistry();
+        listener = new SharedProxyMessageListener(handlerRegistry, correlator, coreMessageProducer, proxyProperties, meterRegistry);
     }
 
     @Test
@@ -70,6 +87,85 @@ class SharedProxyMessageListenerTest {
         verify(handlerRegistry, never()).dispatch(any());
     }
 
+    @Test
+    void processMessage_responseOwnedByThisInstance_completesRequest() throws Exception {
+        ProxyMessage message = createResponse("core-0." + CORRELATION_UUID);
+        when(correlator.tryCompleteRequest(message)).thenReturn(true);
+
+        listener.processMessage(message);
+
+        verify(correlator).tryCompleteRequest(message);
+        verify(coreMessageProducer, never()).forwardResponse(any(), any());
+        verify(handlerRegistry, never()).dispatch(any());
+        assertThat(routedCount("completed")).isEqualTo(1);
+    }
+
+    @Test
+    void processMessage_responseOwnedByOtherInstance_isForwarded() throws Exception {
+        ProxyMessage message = createResponse("core-1." + CORRELATION_UUID);
+
+        listener.processMessage(message);
+
+        verify(coreMessageProducer).forwardResponse(message, "core-1");
+        verify(correlator, never()).tryCompleteRequest(any());
+        verify(handlerRegistry, never()).dispatch(any());
+        assertThat(routedCount("forwarded")).isEqualTo(1);
+    }
+
+    @Test
+    void processMessage_responseNotDeliverableToOwner_isDropped() throws Exception {
+        ProxyMessage message = createResponse("core-1." + CORRELATION_UUID);
+        doThrow(new UncategorizedJmsException("queue not found"))
+                .when(coreMessageProducer).forwardResponse(message, "core-1");
+
+        assertThatCode(() -> listener.processMessage(message)).doesNotThrowAnyException();
+
+        verify(handlerRegistry, never()).dispatch(any());
+        assertThat(routedCount("undeliverable")).isEqualTo(1);
+        assertThat(routedCount("forwarded")).isZero();
+    }
+
+    @Test
+    void processMessage_malformedInstanceCorrelationId_isDropped() throws Exception {
+        for (String correlationId : new String[]{"core-1.other." + CORRELATION_UUID, "core-1.corr-1", ".", "core-1."}) {
+            listener.processMessage(createResponse(correlationId));
+        }
+
+        verify(coreMessageProducer, never()).forwardResponse(any(), any());
+        verify(correlator, never()).tryCompleteRequest(any());
+        verify(handlerRegistry, never()).dispatch(any());
+        assertThat(routedCount("malformed")).isEqualTo(4);
+    }
+
+    @Test
+    void processMessage_correlationIdWithoutInstance_dispatchesByType() throws Exception {
+        ProxyMessage message = ProxyMessage.builder()
+                .proxyId("test-proxy")
+                .correlationId(CORRELATION_UUID)
+                .messageType("health.check")
+                .timestamp(Instant.now())
+                .build();
+        when(handlerRegistry.dispatch(message)).thenReturn(true);
+
+        listener.processMessage(message);
+
+        verify(handlerRegistry).dispatch(message);
+        verify(coreMessageProducer, never()).forwardResponse(any(), any());
+    }
+
+    private double routedCount(String outcome) {
+        return meterRegistry.get("czertainly.proxy.responses.routed").tag("outcome", outcome).counter().count();
+    }
+
+    private ProxyMessage createResponse(String correlationId) {
+        return ProxyMessage.builder()
+                .proxyId("test-proxy")
+                .correlationId(correlationId)
+                .messageType("GET:/v1/connector")
+                .timestamp(Instant.now())
+                .build();
+    }
+
     private ProxyMessage createMessage(String messageType) {
         return ProxyMessage.builder()
                 .proxyId("test-proxy")
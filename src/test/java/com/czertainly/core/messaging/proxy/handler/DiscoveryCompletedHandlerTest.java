@@ -0,0 +1,63 @@
+package com.czertainly.core.messaging.proxy.handler;
+
+import com.czertainly.api.clients.mq.model.ProxyMessage;
+import com.czertainly.core.service.handler.DiscoveryCompletionWaiter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for {@link DiscoveryCompletedHandler}.
+ */
+@ExtendWith(MockitoExtension.class)
+class DiscoveryCompletedHandlerTest {
+
+    @Mock
+    private DiscoveryCompletionWaiter discoveryCompletionWaiter;
+
+    private DiscoveryCompletedHandler handler;
+
+    @BeforeEach
+    void setUp() {
+        handler = new DiscoveryCompletedHandler(discoveryCompletionWaiter);
+    }
+
+    @Test
+    void getMessageType_matchesDiscoveryCompletionMessages() {
+        assertThat(handler.getMessageType()).isEqualTo("discovery.completed.*");
+    }
+
+    @Test
+    void handleResponse_signalsCompletionOfProviderDiscovery() {
+        when(discoveryCompletionWaiter.signalCompletion("6f2d3a4e-0c9b-4a8f-9d1e-2b7c5e8f1a30")).thenReturn(true);
+
+        ProxyMessage message = ProxyMessage.builder()
+                .proxyId("proxy-001")
+                .messageType("discovery.completed.6f2d3a4e-0c9b-4a8f-9d1e-2b7c5e8f1a30")
+                .timestamp(Instant.now())
+                .build();
+
+        assertThatCode(() -> handler.handleResponse(message)).doesNotThrowAnyException();
+        verify(discoveryCompletionWaiter).signalCompletion("6f2d3a4e-0c9b-4a8f-9d1e-2b7c5e8f1a30");
+    }
+
+    @Test
+    void handleResponse_withDiscoveryNotAwaited_doesNotThrow() {
+        when(discoveryCompletionWaiter.signalCompletion("unknown")).thenReturn(false);
+
+        ProxyMessage message = ProxyMessage.builder()
+                .proxyId("proxy-001")
+                .messageType("discovery.completed.unknown")
+                .timestamp(Instant.now())
+                .build();
+
+        assertThatCode(() -> handler.handleResponse(message)).doesNotThrowAnyException();
+    }
+}
@@ -115,6 +115,8 @@ class AcmeAccountServiceTest extends BaseSpringBootTest {
         acmeAccount.setTermsOfServiceAgreed(true);
         acmeAccount.setAcmeProfile(acmeProfile);
         acmeAccount.setRaProfile(raProfile);
+        // order counters are written only on insert, later they are incremented by repository
+        acmeAccount.setValidOrders(1);
         acmeAccountRepository.save(acmeAccount);
     }
 
@@ -131,8 +133,6 @@ class AcmeAccountServiceTest extends BaseSpringBootTest {
     void testGetAccountById() throws NotFoundException {
         createExpiredOrder(OrderStatus.PENDING);
         createExpiredOrder(OrderStatus.VALID);
-        acmeAccount.setValidOrders(1);
-        acmeAccountRepository.save(acmeAccount);
         createExpiredOrder(OrderStatus.INVALID);
         AcmeAccountResponseDto dto = acmeAccountService.getAcmeAccount(acmeAccount.getAcmeProfile().getSecuredParentUuid(), acmeAccount.getSecuredUuid());
         Assertions.assertNotNull(dto);
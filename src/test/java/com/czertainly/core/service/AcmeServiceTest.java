@@ -20,8 +20,9 @@ import com.czertainly.core.model.auth.ResourceAction;
 import com.czertainly.core.security.authz.opa.dto.OpaRequestedResource;
 import com.czertainly.core.security.authz.opa.dto.OpaResourceAccessResult;
 import com.czertainly.core.service.acme.AcmeConstants;
+import com.czertainly.core.service.acme.AcmeNonceService;
 import com.czertainly.core.service.acme.AcmeService;
-import com.czertainly.core.util.AcmeCommonHelper;
+import com.czertainly.core.service.acme.impl.AcmeChallengeValidator;
 import com.czertainly.core.util.BaseSpringBootTest;
 import com.czertainly.core.util.CertificateUtil;
 import com.fasterxml.jackson.core.JsonProcessingException;
@@ -33,7 +34,6 @@ import com.nimbusds.jose.jwk.RSAKey;
 import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
 import org.bouncycastle.operator.OperatorCreationException;
 import org.junit.jupiter.api.AfterEach;
-import com.nimbusds.jose.util.Base64URL;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -41,19 +41,13 @@ import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
 
-import javax.naming.NamingEnumeration;
-import javax.naming.NamingException;
-import javax.naming.directory.Attribute;
-import javax.naming.directory.Attributes;
-import javax.naming.directory.InitialDirContext;
 import java.net.URI;
 import java.net.URISyntaxException;
-import java.nio.charset.StandardCharsets;
 import java.security.*;
 import java.security.cert.CertificateException;
 import java.security.cert.X509Certificate;
-import java.security.spec.InvalidKeySpecException;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.util.*;
@@ -80,7 +74,7 @@ class AcmeServiceTest extends BaseSpringBootTest {
     @Autowired
     private ConnectorRepository connectorRepository;
     @Autowired
-    private AcmeNonceRepository acmeNonceRepository;
+    private AcmeNonceService acmeNonceService;
 
     @Autowired
     private AcmeAccountRepository acmeAccountRepository;
@@ -109,7 +103,9 @@ class AcmeServiceTest extends BaseSpringBootTest {
     @Autowired
     private AcmeService acmeService;
 
-    private AcmeNonce acmeValidNonce;
+    @MockitoSpyBean
+    private AcmeChallengeValidator acmeChallengeValidator;
+
     private JWSSigner rsa2048Signer;
     private RSAKey rsa2048PublicJWK;
     private JWSSigner newRsa2048Signer;
@@ -128,6 +124,9 @@ class AcmeServiceTest extends BaseSpringBootTest {
 
         mockAcmeRolePermissions();
 
+        // challenges are validated by the validator itself, see AcmeChallengeValidatorTest
+        Mockito.doNothing().when(acmeChallengeValidator).submit(Mockito.any());
+
         WireMock.configureFor("localhost", mockServer.port());
 
         mockServer.stubFor(WireMock
@@ -261,13 +260,6 @@ class AcmeServiceTest extends BaseSpringBootTest {
         challenge2.setAuthorizationUuid(authorization1.getUuid());
         acmeChallengeRepository.save(challenge2);
 
-        Date expires = AcmeCommonHelper.addSeconds(new Date(), AcmeConstants.NONCE_VALIDITY);
-        acmeValidNonce = new AcmeNonce();
-        acmeValidNonce.setNonce("5pSv1vR6SEJryGlA0JRns6e376ZGjUt-CYxmqvwBEaY");
-        acmeValidNonce.setCreated(new Date());
-        acmeValidNonce.setExpires(expires);
-        acmeNonceRepository.save(acmeValidNonce);
-
         // associate certificate with ACME protocol association
         CertificateProtocolAssociation certificateProtocolAssociation = new CertificateProtocolAssociation();
         certificateProtocolAssociation.setCertificate(certificate);
@@ -579,7 +571,7 @@ class AcmeServiceTest extends BaseSpringBootTest {
         jwsObjectJSON.sign(
                 new JWSHeader.Builder(JWSAlgorithm.RS256)
                         .jwk(rsa2048PublicJWK)
-                        .customParam(NONCE_HEADER_CUSTOM_PARAM, acmeValidNonce.getNonce())
+                        .customParam(NONCE_HEADER_CUSTOM_PARAM, acmeNonceService.generateNonce())
                         .customParam(URL_HEADER_CUSTOM_PARAM, requestUri.toString())
                         .build(),
                 rsa2048Signer
@@ -592,7 +584,7 @@ class AcmeServiceTest extends BaseSpringBootTest {
         jwsObjectJSON.sign(
                 new JWSHeader.Builder(JWSAlgorithm.RS256)
                         .jwk(newRsa2048PublicJWK)
-                        .customParam(NONCE_HEADER_CUSTOM_PARAM, acmeValidNonce.getNonce())
+                        .customParam(NONCE_HEADER_CUSTOM_PARAM, acmeNonceService.generateNonce())
                         .customParam(URL_HEADER_CUSTOM_PARAM, requestUri.toString())
                         .build(),
                 newRsa2048Signer
@@ -648,7 +640,7 @@ class AcmeServiceTest extends BaseSpringBootTest {
         jwsObjectJSON.sign(
                 new JWSHeader.Builder(JWSAlgorithm.RS256)
                         .jwk(rsa2048PublicJWK)
-                        .customParam(NONCE_HEADER_CUSTOM_PARAM, acmeValidNonce.getNonce())
+                        .customParam(NONCE_HEADER_CUSTOM_PARAM, acmeNonceService.generateNonce())
                         .customParam(URL_HEADER_CUSTOM_PARAM, requestUri.toString())
                         .build(),
                 rsa2048Signer
@@ -668,7 +660,7 @@ class AcmeServiceTest extends BaseSpringBootTest {
         jwsObjectJSON.sign(
                 new JWSHeader.Builder(JWSAlgorithm.RS256)
                         .jwk(newRsa2048PublicJWK)
-                        .customParam(NONCE_HEADER_CUSTOM_PARAM, acmeValidNonce.getNonce())
+                        .customParam(NONCE_HEADER_CUSTOM_PARAM, acmeNonceService.generateNonce())
                         .customParam(URL_HEADER_CUSTOM_PARAM, requestUri.toString())
                         .build(),
                 newRsa2048Signer
@@ -713,7 +705,7 @@ class AcmeServiceTest extends BaseSpringBootTest {
         jwsObjectJSON.sign(
                 new JWSHeader.Builder(JWSAlgorithm.RS256)
                         .keyID(baseUri + "/acct/" + ACME_ACCOUNT_ID_VALID)
-                        .customParam(NONCE_HEADER_CUSTOM_PARAM, acmeValidNonce.getNonce())
+                        .customParam(NONCE_HEADER_CUSTOM_PARAM, acmeNonceService.generateNonce())
                         .customParam(URL_HEADER_CUSTOM_PARAM, requestUri.toString())
                         .build(),
                 rsa2048Signer
@@ -779,7 +771,7 @@ class AcmeServiceTest extends BaseSpringBootTest {
         jwsObjectJSON.sign(
                 new JWSHeader.Builder(JWSAlgorithm.RS256)
                         .keyID(baseUri + "/acct/" + ACME_ACCOUNT_ID_VALID)
-                        .customParam(NONCE_HEADER_CUSTOM_PARAM, acmeValidNonce.getNonce())
+                        .customParam(NONCE_HEADER_CUSTOM_PARAM, acmeNonceService.generateNonce())
                         .customParam(URL_HEADER_CUSTOM_PARAM, requestUri.toString())
                         .build(),
                 rsa2048Signer
@@ -862,7 +854,7 @@ class AcmeServiceTest extends BaseSpringBootTest {
         jwsObjectJSON.sign(
                 new JWSHeader.Builder(JWSAlgorithm.RS256)
                         .keyID(baseUri + "/acct/" + ACME_ACCOUNT_ID_VALID)
-                        .customParam(NONCE_HEADER_CUSTOM_PARAM, acmeValidNonce.getNonce())
+                        .customParam(NONCE_HEADER_CUSTOM_PARAM, acmeNonceService.generateNonce())
                         .customParam(URL_HEADER_CUSTOM_PARAM, requestUri.toString())
                         .build(),
                 rsa2048Signer
@@ -906,7 +898,7 @@ class AcmeServiceTest extends BaseSpringBootTest {
         jwsObjectJSON.sign(
                 new JWSHeader.Builder(JWSAlgorithm.RS256)
                         .keyID(baseUri + "/acct/" + ACME_ACCOUNT_ID_VALID)
-                        .customParam(NONCE_HEADER_CUSTOM_PARAM, acmeValidNonce.getNonce())
+                        .customParam(NONCE_HEADER_CUSTOM_PARAM, acmeNonceService.generateNonce())
                         .customParam(URL_HEADER_CUSTOM_PARAM, requestUri.toString())
                         .build(),
                 rsa2048Signer
@@ -970,7 +962,7 @@ class AcmeServiceTest extends BaseSpringBootTest {
         jwsObjectJSON.sign(
                 new JWSHeader.Builder(JWSAlgorithm.RS256)
                         .keyID(baseUri + "/acct/" + ACME_ACCOUNT_ID_VALID)
-                        .customParam(NONCE_HEADER_CUSTOM_PARAM, acmeValidNonce.getNonce())
+                        .customParam(NONCE_HEADER_CUSTOM_PARAM, acmeNonceService.generateNonce())
                         .customParam(URL_HEADER_CUSTOM_PARAM, requestUri.toString())
                         .build(),
                 rsa2048Signer
@@ -1006,7 +998,7 @@ class AcmeServiceTest extends BaseSpringBootTest {
         jwsObjectJSON.sign(
                 new JWSHeader.Builder(JWSAlgorithm.RS256)
                         .jwk(rsa2048PublicJWK)
-                        .customParam(NONCE_HEADER_CUSTOM_PARAM, acmeValidNonce.getNonce())
+                        .customParam(NONCE_HEADER_CUSTOM_PARAM, acmeNonceService.generateNonce())
                         .customParam(URL_HEADER_CUSTOM_PARAM, requestUri.toString())
                         .build(),
                 rsa2048Signer
@@ -1116,7 +1108,7 @@ class AcmeServiceTest extends BaseSpringBootTest {
         jwsObjectJSON.sign(
                 new JWSHeader.Builder(JWSAlgorithm.RS256)
                         .keyID(baseUri + "/acct/" + ACME_ACCOUNT_ID_VALID)
-                        .customParam(NONCE_HEADER_CUSTOM_PARAM, acmeValidNonce.getNonce())
+                        .customParam(NONCE_HEADER_CUSTOM_PARAM, acmeNonceService.generateNonce())
                         .customParam(URL_HEADER_CUSTOM_PARAM, requestUri.toString())
                         .build(),
                 rsa2048Signer
@@ -1132,7 +1124,7 @@ class AcmeServiceTest extends BaseSpringBootTest {
     }
 
     @Test
-    void testValidateChallenge_Dns01() throws AcmeProblemDocumentException, JOSEException, NotFoundException, NoSuchAlgorithmException, InvalidKeySpecException, NamingException {
+    void testValidateChallenge_Dns01() throws AcmeProblemDocumentException {
         AcmeAuthorization authorization = new AcmeAuthorization();
         authorization.setAuthorizationId("authDns01");
         authorization.setStatus(AuthorizationStatus.PENDING);
@@ -1150,32 +1142,19 @@ class AcmeServiceTest extends BaseSpringBootTest {
         challenge.setAuthorization(authorization);
         acmeChallengeRepository.save(challenge);
 
-        String keyAuthorization = AcmeCommonHelper.createKeyAuthorization(challenge.getToken(), rsa2048PublicJWK.toPublicKey());
-        MessageDigest digest = MessageDigest.getInstance("SHA-256");
-        final byte[] encodedHashOfExpectedKeyAuthorization = digest.digest(keyAuthorization.getBytes(StandardCharsets.UTF_8));
-        String expectedDnsValidationToken = Base64URL.encode(encodedHashOfExpectedKeyAuthorization).toString();
-
-        try (var mockedContext = Mockito.mockConstruction(InitialDirContext.class, (mock, context) -> {
-            Attributes attrs = Mockito.mock(Attributes.class);
-            Attribute attr = Mockito.mock(Attribute.class);
-            @SuppressWarnings("unchecked")
-            NamingEnumeration<Attribute> enumeration = (NamingEnumeration<Attribute>) Mockito.mock(NamingEnumeration.class);
-
-            Mockito.when(mock.getAttributes(Mockito.anyString(), Mockito.any(String[].class))).thenReturn(attrs);
-            Mockito.doReturn(enumeration).when(attrs).getAll();
-            Mockito.when(enumeration.hasMore()).thenReturn(true, false);
-            Mockito.when(enumeration.next()).thenReturn(attr);
-            Mockito.when(attr.get()).thenReturn(expectedDnsValidationToken);
-        })) {
-            URI requestUri = URI.create(BASE_URI + ACME_PROFILE_NAME + "/chall/" + challenge.getChallengeId());
-            ResponseEntity<Challenge> response = acmeService.validateChallenge(ACME_PROFILE_NAME, challenge.getChallengeId(), requestUri, false);
-
-            Assertions.assertEquals(HttpStatus.OK, response.getStatusCode());
-            Assertions.assertEquals(ChallengeStatus.VALID, Objects.requireNonNull(response.getBody()).getStatus());
-
-            AcmeChallenge updatedChallenge = acmeChallengeRepository.findByChallengeId(challenge.getChallengeId()).orElseThrow();
-            Assertions.assertEquals(ChallengeStatus.VALID, updatedChallenge.getStatus());
-            Assertions.assertNotNull(updatedChallenge.getValidated());
-        }
+        URI requestUri = URI.create(BASE_URI + ACME_PROFILE_NAME + "/chall/" + challenge.getChallengeId());
+        ResponseEntity<Challenge> response = acmeService.validateChallenge(ACME_PROFILE_NAME, challenge.getChallengeId(), requestUri, false);
+
+        Assertions.assertEquals(HttpStatus.OK, response.getStatusCode());
+        Assertions.assertEquals(ChallengeStatus.PROCESSING, Objects.requireNonNull(response.getBody()).getStatus());
+        Assertions.assertNotNull(response.getHeaders().get("Retry-After"));
+        Assertions.assertEquals(ChallengeStatus.PROCESSING, acmeChallengeRepository.findByChallengeId(challenge.getChallengeId()).orElseThrow().getStatus());
+        Mockito.verify(acmeChallengeValidator).submit(challenge.getUuid());
+
+        // repeated request returns challenge being processed without submitting it again
+        response = acmeService.validateChallenge(ACME_PROFILE_NAME, challenge.getChallengeId(), requestUri, false);
+        Assertions.assertEquals(ChallengeStatus.PROCESSING, Objects.requireNonNull(response.getBody()).getStatus());
+        Mockito.verify(acmeChallengeValidator).submit(challenge.getUuid());
+        Mockito.verify(acmeChallengeValidator).resubmitIfAbandoned(challenge.getUuid());
     }
 }
@@ -426,6 +426,28 @@ class CertificateServiceTest extends BaseSpringBootTest {
         Assertions.assertEquals("177e75f42e95ecb98f831eb57de27b0bc8c47643", cert.getSerialNumber());
     }
 
+    @Test
+    void testCheckAddCertificateContents() {
+        Assertions.assertTrue(certificateService.checkAddCertificateContents(Map.of()).isEmpty());
+
+        CertificateContent existingContent = certificateService.checkAddCertificateContent("existingFingerprint", "existingContent");
+        long contentsCount = certificateContentRepository.count();
+
+        Map<String, CertificateContent> contents = certificateService.checkAddCertificateContents(Map.of(
+                "existingFingerprint", "otherContent",
+                "newFingerprint", "-----BEGIN CERTIFICATE-----\nnewContent\n-----END CERTIFICATE-----"));
+        Assertions.assertEquals(2, contents.size());
+        // existing content is reused and not overwritten
+        Assertions.assertEquals(existingContent.getId(), contents.get("existingFingerprint").getId());
+        Assertions.assertEquals("existingContent", certificateContentRepository.findByFingerprint("existingFingerprint").getContent());
+        // only new content is inserted, normalized
+        Assertions.assertEquals(contentsCount + 1, certificateContentRepository.count());
+        CertificateContent newContent = certificateContentRepository.findByFingerprint("newFingerprint");
+        Assertions.assertNotNull(newContent);
+        Assertions.assertEquals(newContent.getId(), contents.get("newFingerprint").getId());
+        Assertions.assertEquals("newContent", newContent.getContent());
+    }
+
     @Test
     void testAddCertificate_certificateException() {
         Assertions.assertThrows(CertificateException.class, () -> certificateService.checkCreateCertificate("certificate"));
@@ -21,6 +21,7 @@ import com.czertainly.core.enums.FilterField;
 import com.czertainly.api.model.connector.cryptography.enums.TokenInstanceStatus;
 import com.czertainly.core.messaging.jms.producers.NotificationProducer;
 import com.czertainly.core.model.auth.ResourceAction;
+import com.czertainly.core.model.discovery.DiscoveredPublicKeys;
 import com.czertainly.core.security.authz.SecuredParentUUID;
 import com.czertainly.core.security.authz.SecuredUUID;
 import com.czertainly.core.security.authz.SecurityFilter;
@@ -37,6 +38,9 @@ import org.mockito.Mockito;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 
+import java.security.KeyPairGenerator;
+import java.security.NoSuchAlgorithmException;
+import java.security.PublicKey;
 import java.util.*;
 
 class CryptographicKeyServiceTest extends BaseSpringBootTest {
@@ -873,6 +877,29 @@ class CryptographicKeyServiceTest extends BaseSpringBootTest {
                 () -> cryptographicKeyService.getKeyItem(key.getSecuredUuid(), privateKeyItem.getUuid().toString()));
     }
 
+    @Test
+    void testUploadCertificatePublicKeys() throws NoSuchAlgorithmException {
+        KeyPairGenerator keyPairGenerator = KeyPairGenerator.getInstance("RSA");
+        keyPairGenerator.initialize(2048);
+        PublicKey publicKey = keyPairGenerator.generateKeyPair().getPublic();
+        PublicKey otherPublicKey = keyPairGenerator.generateKeyPair().getPublic();
+
+        DiscoveredPublicKeys publicKeys = new DiscoveredPublicKeys("certKey_");
+        String fingerprint = publicKeys.add(publicKey, UUID.randomUUID(), "first");
+        Assertions.assertEquals(fingerprint, publicKeys.add(publicKey, UUID.randomUUID(), "second"));
+        publicKeys.add(otherPublicKey, UUID.randomUUID(), "other");
+        Assertions.assertEquals(2, publicKeys.getKeys().size());
+        Assertions.assertEquals(3, publicKeys.getCertificateUuids().size());
+
+        Assertions.assertEquals(2, cryptographicKeyService.uploadCertificatePublicKeys(publicKeys.getKeys()));
+        UUID keyUuid = cryptographicKeyService.findKeyByFingerprint(fingerprint);
+        Assertions.assertNotNull(keyUuid);
+        Assertions.assertEquals("certKey_first", cryptographicKeyRepository.findByUuid(keyUuid).orElseThrow().getName());
+
+        // already registered keys are not uploaded again
+        Assertions.assertEquals(0, cryptographicKeyService.uploadCertificatePublicKeys(publicKeys.getKeys()));
+    }
+
     @Test
     void testGetResourceObject() throws NotFoundException {
         NameAndUuidDto nameAndUuidDto = cryptographicKeyService.getResourceObjectInternal(key.getUuid());
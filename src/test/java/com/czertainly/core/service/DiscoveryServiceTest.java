@@ -50,6 +50,8 @@ class DiscoveryServiceTest extends BaseSpringBootTest {
     private DiscoveryRepository discoveryRepository;
     @Autowired
     private DiscoveryCertificateRepository discoveryCertificateRepository;
+    @Autowired
+    private CertificateRepository certificateRepository;
 
     @Autowired
     private ConnectorRepository connectorRepository;
@@ -267,6 +269,12 @@ class DiscoveryServiceTest extends BaseSpringBootTest {
         DiscoveryCertificateResponseDto certificates = discoveryService.getDiscoveryCertificates(SecuredUUID.fromUUID(discoveryUuid), null, 10, 1);
         Assertions.assertEquals(1, certificates.getCertificates().size());
         Assertions.assertEquals(1, discoveryCertificateRepository.countByDiscoveryAndNewlyDiscovered(persisted, true));
+        Assertions.assertEquals(1, discoveryCertificateRepository.countByDiscoveryAndNewlyDiscoveredAndProcessed(persisted, true, true));
+
+        // processing is resumed only with certificates not processed yet
+        long certificatesCount = certificateRepository.count();
+        eventListener.processMessage(CertificateDiscoveredEventHandler.constructEventMessage(persisted.getUuid(), null, null));
+        Assertions.assertEquals(certificatesCount, certificateRepository.count());
 
         persisted = discoveryRepository.findByUuid(discoveryUuid).orElseThrow();
         Assertions.assertEquals(DiscoveryStatus.COMPLETED, persisted.getStatus());
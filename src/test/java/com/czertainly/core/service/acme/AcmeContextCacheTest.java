@@ -0,0 +1,52 @@
+package com.czertainly.core.service.acme;
+
+import com.czertainly.api.model.core.acme.AccountStatus;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+class AcmeContextCacheTest {
+
+    @Test
+    void testProfileCachedUntilInvalidated() {
+        AcmeContextCache cache = new AcmeContextCache(Duration.ofMinutes(1));
+        AtomicInteger loads = new AtomicInteger();
+        AcmeContextCache.ProfileContext profile = new AcmeContextCache.ProfileContext(UUID.randomUUID(), true, UUID.randomUUID(), true, false, null, null, 30, null);
+
+        Assertions.assertSame(profile, cache.getProfile("profile", false, () -> countLoad(loads, profile)).orElseThrow());
+        Assertions.assertSame(profile, cache.getProfile("profile", false, () -> countLoad(loads, profile)).orElseThrow());
+        Assertions.assertEquals(1, loads.get());
+
+        // RA profile based profile of the same name is different
+        Assertions.assertTrue(cache.getProfile("profile", true, Optional::empty).isEmpty());
+
+        cache.invalidateProfiles();
+        cache.getProfile("profile", false, () -> countLoad(loads, profile));
+        Assertions.assertEquals(2, loads.get());
+    }
+
+    @Test
+    void testAccountCachedById() {
+        AcmeContextCache cache = new AcmeContextCache(Duration.ofMinutes(1));
+        AtomicInteger loads = new AtomicInteger();
+        AcmeContextCache.AccountContext account = new AcmeContextCache.AccountContext(UUID.randomUUID(), "accountId", AccountStatus.VALID, null, UUID.randomUUID(), UUID.randomUUID());
+
+        Assertions.assertSame(account, cache.getAccount(account.accountId(), () -> countLoad(loads, account)).orElseThrow());
+        Assertions.assertSame(account, cache.getAccount(account.uuid(), () -> countLoad(loads, account)).orElseThrow());
+        Assertions.assertEquals(1, loads.get());
+
+        cache.invalidateAccount(account.accountId());
+        Assertions.assertSame(account, cache.getAccount(account.uuid(), () -> countLoad(loads, account)).orElseThrow());
+        Assertions.assertSame(account, cache.getAccount(account.accountId(), () -> countLoad(loads, account)).orElseThrow());
+        Assertions.assertEquals(2, loads.get());
+    }
+
+    private static <T> Optional<T> countLoad(AtomicInteger loads, T value) {
+        loads.incrementAndGet();
+        return Optional.of(value);
+    }
+}
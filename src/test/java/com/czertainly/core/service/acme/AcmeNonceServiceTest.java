@@ -0,0 +1,98 @@
+package com.czertainly.core.service.acme;
+
+import com.czertainly.core.service.acme.impl.AcmeNonceServiceImpl;
+import com.czertainly.core.util.SecretsUtil;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Base64;
+
+class AcmeNonceServiceTest {
+
+    @BeforeAll
+    static void setUp() {
+        new SecretsUtil().setEncryptionKeyStatic("testEncryptionKey");
+    }
+
+    @Test
+    void testNonceCanBeUsedOnce() {
+        AcmeNonceService acmeNonceService = new AcmeNonceServiceImpl(new AcmeNonceProperties(null, 0));
+        String nonce = acmeNonceService.generateNonce();
+        Assertions.assertNotEquals(nonce, acmeNonceService.generateNonce());
+
+        Assertions.assertTrue(acmeNonceService.consumeNonce(nonce));
+        Assertions.assertFalse(acmeNonceService.consumeNonce(nonce));
+    }
+
+    @Test
+    void testNonceIssuedByOtherInstance() {
+        String nonce = new AcmeNonceServiceImpl(new AcmeNonceProperties(null, 0)).generateNonce();
+        Assertions.assertTrue(new AcmeNonceServiceImpl(new AcmeNonceProperties(null, 0)).consumeNonce(nonce));
+    }
+
+    @Test
+    void testInvalidNonce() {
+        AcmeNonceService acmeNonceService = new AcmeNonceServiceImpl(new AcmeNonceProperties(null, 0));
+        byte[] nonce = Base64.getUrlDecoder().decode(acmeNonceService.generateNonce());
+        nonce[nonce.length - 1] ^= 1;
+
+        Assertions.assertFalse(acmeNonceService.consumeNonce(Base64.getUrlEncoder().withoutPadding().encodeToString(nonce)));
+        Assertions.assertFalse(acmeNonceService.consumeNonce("5pSv1vR6SEJryGlA0JRns6e376ZGjUt-CYxmqvwBEaY"));
+        Assertions.assertFalse(acmeNonceService.consumeNonce("not a nonce"));
+    }
+
+    @Test
+    void testTrackedNoncesLimit() {
+        MutableClock clock = new MutableClock(Instant.parse("2026-01-01T00:00:00Z"));
+        AcmeNonceService acmeNonceService = new AcmeNonceServiceImpl(new AcmeNonceProperties(AcmeNonceProperties.ReplayStore.MEMORY, 2), clock);
+        String oldNonce = acmeNonceService.generateNonce();
+        String unusedOldNonce = acmeNonceService.generateNonce();
+        Assertions.assertTrue(acmeNonceService.consumeNonce(oldNonce));
+
+        clock.advance(Duration.ofMinutes(1));
+        Assertions.assertTrue(acmeNonceService.consumeNonce(acmeNonceService.generateNonce()));
+
+        // limit reached, the oldest used nonces are dropped instead of rejecting fresh nonces
+        String freshNonce = acmeNonceService.generateNonce();
+        Assertions.assertTrue(acmeNonceService.consumeNonce(freshNonce));
+        Assertions.assertFalse(acmeNonceService.consumeNonce(freshNonce));
+
+        // nonces issued before the dropped ones cannot be replayed nor used
+        Assertions.assertFalse(acmeNonceService.consumeNonce(oldNonce));
+        Assertions.assertFalse(acmeNonceService.consumeNonce(unusedOldNonce));
+    }
+
+    private static class MutableClock extends Clock {
+
+        private Instant instant;
+
+        MutableClock(Instant instant) {
+            this.instant = instant;
+        }
+
+        void advance(Duration duration) {
+            instant = instant.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
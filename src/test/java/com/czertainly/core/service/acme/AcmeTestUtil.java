@@ -1,7 +1,5 @@
 package com.czertainly.core.service.acme;
 
-import com.czertainly.core.dao.entity.acme.AcmeNonce;
-import com.czertainly.core.dao.repository.acme.AcmeNonceRepository;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.nimbusds.jose.JWSAlgorithm;
 import com.nimbusds.jose.JWSHeader;
@@ -23,7 +21,6 @@ import java.security.KeyPair;
 import java.security.cert.X509Certificate;
 import java.security.interfaces.RSAPublicKey;
 import java.util.Date;
-import java.util.UUID;
 
 /**
  * Static utility helpers shared across ACME integration tests.
@@ -40,11 +37,11 @@ public final class AcmeTestUtil {
      * (used for new-account requests). Otherwise, a {@code kid} header pointing to the account
      * URL is used.
      *
-     * <p>A fresh nonce is persisted to {@code acmeNonceRepository} so the service can validate it.
+     * <p>A fresh nonce is issued by {@code acmeNonceService} so the service can validate it.
      *
      * @param objectMapper        Jackson mapper used to serialize the payload
      * @param acmeKeyPair         RSA key pair to sign the JWS
-     * @param acmeNonceRepository repository used to register the generated nonce
+     * @param acmeNonceService    service issuing the nonce
      * @param payload             request payload object (serialized to JSON), or {@code null} for POST-as-GET
      * @param url                 the ACME endpoint URL embedded in the JWS header
      * @param accountId           account ID for the {@code kid} header, or {@code null} for new-account
@@ -54,7 +51,7 @@ public final class AcmeTestUtil {
     public static String createJwsRequest(
             ObjectMapper objectMapper,
             KeyPair acmeKeyPair,
-            AcmeNonceRepository acmeNonceRepository,
+            AcmeNonceService acmeNonceService,
             Object payload,
             String url,
             String accountId,
@@ -63,14 +60,7 @@ public final class AcmeTestUtil {
         JWSHeader.Builder headerBuilder = new JWSHeader.Builder(JWSAlgorithm.RS256);
         headerBuilder.customParam("url", url);
 
-        String nonce = "test-nonce-" + UUID.randomUUID();
-        headerBuilder.customParam("nonce", nonce);
-
-        AcmeNonce acmeNonce = new AcmeNonce();
-        acmeNonce.setNonce(nonce);
-        acmeNonce.setCreated(new Date());
-        acmeNonce.setExpires(new Date(System.currentTimeMillis() + 3_600_000));
-        acmeNonceRepository.save(acmeNonce);
+        headerBuilder.customParam("nonce", acmeNonceService.generateNonce());
 
         if (accountId == null) {
             headerBuilder.jwk(new RSAKey.Builder((RSAPublicKey) acmeKeyPair.getPublic()).build());
@@ -0,0 +1,170 @@
+package com.czertainly.core.service.acme.impl;
+
+import com.czertainly.api.model.core.acme.*;
+import com.czertainly.core.dao.entity.RaProfile;
+import com.czertainly.core.dao.entity.acme.*;
+import com.czertainly.core.dao.repository.RaProfileRepository;
+import com.czertainly.core.dao.repository.acme.*;
+import com.czertainly.core.util.AcmeCommonHelper;
+import com.czertainly.core.util.BaseSpringBootTest;
+import com.nimbusds.jose.util.Base64URL;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+
+import javax.naming.NamingEnumeration;
+import javax.naming.directory.Attribute;
+import javax.naming.directory.Attributes;
+import javax.naming.directory.InitialDirContext;
+import java.nio.charset.StandardCharsets;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.MessageDigest;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Base64;
+
+class AcmeChallengeValidatorTest extends BaseSpringBootTest {
+
+    @MockitoSpyBean
+    private AcmeChallengeValidator acmeChallengeValidator;
+
+    @Autowired
+    private RaProfileRepository raProfileRepository;
+    @Autowired
+    private AcmeProfileRepository acmeProfileRepository;
+    @Autowired
+    private AcmeAccountRepository acmeAccountRepository;
+    @Autowired
+    private AcmeOrderRepository acmeOrderRepository;
+    @Autowired
+    private AcmeAuthorizationRepository acmeAuthorizationRepository;
+    @Autowired
+    private AcmeChallengeRepository acmeChallengeRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private KeyPair keyPair;
+    private AcmeOrder order;
+    private AcmeAuthorization authorization;
+    private AcmeChallenge challenge;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        // validation is run on the test thread, not by the workers
+        Mockito.doNothing().when(acmeChallengeValidator).submit(Mockito.any());
+
+        KeyPairGenerator keyPairGenerator = KeyPairGenerator.getInstance("RSA");
+        keyPairGenerator.initialize(2048);
+        keyPair = keyPairGenerator.generateKeyPair();
+
+        RaProfile raProfile = new RaProfile();
+        raProfile.setName("testRaProfile");
+        raProfile.setEnabled(true);
+        raProfileRepository.save(raProfile);
+
+        AcmeProfile acmeProfile = new AcmeProfile();
+        acmeProfile.setName("testAcmeProfile");
+        acmeProfile.setRaProfile(raProfile);
+        acmeProfile.setDnsResolverIp("localhost");
+        acmeProfile.setDnsResolverPort("53");
+        acmeProfile.setRetryInterval(30);
+        acmeProfile.setValidity(30);
+        acmeProfile.setEnabled(true);
+        acmeProfileRepository.save(acmeProfile);
+
+        AcmeAccount acmeAccount = new AcmeAccount();
+        acmeAccount.setAccountId("testAccount");
+        acmeAccount.setStatus(AccountStatus.VALID);
+        acmeAccount.setEnabled(true);
+        acmeAccount.setTermsOfServiceAgreed(true);
+        acmeAccount.setAcmeProfile(acmeProfile);
+        acmeAccount.setRaProfile(raProfile);
+        acmeAccount.setPublicKey(Base64.getEncoder().encodeToString(keyPair.getPublic().getEncoded()));
+        acmeAccountRepository.save(acmeAccount);
+
+        order = new AcmeOrder();
+        order.setOrderId("testOrder");
+        order.setStatus(OrderStatus.PENDING);
+        order.setAcmeAccount(acmeAccount);
+        acmeOrderRepository.save(order);
+
+        authorization = new AcmeAuthorization();
+        authorization.setAuthorizationId("testAuthorization");
+        authorization.setStatus(AuthorizationStatus.PENDING);
+        authorization.setIdentifier("{\"type\":\"dns\",\"value\":\"example.com\"}");
+        authorization.setOrder(order);
+        authorization.setOrderUuid(order.getUuid());
+        acmeAuthorizationRepository.save(authorization);
+
+        challenge = new AcmeChallenge();
+        challenge.setChallengeId("testChallenge");
+        challenge.setStatus(ChallengeStatus.PROCESSING);
+        challenge.setType(ChallengeType.DNS01);
+        challenge.setToken("tokenDns01");
+        challenge.setAuthorization(authorization);
+        challenge.setAuthorizationUuid(authorization.getUuid());
+        acmeChallengeRepository.save(challenge);
+    }
+
+    @Test
+    void testValidateDns01Challenge() throws Exception {
+        String keyAuthorization = AcmeCommonHelper.createKeyAuthorization(challenge.getToken(), keyPair.getPublic());
+        String expectedDnsValidationToken = Base64URL.encode(MessageDigest.getInstance("SHA-256").digest(keyAuthorization.getBytes(StandardCharsets.UTF_8))).toString();
+
+        try (var mockedContext = Mockito.mockConstruction(InitialDirContext.class, (mock, context) -> {
+            Attributes attrs = Mockito.mock(Attributes.class);
+            Attribute attr = Mockito.mock(Attribute.class);
+            @SuppressWarnings("unchecked")
+            NamingEnumeration<Attribute> enumeration = (NamingEnumeration<Attribute>) Mockito.mock(NamingEnumeration.class);
+
+            Mockito.when(mock.getAttributes(Mockito.anyString(), Mockito.any(String[].class))).thenReturn(attrs);
+            Mockito.doReturn(enumeration).when(attrs).getAll();
+            Mockito.when(enumeration.hasMore()).thenReturn(true, false);
+            Mockito.when(enumeration.next()).thenReturn(attr);
+            Mockito.when(attr.get()).thenReturn(expectedDnsValidationToken);
+        })) {
+            Assertions.assertTrue(acmeChallengeValidator.validate(challenge.getUuid(), true));
+        }
+
+        AcmeChallenge updatedChallenge = acmeChallengeRepository.findByUuid(challenge.getUuid()).orElseThrow();
+        Assertions.assertEquals(ChallengeStatus.VALID, updatedChallenge.getStatus());
+        Assertions.assertNotNull(updatedChallenge.getValidated());
+        Assertions.assertEquals(AuthorizationStatus.VALID, acmeAuthorizationRepository.findByAuthorizationId(authorization.getAuthorizationId()).orElseThrow().getStatus());
+        Assertions.assertEquals(OrderStatus.READY, acmeOrderRepository.findByUuid(order.getUuid()).orElseThrow().getStatus());
+    }
+
+    @Test
+    void testFailedAttemptIsRetriedUntilLastAttempt() {
+        try (var mockedContext = Mockito.mockConstruction(InitialDirContext.class, (mock, context) ->
+                Mockito.when(mock.getAttributes(Mockito.anyString(), Mockito.any(String[].class))).thenThrow(new javax.naming.NameNotFoundException()))) {
+            Assertions.assertFalse(acmeChallengeValidator.validate(challenge.getUuid(), false));
+            Assertions.assertEquals(ChallengeStatus.PROCESSING, acmeChallengeRepository.findByUuid(challenge.getUuid()).orElseThrow().getStatus());
+
+            Assertions.assertTrue(acmeChallengeValidator.validate(challenge.getUuid(), true));
+            Assertions.assertEquals(ChallengeStatus.INVALID, acmeChallengeRepository.findByUuid(challenge.getUuid()).orElseThrow().getStatus());
+        }
+    }
+
+    @Test
+    void testAbandonedChallengeIsResubmitted() {
+        // challenge processed within the timeout is left to the validation in progress
+        Assertions.assertFalse(acmeChallengeValidator.resubmitIfAbandoned(challenge.getUuid()));
+        Mockito.verify(acmeChallengeValidator, Mockito.never()).submit(challenge.getUuid());
+
+        // challenge left in processing state by stopped instance
+        jdbcTemplate.update("UPDATE core.acme_challenge SET i_upd = ? WHERE uuid = ?",
+                Timestamp.from(Instant.now().minus(1, ChronoUnit.DAYS)), challenge.getUuid());
+        Assertions.assertTrue(acmeChallengeValidator.resubmitIfAbandoned(challenge.getUuid()));
+        Mockito.verify(acmeChallengeValidator).submit(challenge.getUuid());
+
+        // resubmitted challenge is claimed and not resubmitted again
+        Assertions.assertFalse(acmeChallengeValidator.resubmitIfAbandoned(challenge.getUuid()));
+        Mockito.verify(acmeChallengeValidator).submit(challenge.getUuid());
+    }
+}
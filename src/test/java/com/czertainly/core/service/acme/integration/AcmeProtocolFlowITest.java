@@ -32,7 +32,6 @@ import com.czertainly.core.dao.repository.FunctionGroupRepository;
 import com.czertainly.core.dao.repository.AcmeProfileRepository;
 import com.czertainly.core.dao.repository.acme.AcmeAuthorizationRepository;
 import com.czertainly.core.dao.repository.acme.AcmeChallengeRepository;
-import com.czertainly.core.dao.repository.acme.AcmeNonceRepository;
 import com.czertainly.core.dao.repository.acme.AcmeOrderRepository;
 import com.czertainly.core.messaging.model.ActionMessage;
 import com.czertainly.core.messaging.jms.producers.ActionProducer;
@@ -42,6 +41,7 @@ import com.czertainly.core.security.authz.SecuredUUID;
 import com.czertainly.core.service.AcmeProfileService;
 import com.czertainly.core.service.AuthorityInstanceService;
 import com.czertainly.core.service.RaProfileService;
+import com.czertainly.core.service.acme.AcmeNonceService;
 import com.czertainly.core.service.acme.AcmeService;
 import com.czertainly.core.service.acme.AcmeTestUtil;
 import com.czertainly.core.service.v2.ClientOperationService;
@@ -126,7 +126,7 @@ public class AcmeProtocolFlowITest extends BaseSpringBootTest {
     @Autowired
     private Connector2FunctionGroupRepository connector2FunctionGroupRepository;
     @Autowired
-    private AcmeNonceRepository acmeNonceRepository;
+    private AcmeNonceService acmeNonceService;
     @Autowired
     private AcmeOrderRepository acmeOrderRepository;
     @Autowired
@@ -541,11 +541,11 @@ public class AcmeProtocolFlowITest extends BaseSpringBootTest {
     // ── JWS helper ────────────────────────────────────────────────────────────
 
     /**
-     * Delegates to {@link AcmeTestUtil#createJwsRequest} with the shared key pair and nonce repository.
+     * Delegates to {@link AcmeTestUtil#createJwsRequest} with the shared key pair and nonce service.
      */
     private String createJws(Object payload, String url, String accountId) throws Exception {
         return AcmeTestUtil.createJwsRequest(
-                objectMapper, acmeKeyPair, acmeNonceRepository,
+                objectMapper, acmeKeyPair, acmeNonceService,
                 payload, url, accountId, ACME_PROFILE_NAME);
     }
 }
@@ -0,0 +1,187 @@
+package com.czertainly.core.service.cmp;
+
+import com.czertainly.api.model.client.cmp.CmpProfileEditRequestDto;
+import com.czertainly.api.model.client.connector.v2.ConnectorVersion;
+import com.czertainly.api.model.core.cmp.CmpProfileVariant;
+import com.czertainly.api.model.core.cmp.ProtectionMethod;
+import com.czertainly.api.model.core.connector.ConnectorStatus;
+import com.czertainly.core.dao.entity.AuthorityInstanceReference;
+import com.czertainly.core.dao.entity.Connector;
+import com.czertainly.core.dao.entity.RaProfile;
+import com.czertainly.core.dao.entity.cmp.CmpProfile;
+import com.czertainly.core.dao.repository.AuthorityInstanceReferenceRepository;
+import com.czertainly.core.dao.repository.ConnectorRepository;
+import com.czertainly.core.dao.repository.RaProfileRepository;
+import com.czertainly.core.dao.repository.cmp.CmpProfileRepository;
+import com.czertainly.core.service.CmpProfileService;
+import com.czertainly.core.service.cmp.configurations.CmpContextCache;
+import com.czertainly.core.util.BaseSpringBootTest;
+import com.czertainly.core.util.CertificateUtil;
+import org.bouncycastle.asn1.oiw.OIWObjectIdentifiers;
+import org.bouncycastle.asn1.pkcs.PKCSObjectIdentifiers;
+import org.bouncycastle.asn1.x500.X500Name;
+import org.bouncycastle.asn1.x509.AlgorithmIdentifier;
+import org.bouncycastle.asn1.x509.GeneralName;
+import org.bouncycastle.cert.X509CertificateHolder;
+import org.bouncycastle.cert.cmp.GeneralPKIMessage;
+import org.bouncycastle.cert.cmp.ProtectedPKIMessage;
+import org.bouncycastle.cert.cmp.ProtectedPKIMessageBuilder;
+import org.bouncycastle.cert.crmf.PKMACBuilder;
+import org.bouncycastle.cert.crmf.jcajce.JcePKMACValuesCalculator;
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.math.BigInteger;
+import java.security.KeyPair;
+import java.security.Security;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+class CmpServiceTest extends BaseSpringBootTest {
+
+    private static final String SHARED_SECRET = "sh@r3dS3cr3t";
+
+    @Autowired
+    private CmpService cmpService;
+    @Autowired
+    private CmpProfileService cmpProfileService;
+    @Autowired
+    private CmpContextCache cmpContextCache;
+    @Autowired
+    private CmpProfileRepository cmpProfileRepository;
+    @Autowired
+    private ConnectorRepository connectorRepository;
+    @Autowired
+    private AuthorityInstanceReferenceRepository authorityInstanceReferenceRepository;
+    @Autowired
+    private RaProfileRepository raProfileRepository;
+
+    private RaProfile raProfile;
+    private CmpProfile cmpProfile;
+
+    @BeforeAll
+    static void setUpProvider() {
+        Security.addProvider(new BouncyCastleProvider());
+    }
+
+    @BeforeEach
+    void setUp() {
+        Connector connector = new Connector();
+        connector.setUrl("http://localhost:3665");
+        connector.setVersion(ConnectorVersion.V1);
+        connector.setStatus(ConnectorStatus.CONNECTED);
+        connector = connectorRepository.save(connector);
+
+        AuthorityInstanceReference authorityInstance = new AuthorityInstanceReference();
+        authorityInstance.setName("TestAuthority");
+        authorityInstance.setConnector(connector);
+        authorityInstance.setConnectorUuid(connector.getUuid());
+        authorityInstance.setKind("sample");
+        authorityInstance.setAuthorityInstanceUuid("1l");
+        authorityInstance = authorityInstanceReferenceRepository.save(authorityInstance);
+
+        raProfile = raProfileRepository.save(CmpEntityUtil.createRaProfile(authorityInstance));
+        cmpProfile = createCmpProfile("testCmpProfile", SHARED_SECRET);
+    }
+
+    @Test
+    void testConcurrentRequestsToDifferentProfiles() {
+        CmpProfile secondCmpProfile = createCmpProfile("secondCmpProfile", "s3c0ndS3cr3t");
+        Map<String, String> sharedSecrets = Map.of(
+                cmpProfile.getName(), SHARED_SECRET,
+                secondCmpProfile.getName(), "s3c0ndS3cr3t");
+
+        // requests for both profiles are served in parallel while the contexts are reloaded,
+        // each response must be protected by the shared secret of the requested profile
+        RequestAttributes requestAttributes = RequestContextHolder.currentRequestAttributes();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<CompletableFuture<Void>> requests = new ArrayList<>();
+            for (int i = 0; i < 40; i++) {
+                String profileName = i % 2 == 0 ? cmpProfile.getName() : secondCmpProfile.getName();
+                boolean invalidate = i % 10 == 0;
+                requests.add(CompletableFuture.runAsync(() -> {
+                    RequestContextHolder.setRequestAttributes(requestAttributes);
+                    try {
+                        if (invalidate) cmpContextCache.invalidateProfiles();
+                        String sharedSecret = sharedSecrets.get(profileName);
+                        ResponseEntity<byte[]> response = cmpService.handlePost(profileName, createCertConfRequest(sharedSecret));
+                        Assertions.assertTrue(isProtectedBy(response.getBody(), sharedSecret), "Response protected by other CMP profile");
+                    } catch (Exception e) {
+                        throw new CompletionException(e);
+                    } finally {
+                        RequestContextHolder.resetRequestAttributes();
+                    }
+                }, executor));
+            }
+            Assertions.assertDoesNotThrow(() -> CompletableFuture.allOf(requests.toArray(new CompletableFuture[0])).join());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testProfileUpdateInvalidatesContext() throws Exception {
+        ResponseEntity<byte[]> response = cmpService.handlePost(cmpProfile.getName(), createCertConfRequest(SHARED_SECRET));
+        Assertions.assertTrue(isProtectedBy(response.getBody(), SHARED_SECRET));
+
+        // shared secret changed through the profile service must be used by the next request
+        CmpProfileEditRequestDto request = new CmpProfileEditRequestDto();
+        request.setDescription("changed shared secret");
+        request.setVariant(CmpProfileVariant.V2);
+        request.setRequestProtectionMethod(ProtectionMethod.SHARED_SECRET);
+        request.setResponseProtectionMethod(ProtectionMethod.SHARED_SECRET);
+        request.setSharedSecret("ch@ng3dS3cr3t");
+        cmpProfileService.editCmpProfile(cmpProfile.getSecuredUuid(), request);
+        // RA profile is set separately, editing with RA profile validates its attributes by the connector
+        cmpProfileService.updateRaProfile(cmpProfile.getSecuredUuid(), raProfile.getUuid().toString());
+
+        response = cmpService.handlePost(cmpProfile.getName(), createCertConfRequest("ch@ng3dS3cr3t"));
+        Assertions.assertTrue(isProtectedBy(response.getBody(), "ch@ng3dS3cr3t"), "Response protected by outdated shared secret");
+        Assertions.assertFalse(isProtectedBy(response.getBody(), SHARED_SECRET));
+    }
+
+    private CmpProfile createCmpProfile(String name, String sharedSecret) {
+        CmpProfile profile = CmpEntityUtil.createCmpProfile(raProfile, sharedSecret);
+        profile.setName(name);
+        profile.setVariant(CmpProfileVariant.V2);
+        profile.setRequestProtectionMethod(ProtectionMethod.SHARED_SECRET);
+        return cmpProfileRepository.save(profile);
+    }
+
+    private static byte[] createCertConfRequest(String sharedSecret) throws Exception {
+        KeyPair keyPair = CmpTestUtil.generateKeyPairEC();
+        X509CertificateHolder certificate = CmpTestUtil.makeV3Certificate(BigInteger.ONE, keyPair, "CN=Test", keyPair, "CN=Test");
+        JcePKMACValuesCalculator pkmacValuesCalculator = new JcePKMACValuesCalculator();
+        pkmacValuesCalculator.setup(
+                new AlgorithmIdentifier(OIWObjectIdentifiers.idSHA1),
+                new AlgorithmIdentifier(PKCSObjectIdentifiers.id_hmacWithSHA1));
+        return new ProtectedPKIMessageBuilder(new GeneralName(new X500Name("CN=user")), new GeneralName(new X500Name("CN=ManagementCA")))
+                .setMessageTime(new Date())
+                .setSenderNonce(CertificateUtil.generateRandomBytes(16))
+                .setTransactionID(CertificateUtil.generateRandomBytes(16))
+                .setBody(CmpTestUtil.createCertConfBody(certificate, BigInteger.ONE))
+                .build(new PKMACBuilder(pkmacValuesCalculator).setIterationCount(1000).build(sharedSecret.toCharArray()))
+                .toASN1Structure()
+                .getEncoded();
+    }
+
+    private static boolean isProtectedBy(byte[] response, String sharedSecret) throws Exception {
+        ProtectedPKIMessage message = new ProtectedPKIMessage(new GeneralPKIMessage(response));
+        return message.hasPasswordBasedMacProtection()
+                && message.verify(new PKMACBuilder(new JcePKMACValuesCalculator()), sharedSecret.toCharArray());
+    }
+}
@@ -0,0 +1,54 @@
+package com.czertainly.core.service.cmp.configurations;
+
+import com.czertainly.api.model.core.cmp.ProtectionMethod;
+import com.czertainly.core.dao.entity.cmp.CmpProfile;
+import com.czertainly.core.util.CertificateUtil;
+import com.czertainly.core.util.SecretsUtil;
+import org.bouncycastle.asn1.nist.NISTObjectIdentifiers;
+import org.bouncycastle.asn1.x509.AlgorithmIdentifier;
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.security.MessageDigest;
+import java.security.Security;
+import java.util.Arrays;
+import java.util.List;
+
+class CmpProfileContextTest {
+
+    private static final AlgorithmIdentifier SHA256 = new AlgorithmIdentifier(NISTObjectIdentifiers.id_sha256);
+
+    @BeforeAll
+    static void setUp() {
+        Security.addProvider(new BouncyCastleProvider());
+        new SecretsUtil().setEncryptionKeyStatic("testEncryptionKey");
+    }
+
+    @Test
+    void testPbmBaseKeyDerivedFromSharedSecret() throws Exception {
+        CmpProfileContext profile = createContext();
+        byte[] salt = CertificateUtil.generateRandomBytes(20);
+
+        byte[] baseKey = profile.getPbmBaseKey(salt, 1000, SHA256);
+        Assertions.assertFalse(Arrays.equals(baseKey, profile.getPbmBaseKey(salt, 999, SHA256)));
+
+        byte[] expected = new byte[profile.getSharedSecret().length + salt.length];
+        System.arraycopy(profile.getSharedSecret(), 0, expected, 0, profile.getSharedSecret().length);
+        System.arraycopy(salt, 0, expected, profile.getSharedSecret().length, salt.length);
+        MessageDigest digest = MessageDigest.getInstance("SHA-256");
+        for (int i = 0; i < 1000; i++) {
+            expected = digest.digest(expected);
+        }
+        Assertions.assertArrayEquals(expected, baseKey);
+    }
+
+    private static CmpProfileContext createContext() {
+        CmpProfile cmpProfile = new CmpProfile();
+        cmpProfile.setName("profile");
+        cmpProfile.setResponseProtectionMethod(ProtectionMethod.SHARED_SECRET);
+        cmpProfile.setSharedSecret("sh@r3dS3cr3t");
+        return new CmpProfileContext(cmpProfile, null, List.of(), List.of());
+    }
+}
@@ -0,0 +1,113 @@
+package com.czertainly.core.service.handler;
+
+import com.czertainly.api.model.connector.discovery.DiscoveryProviderCertificateDataDto;
+import com.czertainly.api.model.core.discovery.DiscoveryStatus;
+import com.czertainly.core.dao.entity.Certificate;
+import com.czertainly.core.dao.entity.DiscoveryCertificate;
+import com.czertainly.core.dao.entity.DiscoveryHistory;
+import com.czertainly.core.dao.repository.CertificateContentRepository;
+import com.czertainly.core.dao.repository.DiscoveryCertificateRepository;
+import com.czertainly.core.dao.repository.DiscoveryRepository;
+import com.czertainly.core.helpers.CertificateGeneratorHelper;
+import com.czertainly.core.service.CertificateService;
+import com.czertainly.core.util.BaseSpringBootTest;
+import com.czertainly.core.util.CertificateUtil;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Pageable;
+
+import java.security.cert.X509Certificate;
+import java.util.Base64;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+class CertificateHandlerTest extends BaseSpringBootTest {
+
+    @Autowired
+    private CertificateHandler certificateHandler;
+    @Autowired
+    private CertificateService certificateService;
+
+    @Autowired
+    private DiscoveryRepository discoveryRepository;
+    @Autowired
+    private DiscoveryCertificateRepository discoveryCertificateRepository;
+    @Autowired
+    private CertificateContentRepository certificateContentRepository;
+
+    private DiscoveryHistory discovery;
+
+    @BeforeEach
+    void setUp() {
+        discovery = new DiscoveryHistory();
+        discovery.setName("bulkDiscovery");
+        discovery.setConnectorUuid(UUID.randomUUID());
+        discovery.setConnectorName("discoveryProviderConnector");
+        discovery.setStatus(DiscoveryStatus.IN_PROGRESS);
+        discovery.setConnectorStatus(DiscoveryStatus.COMPLETED);
+        discovery.setConnectorTotalCertificatesDiscovered(5);
+        discovery = discoveryRepository.save(discovery);
+    }
+
+    @Test
+    void testCreateDiscoveredCertificates() throws Exception {
+        X509Certificate existingX509 = CertificateGeneratorHelper.generateCACertificate(null, "CN=existing");
+        X509Certificate newX509 = CertificateGeneratorHelper.generateCACertificate(null, "CN=new");
+        Certificate existingCertificate = certificateService.checkCreateCertificate(encode(existingX509));
+        long contentsCount = certificateContentRepository.count();
+
+        // same new certificate is twice in the page, last item cannot be parsed
+        List<DiscoveryProviderCertificateDataDto> page = List.of(
+                certificateData(encode(existingX509)),
+                certificateData(encode(newX509)),
+                certificateData(encode(newX509)),
+                certificateData("invalidCertificate"));
+        AtomicInteger downloadedCount = new AtomicInteger(1);
+        certificateHandler.createDiscoveredCertificate("1", discovery, page, downloadedCount);
+
+        // unparseable certificate is skipped, progress counts stored discovery certificates
+        Assertions.assertEquals(4, downloadedCount.get());
+        Assertions.assertEquals(3, discoveryCertificateRepository.countByDiscovery(discovery));
+        Assertions.assertTrue(discoveryRepository.findByUuid(discovery.getUuid()).orElseThrow().getMessage().contains("(4 / 5)"));
+
+        // existing certificate is linked to its content and already processed
+        List<DiscoveryCertificate> existingDiscoveryCertificates = discoveryCertificateRepository.findByDiscoveryUuidAndNewlyDiscovered(discovery.getUuid(), false, Pageable.unpaged());
+        Assertions.assertEquals(1, existingDiscoveryCertificates.size());
+        Assertions.assertTrue(existingDiscoveryCertificates.getFirst().isProcessed());
+        Assertions.assertEquals(existingCertificate.getCertificateContentId(), existingDiscoveryCertificates.getFirst().getCertificateContentId());
+
+        // duplicates of new certificate share one inserted content
+        List<DiscoveryCertificate> newDiscoveryCertificates = discoveryCertificateRepository.findByDiscoveryUuidAndNewlyDiscovered(discovery.getUuid(), true, Pageable.unpaged());
+        Assertions.assertEquals(2, newDiscoveryCertificates.size());
+        Assertions.assertEquals(contentsCount + 1, certificateContentRepository.count());
+        Long newContentId = certificateContentRepository.findByFingerprint(CertificateUtil.getThumbprint(newX509)).getId();
+        newDiscoveryCertificates.forEach(discoveryCertificate -> {
+            Assertions.assertFalse(discoveryCertificate.isProcessed());
+            Assertions.assertEquals(newContentId, discoveryCertificate.getCertificateContentId());
+        });
+    }
+
+    @Test
+    void testCreateDiscoveredCertificatesOnlyUnparseable() {
+        AtomicInteger downloadedCount = new AtomicInteger();
+        certificateHandler.createDiscoveredCertificate("1", discovery, List.of(certificateData("invalidCertificate")), downloadedCount);
+
+        Assertions.assertEquals(0, downloadedCount.get());
+        Assertions.assertEquals(0, discoveryCertificateRepository.countByDiscovery(discovery));
+        Assertions.assertTrue(discoveryRepository.findByUuid(discovery.getUuid()).orElseThrow().getMessage().contains("(0 / 5)"));
+    }
+
+    private static String encode(X509Certificate certificate) throws Exception {
+        return Base64.getEncoder().encodeToString(certificate.getEncoded());
+    }
+
+    private static DiscoveryProviderCertificateDataDto certificateData(String base64Content) {
+        DiscoveryProviderCertificateDataDto certificateData = new DiscoveryProviderCertificateDataDto();
+        certificateData.setUuid(UUID.randomUUID().toString());
+        certificateData.setBase64Content(base64Content);
+        return certificateData;
+    }
+}
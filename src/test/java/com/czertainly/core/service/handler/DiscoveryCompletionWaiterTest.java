@@ -0,0 +1,71 @@
+package com.czertainly.core.service.handler;
+
+import com.czertainly.api.model.connector.discovery.DiscoveryProviderDto;
+import com.czertainly.api.model.core.discovery.DiscoveryStatus;
+import com.czertainly.core.service.DiscoveryProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.*;
+
+class DiscoveryCompletionWaiterTest {
+
+    private DiscoveryCompletionWaiter waiter;
+
+    @BeforeEach
+    void setUp() {
+        waiter = new DiscoveryCompletionWaiter(new DiscoveryProperties(0, 0, 10, 40, 0, false));
+    }
+
+    @AfterEach
+    void tearDown() {
+        waiter.shutdown();
+    }
+
+    @Test
+    void awaitCompletion_pollsUntilDiscoveryIsNotInProgress() throws Exception {
+        AtomicInteger polls = new AtomicInteger();
+        CompletableFuture<DiscoveryProviderDto> completion = waiter.awaitCompletion("provider-discovery",
+                () -> response(polls.incrementAndGet() < 4 ? DiscoveryStatus.IN_PROGRESS : DiscoveryStatus.COMPLETED));
+
+        assertThat(completion.get(5, TimeUnit.SECONDS).getStatus()).isEqualTo(DiscoveryStatus.COMPLETED);
+        assertThat(polls.get()).isEqualTo(4);
+        assertThat(waiter.signalCompletion("provider-discovery")).isFalse();
+    }
+
+    @Test
+    void signalCompletion_pollsWithoutWaitingForBackoff() throws Exception {
+        DiscoveryCompletionWaiter slowWaiter = new DiscoveryCompletionWaiter(new DiscoveryProperties(0, 0, 60000, 60000, 0, false));
+        try {
+            CompletableFuture<DiscoveryProviderDto> completion = slowWaiter.awaitCompletion("provider-discovery", () -> response(DiscoveryStatus.COMPLETED));
+
+            assertThat(slowWaiter.signalCompletion("provider-discovery")).isTrue();
+            assertThat(completion.get(5, TimeUnit.SECONDS).getStatus()).isEqualTo(DiscoveryStatus.COMPLETED);
+        } finally {
+            slowWaiter.shutdown();
+        }
+    }
+
+    @Test
+    void awaitCompletion_failsWhenPollFails() {
+        CompletableFuture<DiscoveryProviderDto> completion = waiter.awaitCompletion("provider-discovery", () -> {
+            throw new IllegalStateException("Provider is not available");
+        });
+
+        assertThatThrownBy(() -> completion.get(5, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(IllegalStateException.class);
+    }
+
+    private static DiscoveryProviderDto response(DiscoveryStatus status) {
+        DiscoveryProviderDto response = new DiscoveryProviderDto();
+        response.setStatus(status);
+        return response;
+    }
+}
@@ -0,0 +1,114 @@
+package com.czertainly.core.service.handler;
+
+import com.czertainly.core.service.DiscoveryConcurrencyProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DiscoveryConcurrencyControllerTest {
+
+    private MeterRegistry meterRegistry;
+    private DiscoveryConcurrencyController controller;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        // limits start from half of the maximum, i.e. 4
+        controller = new DiscoveryConcurrencyController(new DiscoveryConcurrencyProperties(8, 8, 2.0, 0.8), null, meterRegistry);
+    }
+
+    @Test
+    void concurrentDiscoveries_shareConnectorLimitFairly() throws Exception {
+        UUID connectorUuid = UUID.randomUUID();
+        try (DiscoveryConcurrencyController.DiscoveryRun largeRun = controller.startDownload(UUID.randomUUID(), connectorUuid, 10);
+             DiscoveryConcurrencyController.DiscoveryRun smallRun = controller.startDownload(UUID.randomUUID(), connectorUuid, 10)) {
+            DiscoveryConcurrencyController.Permit first = largeRun.acquireProvider();
+            largeRun.acquireProvider();
+
+            CompletableFuture<DiscoveryConcurrencyController.Permit> third = acquireAsync(largeRun);
+            assertThat(waitForCompletion(third)).isFalse();
+
+            // other discovery still gets its share
+            smallRun.acquireProvider();
+            smallRun.acquireProvider();
+
+            first.release(true);
+            assertThat(third.get(5, TimeUnit.SECONDS)).isNotNull();
+        }
+    }
+
+    @Test
+    void discoveryLimitedByItsMaximumConcurrency() throws Exception {
+        try (DiscoveryConcurrencyController.DiscoveryRun run = controller.startDownload(UUID.randomUUID(), UUID.randomUUID(), 1)) {
+            run.acquireProvider();
+
+            assertThat(waitForCompletion(acquireAsync(run))).isFalse();
+        }
+    }
+
+    @Test
+    void failedRequest_decreasesLimit() throws Exception {
+        try (DiscoveryConcurrencyController.DiscoveryRun run = controller.startProcessing(UUID.randomUUID())) {
+            assertThat(getLimit("storage")).isEqualTo(4);
+
+            run.acquireStorage().release(false);
+
+            assertThat(getLimit("storage")).isEqualTo(3);
+        }
+    }
+
+    @Test
+    void closedRun_returnsPermitsAndRemovesMetrics() throws Exception {
+        UUID discoveryUuid = UUID.randomUUID();
+        DiscoveryConcurrencyController.DiscoveryRun run = controller.startProcessing(discoveryUuid);
+        DiscoveryConcurrencyController.Permit permit = run.acquireStorage();
+        run.acquireStorage();
+        assertThat(meterRegistry.find("czertainly.discovery.concurrency.run.inflight").tag("discovery", discoveryUuid.toString()).gauge().value()).isEqualTo(2);
+
+        run.close();
+        // releasing permit of closed run has no effect
+        permit.release(true);
+
+        assertThat(meterRegistry.find("czertainly.discovery.concurrency.run.inflight").tag("discovery", discoveryUuid.toString()).gauge()).isNull();
+        assertThat(meterRegistry.find("czertainly.discovery.concurrency.inflight").tag("limiter", "storage").gauge().value()).isZero();
+        try (DiscoveryConcurrencyController.DiscoveryRun nextRun = controller.startProcessing(UUID.randomUUID())) {
+            for (int i = 0; i < 4; i++) {
+                nextRun.acquireStorage();
+            }
+            assertThat(waitForCompletion(CompletableFuture.supplyAsync(() -> {
+                try {
+                    return nextRun.acquireStorage();
+                } catch (InterruptedException e) {
+                    throw new CompletionException(e);
+                }
+            }))).isFalse();
+        }
+    }
+
+    private int getLimit(String limiter) {
+        return (int) meterRegistry.find("czertainly.discovery.concurrency.limit").tag("limiter", limiter).gauge().value();
+    }
+
+    private static CompletableFuture<DiscoveryConcurrencyController.Permit> acquireAsync(DiscoveryConcurrencyController.DiscoveryRun run) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return run.acquireProvider();
+            } catch (InterruptedException e) {
+                throw new CompletionException(e);
+            }
+        });
+    }
+
+    private static boolean waitForCompletion(CompletableFuture<?> future) throws InterruptedException {
+        Thread.sleep(200);
+        return future.isDone();
+    }
+}
@@ -0,0 +1,40 @@
+package com.czertainly.core.service.scep;
+
+import com.czertainly.api.model.client.attribute.RequestAttribute;
+import com.czertainly.api.model.client.attribute.RequestAttributeV2;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.UUID;
+
+class ScepProfileContextTest {
+
+    @Test
+    void testContextNotModifiedByCallers() {
+        byte[] caCertificates = new byte[]{1, 2, 3};
+        Properties intuneConfiguration = new Properties();
+        intuneConfiguration.put("TENANT", "tenant");
+        List<RequestAttribute> issueAttributes = new ArrayList<>();
+
+        ScepProfileContext context = new ScepProfileContext(false, UUID.randomUUID(), "profile", UUID.randomUUID(), "raProfile", UUID.randomUUID(),
+                null, caCertificates, "application/x-x509-ca-cert", null, null, null, null, false, false, false, null, intuneConfiguration, issueAttributes);
+
+        // components passed to the context are copied
+        caCertificates[0] = 0;
+        intuneConfiguration.put("TENANT", "other");
+        issueAttributes.add(new RequestAttributeV2());
+        Assertions.assertArrayEquals(new byte[]{1, 2, 3}, context.caCertificates());
+        Assertions.assertEquals("tenant", context.intuneConfiguration().get("TENANT"));
+        Assertions.assertTrue(context.issueAttributes().isEmpty());
+
+        // components returned by the context are copies or cannot be modified
+        context.caCertificates()[0] = 0;
+        context.intuneConfiguration().put("TENANT", "other");
+        Assertions.assertArrayEquals(new byte[]{1, 2, 3}, context.caCertificates());
+        Assertions.assertEquals("tenant", context.intuneConfiguration().get("TENANT"));
+        Assertions.assertThrows(UnsupportedOperationException.class, () -> context.issueAttributes().add(new RequestAttributeV2()));
+    }
+}
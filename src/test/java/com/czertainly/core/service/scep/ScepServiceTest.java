@@ -14,21 +14,37 @@ import com.czertainly.core.dao.entity.*;
 import com.czertainly.core.dao.entity.scep.ScepProfile;
 import com.czertainly.core.dao.repository.*;
 import com.czertainly.core.dao.repository.scep.ScepProfileRepository;
+import com.czertainly.core.helpers.CertificateGeneratorHelper;
+import com.czertainly.core.service.RaProfileService;
+import com.czertainly.core.service.ScepProfileService;
 import com.czertainly.core.service.scep.impl.ScepServiceImpl;
 import com.czertainly.core.util.BaseSpringBootTest;
+import com.czertainly.core.util.CertificateUtil;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
 
-import java.util.HashSet;
-import java.util.List;
-import java.util.Set;
+import java.security.cert.X509Certificate;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 class ScepServiceTest extends BaseSpringBootTest {
 
     @Autowired
     private ScepService scepService;
+    @Autowired
+    private ScepProfileService scepProfileService;
+    @Autowired
+    private RaProfileService raProfileService;
+    @Autowired
+    private ScepContextCache scepContextCache;
 
     @Autowired
     private ScepProfileRepository scepProfileRepository;
@@ -49,9 +65,11 @@ class ScepServiceTest extends BaseSpringBootTest {
     @Autowired
     private CryptographicKeyItemRepository cryptographicKeyItemRepository;
 
+    private AuthorityInstanceReference authorityInstance;
     private RaProfile raProfile;
     private ScepProfile scepProfile;
     private Certificate certificate;
+    private CryptographicKey key;
 
     @BeforeEach
     void setUp() {
@@ -61,7 +79,7 @@ class ScepServiceTest extends BaseSpringBootTest {
         connector.setStatus(ConnectorStatus.CONNECTED);
         connector = connectorRepository.save(connector);
 
-        AuthorityInstanceReference authorityInstance = new AuthorityInstanceReference();
+        authorityInstance = new AuthorityInstanceReference();
         authorityInstance.setName("TestAuthority");
         authorityInstance.setConnector(connector);
         authorityInstance.setConnectorUuid(connector.getUuid());
@@ -74,7 +92,7 @@ class ScepServiceTest extends BaseSpringBootTest {
         raProfile.setAuthorityInstanceReference(authorityInstance);
         raProfileRepository.save(raProfile);
 
-        CryptographicKey key = new CryptographicKey();
+        key = new CryptographicKey();
         key.setName("testKey1");
         key.setDescription("initial description");
         cryptographicKeyRepository.save(key);
@@ -204,5 +222,92 @@ class ScepServiceTest extends BaseSpringBootTest {
         Assertions.assertThrows(ScepException.class, () -> scepService.handleGet(scepProfile.getName(), ScepServiceImpl.SCEP_OPERATION_PKI_OPERATION, "Wrong message"));
     }
 
+    @Test
+    void testConcurrentRequestsToDifferentProfiles() throws Exception {
+        raProfile.setEnabled(true);
+        raProfileRepository.save(raProfile);
+
+        X509Certificate secondCaCertificate = CertificateGeneratorHelper.generateCACertificate(null, "CN=secondScepCa");
+        ScepProfile secondScepProfile = createScepProfile("secondProfile", createCaCertificate(secondCaCertificate));
+        Map<String, byte[]> expectedCaCertificates = Map.of(
+                scepProfile.getName(), CertificateUtil.parseCertificate(certificate.getCertificateContent().getContent()).getEncoded(),
+                secondScepProfile.getName(), secondCaCertificate.getEncoded());
+
+        // requests for both profiles are served in parallel while the contexts are reloaded
+        RequestAttributes requestAttributes = RequestContextHolder.currentRequestAttributes();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<CompletableFuture<Void>> requests = new ArrayList<>();
+            for (int i = 0; i < 40; i++) {
+                String profileName = i % 2 == 0 ? scepProfile.getName() : secondScepProfile.getName();
+                boolean invalidate = i % 10 == 0;
+                requests.add(CompletableFuture.runAsync(() -> {
+                    RequestContextHolder.setRequestAttributes(requestAttributes);
+                    try {
+                        if (invalidate) scepContextCache.invalidateProfiles();
+                        ResponseEntity<Object> response = scepService.handleGet(profileName, ScepServiceImpl.SCEP_OPERATION_GET_CA_CERT, null);
+                        Assertions.assertArrayEquals(expectedCaCertificates.get(profileName), (byte[]) response.getBody(), "CA certificate of other SCEP profile returned");
+                    } catch (ScepException e) {
+                        throw new CompletionException(e);
+                    } finally {
+                        RequestContextHolder.resetRequestAttributes();
+                    }
+                }, executor));
+            }
+            Assertions.assertDoesNotThrow(() -> CompletableFuture.allOf(requests.toArray(new CompletableFuture[0])).join());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testProfileUpdateInvalidatesContext() throws Exception {
+        raProfile.setEnabled(true);
+        raProfileRepository.save(raProfile);
+        Assertions.assertDoesNotThrow(() -> scepService.handleGet(scepProfile.getName(), ScepServiceImpl.SCEP_OPERATION_GET_CA_CERT, null));
+
+        // cached context must not outlive the SCEP profile being disabled and enabled again
+        scepProfileService.disableScepProfile(scepProfile.getSecuredUuid());
+        ScepException exception = Assertions.assertThrows(ScepException.class, () -> scepService.handleGet(scepProfile.getName(), ScepServiceImpl.SCEP_OPERATION_GET_CA_CERT, null));
+        Assertions.assertEquals("SCEP Profile is not enabled", exception.getMessage());
+        scepProfileService.enableScepProfile(scepProfile.getSecuredUuid());
+        Assertions.assertDoesNotThrow(() -> scepService.handleGet(scepProfile.getName(), ScepServiceImpl.SCEP_OPERATION_GET_CA_CERT, null));
+
+        // nor the RA profile being disabled
+        raProfileService.disableRaProfile(authorityInstance.getSecuredParentUuid(), raProfile.getSecuredUuid());
+        exception = Assertions.assertThrows(ScepException.class, () -> scepService.handleGet(scepProfile.getName(), ScepServiceImpl.SCEP_OPERATION_GET_CA_CERT, null));
+        Assertions.assertEquals("RA Profile is not enabled", exception.getMessage());
+    }
+
+    private Certificate createCaCertificate(X509Certificate x509Certificate) throws Exception {
+        CertificateContent certificateContent = new CertificateContent();
+        certificateContent.setContent(Base64.getEncoder().encodeToString(x509Certificate.getEncoded()));
+        certificateContent.setFingerprint(CertificateUtil.getThumbprint(x509Certificate));
+        certificateContent = certificateContentRepository.save(certificateContent);
+
+        Certificate caCertificate = new Certificate();
+        caCertificate.setSubjectDn(x509Certificate.getSubjectX500Principal().getName());
+        caCertificate.setIssuerDn(x509Certificate.getIssuerX500Principal().getName());
+        caCertificate.setSerialNumber(x509Certificate.getSerialNumber().toString(16));
+        caCertificate.setCertificateContent(certificateContent);
+        caCertificate.setCertificateContentId(certificateContent.getId());
+        caCertificate.setFingerprint(certificateContent.getFingerprint());
+        caCertificate.setState(CertificateState.ISSUED);
+        caCertificate.setValidationStatus(CertificateValidationStatus.VALID);
+        caCertificate.setKey(key);
+        return certificateRepository.save(caCertificate);
+    }
+
+    private ScepProfile createScepProfile(String name, Certificate caCertificate) {
+        ScepProfile profile = new ScepProfile();
+        profile.setName(name);
+        profile.setRequireManualApproval(false);
+        profile.setChallengePassword("test123");
+        profile.setIncludeCaCertificate(true);
+        profile.setEnabled(true);
+        profile.setCaCertificate(caCertificate);
+        profile.setRaProfile(raProfile);
+        return scepProfileRepository.save(profile);
+    }
 
 }
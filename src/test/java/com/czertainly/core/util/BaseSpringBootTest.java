@@ -3,6 +3,7 @@ package com.czertainly.core.util;
 import com.czertainly.api.model.core.auth.UserDto;
 import com.czertainly.api.model.core.auth.UserProfileDto;
 import com.czertainly.api.model.core.logging.enums.AuthMethod;
+import com.czertainly.core.attribute.engine.AttributeDefinitionCache;
 import com.czertainly.core.messaging.jms.producers.AuditLogsProducer;
 import com.czertainly.core.security.authn.CzertainlyAuthenticationToken;
 import com.czertainly.core.security.authn.CzertainlyUserDetails;
@@ -10,6 +11,9 @@ import com.czertainly.core.security.authn.client.AuthenticationInfo;
 import com.czertainly.core.security.authz.opa.OpaClient;
 import com.czertainly.core.security.authz.opa.dto.OpaObjectAccessResult;
 import com.czertainly.core.security.authz.opa.dto.OpaResourceAccessResult;
+import com.czertainly.core.service.acme.AcmeContextCache;
+import com.czertainly.core.service.cmp.configurations.CmpContextCache;
+import com.czertainly.core.service.scep.ScepContextCache;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
@@ -42,6 +46,18 @@ public class BaseSpringBootTest {
     @Autowired
     private JdbcTemplate jdbcTemplate;
 
+    @Autowired
+    private AttributeDefinitionCache attributeDefinitionCache;
+
+    @Autowired
+    private AcmeContextCache acmeContextCache;
+
+    @Autowired
+    private ScepContextCache scepContextCache;
+
+    @Autowired
+    private CmpContextCache cmpContextCache;
+
     @BeforeEach
     public void setupAuth() throws SQLException {
         mockSuccessfulCheckResourceAccess();
@@ -50,6 +66,8 @@ public class BaseSpringBootTest {
 
         // clean DB tables data before each test
         truncateTables();
+        // clean in-memory caches of the cleaned data
+        clearCaches();
         // clean context
         MDC.clear();
     }
@@ -80,6 +98,14 @@ public class BaseSpringBootTest {
         }
     }
 
+    private void clearCaches() {
+        attributeDefinitionCache.invalidateAll();
+        acmeContextCache.invalidateProfiles();
+        acmeContextCache.invalidateAccounts();
+        scepContextCache.invalidateProfiles();
+        cmpContextCache.invalidateProfiles();
+    }
+
     protected void mockSuccessfulCheckResourceAccess() {
         OpaResourceAccessResult accessAllowed = new OpaResourceAccessResult();
         accessAllowed.setAuthorized(true);
@@ -2,15 +2,48 @@ package com.czertainly.core.util;
 
 import com.czertainly.api.model.connector.secrets.content.*;
 import com.fasterxml.jackson.core.JsonProcessingException;
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
 import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 
 import java.security.NoSuchAlgorithmException;
+import java.security.Security;
+import java.util.Base64;
 import java.util.HashMap;
 import java.util.Map;
 
 class SecretsUtilTest {
 
+    @BeforeAll
+    static void setUp() {
+        Security.addProvider(new BouncyCastleProvider());
+        new SecretsUtil().setEncryptionKeyStatic("testEncryptionKey");
+    }
+
+    @Test
+    void testEncryptionVersions() {
+        String secret = "secretValue";
+
+        String encodedV1 = SecretsUtil.encryptAndEncodeSecretString(secret, SecretEncodingVersion.V1);
+        Assertions.assertTrue(encodedV1.startsWith("v1|"));
+        Assertions.assertEquals(secret, SecretsUtil.decodeAndDecryptSecretString(encodedV1));
+        Assertions.assertEquals(secret, SecretsUtil.decodeAndDecryptSecretString(encodedV1, SecretEncodingVersion.V1));
+
+        String encodedV2 = SecretsUtil.encryptAndEncodeSecretString(secret, SecretEncodingVersion.V2);
+        Assertions.assertTrue(encodedV2.startsWith("v2|"));
+        Assertions.assertEquals(secret, SecretsUtil.decodeAndDecryptSecretString(encodedV2));
+        // each secret is encrypted with different nonce
+        Assertions.assertNotEquals(encodedV2, SecretsUtil.encryptAndEncodeSecretString(secret, SecretEncodingVersion.V2));
+
+        // tampered secret cannot be authenticated
+        String[] parts = encodedV2.split("\\|");
+        byte[] encrypted = Base64.getDecoder().decode(parts[2]);
+        encrypted[0] ^= 1;
+        String tampered = parts[0] + "|" + parts[1] + "|" + Base64.getEncoder().encodeToString(encrypted);
+        Assertions.assertThrows(IllegalStateException.class, () -> SecretsUtil.decodeAndDecryptSecretString(tampered));
+    }
+
     @Test
     void testFingerprintCalculation() throws NoSuchAlgorithmException, JsonProcessingException {
 
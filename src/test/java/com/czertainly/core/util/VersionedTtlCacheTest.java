@@ -0,0 +1,106 @@
+package com.czertainly.core.util;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+class VersionedTtlCacheTest {
+
+    @Test
+    void testValueCachedUntilInvalidated() {
+        VersionedTtlCache<String, String> cache = new VersionedTtlCache<>("Test", Duration.ofMinutes(1));
+        AtomicInteger loads = new AtomicInteger();
+
+        Assertions.assertEquals("value", cache.get("key", () -> countLoad(loads, "value")));
+        Assertions.assertEquals("value", cache.get("key", () -> countLoad(loads, "other")));
+        Assertions.assertEquals("value", cache.getIfPresent("key"));
+        Assertions.assertEquals(1, loads.get());
+
+        cache.invalidate("key");
+        Assertions.assertNull(cache.getIfPresent("key"));
+        Assertions.assertEquals("other", cache.get("key", () -> countLoad(loads, "other")));
+        Assertions.assertEquals(2, loads.get());
+
+        cache.get("another", () -> countLoad(loads, "value"));
+        cache.removeIf(key -> key.startsWith("an"));
+        Assertions.assertNull(cache.getIfPresent("another"));
+        Assertions.assertEquals("other", cache.getIfPresent("key"));
+
+        cache.invalidateAll();
+        Assertions.assertEquals(0, cache.size());
+    }
+
+    @Test
+    void testValueLoadedDuringInvalidationNotCached() {
+        VersionedTtlCache<String, String> cache = new VersionedTtlCache<>("Test", Duration.ofMinutes(1));
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.get("key", () -> {
+            cache.invalidate("other");
+            return countLoad(loads, "value");
+        });
+        Assertions.assertNull(cache.getIfPresent("key"));
+        cache.get("key", () -> countLoad(loads, "value"));
+        Assertions.assertEquals(2, loads.get());
+    }
+
+    @Test
+    void testFailedLoadNotCached() {
+        VersionedTtlCache<String, String> cache = new VersionedTtlCache<>("Test", Duration.ofMinutes(1));
+
+        Assertions.assertThrows(Exception.class, () -> cache.get("key", () -> {
+            throw new Exception("Profile is not enabled");
+        }));
+        Assertions.assertNull(cache.getIfPresent("key"));
+    }
+
+    @Test
+    void testZeroTtlDisablesCaching() {
+        VersionedTtlCache<String, String> cache = new VersionedTtlCache<>("Test", Duration.ZERO);
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.get("key", () -> countLoad(loads, "value"));
+        cache.get("key", () -> countLoad(loads, "value"));
+        Assertions.assertEquals(2, loads.get());
+        Assertions.assertEquals(0, cache.size());
+    }
+
+    @Test
+    void testInvalidatedAgainAfterTransactionCompletes() {
+        VersionedTtlCache<String, String> cache = new VersionedTtlCache<>("Test", Duration.ofMinutes(1));
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            cache.invalidate("key");
+            // value loaded before the writing transaction commits
+            cache.get("key", () -> "stale");
+            Assertions.assertEquals("stale", cache.getIfPresent("key"));
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+            Assertions.assertNull(cache.getIfPresent("key"));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void testCacheClearedWhenLimitReached() {
+        VersionedTtlCache<Integer, Integer> cache = new VersionedTtlCache<>("Test", Duration.ofMinutes(1));
+        for (int i = 0; i < VersionedTtlCache.MAX_CACHED_ENTRIES; i++) {
+            int value = i;
+            cache.get(i, () -> value);
+        }
+        Assertions.assertEquals(VersionedTtlCache.MAX_CACHED_ENTRIES, cache.size());
+
+        cache.get(-1, () -> -1);
+        Assertions.assertEquals(1, cache.size());
+    }
+
+    private static String countLoad(AtomicInteger loads, String value) {
+        loads.incrementAndGet();
+        return value;
+    }
+}